@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the dispatch of CGLIB proxy invocations through the
+ * {@code DynamicAdvisedInterceptor} of a mutable configuration, the fixed
+ * chains of a frozen configuration, and the generated chains of a frozen
+ * configuration with {@link ProxyConfig#setGenerateInterceptorChains}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class CglibInterceptorChainBenchmark {
+
+	@Benchmark
+	public String invokeWithoutArguments(BenchmarkData data) {
+		return data.proxy.getName();
+	}
+
+	@Benchmark
+	public int invokeWithPrimitiveArguments(BenchmarkData data) {
+		return data.proxy.add(data.count, 1);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"dynamic", "fixed", "generated"})
+		public String dispatch;
+
+		@Param({"1", "2", "5"})
+		public int interceptors;
+
+		public int count = 42;
+
+		public Service proxy;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			ProxyFactory proxyFactory = new ProxyFactory(new Service());
+			proxyFactory.setProxyTargetClass(true);
+			for (int i = 0; i < this.interceptors; i++) {
+				// Alternate between two interceptor types, as for transactions and caching
+				proxyFactory.addAdvice(i % 2 == 0 ? new FirstInterceptor() : new SecondInterceptor());
+			}
+			proxyFactory.setFrozen(!"dynamic".equals(this.dispatch));
+			proxyFactory.setGenerateInterceptorChains("generated".equals(this.dispatch));
+			this.proxy = (Service) proxyFactory.getProxy();
+		}
+	}
+
+
+	public static class Service {
+
+		public String getName() {
+			return "service";
+		}
+
+		public int add(int a, int b) {
+			return a + b;
+		}
+	}
+
+
+	private static class FirstInterceptor implements MethodInterceptor {
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			return invocation.proceed();
+		}
+	}
+
+
+	private static class SecondInterceptor implements MethodInterceptor {
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			return invocation.proceed();
+		}
+	}
+
+}
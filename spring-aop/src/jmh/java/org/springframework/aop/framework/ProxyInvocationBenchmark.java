@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for invocations through JDK and CGLIB proxies with a chain of
+ * pass-through interceptors, as applied for transactions, caching, metrics
+ * and security. Run with {@code -prof gc} to see the allocations per call.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ProxyInvocationBenchmark {
+
+	@Benchmark
+	public String invokeWithoutArguments(BenchmarkData data) {
+		return data.proxy.getName();
+	}
+
+	@Benchmark
+	public String invokeWithArguments(BenchmarkData data) {
+		return data.proxy.greet("Juergen", 42);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"jdk", "cglib"})
+		public String proxyType;
+
+		@Param({"frozen", "mutable"})
+		public String configuration;
+
+		@Param({"1", "5"})
+		public int interceptors;
+
+		public Service proxy;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			ProxyFactory proxyFactory = new ProxyFactory(new DefaultService());
+			if ("jdk".equals(this.proxyType)) {
+				proxyFactory.addInterface(Service.class);
+			}
+			else {
+				proxyFactory.setProxyTargetClass(true);
+			}
+			for (int i = 0; i < this.interceptors; i++) {
+				proxyFactory.addAdvice((MethodInterceptor) invocation -> invocation.proceed());
+			}
+			proxyFactory.setFrozen("frozen".equals(this.configuration));
+			this.proxy = (Service) proxyFactory.getProxy();
+		}
+	}
+
+
+	public interface Service {
+
+		String getName();
+
+		String greet(String name, int count);
+	}
+
+
+	public static class DefaultService implements Service {
+
+		@Override
+		public String getName() {
+			return "service";
+		}
+
+		@Override
+		public String greet(String name, int count) {
+			return name;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -125,6 +125,9 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	@Nullable
 	private transient PointcutExpression pointcutExpression;
 
+	@Nullable
+	private transient ClassFilter candidateClassFilter;
+
 	private transient Map<Method, ShadowMatch> shadowMatchCache = new ConcurrentHashMap<>(32);
 
 
@@ -287,6 +290,9 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	@Override
 	public boolean matches(Class<?> targetClass) {
 		PointcutExpression pointcutExpression = obtainPointcutExpression();
+		if (!obtainCandidateClassFilter(pointcutExpression).matches(targetClass)) {
+			return false;
+		}
 		try {
 			try {
 				return pointcutExpression.couldMatchJoinPointsInType(targetClass);
@@ -306,6 +312,26 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		return false;
 	}
 
+	/**
+	 * Obtain the cheap class-level filter derived from the structure of the
+	 * given pointcut expression, ruling out classes without any annotation
+	 * or declaring type that the pointcut requires.
+	 */
+	private ClassFilter obtainCandidateClassFilter(PointcutExpression pointcutExpression) {
+		ClassFilter candidateClassFilter = this.candidateClassFilter;
+		if (candidateClassFilter == null) {
+			try {
+				candidateClassFilter = CandidateClassFilters.forExpression(pointcutExpression, this.pointcutClassLoader);
+			}
+			catch (Throwable ex) {
+				logger.debug("Failed to derive candidate class filter from pointcut expression", ex);
+				candidateClassFilter = ClassFilter.TRUE;
+			}
+			this.candidateClassFilter = candidateClassFilter;
+		}
+		return candidateClassFilter;
+	}
+
 	// MethodMatcher匹配方法，借助的PointcutExpression和ShadowMatch去匹配的
 	@Override
 	public boolean matches(Method method, Class<?> targetClass, boolean hasIntroductions) {
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.aspectj.weaver.UnresolvedType;
+import org.aspectj.weaver.internal.tools.PointcutExpressionImpl;
+import org.aspectj.weaver.patterns.AndPointcut;
+import org.aspectj.weaver.patterns.AnnotationPointcut;
+import org.aspectj.weaver.patterns.AnnotationTypePattern;
+import org.aspectj.weaver.patterns.ExactAnnotationTypePattern;
+import org.aspectj.weaver.patterns.ExactTypePattern;
+import org.aspectj.weaver.patterns.KindedPointcut;
+import org.aspectj.weaver.patterns.NamePattern;
+import org.aspectj.weaver.patterns.OrPointcut;
+import org.aspectj.weaver.patterns.Pointcut;
+import org.aspectj.weaver.patterns.SignaturePattern;
+import org.aspectj.weaver.patterns.TypePattern;
+import org.aspectj.weaver.patterns.WildTypePattern;
+import org.aspectj.weaver.patterns.WithinAnnotationPointcut;
+import org.aspectj.weaver.tools.PointcutExpression;
+
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.support.ClassFilters;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Derives cheap class-level filters from the structure of an AspectJ pointcut,
+ * ruling out classes that cannot contain any matching join point before the
+ * AspectJ weaver performs its shadow matching for each of their methods.
+ *
+ * <p>A derived filter is conservative: it only rejects a class if the pointcut
+ * requires an annotation on a method ({@code @annotation} or an annotation
+ * pattern in an {@code execution} signature) or on a type ({@code @within})
+ * that is not present anywhere in the type hierarchy of the class, or if it
+ * requires a declaring type from a package that no type in the hierarchy of
+ * the class belongs to. Pointcuts that cannot be analyzed match all classes.
+ *
+ * @since 5.2.9
+ * @see AspectJExpressionPointcut#matches(Class)
+ */
+abstract class CandidateClassFilters {
+
+	private static final Map<Class<?>, TypeHierarchy> typeHierarchyCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	/**
+	 * Derive a candidate class filter from the given pointcut expression.
+	 * @param expression the parsed pointcut expression
+	 * @param classLoader the ClassLoader to resolve annotation types with
+	 * @return the candidate class filter ({@link ClassFilter#TRUE} if the
+	 * expression does not allow for ruling out classes upfront)
+	 */
+	static ClassFilter forExpression(PointcutExpression expression, @Nullable ClassLoader classLoader) {
+		if (!(expression instanceof PointcutExpressionImpl)) {
+			return ClassFilter.TRUE;
+		}
+		ClassFilter filter = forPointcut(((PointcutExpressionImpl) expression).getUnderlyingPointcut(), classLoader);
+		return (filter != null ? new CandidateClassFilter(filter) : ClassFilter.TRUE);
+	}
+
+	/**
+	 * Derive a candidate class filter from the given pointcut.
+	 * @return the filter, or {@code null} if any class may match
+	 */
+	@Nullable
+	private static ClassFilter forPointcut(Pointcut pointcut, @Nullable ClassLoader classLoader) {
+		if (pointcut instanceof AndPointcut) {
+			ClassFilter left = forPointcut(((AndPointcut) pointcut).getLeft(), classLoader);
+			ClassFilter right = forPointcut(((AndPointcut) pointcut).getRight(), classLoader);
+			if (left == null || right == null) {
+				return (left != null ? left : right);
+			}
+			return ClassFilters.intersection(left, right);
+		}
+		else if (pointcut instanceof OrPointcut) {
+			ClassFilter left = forPointcut(((OrPointcut) pointcut).getLeft(), classLoader);
+			ClassFilter right = forPointcut(((OrPointcut) pointcut).getRight(), classLoader);
+			if (left == null || right == null) {
+				return null;
+			}
+			return ClassFilters.union(left, right);
+		}
+		else if (pointcut instanceof AnnotationPointcut) {
+			Class<? extends Annotation> annotationType = resolveAnnotationType(
+					((AnnotationPointcut) pointcut).getAnnotationTypePattern(), classLoader);
+			return (annotationType != null ? new AnnotatedMethodFilter(annotationType) : null);
+		}
+		else if (pointcut instanceof WithinAnnotationPointcut) {
+			Class<? extends Annotation> annotationType = resolveAnnotationType(
+					((WithinAnnotationPointcut) pointcut).getAnnotationTypePattern(), classLoader);
+			return (annotationType != null ? new AnnotatedTypeFilter(annotationType) : null);
+		}
+		else if (pointcut instanceof KindedPointcut) {
+			SignaturePattern signature = ((KindedPointcut) pointcut).getSignature();
+			Class<? extends Annotation> annotationType =
+					resolveAnnotationType(signature.getAnnotationPattern(), classLoader);
+			String packagePrefix = getPackagePrefix(signature.getDeclaringType());
+			ClassFilter annotationFilter = (annotationType != null ? new AnnotatedMethodFilter(annotationType) : null);
+			ClassFilter packageFilter = (packagePrefix != null ? new PackageFilter(packagePrefix) : null);
+			if (annotationFilter == null || packageFilter == null) {
+				return (annotationFilter != null ? annotationFilter : packageFilter);
+			}
+			return ClassFilters.intersection(annotationFilter, packageFilter);
+		}
+		// Negations, within(), this(), target(), args(), bean() etc: may match any class,
+		// or are already covered by AspectJ's own fast match.
+		return null;
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private static Class<? extends Annotation> resolveAnnotationType(
+			@Nullable AnnotationTypePattern pattern, @Nullable ClassLoader classLoader) {
+
+		if (!(pattern instanceof ExactAnnotationTypePattern)) {
+			return null;
+		}
+		UnresolvedType annotationType = ((ExactAnnotationTypePattern) pattern).getAnnotationType();
+		if (annotationType == null) {
+			return null;
+		}
+		try {
+			Class<?> clazz = ClassUtils.forName(annotationType.getName(), classLoader);
+			return (clazz.isAnnotation() ? (Class<? extends Annotation>) clazz : null);
+		}
+		catch (Throwable ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Determine the package that a declaring type pattern is restricted to,
+	 * in canonical form with a trailing dot.
+	 */
+	@Nullable
+	private static String getPackagePrefix(@Nullable TypePattern pattern) {
+		if (pattern instanceof ExactTypePattern) {
+			UnresolvedType type = ((ExactTypePattern) pattern).getType();
+			String packageName = (type != null ? ClassUtils.getPackageName(type.getName()) : "");
+			return (!packageName.isEmpty() ? packageName + "." : null);
+		}
+		if (pattern instanceof WildTypePattern) {
+			NamePattern[] namePatterns = ((WildTypePattern) pattern).getNamePatterns();
+			StringBuilder prefix = new StringBuilder();
+			// The last name pattern is the simple name of the type itself
+			for (int i = 0; i < namePatterns.length - 1; i++) {
+				String name = (namePatterns[i] != NamePattern.ELLIPSIS ? namePatterns[i].maybeGetSimpleName() : null);
+				if (name == null) {
+					break;
+				}
+				prefix.append(name).append('.');
+			}
+			return (prefix.length() > 0 ? prefix.toString() : null);
+		}
+		return null;
+	}
+
+	private static TypeHierarchy getTypeHierarchy(Class<?> clazz) {
+		return typeHierarchyCache.computeIfAbsent(clazz, TypeHierarchy::new);
+	}
+
+
+	/**
+	 * The types in the hierarchy of a class and the annotation types declared
+	 * on their methods, shared by all candidate class filters.
+	 */
+	private static class TypeHierarchy {
+
+		private final List<Class<?>> types = new ArrayList<>();
+
+		@Nullable
+		private volatile Set<Class<? extends Annotation>> methodAnnotationTypes;
+
+		TypeHierarchy(Class<?> clazz) {
+			Class<?> current = clazz;
+			while (current != null) {
+				this.types.add(current);
+				current = current.getSuperclass();
+			}
+			this.types.addAll(ClassUtils.getAllInterfacesForClassAsSet(clazz));
+		}
+
+		List<Class<?>> getTypes() {
+			return this.types;
+		}
+
+		Set<Class<? extends Annotation>> getMethodAnnotationTypes() {
+			Set<Class<? extends Annotation>> annotationTypes = this.methodAnnotationTypes;
+			if (annotationTypes == null) {
+				Set<Class<? extends Annotation>> collected = new HashSet<>();
+				for (Class<?> type : this.types) {
+					ReflectionUtils.doWithLocalMethods(type, method -> {
+						for (Annotation annotation : method.getDeclaredAnnotations()) {
+							collected.add(annotation.annotationType());
+						}
+					});
+				}
+				annotationTypes = (collected.isEmpty() ? Collections.emptySet() : collected);
+				this.methodAnnotationTypes = annotationTypes;
+			}
+			return annotationTypes;
+		}
+	}
+
+
+	/**
+	 * Top-level filter that lets JDK proxy classes pass: they are matched
+	 * against the methods of their interfaces, which may differ from the
+	 * methods of the target class in terms of annotations.
+	 */
+	private static class CandidateClassFilter implements ClassFilter {
+
+		private final ClassFilter filter;
+
+		CandidateClassFilter(ClassFilter filter) {
+			this.filter = filter;
+		}
+
+		@Override
+		public boolean matches(Class<?> clazz) {
+			return (Proxy.isProxyClass(clazz) || this.filter.matches(clazz));
+		}
+
+		@Override
+		public String toString() {
+			return this.filter.toString();
+		}
+	}
+
+
+	/**
+	 * Matches classes with a method in their type hierarchy that declares
+	 * the given annotation.
+	 */
+	private static class AnnotatedMethodFilter implements ClassFilter {
+
+		private final Class<? extends Annotation> annotationType;
+
+		AnnotatedMethodFilter(Class<? extends Annotation> annotationType) {
+			this.annotationType = annotationType;
+		}
+
+		@Override
+		public boolean matches(Class<?> clazz) {
+			return getTypeHierarchy(clazz).getMethodAnnotationTypes().contains(this.annotationType);
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + ": @" + this.annotationType.getName();
+		}
+	}
+
+
+	/**
+	 * Matches classes with a type in their type hierarchy that is annotated
+	 * with the given annotation.
+	 */
+	private static class AnnotatedTypeFilter implements ClassFilter {
+
+		private final Class<? extends Annotation> annotationType;
+
+		AnnotatedTypeFilter(Class<? extends Annotation> annotationType) {
+			this.annotationType = annotationType;
+		}
+
+		@Override
+		public boolean matches(Class<?> clazz) {
+			for (Class<?> type : getTypeHierarchy(clazz).getTypes()) {
+				if (type.isAnnotationPresent(this.annotationType)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + ": @" + this.annotationType.getName();
+		}
+	}
+
+
+	/**
+	 * Matches classes with a type in their type hierarchy that belongs to the
+	 * given package or one of its subpackages.
+	 */
+	private static class PackageFilter implements ClassFilter {
+
+		private final String packagePrefix;
+
+		PackageFilter(String packagePrefix) {
+			this.packagePrefix = packagePrefix;
+		}
+
+		@Override
+		public boolean matches(Class<?> clazz) {
+			for (Class<?> type : getTypeHierarchy(clazz).getTypes()) {
+				if (type.getName().replace('$', '.').startsWith(this.packagePrefix)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + ": " + this.packagePrefix;
+		}
+	}
+
+}
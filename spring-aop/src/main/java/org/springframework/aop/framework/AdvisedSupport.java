@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -83,8 +84,12 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	/** The AdvisorChainFactory to use. */
 	AdvisorChainFactory advisorChainFactory = new DefaultAdvisorChainFactory();
 
-	/** Cache with Method as key and advisor chain List as value. */
-	private transient Map<MethodCacheKey, List<Object>> methodCache;
+	/**
+	 * Cache with Method as key and immutable advisor chain List as value.
+	 * Proxies pass the same Method instances on every invocation, so that
+	 * lookups neither lock nor allocate a key object.
+	 */
+	private transient Map<Method, List<Object>> methodCache;
 
 	/**
 	 * Interfaces to be implemented by the proxy. Held in List to keep the order
@@ -482,20 +487,22 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	/**
 	 * Determine a list of {@link org.aopalliance.intercept.MethodInterceptor} objects
 	 * for the given method, based on this configuration.
+	 * <p>The chain is determined once per method and cached as an immutable
+	 * List until the advice changes, to be shared by all invocations.
 	 * @param method the proxied method
 	 * @param targetClass the target class
 	 * @return a List of MethodInterceptors (may also include InterceptorAndDynamicMethodMatchers)
 	 */
 	public List<Object> getInterceptorsAndDynamicInterceptionAdvice(Method method, @Nullable Class<?> targetClass) {
-		// 创建一个method的缓存对象,在MethodCacheKey中实现了equals和hashcode方法同时还实现了compareTo方法
-		MethodCacheKey cacheKey = new MethodCacheKey(method);
-		List<Object> cached = this.methodCache.get(cacheKey);
 		// 先从缓存中获取,如果缓存中获取不到,则再调用方法获取,获取之后放入到缓存中
+		List<Object> cached = this.methodCache.get(method);
 		if (cached == null) {
 			// 调用的是advisorChainFactory的getInterceptorsAndDynamicInterceptionAdvice方法
-			cached = this.advisorChainFactory.getInterceptorsAndDynamicInterceptionAdvice(
+			List<Object> chain = this.advisorChainFactory.getInterceptorsAndDynamicInterceptionAdvice(
 					this, method, targetClass);
-			this.methodCache.put(cacheKey, cached);
+			cached = (chain.isEmpty() ? Collections.emptyList() :
+					Collections.unmodifiableList(Arrays.asList(chain.toArray())));
+			this.methodCache.put(method, cached);
 		}
 		return cached;
 	}
@@ -588,46 +595,4 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 		return sb.toString();
 	}
 
-
-	/**
-	 * Simple wrapper class around a Method. Used as the key when
-	 * caching methods, for efficient equals and hashCode comparisons.
-	 */
-	private static final class MethodCacheKey implements Comparable<MethodCacheKey> {
-
-		private final Method method;
-
-		private final int hashCode;
-
-		public MethodCacheKey(Method method) {
-			this.method = method;
-			this.hashCode = method.hashCode();
-		}
-
-		@Override
-		public boolean equals(@Nullable Object other) {
-			return (this == other || (other instanceof MethodCacheKey &&
-					this.method == ((MethodCacheKey) other).method));
-		}
-
-		@Override
-		public int hashCode() {
-			return this.hashCode;
-		}
-
-		@Override
-		public String toString() {
-			return this.method.toString();
-		}
-
-		@Override
-		public int compareTo(MethodCacheKey other) {
-			int result = this.method.getName().compareTo(other.method.getName());
-			if (result == 0) {
-				result = this.method.toString().compareTo(other.method.toString());
-			}
-			return result;
-		}
-	}
-
 }
@@ -351,8 +351,11 @@ class CglibAopProxy implements AopProxy, Serializable {
 			for (int x = 0; x < methods.length; x++) {
 				Method method = methods[x];
 				List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, rootClass);
-				fixedCallbacks[x] = new FixedChainStaticTargetInterceptor(
-						chain, this.advised.getTargetSource().getTarget(), this.advised.getTargetClass());
+				fixedCallbacks[x] = (this.advised.isGenerateInterceptorChains() ?
+						new GeneratedChainStaticTargetInterceptor(
+								chain, this.advised.getTargetSource().getTarget(), this.advised.getTargetClass()) :
+						new FixedChainStaticTargetInterceptor(
+								chain, this.advised.getTargetSource().getTarget(), this.advised.getTargetClass()));
 				this.fixedInterceptorMap.put(method, x);
 			}
 
@@ -672,6 +675,58 @@ class CglibAopProxy implements AopProxy, Serializable {
 	}
 
 
+	/**
+	 * Interceptor used for advised methods on a frozen, static proxy if generated
+	 * interceptor chains are enabled. Lazily generates a {@link GeneratedMethodInvocation}
+	 * for the fixed chain on first invocation, falling back to a regular
+	 * {@link CglibMethodInvocation} if the chain or method does not qualify.
+	 */
+	private static class GeneratedChainStaticTargetInterceptor implements MethodInterceptor, Serializable {
+
+		private final List<Object> adviceChain;
+
+		@Nullable
+		private final Object target;
+
+		@Nullable
+		private final Class<?> targetClass;
+
+		@Nullable
+		private transient volatile GeneratedMethodInvocation prototype;
+
+		private transient volatile boolean generationFailed;
+
+		public GeneratedChainStaticTargetInterceptor(
+				List<Object> adviceChain, @Nullable Object target, @Nullable Class<?> targetClass) {
+
+			this.adviceChain = adviceChain;
+			this.target = target;
+			this.targetClass = targetClass;
+		}
+
+		@Override
+		@Nullable
+		public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+			GeneratedMethodInvocation prototype = this.prototype;
+			if (prototype == null && !this.generationFailed) {
+				prototype = GeneratedMethodInvocation.forChain(method, this.target, this.targetClass, this.adviceChain);
+				if (prototype != null) {
+					this.prototype = prototype;
+				}
+				else {
+					this.generationFailed = true;
+				}
+			}
+			MethodInvocation invocation = (prototype != null ? prototype.newInvocation(proxy, args) :
+					new CglibMethodInvocation(
+							proxy, this.target, method, args, this.targetClass, this.adviceChain, methodProxy));
+			Object retVal = invocation.proceed();
+			retVal = processReturnType(proxy, this.target, method, retVal);
+			return retVal;
+		}
+	}
+
+
 	/**
 	 * General purpose AOP callback. Used when the target is dynamic or when the
 	 * proxy is not frozen.
@@ -965,6 +1020,9 @@ class CglibAopProxy implements AopProxy, Serializable {
 			if (this.advised.isExposeProxy() != otherAdvised.isExposeProxy()) {
 				return false;
 			}
+			if (this.advised.isGenerateInterceptorChains() != otherAdvised.isGenerateInterceptorChains()) {
+				return false;
+			}
 			if (this.advised.getTargetSource().isStatic() != otherAdvised.getTargetSource().isStatic()) {
 				return false;
 			}
@@ -1015,6 +1073,7 @@ class CglibAopProxy implements AopProxy, Serializable {
 			hashCode = 13 * hashCode + (this.advised.isExposeProxy() ? 1 : 0);
 			hashCode = 13 * hashCode + (this.advised.isOptimize() ? 1 : 0);
 			hashCode = 13 * hashCode + (this.advised.isOpaque() ? 1 : 0);
+			hashCode = 13 * hashCode + (this.advised.isGenerateInterceptorChains() ? 1 : 0);
 			return hashCode;
 		}
 	}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.security.ProtectionDomain;
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.Label;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.AbstractClassGenerator;
+import org.springframework.cglib.core.Block;
+import org.springframework.cglib.core.ClassEmitter;
+import org.springframework.cglib.core.CodeEmitter;
+import org.springframework.cglib.core.Constants;
+import org.springframework.cglib.core.ProcessSwitchCallback;
+import org.springframework.cglib.core.ReflectUtils;
+import org.springframework.cglib.core.Signature;
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.core.TypeUtils;
+import org.springframework.core.BridgeMethodResolver;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Base class for method invocations whose interceptor chain is dispatched
+ * by a generated subclass, specific to a single method and chain length.
+ *
+ * <p>The generated {@link #proceed()} method invokes every interceptor of the
+ * chain from a call site of its own and calls the target method directly
+ * instead of through reflection or a CGLIB {@code MethodProxy}. Each of those
+ * call sites therefore only ever sees a single receiver type, which allows
+ * the JIT compiler to inline the entire path from the proxy to the target.
+ *
+ * <p>Used by {@link CglibAopProxy} for frozen proxies with a static target
+ * if {@linkplain ProxyConfig#setGenerateInterceptorChains generated interceptor
+ * chains} are enabled.
+ *
+ * @since 5.2.9
+ * @see #forChain
+ */
+abstract class GeneratedMethodInvocation extends ReflectiveMethodInvocation {
+
+	private static final Log logger = LogFactory.getLog(GeneratedMethodInvocation.class);
+
+
+	/** The interceptors of the chain, in invocation order. */
+	protected final Object[] interceptors;
+
+	/**
+	 * Index from 0 of the current interceptor we're invoking.
+	 * -1 until we invoke: then the current interceptor.
+	 */
+	protected int interceptorIndex = -1;
+
+	@Nullable
+	private final Class<?> targetClass;
+
+
+	/**
+	 * Create a prototype invocation for the given target method,
+	 * to create the actual invocations from. A prototype is never proceeded
+	 * itself, so the target stands in for the proxy.
+	 * @see #newInvocation
+	 */
+	protected GeneratedMethodInvocation(Object target, Method method,
+			@Nullable Class<?> targetClass, List<Object> interceptors) {
+
+		super(target, target, method, null, targetClass, interceptors);
+		this.interceptors = interceptors.toArray();
+		this.targetClass = targetClass;
+	}
+
+	/**
+	 * Create an invocation of the target method of the given prototype.
+	 * @param prototype the prototype invocation
+	 * @param proxy the proxy object that the invocation was made on
+	 * @param arguments the arguments to invoke the method with
+	 */
+	@SuppressWarnings("unchecked")
+	protected GeneratedMethodInvocation(GeneratedMethodInvocation prototype, Object proxy, Object[] arguments) {
+		super(proxy, prototype.target, prototype.method, arguments, prototype.targetClass,
+				(List<Object>) prototype.interceptorsAndDynamicMethodMatchers);
+		this.interceptors = prototype.interceptors;
+		this.targetClass = prototype.targetClass;
+	}
+
+
+	/**
+	 * Create a new invocation of the target method of this prototype.
+	 * @param proxy the proxy object that the invocation was made on
+	 * @param arguments the arguments to invoke the method with
+	 */
+	public abstract GeneratedMethodInvocation newInvocation(Object proxy, Object[] arguments);
+
+	/**
+	 * Adapt the given exception, thrown by an interceptor or the target method,
+	 * to the signature of the invoked method.
+	 * @param ex the exception to adapt
+	 * @return the given exception if it is unchecked or declared by the method,
+	 * or an {@link UndeclaredThrowableException} wrapping it otherwise
+	 */
+	protected final Throwable adaptException(Exception ex) {
+		if (ex instanceof RuntimeException || ReflectionUtils.declaresException(getMethod(), ex.getClass())) {
+			return ex;
+		}
+		return new UndeclaredThrowableException(ex);
+	}
+
+
+	/**
+	 * Return a prototype invocation for the given method and interceptor chain,
+	 * backed by a generated subclass.
+	 * @param method the method invoked on the proxy
+	 * @param target the static target of the proxy
+	 * @param targetClass the target class
+	 * @param chain the fixed interceptor chain for the method
+	 * @return the prototype to {@link #newInvocation create invocations} from,
+	 * or {@code null} if the chain contains dynamic method matchers or if the
+	 * target method cannot be invoked directly from generated code
+	 */
+	@Nullable
+	public static GeneratedMethodInvocation forChain(
+			Method method, @Nullable Object target, @Nullable Class<?> targetClass, List<Object> chain) {
+
+		Method targetMethod = BridgeMethodResolver.findBridgedMethod(method);
+		if (!isDirectlyInvocable(targetMethod, target)) {
+			return null;
+		}
+		for (Object interceptor : chain) {
+			if (!(interceptor instanceof MethodInterceptor)) {
+				return null;
+			}
+		}
+		try {
+			return new Generator(targetMethod, target, targetClass, chain).create();
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate interceptor chain for " + targetMethod +
+						" - falling back to regular method invocations", ex);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Determine whether the given method can be invoked on the given target from
+	 * a class that is defined by the ClassLoader of this class in this package.
+	 */
+	private static boolean isDirectlyInvocable(Method method, @Nullable Object target) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (target == null || !declaringClass.isInstance(target) ||
+				!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+			return false;
+		}
+		ClassLoader classLoader = GeneratedMethodInvocation.class.getClassLoader();
+		if (!isAccessible(declaringClass, classLoader) || !isAccessible(method.getReturnType(), classLoader)) {
+			return false;
+		}
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (!isAccessible(parameterType, classLoader)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isAccessible(Class<?> type, @Nullable ClassLoader classLoader) {
+		return (type.isPrimitive() ||
+				(Modifier.isPublic(type.getModifiers()) && ClassUtils.isVisible(type, classLoader)));
+	}
+
+
+	/**
+	 * CGLIB class generator for {@code GeneratedMethodInvocation} subclasses,
+	 * caching one generated class per target method and chain length.
+	 */
+	private static class Generator extends AbstractClassGenerator<Object> {
+
+		private static final Source SOURCE = new Source(GeneratedMethodInvocation.class.getName());
+
+		private static final Type GENERATED_METHOD_INVOCATION = Type.getType(GeneratedMethodInvocation.class);
+
+		private static final Type REFLECTIVE_METHOD_INVOCATION = Type.getType(ReflectiveMethodInvocation.class);
+
+		private static final Type METHOD_INTERCEPTOR = Type.getType(MethodInterceptor.class);
+
+		private static final Type EXCEPTION = Type.getType(Exception.class);
+
+		private static final Signature PROTOTYPE_CONSTRUCTOR = TypeUtils.parseConstructor(
+				"Object, java.lang.reflect.Method, Class, java.util.List");
+
+		private static final Signature INVOCATION_CONSTRUCTOR = TypeUtils.parseConstructor(
+				GeneratedMethodInvocation.class.getName() + ", Object, Object[]");
+
+		private static final Signature NEW_INVOCATION = new Signature("newInvocation",
+				GENERATED_METHOD_INVOCATION, new Type[] {Constants.TYPE_OBJECT, Constants.TYPE_OBJECT_ARRAY});
+
+		private static final Signature PROCEED = new Signature("proceed", Constants.TYPE_OBJECT, new Type[0]);
+
+		private static final Signature INVOKE_JOINPOINT = new Signature("invokeJoinpoint", Constants.TYPE_OBJECT, new Type[0]);
+
+		private static final Signature INVOKE = new Signature("invoke",
+				Constants.TYPE_OBJECT, new Type[] {Type.getType(MethodInvocation.class)});
+
+		private static final Signature ADAPT_EXCEPTION = new Signature("adaptException",
+				Constants.TYPE_THROWABLE, new Type[] {EXCEPTION});
+
+		private final Method method;
+
+		@Nullable
+		private final Object target;
+
+		@Nullable
+		private final Class<?> targetClass;
+
+		private final List<Object> chain;
+
+		Generator(Method method, @Nullable Object target, @Nullable Class<?> targetClass, List<Object> chain) {
+			super(SOURCE);
+			this.method = method;
+			this.target = target;
+			this.targetClass = targetClass;
+			this.chain = chain;
+			setNamingPolicy(SpringNamingPolicy.INSTANCE);
+			setContextClass(GeneratedMethodInvocation.class);
+			setNamePrefix(ClassUtils.getPackageName(GeneratedMethodInvocation.class) + "." +
+					ClassUtils.getShortName(method.getDeclaringClass()).replace('.', '$'));
+		}
+
+		GeneratedMethodInvocation create() {
+			String key = this.method.getDeclaringClass().getName() + "." + this.method.getName() +
+					Type.getMethodDescriptor(this.method) + "#" + this.chain.size();
+			return (GeneratedMethodInvocation) super.create(key);
+		}
+
+		@Override
+		protected ClassLoader getDefaultClassLoader() {
+			return GeneratedMethodInvocation.class.getClassLoader();
+		}
+
+		@Override
+		protected ProtectionDomain getProtectionDomain() {
+			return ReflectUtils.getProtectionDomain(GeneratedMethodInvocation.class);
+		}
+
+		@Override
+		@SuppressWarnings("rawtypes")
+		protected Object firstInstance(Class type) throws Exception {
+			return ReflectUtils.newInstance(type,
+					new Class<?>[] {Object.class, Method.class, Class.class, List.class},
+					new Object[] {this.target, this.method, this.targetClass, this.chain});
+		}
+
+		@Override
+		protected Object nextInstance(Object instance) throws Exception {
+			return firstInstance(instance.getClass());
+		}
+
+		@Override
+		public void generateClass(ClassVisitor visitor) throws Exception {
+			ClassEmitter ce = new ClassEmitter(visitor);
+			ce.begin_class(Constants.V1_8, Constants.ACC_PUBLIC | Constants.ACC_FINAL, getClassName(),
+					GENERATED_METHOD_INVOCATION, null, Constants.SOURCE_FILE);
+			generateConstructor(ce, PROTOTYPE_CONSTRUCTOR);
+			generateConstructor(ce, INVOCATION_CONSTRUCTOR);
+			generateNewInvocation(ce);
+			generateProceed(ce);
+			generateInvokeJoinpoint(ce);
+			ce.end_class();
+		}
+
+		private void generateConstructor(ClassEmitter ce, Signature signature) {
+			CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC, signature, null);
+			e.load_this();
+			e.load_args();
+			e.super_invoke_constructor(signature);
+			e.return_value();
+			e.end_method();
+		}
+
+		private void generateNewInvocation(ClassEmitter ce) {
+			CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC, NEW_INVOCATION, null);
+			e.new_instance_this();
+			e.dup();
+			e.load_this();
+			e.load_args();
+			e.invoke_constructor_this(INVOCATION_CONSTRUCTOR);
+			e.return_value();
+			e.end_method();
+		}
+
+		/**
+		 * Generate {@code proceed()}, switching over the incremented interceptor
+		 * index with a separate interceptor call site per position in the chain.
+		 */
+		private void generateProceed(ClassEmitter ce) throws Exception {
+			CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC, PROCEED, new Type[] {Constants.TYPE_THROWABLE});
+			Block block = e.begin_block();
+			e.load_this();
+			e.dup();
+			e.getfield(GENERATED_METHOD_INVOCATION, "interceptorIndex", Type.INT_TYPE);
+			e.push(1);
+			e.math(CodeEmitter.ADD, Type.INT_TYPE);
+			e.dup_x1();
+			e.putfield(GENERATED_METHOD_INVOCATION, "interceptorIndex", Type.INT_TYPE);
+			int[] keys = new int[this.chain.size()];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = i;
+			}
+			if (keys.length == 0) {
+				e.pop();
+				e.load_this();
+				e.invoke_virtual_this(INVOKE_JOINPOINT);
+				e.return_value();
+			}
+			else {
+				e.process_switch(keys, new ProcessSwitchCallback() {
+					@Override
+					public void processCase(int key, Label end) {
+						e.load_this();
+						e.getfield(GENERATED_METHOD_INVOCATION, "interceptors", Constants.TYPE_OBJECT_ARRAY);
+						e.aaload(key);
+						e.checkcast(METHOD_INTERCEPTOR);
+						e.load_this();
+						e.invoke_interface(METHOD_INTERCEPTOR, INVOKE);
+						e.return_value();
+					}
+					@Override
+					public void processDefault() {
+						e.load_this();
+						e.invoke_virtual_this(INVOKE_JOINPOINT);
+						e.return_value();
+					}
+				});
+			}
+			block.end();
+			e.catch_exception(block, EXCEPTION);
+			e.load_this();
+			e.swap();
+			e.invoke_virtual(GENERATED_METHOD_INVOCATION, ADAPT_EXCEPTION);
+			e.athrow();
+			e.end_method();
+		}
+
+		/**
+		 * Generate {@code invokeJoinpoint()}, calling the target method
+		 * on the target object with the current arguments.
+		 */
+		private void generateInvokeJoinpoint(ClassEmitter ce) {
+			CodeEmitter e = ce.begin_method(Constants.ACC_PROTECTED, INVOKE_JOINPOINT,
+					new Type[] {Constants.TYPE_THROWABLE});
+			Type declaringType = Type.getType(this.method.getDeclaringClass());
+			e.load_this();
+			e.getfield(REFLECTIVE_METHOD_INVOCATION, "target", Constants.TYPE_OBJECT);
+			e.checkcast(declaringType);
+			Class<?>[] parameterTypes = this.method.getParameterTypes();
+			for (int i = 0; i < parameterTypes.length; i++) {
+				e.load_this();
+				e.getfield(REFLECTIVE_METHOD_INVOCATION, "arguments", Constants.TYPE_OBJECT_ARRAY);
+				e.aaload(i);
+				e.unbox(Type.getType(parameterTypes[i]));
+			}
+			Signature signature = ReflectUtils.getSignature(this.method);
+			if (this.method.getDeclaringClass().isInterface()) {
+				e.invoke_interface(declaringType, signature);
+			}
+			else {
+				e.invoke_virtual(declaringType, signature);
+			}
+			Type returnType = signature.getReturnType();
+			if (returnType == Type.VOID_TYPE) {
+				e.aconst_null();
+			}
+			else if (TypeUtils.isPrimitive(returnType)) {
+				Type boxedType = TypeUtils.getBoxedType(returnType);
+				e.invoke_static(boxedType, new Signature("valueOf", boxedType, new Type[] {returnType}), false);
+			}
+			e.return_value();
+			e.end_method();
+		}
+	}
+
+}
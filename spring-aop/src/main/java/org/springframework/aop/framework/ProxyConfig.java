@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,8 @@ public class ProxyConfig implements Serializable {
 
 	private boolean frozen = false;
 
+	private boolean generateInterceptorChains = false;
+
 
 	/**
 	 * Set whether to proxy the target class directly, instead of just proxying
@@ -149,6 +151,30 @@ public class ProxyConfig implements Serializable {
 		return this.frozen;
 	}
 
+	/**
+	 * Set whether CGLIB proxies for a {@linkplain #setFrozen frozen} configuration
+	 * with a static target should dispatch advised methods through interceptor
+	 * chains generated as bytecode, once per method, instead of through a
+	 * generic reflective method invocation. Default is "false".
+	 * <p>The generated chains only apply to public methods of public types
+	 * with interceptors that do not use dynamic method matchers. Other methods
+	 * keep using the regular fixed chains.
+	 * @since 5.2.9
+	 * @see #setProxyTargetClass
+	 */
+	public void setGenerateInterceptorChains(boolean generateInterceptorChains) {
+		this.generateInterceptorChains = generateInterceptorChains;
+	}
+
+	/**
+	 * Return whether CGLIB proxies should dispatch advised methods through
+	 * generated interceptor chains.
+	 * @since 5.2.9
+	 */
+	public boolean isGenerateInterceptorChains() {
+		return this.generateInterceptorChains;
+	}
+
 
 	/**
 	 * Copy configuration from the other config object.
@@ -161,6 +187,7 @@ public class ProxyConfig implements Serializable {
 		this.exposeProxy = other.exposeProxy;
 		this.frozen = other.frozen;
 		this.opaque = other.opaque;
+		this.generateInterceptorChains = other.generateInterceptorChains;
 	}
 
 	@Override
@@ -170,7 +197,8 @@ public class ProxyConfig implements Serializable {
 		sb.append("optimize=").append(this.optimize).append("; ");
 		sb.append("opaque=").append(this.opaque).append("; ");
 		sb.append("exposeProxy=").append(this.exposeProxy).append("; ");
-		sb.append("frozen=").append(this.frozen);
+		sb.append("frozen=").append(this.frozen).append("; ");
+		sb.append("generateInterceptorChains=").append(this.generateInterceptorChains);
 		return sb.toString();
 	}
 
@@ -20,7 +20,6 @@ import java.util.List;
 
 import org.springframework.aop.Advisor;
 import org.springframework.aop.TargetSource;
-import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
@@ -56,6 +55,8 @@ public abstract class AbstractAdvisorAutoProxyCreator extends AbstractAutoProxyC
 	@Nullable
 	private BeanFactoryAdvisorRetrievalHelper advisorRetrievalHelper;
 
+	private final AdvisorMatcher advisorMatcher = new AdvisorMatcher();
+
 
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) {
@@ -148,13 +149,23 @@ public abstract class AbstractAdvisorAutoProxyCreator extends AbstractAutoProxyC
 		ProxyCreationContext.setCurrentProxiedBeanName(beanName);
 		try {
 			// 从候选的通知器中找到合适正在创建的实例对象的通知器
-			return AopUtils.findAdvisorsThatCanApply(candidateAdvisors, beanClass);
+			return this.advisorMatcher.findAdvisorsThatCanApply(candidateAdvisors, beanClass);
 		}
 		finally {
 			ProxyCreationContext.setCurrentProxiedBeanName(null);
 		}
 	}
 
+	/**
+	 * Return the {@link AdvisorMatcher} used to determine the Advisors that
+	 * can apply to a bean, exposing statistics on the matches performed.
+	 * @since 5.2.9
+	 * @see AdvisorMatcher#getSkippedMatchCount()
+	 */
+	public final AdvisorMatcher getAdvisorMatcher() {
+		return this.advisorMatcher;
+	}
+
 	/**
 	 * Return whether the Advisor bean with the given name is eligible
 	 * for proxying in the first place.
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework.autoproxy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.IntroductionAdvisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.support.AopUtils;
+
+/**
+ * Determines the Advisors that can apply to a bean class, pre-classifying
+ * each candidate Advisor by the class filter of its pointcut so that the
+ * method-level matching (for AspectJ pointcuts: the weaver's shadow matching
+ * for every method of the class) only runs for plausible candidates.
+ *
+ * <p>Keeps statistics on the number of Advisor/class combinations evaluated
+ * and on the number of those that were ruled out by class filters alone.
+ * Thread-safe.
+ *
+ * @since 5.2.9
+ * @see AbstractAdvisorAutoProxyCreator#getAdvisorMatcher()
+ * @see AopUtils#findAdvisorsThatCanApply(List, Class)
+ */
+@SuppressWarnings("serial")
+public class AdvisorMatcher implements Serializable {
+
+	private final AtomicLong matchCount = new AtomicLong();
+
+	private final AtomicLong classFilterRejectionCount = new AtomicLong();
+
+	private final AtomicLong methodMatchCount = new AtomicLong();
+
+
+	/**
+	 * Determine the sublist of the given candidate Advisors that can apply
+	 * to the given class, with the same semantics as
+	 * {@link AopUtils#findAdvisorsThatCanApply(List, Class)}.
+	 * @param candidateAdvisors the Advisors to evaluate
+	 * @param clazz the target class
+	 * @return sublist of Advisors that can apply to an object of the given class
+	 * (may be the incoming List as-is)
+	 */
+	public List<Advisor> findAdvisorsThatCanApply(List<Advisor> candidateAdvisors, Class<?> clazz) {
+		if (candidateAdvisors.isEmpty()) {
+			return candidateAdvisors;
+		}
+		List<Advisor> eligibleAdvisors = new ArrayList<>();
+		for (Advisor candidate : candidateAdvisors) {
+			if (candidate instanceof IntroductionAdvisor && canApply(candidate, clazz, false)) {
+				eligibleAdvisors.add(candidate);
+			}
+		}
+		boolean hasIntroductions = !eligibleAdvisors.isEmpty();
+		for (Advisor candidate : candidateAdvisors) {
+			if (!(candidate instanceof IntroductionAdvisor) && canApply(candidate, clazz, hasIntroductions)) {
+				eligibleAdvisors.add(candidate);
+			}
+		}
+		return eligibleAdvisors;
+	}
+
+	private boolean canApply(Advisor advisor, Class<?> targetClass, boolean hasIntroductions) {
+		this.matchCount.incrementAndGet();
+		if (advisor instanceof IntroductionAdvisor) {
+			return classFilterMatches(((IntroductionAdvisor) advisor).getClassFilter(), targetClass);
+		}
+		else if (advisor instanceof PointcutAdvisor) {
+			Pointcut pointcut = ((PointcutAdvisor) advisor).getPointcut();
+			if (!classFilterMatches(pointcut.getClassFilter(), targetClass)) {
+				return false;
+			}
+			this.methodMatchCount.incrementAndGet();
+			return AopUtils.canApply(pointcut.getMethodMatcher(), targetClass, hasIntroductions);
+		}
+		else {
+			// It doesn't have a pointcut so we assume it applies.
+			return true;
+		}
+	}
+
+	private boolean classFilterMatches(ClassFilter classFilter, Class<?> targetClass) {
+		if (classFilter.matches(targetClass)) {
+			return true;
+		}
+		this.classFilterRejectionCount.incrementAndGet();
+		return false;
+	}
+
+
+	/**
+	 * Return the number of Advisor/class combinations evaluated so far.
+	 */
+	public long getMatchCount() {
+		return this.matchCount.get();
+	}
+
+	/**
+	 * Return the number of Advisor/class combinations that were ruled out
+	 * by class filters, without any method-level matching.
+	 */
+	public long getSkippedMatchCount() {
+		return this.classFilterRejectionCount.get();
+	}
+
+	/**
+	 * Return the number of Advisor/class combinations that required
+	 * method-level matching.
+	 */
+	public long getMethodMatchCount() {
+		return this.methodMatchCount.get();
+	}
+
+	/**
+	 * Reset all statistics to zero.
+	 */
+	public void resetStatistics() {
+		this.matchCount.set(0);
+		this.classFilterRejectionCount.set(0);
+		this.methodMatchCount.set(0);
+	}
+
+
+	@Override
+	public String toString() {
+		return "AdvisorMatcher: " + getMatchCount() + " matches, " + getSkippedMatchCount() +
+				" skipped by class filter, " + getMethodMatchCount() + " with method matching";
+	}
+
+}
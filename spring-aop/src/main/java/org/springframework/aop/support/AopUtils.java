@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -234,7 +234,22 @@ public abstract class AopUtils {
 		}
 
 		// 再进行MethodMatcher方法级别的校验
-		MethodMatcher methodMatcher = pc.getMethodMatcher();
+		return canApply(pc.getMethodMatcher(), targetClass, hasIntroductions);
+	}
+
+	/**
+	 * Can the given method matcher match any method of the given class?
+	 * <p>This performs the method-level part of {@link #canApply(Pointcut, Class, boolean)},
+	 * for callers that have checked the pointcut's class filter already.
+	 * @param methodMatcher the static or dynamic method matcher to check
+	 * @param targetClass the class to test
+	 * @param hasIntroductions whether or not the advisor chain
+	 * for this bean includes any introductions
+	 * @return whether the method matcher can match any method
+	 * @since 5.2.9
+	 */
+	public static boolean canApply(MethodMatcher methodMatcher, Class<?> targetClass, boolean hasIntroductions) {
+		Assert.notNull(methodMatcher, "MethodMatcher must not be null");
 		if (methodMatcher == MethodMatcher.TRUE) {
 			// No need to iterate the methods if we're matching any method anyway...
 			return true;
@@ -195,6 +195,43 @@ public class TigerAspectJExpressionPointcutTests {
 		assertThat(anySpringMethodAnnotation.matches(BeanA.class.getMethod("setName", String.class), BeanA.class)).isFalse();
 	}
 
+	@Test
+	public void testClassFilterRulesOutClassesWithoutAnnotatedMethod() {
+		AspectJExpressionPointcut ajexp = new AspectJExpressionPointcut();
+		ajexp.setExpression("@annotation(test.annotation.transaction.Tx)");
+
+		assertThat(ajexp.matches(TestBean.class)).isFalse();
+		assertThat(ajexp.matches(BeanB.class)).isFalse();
+		assertThat(ajexp.matches(BeanA.class)).isTrue();
+		assertThat(ajexp.matches(new ProxyFactory(new BeanA()).getProxy().getClass())).isTrue();
+	}
+
+	@Test
+	public void testClassFilterRulesOutClassesWithoutAnnotatedType() {
+		AspectJExpressionPointcut ajexp = new AspectJExpressionPointcut();
+		ajexp.setExpression("@within(test.annotation.transaction.Tx) || @annotation(test.annotation.EmptySpringAnnotation)");
+
+		assertThat(ajexp.matches(TestBean.class)).isFalse();
+		assertThat(ajexp.matches(BeanA.class)).isFalse();
+		assertThat(ajexp.matches(BeanB.class)).isTrue();
+		assertThat(ajexp.matches(HasTransactionalAnnotation.class)).isTrue();
+	}
+
+	@Test
+	public void testClassFilterRulesOutClassesOutsideOfDeclaringPackage() {
+		AspectJExpressionPointcut ajexp = new AspectJExpressionPointcut();
+		ajexp.setExpression("execution(* org.springframework.beans..*.*(..)) && @annotation(test.annotation.transaction.Tx)");
+
+		assertThat(ajexp.matches(BeanA.class)).isFalse();
+		assertThat(ajexp.matches(TestBean.class)).isFalse();
+
+		ajexp = new AspectJExpressionPointcut();
+		ajexp.setExpression("execution(* org.springframework.beans..*.*(..)) || @annotation(test.annotation.transaction.Tx)");
+		assertThat(ajexp.matches(BeanA.class)).isTrue();
+		assertThat(ajexp.matches(TestBean.class)).isTrue();
+		assertThat(ajexp.matches(BeanB.class)).isFalse();
+	}
+
 	@Test
 	public void testAnnotationOnMethodArgumentsWithFQN() throws Exception {
 		String expression = "@args(*, test.annotation.EmptySpringAnnotation))";
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.DynamicMethodMatcherPointcut;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link GeneratedMethodInvocation} as used by CGLIB proxies with
+ * {@linkplain ProxyConfig#setGenerateInterceptorChains generated interceptor chains}.
+ */
+class GeneratedMethodInvocationTests {
+
+	private final List<String> invocations = new ArrayList<>();
+
+
+	@Test
+	void interceptorsAreInvokedInOrder() {
+		Service proxy = createProxy(new RecordingInterceptor("first"), new RecordingInterceptor("second"));
+		assertThat(proxy.echo("value")).isEqualTo("value");
+		assertThat(this.invocations).containsExactly("first", "second", "echo");
+	}
+
+	@Test
+	void invocationIsGenerated() {
+		List<Class<?>> invocationTypes = new ArrayList<>();
+		Service proxy = createProxy((MethodInterceptor) invocation -> {
+			invocationTypes.add(invocation.getClass());
+			return invocation.proceed();
+		});
+		proxy.echo("value");
+		proxy.echo("value");
+		assertThat(invocationTypes).hasSize(2);
+		assertThat(GeneratedMethodInvocation.class.isAssignableFrom(invocationTypes.get(0))).isTrue();
+		assertThat(invocationTypes.get(1)).isSameAs(invocationTypes.get(0));
+	}
+
+	@Test
+	void primitiveArgumentsAndReturnValue() {
+		Service proxy = createProxy(new RecordingInterceptor("interceptor"));
+		assertThat(proxy.add(2, 3L)).isEqualTo(5L);
+		proxy.run();
+		assertThat(this.invocations).containsExactly("interceptor", "add", "interceptor", "run");
+	}
+
+	@Test
+	void argumentsChangedByInterceptor() {
+		Service proxy = createProxy((MethodInterceptor) invocation -> {
+			invocation.getArguments()[0] = "changed";
+			return invocation.proceed();
+		});
+		assertThat(proxy.echo("value")).isEqualTo("changed");
+	}
+
+	@Test
+	void thisIsReplacedWithProxy() {
+		Service proxy = createProxy(new RecordingInterceptor("interceptor"));
+		assertThat(proxy.self()).isSameAs(proxy);
+	}
+
+	@Test
+	void invocableCloneProceedsAgain() {
+		Service proxy = createProxy((MethodInterceptor) invocation -> {
+			((ProxyMethodInvocation) invocation).invocableClone().proceed();
+			return invocation.proceed();
+		}, new RecordingInterceptor("interceptor"));
+		proxy.run();
+		assertThat(this.invocations).containsExactly("interceptor", "run", "interceptor", "run");
+	}
+
+	@Test
+	void declaredCheckedExceptionIsPropagated() {
+		Service proxy = createProxy(new RecordingInterceptor("interceptor"));
+		assertThatExceptionOfType(IOException.class).isThrownBy(proxy::fail);
+	}
+
+	@Test
+	void undeclaredCheckedExceptionIsWrapped() {
+		Service proxy = createProxy((MethodInterceptor) invocation -> {
+			throw new Exception("undeclared");
+		});
+		assertThatExceptionOfType(UndeclaredThrowableException.class).isThrownBy(proxy::run);
+	}
+
+	@Test
+	void dynamicMethodMatcherFallsBackToRegularInvocation() {
+		List<Class<?>> invocationTypes = new ArrayList<>();
+		DynamicMethodMatcherPointcut pointcut = new DynamicMethodMatcherPointcut() {
+			@Override
+			public boolean matches(Method method, Class<?> targetClass, Object... args) {
+				return (args.length > 0 && "match".equals(args[0]));
+			}
+		};
+		Service proxy = createProxy(new DefaultPointcutAdvisor(pointcut, (MethodInterceptor) invocation -> {
+			invocationTypes.add(invocation.getClass());
+			return "intercepted";
+		}));
+		assertThat(proxy.echo("match")).isEqualTo("intercepted");
+		assertThat(proxy.echo("value")).isEqualTo("value");
+		assertThat(invocationTypes).hasSize(1);
+		assertThat(GeneratedMethodInvocation.class.isAssignableFrom(invocationTypes.get(0))).isFalse();
+	}
+
+	@Test
+	void invocationIsNotGeneratedForOptimizeOnly() {
+		List<Class<?>> invocationTypes = new ArrayList<>();
+		ProxyFactory pf = new ProxyFactory(new Service(this.invocations));
+		pf.setProxyTargetClass(true);
+		pf.setOptimize(true);
+		pf.addAdvice((MethodInterceptor) invocation -> {
+			invocationTypes.add(invocation.getClass());
+			return invocation.proceed();
+		});
+		pf.setFrozen(true);
+		((Service) pf.getProxy()).echo("value");
+		assertThat(invocationTypes).hasSize(1);
+		assertThat(GeneratedMethodInvocation.class.isAssignableFrom(invocationTypes.get(0))).isFalse();
+	}
+
+
+	private Service createProxy(Object... advice) {
+		ProxyFactory pf = new ProxyFactory(new Service(this.invocations));
+		pf.setProxyTargetClass(true);
+		pf.setGenerateInterceptorChains(true);
+		for (Object element : advice) {
+			if (element instanceof DefaultPointcutAdvisor) {
+				pf.addAdvisor((DefaultPointcutAdvisor) element);
+			}
+			else {
+				pf.addAdvice((MethodInterceptor) element);
+			}
+		}
+		pf.setFrozen(true);
+		return (Service) pf.getProxy();
+	}
+
+
+	private class RecordingInterceptor implements MethodInterceptor {
+
+		private final String name;
+
+		RecordingInterceptor(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			invocations.add(this.name);
+			return invocation.proceed();
+		}
+	}
+
+
+	public static class Service {
+
+		private final List<String> invocations;
+
+		public Service() {
+			this(new ArrayList<>());
+		}
+
+		public Service(List<String> invocations) {
+			this.invocations = invocations;
+		}
+
+		public String echo(String value) {
+			this.invocations.add("echo");
+			return value;
+		}
+
+		public long add(int a, long b) {
+			this.invocations.add("add");
+			return a + b;
+		}
+
+		public void run() {
+			this.invocations.add("run");
+		}
+
+		public Service self() {
+			return this;
+		}
+
+		public void fail() throws IOException {
+			throw new IOException("declared");
+		}
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.aop.framework;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -216,6 +217,22 @@ public class ProxyFactoryTests {
 		((IOther) ts).absquatulate();
 	}
 
+	@Test
+	public void testInterceptorChainIsCachedPerMethod() throws Exception {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addAdvice(new NopInterceptor());
+		Method getName = ITestBean.class.getMethod("getName");
+		List<Object> chain = pf.getInterceptorsAndDynamicInterceptionAdvice(getName, TestBean.class);
+		assertThat(chain).hasSize(1);
+		assertThat(pf.getInterceptorsAndDynamicInterceptionAdvice(getName, TestBean.class)).isSameAs(chain);
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> chain.add(new NopInterceptor()));
+		assertThat(pf.getInterceptorsAndDynamicInterceptionAdvice(
+				ITestBean.class.getMethod("getAge"), TestBean.class)).isNotSameAs(chain);
+
+		pf.addAdvice(new DebugInterceptor());
+		assertThat(pf.getInterceptorsAndDynamicInterceptionAdvice(getName, TestBean.class)).hasSize(2);
+	}
+
 	@Test
 	public void testInterceptorInclusionMethods() {
 		class MyInterceptor implements MethodInterceptor {
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for {@link BeanWrapperImpl} property access, as used for data
+ * binding and bean definition property population, comparing reflective with
+ * compiled property access.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class BeanWrapperBenchmark {
+
+	@Benchmark
+	public Object getPropertyValue(BenchmarkData data) {
+		return data.beanWrapper.getPropertyValue("name");
+	}
+
+	@Benchmark
+	public Object getNestedPropertyValue(BenchmarkData data) {
+		return data.beanWrapper.getPropertyValue("spouse.age");
+	}
+
+	@Benchmark
+	public Person setPropertyValueWithConversion(BenchmarkData data) {
+		data.beanWrapper.setPropertyValue("age", "42");
+		return data.person;
+	}
+
+	@Benchmark
+	public Object getIndexedNestedPropertyValue(BenchmarkData data) {
+		return data.beanWrapper.getPropertyValue("children[0].spouse.name");
+	}
+
+	@Benchmark
+	public Person setPropertyValuesOnNewBeanWrapper(BenchmarkData data) {
+		Person person = new Person();
+		BeanWrapperImpl beanWrapper = new BeanWrapperImpl(person);
+		beanWrapper.setCompiledPropertyAccess(data.compiled);
+		beanWrapper.setPropertyValue("name", "Juergen");
+		beanWrapper.setPropertyValue("age", "42");
+		return person;
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"false", "true"})
+		public boolean compiled;
+
+		public Person person;
+
+		public BeanWrapper beanWrapper;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.person = new Person();
+			this.person.setName("Juergen");
+			this.person.setSpouse(new Person());
+			this.person.setChildren(new Person[] {this.person});
+			BeanWrapperImpl beanWrapper = new BeanWrapperImpl(this.person);
+			beanWrapper.setCompiledPropertyAccess(this.compiled);
+			this.beanWrapper = beanWrapper;
+		}
+	}
+
+
+	public static class Person {
+
+		private String name;
+
+		private int age;
+
+		private Person spouse;
+
+		private Person[] children;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public Person getSpouse() {
+			return this.spouse;
+		}
+
+		public void setSpouse(Person spouse) {
+			this.spouse = spouse;
+		}
+
+		public Person[] getChildren() {
+			return this.children;
+		}
+
+		public void setChildren(Person[] children) {
+			this.children = children;
+		}
+	}
+
+}
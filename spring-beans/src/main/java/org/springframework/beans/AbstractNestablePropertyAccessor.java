@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -42,6 +42,7 @@ import org.springframework.core.convert.ConverterNotFoundException;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
@@ -76,6 +77,16 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 	 */
 	private static final Log logger = LogFactory.getLog(AbstractNestablePropertyAccessor.class);
 
+	/**
+	 * Maximum number of parsed property names in the shared cache, which is
+	 * bounded since property names may come from user input such as form fields.
+	 */
+	private static final int PROPERTY_TOKENS_CACHE_LIMIT = 1024;
+
+	/** Cache of parsed property names, shared by all accessors that enable it. */
+	private static final Map<String, PropertyTokenHolder> propertyTokensCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 	private int autoGrowCollectionLimit = Integer.MAX_VALUE;
 
 	@Nullable
@@ -90,6 +101,9 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 	@Nullable
 	private Map<String, AbstractNestablePropertyAccessor> nestedPropertyAccessors;
 
+	/** Whether to share parsed property names through the static cache. */
+	private boolean cachePropertyTokens;
+
 
 	/**
 	 * Create a new empty accessor. Wrapped instance needs to be set afterwards.
@@ -174,6 +188,14 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 		return this.autoGrowCollectionLimit;
 	}
 
+	/**
+	 * Set whether to share parsed property names with other accessors
+	 * through a static cache.
+	 */
+	void setCachePropertyTokens(boolean cachePropertyTokens) {
+		this.cachePropertyTokens = cachePropertyTokens;
+	}
+
 	/**
 	 * Switch the target object, replacing the cached introspection results only
 	 * if the class of the new object is different to that of the replaced object.
@@ -945,11 +967,27 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 	}
 
 	/**
-	 * Parse the given property name into the corresponding property name tokens.
+	 * Parse the given property name into the corresponding property name tokens,
+	 * reusing a previously parsed representation if property token caching is on.
+	 * <p>Note that cached token holders are shared and must not be modified.
 	 * @param propertyName the property name to parse
 	 * @return representation of the parsed property tokens
 	 */
 	private PropertyTokenHolder getPropertyNameTokens(String propertyName) {
+		if (!this.cachePropertyTokens) {
+			return parsePropertyNameTokens(propertyName);
+		}
+		PropertyTokenHolder tokens = propertyTokensCache.get(propertyName);
+		if (tokens == null) {
+			tokens = parsePropertyNameTokens(propertyName);
+			if (propertyTokensCache.size() < PROPERTY_TOKENS_CACHE_LIMIT) {
+				propertyTokensCache.put(propertyName, tokens);
+			}
+		}
+		return tokens;
+	}
+
+	private PropertyTokenHolder parsePropertyNameTokens(String propertyName) {
 		String actualName = null;
 		List<String> keys = new ArrayList<>(2);
 		int searchIndex = 0;
@@ -25,6 +25,7 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.convert.Property;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.lang.Nullable;
@@ -62,6 +63,21 @@ import org.springframework.util.ReflectionUtils;
  */
 public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements BeanWrapper {
 
+	/**
+	 * System property that instructs Spring to use compiled property access by
+	 * default: "spring.beanwrapper.compile", with a value of "true" letting all
+	 * BeanWrapperImpl instances invoke bean property accessors through generated
+	 * bytecode rather than reflection, and share parsed property paths.
+	 * <p>The default is "false", unless switched on per instance through
+	 * {@link #setCompiledPropertyAccess}.
+	 * @since 5.2.9
+	 */
+	public static final String COMPILED_PROPERTY_ACCESS_PROPERTY_NAME = "spring.beanwrapper.compile";
+
+	private static final boolean defaultCompiledPropertyAccess =
+			SpringProperties.getFlag(COMPILED_PROPERTY_ACCESS_PROPERTY_NAME);
+
+
 	/**
 	 * Cached introspections results for this object, to prevent encountering
 	 * the cost of JavaBeans introspection every time.
@@ -75,6 +91,11 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	@Nullable
 	private AccessControlContext acc;
 
+	/**
+	 * Whether to invoke property accessors through generated bytecode.
+	 */
+	private boolean compiledPropertyAccess;
+
 
 	/**
 	 * Create a new empty BeanWrapperImpl. Wrapped instance needs to be set afterwards.
@@ -93,6 +114,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	 */
 	public BeanWrapperImpl(boolean registerDefaultEditors) {
 		super(registerDefaultEditors);
+		setCompiledPropertyAccess(defaultCompiledPropertyAccess);
 	}
 
 	/**
@@ -101,6 +123,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	 */
 	public BeanWrapperImpl(Object object) {
 		super(object);
+		setCompiledPropertyAccess(defaultCompiledPropertyAccess);
 	}
 
 	/**
@@ -109,6 +132,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	 */
 	public BeanWrapperImpl(Class<?> clazz) {
 		super(clazz);
+		setCompiledPropertyAccess(defaultCompiledPropertyAccess);
 	}
 
 	/**
@@ -120,6 +144,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	 */
 	public BeanWrapperImpl(Object object, String nestedPath, Object rootObject) {
 		super(object, nestedPath, rootObject);
+		setCompiledPropertyAccess(defaultCompiledPropertyAccess);
 	}
 
 	/**
@@ -132,6 +157,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	private BeanWrapperImpl(Object object, String nestedPath, BeanWrapperImpl parent) {
 		super(object, nestedPath, parent);
 		setSecurityContext(parent.acc);
+		setCompiledPropertyAccess(parent.compiledPropertyAccess);
 	}
 
 
@@ -193,6 +219,41 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 		return this.acc;
 	}
 
+	/**
+	 * Set whether to invoke the read and write methods of bean properties through
+	 * accessors generated with CGLIB per bean class, instead of via reflection.
+	 * This also lets this BeanWrapper share parsed property paths with other
+	 * BeanWrapper instances that have compiled property access switched on.
+	 * <p>Default is "false", unless the {@link #COMPILED_PROPERTY_ACCESS_PROPERTY_NAME}
+	 * system property has been set. Accessors that cannot be generated, e.g. for
+	 * non-public bean classes or methods, are always invoked reflectively, as is
+	 * any property access when running with a security manager.
+	 * @since 5.2.9
+	 */
+	public void setCompiledPropertyAccess(boolean compiledPropertyAccess) {
+		this.compiledPropertyAccess = compiledPropertyAccess;
+		setCachePropertyTokens(compiledPropertyAccess);
+	}
+
+	/**
+	 * Return whether property accessors are invoked through generated bytecode.
+	 * @since 5.2.9
+	 */
+	public boolean isCompiledPropertyAccess() {
+		return this.compiledPropertyAccess;
+	}
+
+	/**
+	 * Obtain a compiled accessor for the given read or write method, if available.
+	 */
+	@Nullable
+	private CachedIntrospectionResults.CompiledAccessor getCompiledAccessor(Method method) {
+		if (!this.compiledPropertyAccess || System.getSecurityManager() != null) {
+			return null;
+		}
+		return getCachedIntrospectionResults().getCompiledAccessor(method);
+	}
+
 
 	/**
 	 * Convert the given value for the specified property to the latter's type.
@@ -293,6 +354,10 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 		@Nullable
 		public Object getValue() throws Exception {
 			Method readMethod = this.pd.getReadMethod();
+			CachedIntrospectionResults.CompiledAccessor accessor = getCompiledAccessor(readMethod);
+			if (accessor != null) {
+				return accessor.get(getWrappedInstance());
+			}
 			if (System.getSecurityManager() != null) {
 				AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
 					ReflectionUtils.makeAccessible(readMethod);
@@ -317,6 +382,11 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 			Method writeMethod = (this.pd instanceof GenericTypeAwarePropertyDescriptor ?
 					((GenericTypeAwarePropertyDescriptor) this.pd).getWriteMethodForActualAccess() :
 					this.pd.getWriteMethod());
+			CachedIntrospectionResults.CompiledAccessor accessor = getCompiledAccessor(writeMethod);
+			if (accessor != null && accessor.isAssignableValue(value)) {
+				accessor.set(getWrappedInstance(), value);
+				return;
+			}
 			if (System.getSecurityManager() != null) {
 				AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
 					ReflectionUtils.makeAccessible(writeMethod);
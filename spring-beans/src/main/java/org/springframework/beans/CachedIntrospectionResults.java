@@ -20,6 +20,9 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -31,6 +34,8 @@ import java.util.concurrent.ConcurrentMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.reflect.FastClass;
 import org.springframework.core.SpringProperties;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.io.support.SpringFactoriesLoader;
@@ -94,6 +99,9 @@ public final class CachedIntrospectionResults {
 
 	private static final PropertyDescriptor[] EMPTY_PROPERTY_DESCRIPTOR_ARRAY = {};
 
+	/** Marker for accessor methods that need to be invoked reflectively. */
+	private static final Object NO_COMPILED_ACCESSOR = new Object();
+
 
 	private static final boolean shouldIntrospectorIgnoreBeaninfoClasses =
 			SpringProperties.getFlag(IGNORE_BEANINFO_PROPERTY_NAME);
@@ -260,6 +268,16 @@ public final class CachedIntrospectionResults {
 	/** TypeDescriptor objects keyed by PropertyDescriptor. */
 	private final ConcurrentMap<PropertyDescriptor, TypeDescriptor> typeDescriptorCache;
 
+	/** CompiledAccessor objects (or NO_COMPILED_ACCESSOR) keyed by read/write Method. */
+	private final ConcurrentMap<Method, Object> compiledAccessorCache = new ConcurrentHashMap<>(16);
+
+	/** Generated FastClass for the bean class, lazily initialized. */
+	@Nullable
+	private volatile FastClass fastClass;
+
+	/** Whether bytecode generation for the bean class has failed. */
+	private volatile boolean fastClassFailed;
+
 
 	/**
 	 * Create a new CachedIntrospectionResults instance for the given class.
@@ -375,4 +393,109 @@ public final class CachedIntrospectionResults {
 		return this.typeDescriptorCache.get(pd);
 	}
 
+	/**
+	 * Return a compiled accessor for the given read or write method, generating
+	 * bytecode for the bean class on first access.
+	 * @param method a read or write method of the bean class
+	 * @return the compiled accessor, or {@code null} if the method needs to be
+	 * invoked reflectively (e.g. for a non-public bean class or method)
+	 * @since 5.2.9
+	 */
+	@Nullable
+	CompiledAccessor getCompiledAccessor(Method method) {
+		Object accessor = this.compiledAccessorCache.get(method);
+		if (accessor == null) {
+			accessor = compileAccessor(method);
+			this.compiledAccessorCache.putIfAbsent(method, accessor);
+		}
+		return (accessor != NO_COMPILED_ACCESSOR ? (CompiledAccessor) accessor : null);
+	}
+
+	private Object compileAccessor(Method method) {
+		Class<?> beanClass = getBeanClass();
+		if (!Modifier.isPublic(beanClass.getModifiers()) || !Modifier.isPublic(method.getModifiers()) ||
+				beanClass.getClassLoader() == null || method.getParameterCount() > 1) {
+			return NO_COMPILED_ACCESSOR;
+		}
+		FastClass fastClass = getFastClass(beanClass);
+		if (fastClass == null) {
+			return NO_COMPILED_ACCESSOR;
+		}
+		int index = fastClass.getIndex(method.getName(), method.getParameterTypes());
+		if (index < 0) {
+			return NO_COMPILED_ACCESSOR;
+		}
+		return new CompiledAccessor(fastClass, index,
+				(method.getParameterCount() == 1 ? method.getParameterTypes()[0] : null));
+	}
+
+	@Nullable
+	private FastClass getFastClass(Class<?> beanClass) {
+		FastClass fastClass = this.fastClass;
+		if (fastClass == null && !this.fastClassFailed) {
+			try {
+				FastClass.Generator generator = new FastClass.Generator();
+				generator.setType(beanClass);
+				generator.setContextClass(beanClass);
+				generator.setClassLoader(beanClass.getClassLoader());
+				generator.setNamingPolicy(SpringNamingPolicy.INSTANCE);
+				fastClass = generator.create();
+				this.fastClass = fastClass;
+			}
+			catch (Throwable ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Could not generate property accessors for class [" + beanClass.getName() +
+							"] - falling back to reflective property access", ex);
+				}
+				this.fastClassFailed = true;
+			}
+		}
+		return fastClass;
+	}
+
+
+	/**
+	 * Generated accessor for a single read or write method, invoking the
+	 * method through a CGLIB {@link FastClass} instead of reflection.
+	 * @since 5.2.9
+	 */
+	static final class CompiledAccessor {
+
+		private final FastClass fastClass;
+
+		private final int index;
+
+		@Nullable
+		private final Class<?> parameterType;
+
+		CompiledAccessor(FastClass fastClass, int index, @Nullable Class<?> parameterType) {
+			this.fastClass = fastClass;
+			this.index = index;
+			this.parameterType = parameterType;
+		}
+
+		/**
+		 * Invoke the read method on the given target.
+		 */
+		@Nullable
+		Object get(Object target) throws InvocationTargetException {
+			return this.fastClass.invoke(this.index, target, null);
+		}
+
+		/**
+		 * Determine whether the given value can be passed to the write method
+		 * as-is, i.e. without leading to an argument mismatch.
+		 */
+		boolean isAssignableValue(@Nullable Object value) {
+			return (this.parameterType != null && ClassUtils.isAssignableValue(this.parameterType, value));
+		}
+
+		/**
+		 * Invoke the write method on the given target.
+		 */
+		void set(Object target, @Nullable Object value) throws InvocationTargetException {
+			this.fastClass.invoke(this.index, target, new Object[] {value});
+		}
+	}
+
 }
@@ -27,6 +27,7 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.HierarchicalBeanFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.lang.Nullable;
 import org.springframework.util.StringValueResolver;
 
@@ -280,6 +281,26 @@ public interface ConfigurableBeanFactory extends HierarchicalBeanFactory, Single
 	@Nullable
 	Scope getRegisteredScope(String scopeName);
 
+	/**
+	 * Set the {@code ApplicationStartup} for this bean factory.
+	 * <p>This allows the application context to record metrics during application startup.
+	 * @param applicationStartup the new application startup
+	 * <p>The default implementation is empty, for compatibility with custom
+	 * implementations of this interface which do not record any metrics.
+	 * @since 5.2.9
+	 */
+	default void setApplicationStartup(ApplicationStartup applicationStartup) {
+	}
+
+	/**
+	 * Return the {@code ApplicationStartup} for this bean factory.
+	 * <p>The default implementation returns {@link ApplicationStartup#DEFAULT}.
+	 * @since 5.2.9
+	 */
+	default ApplicationStartup getApplicationStartup() {
+		return ApplicationStartup.DEFAULT;
+	}
+
 	/**
 	 * Provides a security access control context relevant to this factory.
 	 * @return the applicable AccessControlContext (never {@code null})
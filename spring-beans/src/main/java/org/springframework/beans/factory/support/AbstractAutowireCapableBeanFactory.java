@@ -35,6 +35,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
@@ -76,6 +77,7 @@ import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -584,63 +586,72 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	protected Object createBean(String beanName, RootBeanDefinition mbd, @Nullable Object[] args)
 			throws BeanCreationException {
 
-		if (logger.isTraceEnabled()) {
-			logger.trace("Creating instance of bean '" + beanName + "'");
-		}
-		RootBeanDefinition mbdToUse = mbd;
+		StartupStep beanCreation = getApplicationStartup().start("spring.beans.instantiate").tag("beanName", beanName);
+		try {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Creating instance of bean '" + beanName + "'");
+			}
+			RootBeanDefinition mbdToUse = mbd;
 
-		// Make sure bean class is actually resolved at this point, and
-		// clone the bean definition in case of a dynamically resolved Class
-		// which cannot be stored in the shared merged bean definition.
-		// 锁定class，根据设置的class属性或者根据className来解析class
-		Class<?> resolvedClass = resolveBeanClass(mbd, beanName);
-		// 进行条件筛选，重新赋值RootBeanDefinition,并设置BeanClass属性
-		if (resolvedClass != null && !mbd.hasBeanClass() && mbd.getBeanClassName() != null) {
-			// 重新创建一个RootBeanDefinition对象
-			mbdToUse = new RootBeanDefinition(mbd);
-			// 设置BeanClass属性值
-			mbdToUse.setBeanClass(resolvedClass);
-		}
+			// Make sure bean class is actually resolved at this point, and
+			// clone the bean definition in case of a dynamically resolved Class
+			// which cannot be stored in the shared merged bean definition.
+			// 锁定class，根据设置的class属性或者根据className来解析class
+			Class<?> resolvedClass = resolveBeanClass(mbd, beanName);
+			// 进行条件筛选，重新赋值RootBeanDefinition,并设置BeanClass属性
+			if (resolvedClass != null && !mbd.hasBeanClass() && mbd.getBeanClassName() != null) {
+				// 重新创建一个RootBeanDefinition对象
+				mbdToUse = new RootBeanDefinition(mbd);
+				// 设置BeanClass属性值
+				mbdToUse.setBeanClass(resolvedClass);
+			}
+			if (resolvedClass != null) {
+				beanCreation.tag("beanType", resolvedClass::getName);
+			}
 
-		// Prepare method overrides.
-		// 验证及准备覆盖的方法,lookup-method  replace-method，当需要创建的bean对象中包含了lookup-method和replace-method标签的时候，会产生覆盖操作
-		try {
-			mbdToUse.prepareMethodOverrides();
-		}
-		catch (BeanDefinitionValidationException ex) {
-			throw new BeanDefinitionStoreException(mbdToUse.getResourceDescription(),
-					beanName, "Validation of method overrides failed", ex);
-		}
+			// Prepare method overrides.
+			// 验证及准备覆盖的方法,lookup-method  replace-method，当需要创建的bean对象中包含了lookup-method和replace-method标签的时候，会产生覆盖操作
+			try {
+				mbdToUse.prepareMethodOverrides();
+			}
+			catch (BeanDefinitionValidationException ex) {
+				throw new BeanDefinitionStoreException(mbdToUse.getResourceDescription(),
+						beanName, "Validation of method overrides failed", ex);
+			}
 
-		try {
-			// Give BeanPostProcessors a chance to return a proxy instead of the target bean instance.
-			// 给BeanPostProcessors一个机会来返回代理来替代真正的实例，应用实例化前的前置处理器,用户自定义动态代理的方式，针对于当前的被代理类需要经过标准的代理流程来创建对象
-			Object bean = resolveBeforeInstantiation(beanName, mbdToUse);
-			if (bean != null) {
-				return bean;
+			try {
+				// Give BeanPostProcessors a chance to return a proxy instead of the target bean instance.
+				// 给BeanPostProcessors一个机会来返回代理来替代真正的实例，应用实例化前的前置处理器,用户自定义动态代理的方式，针对于当前的被代理类需要经过标准的代理流程来创建对象
+				Object bean = resolveBeforeInstantiation(beanName, mbdToUse);
+				if (bean != null) {
+					return bean;
+				}
+			}
+			catch (Throwable ex) {
+				throw new BeanCreationException(mbdToUse.getResourceDescription(), beanName,
+						"BeanPostProcessor before instantiation of bean failed", ex);
 			}
-		}
-		catch (Throwable ex) {
-			throw new BeanCreationException(mbdToUse.getResourceDescription(), beanName,
-					"BeanPostProcessor before instantiation of bean failed", ex);
-		}
 
-		try {
-			// 实际创建bean的调用
-			Object beanInstance = doCreateBean(beanName, mbdToUse, args);
-			if (logger.isTraceEnabled()) {
-				logger.trace("Finished creating instance of bean '" + beanName + "'");
+			try {
+				// 实际创建bean的调用
+				Object beanInstance = doCreateBean(beanName, mbdToUse, args);
+				if (logger.isTraceEnabled()) {
+					logger.trace("Finished creating instance of bean '" + beanName + "'");
+				}
+				return beanInstance;
+			}
+			catch (BeanCreationException | ImplicitlyAppearedSingletonException ex) {
+				// A previously detected exception with proper bean creation context already,
+				// or illegal singleton state to be communicated up to DefaultSingletonBeanRegistry.
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new BeanCreationException(
+						mbdToUse.getResourceDescription(), beanName, "Unexpected exception during bean creation", ex);
 			}
-			return beanInstance;
-		}
-		catch (BeanCreationException | ImplicitlyAppearedSingletonException ex) {
-			// A previously detected exception with proper bean creation context already,
-			// or illegal singleton state to be communicated up to DefaultSingletonBeanRegistry.
-			throw ex;
 		}
-		catch (Throwable ex) {
-			throw new BeanCreationException(
-					mbdToUse.getResourceDescription(), beanName, "Unexpected exception during bean creation", ex);
+		finally {
+			beanCreation.end();
 		}
 	}
 
@@ -1212,65 +1223,87 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 */
 	@Nullable
 	private FactoryBean<?> getSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
-		synchronized (getSingletonMutex()) {
-			// 是否已经实例化
-			BeanWrapper bw = this.factoryBeanInstanceCache.get(beanName);
-			if (bw != null) {
-				// 实例化直接返回
-				return (FactoryBean<?>) bw.getWrappedInstance();
-			}
-			// factoryBeanInstanceCache没有，看看是否已经创建
-			Object beanInstance = getSingleton(beanName, false);
-			// 创建好的单例时FactoryBean，直接返回
-			if (beanInstance instanceof FactoryBean) {
-				return (FactoryBean<?>) beanInstance;
-			}
-			// 创建好的单例不是FactoryBean，或者已经创建或者正在创建，返回空
-			if (isSingletonCurrentlyInCreation(beanName) ||
-					(mbd.getFactoryBeanName() != null && isSingletonCurrentlyInCreation(mbd.getFactoryBeanName()))) {
+		if (isStripedSingletonLocking()) {
+			Lock creationLock = acquireSingletonCreationLock(beanName);
+			if (creationLock == null) {
 				return null;
 			}
-
-			Object instance;
 			try {
-				// Mark this bean as currently in creation, even if just partially.
-				// 创建前检查
-				beforeSingletonCreation(beanName);
-				// Give BeanPostProcessors a chance to return a proxy instead of the target bean instance.
-				// 看看代理能不能返回一个实例
-				instance = resolveBeforeInstantiation(beanName, mbd);
-				if (instance == null) {
-					// 代理没返回，就创建一个
-					bw = createBeanInstance(beanName, mbd, null);
-					instance = bw.getWrappedInstance();
-				}
-			}
-			catch (UnsatisfiedDependencyException ex) {
-				// Don't swallow, probably misconfiguration...
-				throw ex;
-			}
-			catch (BeanCreationException ex) {
-				// Instantiation failure, maybe too early...
-				if (logger.isDebugEnabled()) {
-					logger.debug("Bean creation exception on singleton FactoryBean type check: " + ex);
-				}
-				onSuppressedException(ex);
-				return null;
+				return doGetSingletonFactoryBeanForTypeCheck(beanName, mbd);
 			}
 			finally {
-				// Finished partial creation of this bean.
-				//  创建后检查
-				afterSingletonCreation(beanName);
+				creationLock.unlock();
 			}
+		}
+		synchronized (getSingletonMutex()) {
+			return doGetSingletonFactoryBeanForTypeCheck(beanName, mbd);
+		}
+	}
 
-			// 获取到的实例转换为FactoryBean
-			FactoryBean<?> fb = getFactoryBean(beanName, instance);
-			if (bw != null) {
-				// 放入缓存
-				this.factoryBeanInstanceCache.put(beanName, bw);
+	/**
+	 * Obtain a "shortcut" singleton FactoryBean instance for a type check while
+	 * holding either the singleton mutex or the bean's singleton creation lock.
+	 * @see #getSingletonFactoryBeanForTypeCheck
+	 */
+	@Nullable
+	private FactoryBean<?> doGetSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
+		// 是否已经实例化
+		BeanWrapper bw = this.factoryBeanInstanceCache.get(beanName);
+		if (bw != null) {
+			// 实例化直接返回
+			return (FactoryBean<?>) bw.getWrappedInstance();
+		}
+		// factoryBeanInstanceCache没有，看看是否已经创建
+		Object beanInstance = getSingleton(beanName, false);
+		// 创建好的单例时FactoryBean，直接返回
+		if (beanInstance instanceof FactoryBean) {
+			return (FactoryBean<?>) beanInstance;
+		}
+		// 创建好的单例不是FactoryBean，或者已经创建或者正在创建，返回空
+		if (isSingletonCurrentlyInCreation(beanName) ||
+				(mbd.getFactoryBeanName() != null && isSingletonCurrentlyInCreation(mbd.getFactoryBeanName()))) {
+			return null;
+		}
+
+		Object instance;
+		try {
+			// Mark this bean as currently in creation, even if just partially.
+			// 创建前检查
+			beforeSingletonCreation(beanName);
+			// Give BeanPostProcessors a chance to return a proxy instead of the target bean instance.
+			// 看看代理能不能返回一个实例
+			instance = resolveBeforeInstantiation(beanName, mbd);
+			if (instance == null) {
+				// 代理没返回，就创建一个
+				bw = createBeanInstance(beanName, mbd, null);
+				instance = bw.getWrappedInstance();
+			}
+		}
+		catch (UnsatisfiedDependencyException ex) {
+			// Don't swallow, probably misconfiguration...
+			throw ex;
+		}
+		catch (BeanCreationException ex) {
+			// Instantiation failure, maybe too early...
+			if (logger.isDebugEnabled()) {
+				logger.debug("Bean creation exception on singleton FactoryBean type check: " + ex);
 			}
-			return fb;
+			onSuppressedException(ex);
+			return null;
+		}
+		finally {
+			// Finished partial creation of this bean.
+			//  创建后检查
+			afterSingletonCreation(beanName);
+		}
+
+		// 获取到的实例转换为FactoryBean
+		FactoryBean<?> fb = getFactoryBean(beanName, instance);
+		if (bw != null) {
+			// 放入缓存
+			this.factoryBeanInstanceCache.put(beanName, bw);
 		}
+		return fb;
 	}
 
 	/**
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Inverted index from bean types to bean names, used by
+ * {@link DefaultListableBeanFactory} to narrow down the beans to check
+ * in a by-type lookup once its configuration has been frozen.
+ *
+ * <p>A bean is indexed under all superclasses and interfaces of the types
+ * that it may be matched by: the class of its singleton instance along with
+ * the target types of its merged bean definition or, as long as no instance
+ * exists, its bean class or the return type of its factory method, widened
+ * by any different type that a {@link SmartInstantiationAwareBeanPostProcessor}
+ * predicts for it. Beans whose type can only be determined by the type check
+ * itself are candidates for every lookup: FactoryBeans, decorated definitions,
+ * beans without resolvable type, and not yet instantiated non-singletons whose
+ * predicted type may change with every instance created. Since candidates still
+ * go through the regular type check, the index only needs to be a superset of
+ * the matches.
+ *
+ * <p>The index is updated incrementally whenever a bean definition or a
+ * singleton gets registered or removed, so that lookups are proportional
+ * to the number of candidates rather than to the number of beans. Lookups
+ * do not lock: the names per type are kept in registration order, and an
+ * update adds a bean under its new types before removing it from its old
+ * ones, so that a concurrent lookup never misses a bean.
+ *
+ * @since 5.2.9
+ * @see DefaultListableBeanFactory#getBeanNamesForType(ResolvableType, boolean, boolean)
+ */
+final class BeanTypeIndex {
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final int beanPostProcessorCount;
+
+	/** Post-processors that may predict a different type for a bean. */
+	private final List<SmartInstantiationAwareBeanPostProcessor> typePredictors = new ArrayList<>();
+
+	/** Index entries, keyed by bean name. */
+	private final Map<String, IndexEntry> entries = new ConcurrentHashMap<>(256);
+
+	/** Entries of the indexed beans, keyed by each type that they may match and sorted by order. */
+	private final Map<Class<?>, ConcurrentNavigableMap<Long, IndexEntry>> entriesByType =
+			new ConcurrentHashMap<>(256);
+
+	/** Entries of the beans to consider for any type, sorted by order. */
+	private final ConcurrentNavigableMap<Long, IndexEntry> untypedEntries = new ConcurrentSkipListMap<>();
+
+	/** Sequence for keeping candidates in registration order. */
+	private long order;
+
+
+	/**
+	 * Create a new BeanTypeIndex for the given bean factory,
+	 * indexing the given beans in the given order.
+	 * @param beanFactory the DefaultListableBeanFactory to index
+	 * @param beanDefinitionNames the names of all bean definitions
+	 * @param manualSingletonNames the names of all manually registered singletons
+	 */
+	BeanTypeIndex(DefaultListableBeanFactory beanFactory,
+			Collection<String> beanDefinitionNames, Collection<String> manualSingletonNames) {
+
+		this.beanFactory = beanFactory;
+		this.beanPostProcessorCount = beanFactory.getBeanPostProcessorCount();
+		if (beanFactory.hasInstantiationAwareBeanPostProcessors()) {
+			for (BeanPostProcessor bp : beanFactory.getBeanPostProcessors()) {
+				if (bp instanceof SmartInstantiationAwareBeanPostProcessor) {
+					this.typePredictors.add((SmartInstantiationAwareBeanPostProcessor) bp);
+				}
+			}
+		}
+		for (String beanName : beanDefinitionNames) {
+			update(beanName);
+		}
+		for (String beanName : manualSingletonNames) {
+			update(beanName);
+		}
+	}
+
+
+	/**
+	 * Return whether this index still reflects the post-processor
+	 * arrangement of the bean factory.
+	 */
+	boolean isCurrent() {
+		return (this.beanPostProcessorCount == this.beanFactory.getBeanPostProcessorCount());
+	}
+
+	/**
+	 * Return the raw type to look up candidates for the given type with,
+	 * or {@code null} if all beans need to be considered for it.
+	 */
+	@Nullable
+	static Class<?> getIndexedType(ResolvableType type) {
+		if (!(type.getType() instanceof Class || type.getType() instanceof ParameterizedType)) {
+			return null;
+		}
+		Class<?> resolved = type.resolve();
+		if (resolved == null || resolved == Object.class || resolved.isArray()) {
+			return null;
+		}
+		return ClassUtils.resolvePrimitiveIfNecessary(resolved);
+	}
+
+	/**
+	 * Return the names of the beans that may match the given type, in registration order.
+	 * @param type the type to look up (as returned by {@link #getIndexedType})
+	 * @param manualSingletons whether to return manually registered singletons
+	 * rather than beans backed by a bean definition
+	 */
+	List<String> getCandidateNames(Class<?> type, boolean manualSingletons) {
+		Map<Long, IndexEntry> typedEntries = this.entriesByType.get(type);
+		Iterator<IndexEntry> typed = (typedEntries != null ?
+				typedEntries.values().iterator() : Collections.emptyIterator());
+		Iterator<IndexEntry> untyped = this.untypedEntries.values().iterator();
+
+		// Merge both sequences, which are sorted by order already
+		List<String> candidateNames = new ArrayList<>();
+		IndexEntry nextTyped = (typed.hasNext() ? typed.next() : null);
+		IndexEntry nextUntyped = (untyped.hasNext() ? untyped.next() : null);
+		while (nextTyped != null || nextUntyped != null) {
+			IndexEntry candidate;
+			if (nextUntyped == null || (nextTyped != null && nextTyped.order <= nextUntyped.order)) {
+				candidate = nextTyped;
+				if (nextUntyped != null && nextUntyped.order == nextTyped.order) {
+					// Bean in transition between typed and untyped: consider it once
+					nextUntyped = (untyped.hasNext() ? untyped.next() : null);
+				}
+				nextTyped = (typed.hasNext() ? typed.next() : null);
+			}
+			else {
+				candidate = nextUntyped;
+				nextUntyped = (untyped.hasNext() ? untyped.next() : null);
+			}
+			if (candidate.manualSingleton == manualSingletons) {
+				candidateNames.add(candidate.beanName);
+			}
+		}
+		return candidateNames;
+	}
+
+	/**
+	 * Re-index the given bean according to its current bean definition and
+	 * singleton instance, or remove it from the index if neither exists anymore.
+	 * @param beanName the name of the bean
+	 */
+	void update(String beanName) {
+		boolean hasBeanDefinition = this.beanFactory.containsBeanDefinition(beanName);
+		boolean manualSingleton = (!hasBeanDefinition && this.beanFactory.containsSingleton(beanName));
+		Set<Class<?>> types = null;
+		if (hasBeanDefinition || manualSingleton) {
+			types = determineTypes(beanName, hasBeanDefinition);
+		}
+
+		synchronized (this.entries) {
+			IndexEntry existing = this.entries.get(beanName);
+			IndexEntry entry = null;
+			if (hasBeanDefinition || manualSingleton) {
+				// Keep the position of a bean that has been re-registered in place
+				long order = (existing != null && existing.manualSingleton == manualSingleton ?
+						existing.order : this.order++);
+				entry = new IndexEntry(beanName, manualSingleton, order, types);
+				addToIndex(entry);
+				this.entries.put(beanName, entry);
+			}
+			else {
+				this.entries.remove(beanName);
+			}
+			if (existing != null) {
+				removeFromIndex(existing, entry);
+			}
+		}
+	}
+
+	private void addToIndex(IndexEntry entry) {
+		if (entry.types != null) {
+			for (Class<?> type : entry.types) {
+				this.entriesByType.computeIfAbsent(type, key -> new ConcurrentSkipListMap<>()).put(entry.order, entry);
+			}
+		}
+		else {
+			this.untypedEntries.put(entry.order, entry);
+		}
+	}
+
+	private void removeFromIndex(IndexEntry entry, @Nullable IndexEntry replacement) {
+		boolean samePosition = (replacement != null && replacement.order == entry.order);
+		if (entry.types != null) {
+			for (Class<?> type : entry.types) {
+				if (samePosition && replacement.types != null && replacement.types.contains(type)) {
+					continue;
+				}
+				Map<Long, IndexEntry> typedEntries = this.entriesByType.get(type);
+				if (typedEntries != null) {
+					typedEntries.remove(entry.order);
+					if (typedEntries.isEmpty()) {
+						this.entriesByType.remove(type);
+					}
+				}
+			}
+		}
+		else if (!samePosition || replacement.types != null) {
+			this.untypedEntries.remove(entry.order);
+		}
+	}
+
+	/**
+	 * Determine the types that the given bean may be matched by.
+	 * @return the types, or {@code null} if the bean needs to be considered for any type
+	 */
+	@Nullable
+	private Set<Class<?>> determineTypes(String beanName, boolean hasBeanDefinition) {
+		try {
+			Set<Class<?>> types = new HashSet<>();
+			Object beanInstance = this.beanFactory.getSingleton(beanName, false);
+			if (beanInstance != null && beanInstance.getClass() != NullBean.class) {
+				if (beanInstance instanceof FactoryBean || !addTypeHierarchy(beanInstance.getClass(), types)) {
+					return null;
+				}
+				if (hasBeanDefinition) {
+					// Generic matches may be based on the target type of a proxied instance
+					RootBeanDefinition mbd = this.beanFactory.getMergedLocalBeanDefinition(beanName);
+					if (!addTargetTypes(mbd, types)) {
+						return null;
+					}
+				}
+				return types;
+			}
+			if (!hasBeanDefinition) {
+				return null;
+			}
+
+			RootBeanDefinition mbd = this.beanFactory.getMergedLocalBeanDefinition(beanName);
+			if (mbd.isAbstract()) {
+				return Collections.emptySet();
+			}
+			if (mbd.getDecoratedDefinition() != null) {
+				return null;
+			}
+			Class<?> beanType;
+			if (mbd.getFactoryMethodName() != null) {
+				beanType = this.beanFactory.getTypeForFactoryMethod(beanName, mbd);
+			}
+			else {
+				beanType = (mbd.hasBeanClass() ? mbd.getBeanClass() : null);
+			}
+			if (beanType == null || FactoryBean.class.isAssignableFrom(beanType) ||
+					!addTypeHierarchy(beanType, types) || !addTargetTypes(mbd, types) ||
+					!addPredictedType(beanName, mbd, beanType, types)) {
+				return null;
+			}
+			return types;
+		}
+		catch (BeansException ex) {
+			// Unresolvable bean definition: leave it to the regular type check.
+			return null;
+		}
+	}
+
+	/**
+	 * Add the type that the first post-processor with a prediction predicts
+	 * for the given bean, as in {@link AbstractAutowireCapableBeanFactory#predictBeanType}.
+	 * @return {@code false} if the prediction cannot be indexed
+	 */
+	private boolean addPredictedType(String beanName, RootBeanDefinition mbd, Class<?> beanType, Set<Class<?>> types) {
+		if (mbd.isSynthetic()) {
+			return true;
+		}
+		for (SmartInstantiationAwareBeanPostProcessor predictor : this.typePredictors) {
+			Class<?> predicted = predictor.predictBeanType(beanType, beanName);
+			if (predicted != null) {
+				if (predicted == beanType) {
+					return true;
+				}
+				return (mbd.isSingleton() && !FactoryBean.class.isAssignableFrom(predicted) &&
+						addTypeHierarchy(predicted, types));
+			}
+		}
+		return true;
+	}
+
+	private static boolean addTargetTypes(RootBeanDefinition mbd, Set<Class<?>> types) {
+		Class<?> targetType = mbd.getTargetType();
+		ResolvableType resolvableType = mbd.targetType;
+		ResolvableType factoryMethodReturnType = mbd.factoryMethodReturnType;
+		return ((targetType == null || addTypeHierarchy(targetType, types)) &&
+				(resolvableType == null || addTypeHierarchy(resolvableType.resolve(), types)) &&
+				(factoryMethodReturnType == null || addTypeHierarchy(factoryMethodReturnType.resolve(), types)));
+	}
+
+	private static boolean addTypeHierarchy(@Nullable Class<?> type, Set<Class<?>> types) {
+		if (type == null || type.isArray()) {
+			return false;
+		}
+		for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+			if (!types.add(current)) {
+				break;
+			}
+		}
+		types.addAll(ClassUtils.getAllInterfacesForClassAsSet(type));
+		return true;
+	}
+
+
+	/**
+	 * Index entry for a single bean.
+	 */
+	private static final class IndexEntry {
+
+		final String beanName;
+
+		final boolean manualSingleton;
+
+		final long order;
+
+		@Nullable
+		final Set<Class<?>> types;
+
+		IndexEntry(String beanName, boolean manualSingleton, long order, @Nullable Set<Class<?>> types) {
+			this.beanName = beanName;
+			this.manualSingleton = manualSingleton;
+			this.order = order;
+			this.types = types;
+		}
+	}
+
+}
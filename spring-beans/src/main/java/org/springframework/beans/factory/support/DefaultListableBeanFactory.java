@@ -40,6 +40,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -152,6 +153,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether to allow eager class loading even for lazy-init beans. */
 	private boolean allowEagerClassLoading = true;
 
+	/** Number of threads to pre-instantiate singletons with. */
+	private int preInstantiationParallelism = 1;
+
 	/** Optional OrderComparator for dependency Lists and arrays. */
 	@Nullable
 	private Comparator<Object> dependencyComparator;
@@ -189,6 +193,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether bean definition metadata may be cached for all beans. */
 	private volatile boolean configurationFrozen;
 
+	/** Index of bean names by type in case of frozen configuration. */
+	@Nullable
+	private volatile BeanTypeIndex beanTypeIndex;
+
+	/** Number of modifications that may affect the bean type index. */
+	private final AtomicLong beanTypeIndexModifications = new AtomicLong();
+
 
 	/**
 	 * Create a new DefaultListableBeanFactory.
@@ -273,6 +284,34 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.allowEagerClassLoading;
 	}
 
+	/**
+	 * Set the maximum number of threads to pre-instantiate non-lazy singletons with.
+	 * <p>Default is 1, creating all singletons one after the other on the calling
+	 * thread. With a higher value, singletons whose dependencies can be determined
+	 * from their bean definitions get created on a bounded {@code ForkJoinPool}
+	 * first, independent ones in parallel. All other singletons (e.g. FactoryBeans
+	 * and beans with a factory method) are created serially afterwards.
+	 * <p>A value greater than 1 requires
+	 * {@link #setStripedSingletonLocking striped singleton locking} to be switched
+	 * on as well, so that beans which worker threads create on demand are still
+	 * created only once. {@link #preInstantiateSingletons()} fails with an
+	 * {@link IllegalStateException} otherwise.
+	 * @since 5.2.9
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setPreInstantiationParallelism(int preInstantiationParallelism) {
+		Assert.isTrue(preInstantiationParallelism > 0, "Pre-instantiation parallelism must be greater than 0");
+		this.preInstantiationParallelism = preInstantiationParallelism;
+	}
+
+	/**
+	 * Return the maximum number of threads to pre-instantiate non-lazy singletons with.
+	 * @since 5.2.9
+	 */
+	public int getPreInstantiationParallelism() {
+		return this.preInstantiationParallelism;
+	}
+
 	/**
 	 * Set a {@link java.util.Comparator} for dependency Lists and arrays.
 	 * @since 4.0
@@ -328,6 +367,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			DefaultListableBeanFactory otherListableFactory = (DefaultListableBeanFactory) otherFactory;
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
+			this.preInstantiationParallelism = otherListableFactory.preInstantiationParallelism;
+			setStripedSingletonLocking(otherListableFactory.isStripedSingletonLocking());
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware
 			setAutowireCandidateResolver(otherListableFactory.getAutowireCandidateResolver().cloneIfNecessary());
@@ -535,9 +576,21 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
 		List<String> result = new ArrayList<>();
 
+		// Narrow down the beans to check through the type index, if available.
+		Collection<String> beanDefinitionNames = this.beanDefinitionNames;
+		Collection<String> manualSingletonNames = this.manualSingletonNames;
+		Class<?> indexedType = BeanTypeIndex.getIndexedType(type);
+		if (indexedType != null) {
+			BeanTypeIndex typeIndex = obtainBeanTypeIndex();
+			if (typeIndex != null) {
+				beanDefinitionNames = typeIndex.getCandidateNames(indexedType, false);
+				manualSingletonNames = typeIndex.getCandidateNames(indexedType, true);
+			}
+		}
+
 		// Check all bean definitions.
 		// 遍历BeanDefinitionNames集合
-		for (String beanName : this.beanDefinitionNames) {
+		for (String beanName : beanDefinitionNames) {
 			// Only consider bean as eligible if the bean name is not defined as alias for some other bean.
 			// 如果是别名，则直接跳过
 			if (!isAlias(beanName)) {
@@ -606,7 +659,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 		// Check manually registered singletons too.
 		// 遍历单例bean名称的集合
-		for (String beanName : this.manualSingletonNames) {
+		for (String beanName : manualSingletonNames) {
 			try {
 				// In case of FactoryBean, match object created by FactoryBean.
 				// 如果是factorybean，那么久调用getObjectType去匹配是否符合指定类型
@@ -635,6 +688,48 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return StringUtils.toStringArray(result);
 	}
 
+	/**
+	 * Obtain the index of bean names by type, building it if necessary.
+	 * @return the index, or {@code null} if not available since the
+	 * configuration has not been frozen yet or is being modified concurrently
+	 */
+	@Nullable
+	private BeanTypeIndex obtainBeanTypeIndex() {
+		if (!isConfigurationFrozen()) {
+			return null;
+		}
+		BeanTypeIndex typeIndex = this.beanTypeIndex;
+		if (typeIndex == null || !typeIndex.isCurrent()) {
+			long modifications = this.beanTypeIndexModifications.get();
+			typeIndex = new BeanTypeIndex(this, this.beanDefinitionNames, this.manualSingletonNames);
+			if (this.beanTypeIndexModifications.get() != modifications) {
+				// Registrations in the meantime might have been missed: rebuild on next access.
+				return null;
+			}
+			this.beanTypeIndex = typeIndex;
+		}
+		return typeIndex;
+	}
+
+	/**
+	 * Update the index of bean names by type for the given bean, if built already.
+	 */
+	private void updateBeanTypeIndex(String beanName) {
+		this.beanTypeIndexModifications.incrementAndGet();
+		BeanTypeIndex typeIndex = this.beanTypeIndex;
+		if (typeIndex != null) {
+			typeIndex.update(beanName);
+		}
+	}
+
+	/**
+	 * Discard the index of bean names by type, to be rebuilt on next access.
+	 */
+	private void clearBeanTypeIndex() {
+		this.beanTypeIndexModifications.incrementAndGet();
+		this.beanTypeIndex = null;
+	}
+
 	private boolean isSingleton(String beanName, RootBeanDefinition mbd, @Nullable BeanDefinitionHolder dbd) {
 		return (dbd != null ? mbd.isSingleton() : isSingleton(beanName));
 	}
@@ -923,6 +1018,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		super.clearMetadataCache();
 		this.mergedBeanDefinitionHolders.clear();
 		clearByTypeCache();
+		clearBeanTypeIndex();
 	}
 
 	@Override
@@ -957,6 +1053,14 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		// 将所有BeanDefinition的名字创建一个集合
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
+		// Create singletons with known dependencies in parallel, if demanded;
+		// the loop below then creates the remaining ones one after the other.
+		if (this.preInstantiationParallelism > 1) {
+			Assert.state(isStripedSingletonLocking(),
+					"Parallel pre-instantiation of singletons requires striped singleton locking");
+			new ParallelSingletonPreInstantiator(this, this.preInstantiationParallelism).preInstantiate(beanNames);
+		}
+
 		// Trigger initialization of all non-lazy singleton beans...
 		// 触发所有非延迟加载单例bean的初始化，遍历集合的对象
 		for (String beanName : beanNames) {
@@ -1102,6 +1206,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 		else if (isConfigurationFrozen()) {
 			clearByTypeCache();
+			updateBeanTypeIndex(beanName);
 		}
 	}
 
@@ -1188,11 +1293,32 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		clearByTypeCache();
 	}
 
+	/**
+	 * Overridden to keep the index of bean names by type up to date,
+	 * since the type of a singleton instance may differ from the type
+	 * predicted for its bean definition.
+	 */
+	@Override
+	protected void addSingleton(String beanName, Object singletonObject) {
+		super.addSingleton(beanName, singletonObject);
+		updateBeanTypeIndex(beanName);
+	}
+
+	/**
+	 * Overridden to keep the index of bean names by type up to date.
+	 */
+	@Override
+	protected void removeSingleton(String beanName) {
+		super.removeSingleton(beanName);
+		updateBeanTypeIndex(beanName);
+	}
+
 	@Override
 	public void destroySingletons() {
 		super.destroySingletons();
 		updateManualSingletonNames(Set::clear, set -> !set.isEmpty());
 		clearByTypeCache();
+		clearBeanTypeIndex();
 	}
 
 	@Override
@@ -1200,6 +1326,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		super.destroySingleton(beanName);
 		removeManualSingletonName(beanName);
 		clearByTypeCache();
+		updateBeanTypeIndex(beanName);
 	}
 
 	private void removeManualSingletonName(String beanName) {
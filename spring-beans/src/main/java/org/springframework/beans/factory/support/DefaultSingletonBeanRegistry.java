@@ -16,15 +16,20 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCreationNotAllowedException;
@@ -32,6 +37,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -80,6 +86,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/** Maximum number of suppressed exceptions to preserve. */
 	private static final int SUPPRESSED_EXCEPTIONS_LIMIT = 100;
 
+	/** Interval for re-checking a waiting singleton creation lock for deadlocks. */
+	private static final long CREATION_LOCK_CHECK_INTERVAL_MILLIS = 50;
+
 
 	/**
 	 * 一级缓存
@@ -134,11 +143,24 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	@Nullable
 	private Set<Exception> suppressedExceptions;
 
+	/** Suppressed Exceptions per creating thread, for striped locking mode. */
+	private final ThreadLocal<Set<Exception>> suppressedExceptionsPerThread =
+			new NamedThreadLocal<>("Suppressed exceptions of singleton creation");
+
 	/**
 	 * 指示我们当前是否在destroySingletons中的标志
 	 *
 	 * Flag that indicates whether we're currently within destroySingletons. */
-	private boolean singletonsCurrentlyInDestruction = false;
+	private volatile boolean singletonsCurrentlyInDestruction = false;
+
+	/** Whether to create singletons under per-bean-name locks instead of the singleton mutex. */
+	private volatile boolean stripedSingletonLocking = false;
+
+	/** Creation locks for striped locking mode: bean name to lock. */
+	private final Map<String, SingletonCreationLock> singletonCreationLocks = new ConcurrentHashMap<>(256);
+
+	/** Threads currently waiting for a creation lock: thread to awaited lock. */
+	private final Map<Thread, SingletonCreationLock> singletonCreationLockWaiters = new ConcurrentHashMap<>(16);
 
 	/**
 	 * 一次性Bean实例：bean名称 - DisposableBean实例。
@@ -162,6 +184,36 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<>(64);
 
 
+	/**
+	 * Set whether singleton creation should be guarded by per-bean-name locks
+	 * instead of the shared singleton mutex. Default is "false".
+	 * <p>Switch this on to let unrelated singletons be created in parallel, e.g.
+	 * lazily initialized singletons requested from several threads at once.
+	 * Fully initialized singletons are served without locking in either mode;
+	 * in striped mode, the singleton mutex is only held for short registration
+	 * steps rather than for the entire creation of a singleton.
+	 * <p>A circular reference between singletons that are being created on
+	 * different threads gets resolved through an early singleton reference,
+	 * just like within a single thread. If no early reference is available,
+	 * a {@link BeanCurrentlyInCreationException} is thrown instead of blocking.
+	 * <p>Needs to be switched on explicitly for
+	 * {@link DefaultListableBeanFactory#setPreInstantiationParallelism parallel
+	 * pre-instantiation} of singletons.
+	 * @since 5.2.9
+	 * @see #getSingletonMutex()
+	 */
+	public void setStripedSingletonLocking(boolean stripedSingletonLocking) {
+		this.stripedSingletonLocking = stripedSingletonLocking;
+	}
+
+	/**
+	 * Return whether singleton creation is guarded by per-bean-name locks.
+	 * @since 5.2.9
+	 */
+	public boolean isStripedSingletonLocking() {
+		return this.stripedSingletonLocking;
+	}
+
 	/**
 	 * 在给定的bean名称下，在bean注册器中将给定的现有对象注册为单例
 	 *
@@ -264,6 +316,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		Object singletonObject = this.singletonObjects.get(beanName);
 		// 如果单例对象缓存中没有，并且该beanName对应的单例bean正在创建中
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+			if (this.stripedSingletonLocking && !isSingletonCreationLockHeldByCurrentThread(beanName)) {
+				// Still in creation on another thread: do not expose its early reference here,
+				// let the caller wait for the fully initialized instance on the creation lock.
+				return null;
+			}
 			//从早期单例对象缓存中获取单例对象（之所称成为早期单例对象，是因为earlySingletonObjects里
 			// 的对象的都是通过提前曝光的ObjectFactory创建出来的，还未进行属性填充等操作）
 			singletonObject = this.earlySingletonObjects.get(beanName);
@@ -339,84 +396,284 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		// 如果beanName为null，抛出异常
 		Assert.notNull(beanName, "Bean name must not be null");
+		if (this.stripedSingletonLocking) {
+			// Quick check for existing instance without any lock
+			Object singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			Lock creationLock = acquireSingletonCreationLock(beanName);
+			if (creationLock == null) {
+				// Waiting would deadlock: treat it like a circular reference within one thread
+				return getEarlySingletonForCircularReference(beanName);
+			}
+			try {
+				return createSingletonIfNecessary(beanName, singletonFactory);
+			}
+			finally {
+				creationLock.unlock();
+			}
+		}
 		// 使用单例对象的高速缓存Map作为锁，保证线程同步
 		synchronized (this.singletonObjects) {
-			// 从单例对象的高速缓存Map中获取beanName对应的单例对象
-			Object singletonObject = this.singletonObjects.get(beanName);
-			// 如果单例对象获取不到
-			if (singletonObject == null) {
-				// 如果当前在destorySingletons中
-				if (this.singletonsCurrentlyInDestruction) {
-					throw new BeanCreationNotAllowedException(beanName,
-							"Singleton bean creation not allowed while singletons of this factory are in destruction " +
-							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
-				}
-				// 如果当前日志级别时调试
-				if (logger.isDebugEnabled()) {
-					logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
-				}
-				// 创建单例之前的回调,默认实现将单例注册为当前正在创建中
-				beforeSingletonCreation(beanName);
-				// 表示生成了新的单例对象的标记，默认为false，表示没有生成新的单例对象
-				boolean newSingleton = false;
-				// 有抑制异常记录标记,没有时为true,否则为false
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
+			return createSingletonIfNecessary(beanName, singletonFactory);
+		}
+	}
+
+	/**
+	 * Return the singleton object registered under the given name, creating
+	 * and registering a new one if none registered yet. To be called while
+	 * holding either the singleton mutex or the singleton's creation lock.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to lazily create the singleton with
+	 * @return the registered singleton object
+	 */
+	private Object createSingletonIfNecessary(String beanName, ObjectFactory<?> singletonFactory) {
+		// 从单例对象的高速缓存Map中获取beanName对应的单例对象
+		Object singletonObject = this.singletonObjects.get(beanName);
+		// 如果单例对象获取不到
+		if (singletonObject == null) {
+			// 如果当前在destorySingletons中
+			if (this.singletonsCurrentlyInDestruction) {
+				throw new BeanCreationNotAllowedException(beanName,
+						"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+						"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+			}
+			// 如果当前日志级别时调试
+			if (logger.isDebugEnabled()) {
+				logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+			}
+			// 创建单例之前的回调,默认实现将单例注册为当前正在创建中
+			beforeSingletonCreation(beanName);
+			// 表示生成了新的单例对象的标记，默认为false，表示没有生成新的单例对象
+			boolean newSingleton = false;
+			// 有抑制异常记录标记,没有时为true,否则为false
+			boolean recordSuppressedExceptions;
+			synchronized (this.singletonObjects) {
+				recordSuppressedExceptions = (getSuppressedExceptions() == null);
 				// 如果没有抑制异常记录
 				if (recordSuppressedExceptions) {
 					// 对抑制的异常列表进行实例化(LinkedHashSet)
-					this.suppressedExceptions = new LinkedHashSet<>();
+					setSuppressedExceptions(new LinkedHashSet<>());
 				}
-				try {
-					// 从单例工厂中获取对象
-					singletonObject = singletonFactory.getObject();
-					// 生成了新的单例对象的标记为true，表示生成了新的单例对象
-					newSingleton = true;
-				}
-				catch (IllegalStateException ex) {
-					// Has the singleton object implicitly appeared in the meantime ->
-					// if yes, proceed with it since the exception indicates that state.
-					// 同时，单例对象是否隐式出现 -> 如果是，请继续操作，因为异常表明该状态
-					// 尝试从单例对象的高速缓存Map中获取beanName的单例对象
-					singletonObject = this.singletonObjects.get(beanName);
-					// 如果获取失败，抛出异常
-					if (singletonObject == null) {
-						throw ex;
-					}
+			}
+			try {
+				// 从单例工厂中获取对象
+				singletonObject = singletonFactory.getObject();
+				// 生成了新的单例对象的标记为true，表示生成了新的单例对象
+				newSingleton = true;
+			}
+			catch (IllegalStateException ex) {
+				// Has the singleton object implicitly appeared in the meantime ->
+				// if yes, proceed with it since the exception indicates that state.
+				// 同时，单例对象是否隐式出现 -> 如果是，请继续操作，因为异常表明该状态
+				// 尝试从单例对象的高速缓存Map中获取beanName的单例对象
+				singletonObject = this.singletonObjects.get(beanName);
+				// 如果获取失败，抛出异常
+				if (singletonObject == null) {
+					throw ex;
 				}
-				// 捕捉Bean创建异常
-				catch (BeanCreationException ex) {
-					// 如果没有抑制异常记录
-					if (recordSuppressedExceptions) {
-						// 遍历抑制的异常列表
-						for (Exception suppressedException : this.suppressedExceptions) {
-							// 将抑制的异常对象添加到 bean创建异常 中，这样做的，就是相当于 '因XXX异常导致了Bean创建异常‘ 的说法
-							ex.addRelatedCause(suppressedException);
+			}
+			// 捕捉Bean创建异常
+			catch (BeanCreationException ex) {
+				// 如果没有抑制异常记录
+				if (recordSuppressedExceptions) {
+					synchronized (this.singletonObjects) {
+						Set<Exception> suppressedExceptions = getSuppressedExceptions();
+						if (suppressedExceptions != null) {
+							// 遍历抑制的异常列表
+							for (Exception suppressedException : suppressedExceptions) {
+								// 将抑制的异常对象添加到 bean创建异常 中，这样做的，就是相当于 '因XXX异常导致了Bean创建异常‘ 的说法
+								ex.addRelatedCause(suppressedException);
+							}
 						}
 					}
-					// 抛出异常
-					throw ex;
 				}
-				finally {
-					// 如果没有抑制异常记录
-					if (recordSuppressedExceptions) {
+				// 抛出异常
+				throw ex;
+			}
+			finally {
+				// 如果没有抑制异常记录
+				if (recordSuppressedExceptions) {
+					synchronized (this.singletonObjects) {
 						// 将抑制的异常列表置为null，因为suppressedExceptions是对应单个bean的异常记录，置为null
 						// 可防止异常信息的混乱
-						this.suppressedExceptions = null;
+						setSuppressedExceptions(null);
+					}
+				}
+				// 创建单例后的回调,默认实现将单例标记为不在创建中
+				afterSingletonCreation(beanName);
+			}
+			// 生成了新的单例对象
+			if (newSingleton) {
+				// 将beanName和singletonObject的映射关系添加到该工厂的单例缓存中:
+				addSingleton(beanName, singletonObject);
+			}
+		}
+		// 返回该单例对象
+		return singletonObject;
+	}
+
+	/**
+	 * Obtain an early reference to the given singleton for a circular reference
+	 * across threads, i.e. when waiting for the singleton's creation lock would
+	 * deadlock with the creating thread.
+	 * @param beanName the name of the bean
+	 * @return the fully initialized or early singleton object
+	 * @throws BeanCurrentlyInCreationException if no early reference is available
+	 */
+	private Object getEarlySingletonForCircularReference(String beanName) {
+		Object singletonObject;
+		synchronized (this.singletonObjects) {
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				singletonObject = this.earlySingletonObjects.get(beanName);
+				if (singletonObject == null) {
+					ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+					if (singletonFactory != null) {
+						singletonObject = singletonFactory.getObject();
+						this.earlySingletonObjects.put(beanName, singletonObject);
+						this.singletonFactories.remove(beanName);
 					}
-					// 创建单例后的回调,默认实现将单例标记为不在创建中
-					afterSingletonCreation(beanName);
 				}
-				// 生成了新的单例对象
-				if (newSingleton) {
-					// 将beanName和singletonObject的映射关系添加到该工厂的单例缓存中:
-					addSingleton(beanName, singletonObject);
+			}
+		}
+		if (singletonObject == null) {
+			throw new BeanCurrentlyInCreationException(beanName,
+					"Requested bean is currently in creation on another thread which in turn waits " +
+					"for a bean in creation on this thread: Is there an unresolvable circular reference?");
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Acquire the creation lock for the given singleton in striped locking mode,
+	 * waiting for a concurrent creation of the same singleton to complete.
+	 * <p>Instead of waiting for a lock that is held by a thread which in turn
+	 * (directly or transitively) waits for a lock held by the current thread,
+	 * this method returns {@code null}, leaving it up to the caller to resolve
+	 * the circular reference or to give up.
+	 * @param beanName the name of the bean
+	 * @return the acquired lock, to be released through {@link Lock#unlock()},
+	 * or {@code null} if waiting for it would deadlock
+	 * @throws BeanCreationException if interrupted while waiting
+	 * @since 5.2.9
+	 * @see #setStripedSingletonLocking
+	 */
+	@Nullable
+	protected Lock acquireSingletonCreationLock(String beanName) {
+		while (true) {
+			SingletonCreationLock lock =
+					this.singletonCreationLocks.computeIfAbsent(beanName, SingletonCreationLock::new);
+			if (!awaitSingletonCreationLock(lock)) {
+				return null;
+			}
+			if (!lock.isDiscarded()) {
+				return lock;
+			}
+			// Lock got removed by destroySingleton in the meantime: retry with a new one
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Wait for the given creation lock, unless waiting would deadlock.
+	 * @return {@code true} if the lock has been acquired
+	 */
+	private boolean awaitSingletonCreationLock(SingletonCreationLock lock) {
+		if (lock.tryLock()) {
+			return true;
+		}
+		Thread currentThread = Thread.currentThread();
+		this.singletonCreationLockWaiters.put(currentThread, lock);
+		try {
+			while (!shouldBreakWaitingCycle(lock, currentThread)) {
+				if (lock.tryLock(CREATION_LOCK_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new BeanCreationException(lock.getBeanName(), "Interrupted while waiting for singleton creation lock", ex);
+		}
+		finally {
+			this.singletonCreationLockWaiters.remove(currentThread);
+		}
+	}
+
+	/**
+	 * Determine whether the current thread should stop waiting for the given lock
+	 * since it closes a cycle of threads waiting for each other's creation locks.
+	 * <p>Every thread in such a cycle which awaits a singleton with an early
+	 * reference available may break the cycle. If there is no such thread,
+	 * the one with the lowest id gives up, so that the others can proceed.
+	 */
+	private boolean shouldBreakWaitingCycle(SingletonCreationLock lock, Thread currentThread) {
+		List<SingletonCreationLock> cycle = new ArrayList<>();
+		SingletonCreationLock awaitedLock = lock;
+		int maxSteps = this.singletonCreationLockWaiters.size();
+		while (awaitedLock != null && cycle.size() <= maxSteps) {
+			Thread owner = awaitedLock.getOwner();
+			if (owner == null) {
+				return false;
+			}
+			cycle.add(awaitedLock);
+			if (owner == currentThread) {
+				if (hasEarlySingletonReference(lock.getBeanName())) {
+					return true;
+				}
+				long minThreadId = currentThread.getId();
+				for (SingletonCreationLock lockInCycle : cycle) {
+					if (hasEarlySingletonReference(lockInCycle.getBeanName())) {
+						return false;
+					}
+					Thread ownerInCycle = lockInCycle.getOwner();
+					if (ownerInCycle != null) {
+						minThreadId = Math.min(minThreadId, ownerInCycle.getId());
+					}
 				}
+				return (currentThread.getId() == minThreadId);
 			}
-			// 返回该单例对象
-			return singletonObject;
+			awaitedLock = this.singletonCreationLockWaiters.get(owner);
+		}
+		return false;
+	}
+
+	/**
+	 * Return whether an early reference to the given singleton is available.
+	 */
+	private boolean hasEarlySingletonReference(String beanName) {
+		synchronized (this.singletonObjects) {
+			return (this.earlySingletonObjects.containsKey(beanName) ||
+					this.singletonFactories.containsKey(beanName));
 		}
 	}
 
+	/**
+	 * Remove the creation lock for the given singleton in striped locking mode,
+	 * unless a singleton creation currently holds it.
+	 */
+	private void removeSingletonCreationLock(String beanName) {
+		this.singletonCreationLocks.computeIfPresent(beanName, (name, lock) -> {
+			if (lock.isHeldByCurrentThread() || !lock.tryLock()) {
+				return lock;
+			}
+			lock.discard();
+			lock.unlock();
+			return null;
+		});
+	}
+
+	/**
+	 * Return whether the current thread holds the creation lock for the given singleton.
+	 */
+	private boolean isSingletonCreationLockHeldByCurrentThread(String beanName) {
+		SingletonCreationLock lock = this.singletonCreationLocks.get(beanName);
+		return (lock != null && lock.isHeldByCurrentThread());
+	}
+
 	/**
 	 * 将要注册的异常对象添加到 抑制异常列表中，注意抑制异常列表【#suppressedExceptions】是Set集合
 	 *
@@ -432,11 +689,37 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		// 使用singletonObject同步加锁
 		synchronized (this.singletonObjects) {
 			// 如果抑制异常列表不为null
-			if (this.suppressedExceptions != null && this.suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
+			Set<Exception> suppressedExceptions = getSuppressedExceptions();
+			if (suppressedExceptions != null && suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
 				// 将要注册的异常对象添加到抑制异常列表中，注意抑制异常列表是Set集合
-				this.suppressedExceptions.add(ex);
+				suppressedExceptions.add(ex);
+			}
+		}
+	}
+
+	/**
+	 * Return the suppressed exceptions recorded for the singleton creation in
+	 * progress: shared within the singleton mutex, or per thread in striped
+	 * locking mode where singletons may be created concurrently.
+	 */
+	@Nullable
+	private Set<Exception> getSuppressedExceptions() {
+		return (this.stripedSingletonLocking ?
+				this.suppressedExceptionsPerThread.get() : this.suppressedExceptions);
+	}
+
+	private void setSuppressedExceptions(@Nullable Set<Exception> suppressedExceptions) {
+		if (this.stripedSingletonLocking) {
+			if (suppressedExceptions != null) {
+				this.suppressedExceptionsPerThread.set(suppressedExceptions);
+			}
+			else {
+				this.suppressedExceptionsPerThread.remove();
 			}
 		}
+		else {
+			this.suppressedExceptions = suppressedExceptions;
+		}
 	}
 
 	/**
@@ -809,6 +1092,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			// 设置当前是否在destroySingletons中的标志为false
 			this.singletonsCurrentlyInDestruction = false;
 		}
+		for (String beanName : this.singletonCreationLocks.keySet()) {
+			removeSingletonCreationLock(beanName);
+		}
 	}
 
 	/**
@@ -823,6 +1109,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		// Remove a registered singleton of the given name, if any.
 		// 删除给定名称的已注册的单例（如果有）
 		removeSingleton(beanName);
+		removeSingletonCreationLock(beanName);
 
 		// Destroy the corresponding DisposableBean instance.
 		// 销毁相应的DisposableBean实例
@@ -941,4 +1228,43 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		return this.singletonObjects;
 	}
 
+
+	/**
+	 * Creation lock for a single bean name, exposing its owner thread
+	 * for deadlock detection.
+	 */
+	@SuppressWarnings("serial")
+	private static class SingletonCreationLock extends ReentrantLock {
+
+		private final String beanName;
+
+		private boolean discarded;
+
+		public SingletonCreationLock(String beanName) {
+			this.beanName = beanName;
+		}
+
+		public String getBeanName() {
+			return this.beanName;
+		}
+
+		/**
+		 * Mark this lock as removed from the registry. To be called while holding it,
+		 * so that any thread acquiring it afterwards sees the flag.
+		 */
+		public void discard() {
+			this.discarded = true;
+		}
+
+		public boolean isDiscarded() {
+			return this.discarded;
+		}
+
+		@Override
+		@Nullable
+		public Thread getOwner() {
+			return super.getOwner();
+		}
+	}
+
 }
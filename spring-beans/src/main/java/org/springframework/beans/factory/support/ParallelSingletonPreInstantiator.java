@@ -0,0 +1,450 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.apache.commons.logging.Log;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Delegate for pre-instantiating non-lazy singletons on a bounded
+ * {@link ForkJoinPool}, used by {@link DefaultListableBeanFactory}
+ * if a pre-instantiation parallelism greater than 1 has been set.
+ *
+ * <p>Builds a dependency graph from the merged bean definitions: depends-on
+ * declarations, factory bean references as well as bean references in
+ * constructor arguments and property values, including inner beans and
+ * managed collections. Singletons are created as soon as all of their
+ * dependencies have been created, independent subgraphs in parallel.
+ *
+ * <p>Dependencies injected by annotation-driven post-processors are taken
+ * from the post-processors themselves: the constructors that they determine
+ * for autowiring, and the fields and methods that their injection metadata
+ * registers as {@linkplain RootBeanDefinition#isExternallyManagedConfigMember
+ * externally managed config members}, as done by
+ * {@code AutowiredAnnotationBeanPostProcessor} and
+ * {@code CommonAnnotationBeanPostProcessor}. Such a bean depends on all beans
+ * that match the type of an injection point. Other annotated members do not
+ * matter.
+ *
+ * <p>Singletons whose dependencies cannot be determined ahead of time are
+ * left out of the graph, to be created serially afterwards: FactoryBeans,
+ * beans with an explicit autowire mode or a factory method, beans with
+ * lookup methods or instance suppliers, beans referencing other beans
+ * through expressions, and {@link BeanFactoryAware} beans. The same applies
+ * to singletons that depend on such beans, on non-singleton beans, or on
+ * each other in a cycle.
+ *
+ * @since 5.2.9
+ * @see DefaultListableBeanFactory#setPreInstantiationParallelism
+ */
+class ParallelSingletonPreInstantiator {
+
+	private static final String EXPRESSION_PREFIX = "#{";
+
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final int parallelism;
+
+	/** Dependencies within the creation graph: bean name to names of beans it depends on. */
+	private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+
+	/**
+	 * Create a new ParallelSingletonPreInstantiator for the given bean factory.
+	 * @param beanFactory the DefaultListableBeanFactory to work on
+	 * @param parallelism the maximum number of creation threads
+	 */
+	public ParallelSingletonPreInstantiator(DefaultListableBeanFactory beanFactory, int parallelism) {
+		this.beanFactory = beanFactory;
+		this.parallelism = parallelism;
+	}
+
+
+	/**
+	 * Create all singletons among the given bean names whose dependencies can
+	 * be determined ahead of time, in dependency order and as parallel as possible.
+	 * <p>Any remaining singletons are left for serial pre-instantiation.
+	 * @param beanNames the names of the beans to consider
+	 * @throws BeansException if any of the singletons could not be created
+	 */
+	public void preInstantiate(List<String> beanNames) throws BeansException {
+		List<String> creationOrder = determineCreationOrder(beanNames);
+		Log logger = this.beanFactory.getLogger();
+		if (logger.isDebugEnabled()) {
+			logger.debug("Pre-instantiating " + creationOrder.size() + " of " + beanNames.size() +
+					" bean definitions with parallelism " + this.parallelism);
+		}
+		if (creationOrder.size() < 2) {
+			return;
+		}
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		ForkJoinPool pool = new ForkJoinPool(this.parallelism, forkJoinPool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+			thread.setName("singleton-pre-instantiation-" + thread.getPoolIndex());
+			thread.setContextClassLoader(classLoader);
+			return thread;
+		}, null, false);
+		try {
+			Map<String, CompletableFuture<Void>> creations = new HashMap<>(creationOrder.size());
+			for (String beanName : creationOrder) {
+				Set<String> beanDependencies = this.dependencies.get(beanName);
+				CompletableFuture<?>[] dependencyCreations = new CompletableFuture<?>[beanDependencies.size()];
+				int i = 0;
+				for (String dependency : beanDependencies) {
+					dependencyCreations[i++] = creations.get(dependency);
+				}
+				creations.put(beanName, CompletableFuture.allOf(dependencyCreations)
+						.thenRunAsync(() -> this.beanFactory.getBean(beanName), pool));
+			}
+			// Waits for all creations to complete, even in case of failures
+			CompletableFuture.allOf(creations.values().toArray(new CompletableFuture<?>[0])).join();
+		}
+		catch (CompletionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new BeanCreationException("Parallel pre-instantiation of singletons failed", cause);
+		}
+		finally {
+			pool.shutdown();
+			this.dependencies.clear();
+		}
+	}
+
+	/**
+	 * Build the dependency graph for the given bean names and determine a creation
+	 * order in which every singleton follows the singletons it depends on.
+	 * @return the names of the singletons to create, in creation order
+	 */
+	private List<String> determineCreationOrder(List<String> beanNames) {
+		for (String beanName : beanNames) {
+			RootBeanDefinition mbd = this.beanFactory.getMergedLocalBeanDefinition(beanName);
+			if (!mbd.isAbstract() && mbd.isSingleton() && !mbd.isLazyInit() &&
+					!this.beanFactory.containsSingleton(beanName) && !this.beanFactory.isFactoryBean(beanName)) {
+				Set<String> beanDependencies = determineDependencies(beanName, mbd);
+				if (beanDependencies != null) {
+					this.dependencies.put(beanName, beanDependencies);
+				}
+			}
+		}
+
+		// Topological sort: singletons on a cycle or depending on a bean outside
+		// of the graph (other than an existing singleton) never become ready.
+		Map<String, List<String>> dependents = new HashMap<>();
+		Map<String, Integer> pendingCounts = new HashMap<>();
+		Deque<String> ready = new ArrayDeque<>();
+		for (Map.Entry<String, Set<String>> entry : this.dependencies.entrySet()) {
+			int pendingCount = 0;
+			for (String dependency : entry.getValue()) {
+				if (this.dependencies.containsKey(dependency)) {
+					dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(entry.getKey());
+					pendingCount++;
+				}
+				else if (!this.beanFactory.containsSingleton(dependency)) {
+					pendingCount = -1;
+					break;
+				}
+			}
+			if (pendingCount == 0) {
+				ready.add(entry.getKey());
+			}
+			pendingCounts.put(entry.getKey(), pendingCount);
+		}
+		List<String> creationOrder = new ArrayList<>(this.dependencies.size());
+		while (!ready.isEmpty()) {
+			String beanName = ready.poll();
+			creationOrder.add(beanName);
+			for (String dependent : dependents.getOrDefault(beanName, Collections.emptyList())) {
+				int pendingCount = pendingCounts.get(dependent);
+				if (pendingCount > 0) {
+					pendingCounts.put(dependent, --pendingCount);
+					if (pendingCount == 0) {
+						ready.add(dependent);
+					}
+				}
+			}
+		}
+		this.dependencies.keySet().retainAll(creationOrder);
+		for (Set<String> beanDependencies : this.dependencies.values()) {
+			beanDependencies.retainAll(this.dependencies.keySet());
+		}
+		return creationOrder;
+	}
+
+	/**
+	 * Determine the names of the beans that the given bean depends on.
+	 * @return the canonical bean names, or {@code null} if the dependencies
+	 * cannot be determined from the bean definition
+	 */
+	@Nullable
+	private Set<String> determineDependencies(String beanName, RootBeanDefinition mbd) {
+		Class<?> beanClass;
+		try {
+			beanClass = this.beanFactory.resolveBeanClass(mbd, beanName);
+		}
+		catch (BeansException ex) {
+			// Leave it up to serial creation to report the problem
+			return null;
+		}
+		Set<String> beanDependencies = new LinkedHashSet<>();
+		if (!collectDependencies(beanName, mbd, beanClass, beanDependencies)) {
+			return null;
+		}
+		beanDependencies.remove(beanName);
+		return beanDependencies;
+	}
+
+	private boolean collectDependencies(
+			String beanName, BeanDefinition bd, @Nullable Class<?> beanClass, Set<String> beanDependencies) {
+
+		if (bd instanceof AbstractBeanDefinition) {
+			AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+			if (abd.getResolvedAutowireMode() != AbstractBeanDefinition.AUTOWIRE_NO ||
+					abd.getInstanceSupplier() != null || abd.hasMethodOverrides()) {
+				return false;
+			}
+			if (beanClass == null && abd.hasBeanClass()) {
+				beanClass = abd.getBeanClass();
+			}
+		}
+		if (!collectInjectedDependencies(beanName, bd, beanClass, beanDependencies)) {
+			return false;
+		}
+
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependsOnBean : dependsOn) {
+				beanDependencies.add(this.beanFactory.canonicalName(dependsOnBean));
+			}
+		}
+		if (bd.getFactoryBeanName() != null) {
+			beanDependencies.add(this.beanFactory.canonicalName(bd.getFactoryBeanName()));
+		}
+		ConstructorArgumentValues argumentValues = bd.getConstructorArgumentValues();
+		for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getIndexedArgumentValues().values()) {
+			if (!collectDependencies(valueHolder.getValue(), beanDependencies)) {
+				return false;
+			}
+		}
+		for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getGenericArgumentValues()) {
+			if (!collectDependencies(valueHolder.getValue(), beanDependencies)) {
+				return false;
+			}
+		}
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+			if (!collectDependencies(pv.getValue(), beanDependencies)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean collectDependencies(@Nullable Object value, Set<String> beanDependencies) {
+		if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference ref = (RuntimeBeanReference) value;
+			if (ref.getBeanType() != null || ref.isToParent() || isExpression(ref.getBeanName())) {
+				return false;
+			}
+			beanDependencies.add(this.beanFactory.canonicalName(ref.getBeanName()));
+			return true;
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			BeanDefinitionHolder holder = (BeanDefinitionHolder) value;
+			return collectDependencies(holder.getBeanName(), holder.getBeanDefinition(), null, beanDependencies);
+		}
+		else if (value instanceof BeanDefinition) {
+			// Same name as generated by BeanDefinitionValueResolver
+			String innerBeanName = "(inner bean)" + BeanFactoryUtils.GENERATED_BEAN_NAME_SEPARATOR +
+					ObjectUtils.getIdentityHexString(value);
+			return collectDependencies(innerBeanName, (BeanDefinition) value, null, beanDependencies);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				if (!collectDependencies(element, beanDependencies)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				if (!collectDependencies(entry.getKey(), beanDependencies) ||
+						!collectDependencies(entry.getValue(), beanDependencies)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		else if (value instanceof TypedStringValue) {
+			return !isExpression(((TypedStringValue) value).getValue());
+		}
+		else if (value instanceof String) {
+			return !isExpression((String) value);
+		}
+		return true;
+	}
+
+	private boolean isExpression(@Nullable String value) {
+		return (value != null && this.beanFactory.getBeanExpressionResolver() != null &&
+				value.contains(EXPRESSION_PREFIX));
+	}
+
+	/**
+	 * Collect the dependencies that instantiation-aware post-processors are going
+	 * to inject into the given bean, based on their injection metadata.
+	 * @return {@code false} if the bean may obtain further beans behind our back,
+	 * through the factory itself or through injection that cannot be determined
+	 */
+	private boolean collectInjectedDependencies(
+			String beanName, BeanDefinition bd, @Nullable Class<?> beanClass, Set<String> beanDependencies) {
+
+		if (beanClass != null && BeanFactoryAware.class.isAssignableFrom(beanClass)) {
+			return false;
+		}
+		if (!this.beanFactory.hasInstantiationAwareBeanPostProcessors()) {
+			return true;
+		}
+		if (beanClass == null || bd.getFactoryMethodName() != null) {
+			// Instance type not known upfront
+			return false;
+		}
+		try {
+			Constructor<?>[] ctors = this.beanFactory.determineConstructorsFromBeanPostProcessors(beanClass, beanName);
+			if (ctors != null) {
+				for (Constructor<?> ctor : ctors) {
+					for (int i = 0; i < ctor.getParameterCount(); i++) {
+						collectDependencies(new DependencyDescriptor(new MethodParameter(ctor, i), false),
+								beanDependencies);
+					}
+				}
+			}
+			else if (!hasDefaultConstructor(beanClass) && !bd.hasConstructorArgumentValues()) {
+				return false;
+			}
+
+			// Let the post-processors register the members that they inject on a copy
+			// of the bean definition; their injection metadata is cached for creation.
+			RootBeanDefinition postProcessed = (bd instanceof RootBeanDefinition ?
+					((RootBeanDefinition) bd).cloneBeanDefinition() : new RootBeanDefinition(bd));
+			this.beanFactory.applyMergedBeanDefinitionPostProcessors(postProcessed, beanClass, beanName);
+			for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+				for (Field field : clazz.getDeclaredFields()) {
+					if (postProcessed.isExternallyManagedConfigMember(field)) {
+						collectDependencies(new DependencyDescriptor(field, false), beanDependencies);
+					}
+				}
+				for (Method method : clazz.getDeclaredMethods()) {
+					if (postProcessed.isExternallyManagedConfigMember(method)) {
+						for (int i = 0; i < method.getParameterCount(); i++) {
+							collectDependencies(new DependencyDescriptor(new MethodParameter(method, i), false),
+									beanDependencies);
+						}
+					}
+				}
+			}
+		}
+		catch (BeansException ex) {
+			// Leave it up to serial creation to report the problem
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Add all beans that match the type of the given injection point,
+	 * or its element type for collections, maps and lazy lookups.
+	 */
+	private void collectDependencies(DependencyDescriptor descriptor, Set<String> beanDependencies) {
+		ResolvableType type = descriptor.getResolvableType();
+		Class<?> rawType = type.toClass();
+		if (rawType == Optional.class) {
+			type = type.getGeneric();
+		}
+		else if (ObjectFactory.class.isAssignableFrom(rawType)) {
+			type = type.as(ObjectFactory.class).getGeneric();
+		}
+		rawType = type.toClass();
+		if (rawType.isArray()) {
+			type = type.getComponentType();
+		}
+		else if (Collection.class.isAssignableFrom(rawType)) {
+			type = type.asCollection().getGeneric();
+		}
+		else if (Map.class.isAssignableFrom(rawType)) {
+			type = type.asMap().getGeneric(1);
+		}
+		if (BeanUtils.isSimpleValueType(type.toClass())) {
+			return;
+		}
+		for (String candidate : this.beanFactory.getBeanNamesForType(type, true, false)) {
+			beanDependencies.add(candidate);
+		}
+	}
+
+	private static boolean hasDefaultConstructor(Class<?> beanClass) {
+		for (Constructor<?> constructor : beanClass.getDeclaredConstructors()) {
+			if (constructor.getParameterCount() == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Runs the {@link BeanWrapperTests} with compiled property access switched on.
+ */
+public class BeanWrapperCompiledAccessTests extends BeanWrapperTests {
+
+	@Override
+	protected BeanWrapperImpl createAccessor(Object target) {
+		BeanWrapperImpl accessor = new BeanWrapperImpl(target);
+		accessor.setCompiledPropertyAccess(true);
+		return accessor;
+	}
+
+
+	@Test
+	public void compiledAccessorIsGeneratedForPublicBeanClass() throws Exception {
+		TestBean target = new TestBean();
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("name", "tom");
+		assertThat(accessor.getPropertyValue("name")).isEqualTo("tom");
+
+		CachedIntrospectionResults results = CachedIntrospectionResults.forClass(TestBean.class);
+		assertThat(results.getCompiledAccessor(TestBean.class.getMethod("getName"))).isNotNull();
+		assertThat(results.getCompiledAccessor(TestBean.class.getMethod("setName", String.class))).isNotNull();
+	}
+
+	@Test
+	public void compiledAccessIsPropagatedToNestedBeanWrappers() {
+		TestBean target = new TestBean();
+		target.setSpouse(new TestBean());
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("spouse.age", "42");
+		assertThat(accessor.getPropertyValue("spouse.age")).isEqualTo(42);
+		assertThat(((BeanWrapperImpl) accessor.getPropertyAccessorForPropertyPath("spouse.age"))
+				.isCompiledPropertyAccess()).isTrue();
+	}
+
+	@Test
+	public void nonPublicBeanClassFallsBackToReflection() throws Exception {
+		NonPublicBean target = new NonPublicBean();
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("name", "tom");
+		assertThat(accessor.getPropertyValue("name")).isEqualTo("tom");
+		assertThat(CachedIntrospectionResults.forClass(NonPublicBean.class)
+				.getCompiledAccessor(NonPublicBean.class.getMethod("getName"))).isNull();
+	}
+
+	@Test
+	public void setterExceptionIsExposedAsMethodInvocationException() {
+		BeanWrapperImpl accessor = createAccessor(new ThrowingBean());
+		assertThatExceptionOfType(MethodInvocationException.class).isThrownBy(() ->
+				accessor.setPropertyValue("name", "tom"))
+			.satisfies(ex -> assertThat(ex.getCause()).isInstanceOf(IllegalStateException.class));
+	}
+
+	@Test
+	public void primitivePropertySetToNullFallsBackToReflection() {
+		BeanWrapperImpl accessor = createAccessor(new TestBean());
+		PropertyValue pv = new PropertyValue("age", null);
+		pv.conversionNecessary = false;
+		assertThatExceptionOfType(MethodInvocationException.class).isThrownBy(() ->
+				accessor.setPropertyValue(pv))
+			.satisfies(ex -> assertThat(ex.getCause()).isInstanceOf(IllegalArgumentException.class));
+	}
+
+
+	static class NonPublicBean {
+
+		private String name;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+
+	public static class ThrowingBean {
+
+		public String getName() {
+			return null;
+		}
+
+		public void setName(String name) {
+			throw new IllegalStateException(name);
+		}
+	}
+
+}
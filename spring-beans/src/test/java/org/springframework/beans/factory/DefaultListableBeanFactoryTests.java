@@ -56,6 +56,8 @@ import org.springframework.beans.PropertyEditorRegistry;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.AutowiredPropertyMarker;
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -66,6 +68,7 @@ import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
 import org.springframework.beans.factory.config.PropertiesFactoryBean;
 import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
 import org.springframework.beans.factory.config.TypedStringValue;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.AbstractBeanFactory;
@@ -957,6 +960,82 @@ class DefaultListableBeanFactoryTests {
 		lbf.removeBeanDefinition(name);
 	}
 
+	@Test
+	void parallelPreInstantiation() {
+		lbf.setStripedSingletonLocking(true);
+		lbf.setPreInstantiationParallelism(4);
+		for (int i = 0; i < 8; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(ThreadRecordingBean.class);
+			if (i % 4 != 0) {
+				bd.getPropertyValues().add("dependency", new RuntimeBeanReference("bean" + (i - 1)));
+			}
+			lbf.registerBeanDefinition("bean" + i, bd);
+		}
+		RootBeanDefinition awareBd = new RootBeanDefinition(BeanFactoryAwareThreadRecordingBean.class);
+		awareBd.getPropertyValues().add("dependency", new RuntimeBeanReference("bean7"));
+		lbf.registerBeanDefinition("aware", awareBd);
+		lbf.preInstantiateSingletons();
+
+		for (int i = 0; i < 8; i++) {
+			ThreadRecordingBean bean = lbf.getBean("bean" + i, ThreadRecordingBean.class);
+			assertThat(bean.getCreationThread()).isNotSameAs(Thread.currentThread());
+			if (i % 4 != 0) {
+				assertThat(bean.getDependency()).isSameAs(lbf.getBean("bean" + (i - 1)));
+			}
+		}
+		// Dependencies of a BeanFactoryAware bean cannot be determined upfront
+		ThreadRecordingBean aware = lbf.getBean("aware", ThreadRecordingBean.class);
+		assertThat(aware.getCreationThread()).isSameAs(Thread.currentThread());
+		assertThat(aware.getDependency()).isSameAs(lbf.getBean("bean7"));
+	}
+
+	@Test
+	void parallelPreInstantiationWithAnnotationInjection() {
+		AutowiredAnnotationBeanPostProcessor bpp = new AutowiredAnnotationBeanPostProcessor();
+		bpp.setBeanFactory(lbf);
+		lbf.addBeanPostProcessor(bpp);
+		lbf.setStripedSingletonLocking(true);
+		lbf.setPreInstantiationParallelism(4);
+		lbf.registerBeanDefinition("fieldInjected", new RootBeanDefinition(FieldInjectedThreadRecordingBean.class));
+		lbf.registerBeanDefinition("constructorInjected",
+				new RootBeanDefinition(ConstructorInjectedThreadRecordingBean.class));
+		lbf.registerBeanDefinition("dependency", new RootBeanDefinition(DependencyThreadRecordingBean.class));
+		lbf.preInstantiateSingletons();
+
+		DependencyThreadRecordingBean dependency = lbf.getBean("dependency", DependencyThreadRecordingBean.class);
+		assertThat(dependency.getCreationThread()).isNotSameAs(Thread.currentThread());
+		FieldInjectedThreadRecordingBean fieldInjected =
+				lbf.getBean("fieldInjected", FieldInjectedThreadRecordingBean.class);
+		assertThat(fieldInjected.getCreationThread()).isNotSameAs(Thread.currentThread());
+		assertThat(fieldInjected.getDependency()).isSameAs(dependency);
+		ThreadRecordingBean constructorInjected = lbf.getBean("constructorInjected", ThreadRecordingBean.class);
+		assertThat(constructorInjected.getCreationThread()).isNotSameAs(Thread.currentThread());
+		assertThat(constructorInjected.getDependency()).isSameAs(dependency);
+		assertThat(lbf.getDependenciesForBean("fieldInjected")).containsExactly("dependency");
+	}
+
+	@Test
+	void parallelPreInstantiationRequiresStripedSingletonLocking() {
+		lbf.setPreInstantiationParallelism(4);
+		lbf.registerBeanDefinition("bean1", new RootBeanDefinition(ThreadRecordingBean.class));
+		assertThatIllegalStateException().isThrownBy(lbf::preInstantiateSingletons);
+	}
+
+	@Test
+	void parallelPreInstantiationWithCreationFailure() {
+		lbf.setStripedSingletonLocking(true);
+		lbf.setPreInstantiationParallelism(4);
+		lbf.registerBeanDefinition("bean1", new RootBeanDefinition(ThreadRecordingBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition(ThreadRecordingBean.class);
+		bd.getPropertyValues().add("dependency", new RuntimeBeanReference("bean1"));
+		bd.getPropertyValues().add("nonExisting", "value");
+		lbf.registerBeanDefinition("bean2", bd);
+		lbf.registerBeanDefinition("bean3", new RootBeanDefinition(ThreadRecordingBean.class));
+
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(lbf::preInstantiateSingletons)
+				.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("bean2"));
+	}
+
 	@Test
 	void beanReferenceWithNewSyntax() {
 		Properties p = new Properties();
@@ -1923,6 +2002,67 @@ class DefaultListableBeanFactoryTests {
 		assertThat(beanNames[0]).isEqualTo("&factoryBean");
 	}
 
+	@Test
+	void getBeanNamesForTypeWithFrozenConfigurationAndLaterRegistrations() {
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("nested", new RootBeanDefinition(NestedTestBean.class));
+		lbf.registerBeanDefinition("factoryBean", new RootBeanDefinition(DummyFactory.class));
+		lbf.freezeConfiguration();
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("test", "factoryBean");
+		assertThat(lbf.getBeanNamesForType(ResolvableType.forClass(ITestBean.class))).containsExactly("test", "factoryBean");
+
+		lbf.registerBeanDefinition("derived", new RootBeanDefinition(DerivedTestBean.class));
+		lbf.registerSingleton("manual", new TestBean());
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("test", "factoryBean", "derived", "manual");
+		assertThat(lbf.getBeanNamesForType(DerivedTestBean.class)).containsExactly("derived");
+
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(NestedTestBean.class));
+		lbf.removeBeanDefinition("derived");
+		lbf.destroySingleton("manual");
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("factoryBean");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("test", "nested");
+		assertThat(lbf.getBeansOfType(NestedTestBean.class)).containsOnlyKeys("test", "nested");
+	}
+
+	@Test
+	void getBeanNamesForTypeWithFrozenConfigurationAndWrappedSingleton() {
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+		lbf.addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return (bean instanceof TestBean ? new NestedTestBean("wrapped") : bean);
+			}
+		});
+		lbf.freezeConfiguration();
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("test");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class, true, false)).isEmpty();
+
+		lbf.preInstantiateSingletons();
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class, true, false)).containsExactly("test");
+		assertThat(lbf.getBeanNamesForType(ITestBean.class, true, false)).isEmpty();
+	}
+
+	@Test
+	void getBeanNamesForTypeWithFrozenConfigurationAndFactoryMethodAndPredictedType() {
+		RootBeanDefinition factoryMethodDefinition = new RootBeanDefinition(TestBeanFactory.class);
+		factoryMethodDefinition.setFactoryMethodName("createTestBean");
+		lbf.registerBeanDefinition("factoryMethod", factoryMethodDefinition);
+		RootBeanDefinition predictedDefinition = new RootBeanDefinition(TestBean.class);
+		predictedDefinition.setLazyInit(true);
+		lbf.registerBeanDefinition("predicted", predictedDefinition);
+		lbf.registerBeanDefinition("nested", new RootBeanDefinition(NestedTestBean.class));
+		lbf.addBeanPostProcessor(new SmartInstantiationAwareBeanPostProcessor() {
+			@Override
+			public Class<?> predictBeanType(Class<?> beanClass, String beanName) {
+				return ("predicted".equals(beanName) ? DerivedTestBean.class : null);
+			}
+		});
+		lbf.freezeConfiguration();
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("factoryMethod", "predicted");
+		assertThat(lbf.getBeanNamesForType(DerivedTestBean.class)).containsExactly("predicted");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("nested");
+	}
+
 	/**
 	 * Verifies that a dependency on a {@link FactoryBean} can <strong>not</strong>
 	 * be autowired <em>by name</em>, as &amp; is an illegal character in
@@ -3356,6 +3496,61 @@ class DefaultListableBeanFactoryTests {
 	}
 
 
+	public static class ThreadRecordingBean {
+
+		private final Thread creationThread = Thread.currentThread();
+
+		private Object dependency;
+
+		public Thread getCreationThread() {
+			return this.creationThread;
+		}
+
+		public void setDependency(Object dependency) {
+			this.dependency = dependency;
+		}
+
+		public Object getDependency() {
+			return this.dependency;
+		}
+	}
+
+
+	public static class BeanFactoryAwareThreadRecordingBean extends ThreadRecordingBean implements BeanFactoryAware {
+
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+		}
+	}
+
+
+	public static class DependencyThreadRecordingBean extends ThreadRecordingBean {
+	}
+
+
+	public static class FieldInjectedThreadRecordingBean extends ThreadRecordingBean {
+
+		@Autowired
+		private DependencyThreadRecordingBean injected;
+
+		@Nullable
+		private String description;
+
+		@Override
+		public Object getDependency() {
+			return this.injected;
+		}
+	}
+
+
+	public static class ConstructorInjectedThreadRecordingBean extends ThreadRecordingBean {
+
+		public ConstructorInjectedThreadRecordingBean(DependencyThreadRecordingBean dependency) {
+			setDependency(dependency);
+		}
+	}
+
+
 	private static class TestBeanRecipient {
 
 		public TestBean testBean;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,19 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.testfixture.beans.DerivedTestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
@@ -101,4 +111,153 @@ public class DefaultSingletonBeanRegistryTests {
 		assertThat(beanRegistry.isDependent("c", "c")).isTrue();
 	}
 
+	@Test
+	public void testStripedLockingCreatesSingletonOnce() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setStripedSingletonLocking(true);
+		CountDownLatch inCreation = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		AtomicInteger creationCount = new AtomicInteger();
+
+		CompletableFuture<Object> first = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("tb", () -> {
+					inCreation.countDown();
+					awaitQuietly(proceed);
+					creationCount.incrementAndGet();
+					return new TestBean();
+				}));
+		assertThat(inCreation.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// An unrelated singleton does not wait for the ongoing creation
+		TestBean other = (TestBean) beanRegistry.getSingleton("other", TestBean::new);
+		assertThat(beanRegistry.getSingleton("other")).isSameAs(other);
+		// No early reference to a singleton that another thread is still creating
+		assertThat(beanRegistry.getSingleton("tb")).isNull();
+
+		CompletableFuture<Object> second = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("tb", () -> {
+					creationCount.incrementAndGet();
+					return new TestBean();
+				}));
+		proceed.countDown();
+
+		Object tb = first.get(5, TimeUnit.SECONDS);
+		assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(tb);
+		assertThat(beanRegistry.getSingleton("tb")).isSameAs(tb);
+		assertThat(creationCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testStripedLockingResolvesCrossThreadCircularReference() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setStripedSingletonLocking(true);
+		CountDownLatch bothInCreation = new CountDownLatch(2);
+		TestBean earlyA = new TestBean("a");
+
+		CompletableFuture<Object> a = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("a", () -> {
+					beanRegistry.addSingletonFactory("a", () -> earlyA);
+					bothInCreation.countDown();
+					awaitQuietly(bothInCreation);
+					earlyA.setSpouse((TestBean) beanRegistry.getSingleton("b", TestBean::new));
+					return earlyA;
+				}));
+		CompletableFuture<Object> b = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("b", () -> {
+					bothInCreation.countDown();
+					awaitQuietly(bothInCreation);
+					TestBean tb = new TestBean("b");
+					tb.setSpouse((TestBean) beanRegistry.getSingleton("a", TestBean::new));
+					return tb;
+				}));
+
+		assertThat(a.get(5, TimeUnit.SECONDS)).isSameAs(earlyA);
+		assertThat(((TestBean) b.get(5, TimeUnit.SECONDS)).getSpouse()).isSameAs(earlyA);
+		assertThat(earlyA.getSpouse()).isSameAs(b.get());
+	}
+
+	@Test
+	public void testStripedLockingDetectsUnresolvableCrossThreadCircularReference() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setStripedSingletonLocking(true);
+		CountDownLatch bothInCreation = new CountDownLatch(2);
+
+		CompletableFuture<Object> a = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("a", () -> {
+					bothInCreation.countDown();
+					awaitQuietly(bothInCreation);
+					return new TestBean("a", beanRegistry.getSingleton("b", TestBean::new).hashCode());
+				}));
+		CompletableFuture<Object> b = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("b", () -> {
+					bothInCreation.countDown();
+					awaitQuietly(bothInCreation);
+					return new TestBean("b", beanRegistry.getSingleton("a", TestBean::new).hashCode());
+				}));
+
+		// Exactly one of the threads gives up instead of both blocking forever
+		Throwable failureA = a.handle((result, ex) -> ex).get(5, TimeUnit.SECONDS);
+		Throwable failureB = b.handle((result, ex) -> ex).get(5, TimeUnit.SECONDS);
+		assertThat(failureA == null ^ failureB == null).isTrue();
+		assertThat(failureA != null ? failureA : failureB).hasCauseInstanceOf(BeanCurrentlyInCreationException.class);
+	}
+
+	@Test
+	public void testStripedLockingKeepsSuppressedExceptionsPerCreation() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setStripedSingletonLocking(true);
+		CountDownLatch bothSuppressed = new CountDownLatch(2);
+
+		CompletableFuture<Throwable> a = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("a", () -> {
+					beanRegistry.onSuppressedException(new IllegalStateException("a"));
+					bothSuppressed.countDown();
+					awaitQuietly(bothSuppressed);
+					throw new BeanCreationException("a", "failed");
+				})).handle((result, ex) -> ex.getCause());
+		CompletableFuture<Throwable> b = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("b", () -> {
+					beanRegistry.onSuppressedException(new IllegalStateException("b"));
+					bothSuppressed.countDown();
+					awaitQuietly(bothSuppressed);
+					throw new BeanCreationException("b", "failed");
+				})).handle((result, ex) -> ex.getCause());
+
+		BeanCreationException failureA = (BeanCreationException) a.get(5, TimeUnit.SECONDS);
+		BeanCreationException failureB = (BeanCreationException) b.get(5, TimeUnit.SECONDS);
+		assertThat(failureA.getRelatedCauses()).extracting(Throwable::getMessage).containsExactly("a");
+		assertThat(failureB.getRelatedCauses()).extracting(Throwable::getMessage).containsExactly("b");
+	}
+
+	@Test
+	public void testStripedLockingRemovesCreationLockOnDestruction() {
+		List<Lock> locks = new ArrayList<>();
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry() {
+			@Override
+			protected Lock acquireSingletonCreationLock(String beanName) {
+				Lock lock = super.acquireSingletonCreationLock(beanName);
+				locks.add(lock);
+				return lock;
+			}
+		};
+		beanRegistry.setStripedSingletonLocking(true);
+
+		beanRegistry.getSingleton("tb", TestBean::new);
+		beanRegistry.destroySingleton("tb");
+		beanRegistry.getSingleton("tb", TestBean::new);
+		beanRegistry.destroySingletons();
+		beanRegistry.getSingleton("tb", TestBean::new);
+
+		assertThat(locks).hasSize(3).doesNotContainNull().doesNotHaveDuplicates();
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
 }
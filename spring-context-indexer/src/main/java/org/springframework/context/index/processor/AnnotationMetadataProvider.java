@@ -0,0 +1,291 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.SimpleAnnotationValueVisitor8;
+import javax.lang.model.util.Types;
+
+/**
+ * Provide the annotation metadata of a candidate type, that is the information
+ * that would otherwise be read from its class file at runtime: its declaration,
+ * type hierarchy, member classes, runtime-retained annotations, and the methods
+ * that declare runtime-retained annotations.
+ *
+ * <p>Each attribute is rendered as a {@code String}, using the Java syntax for
+ * annotations and method declarations with binary type names. Annotation
+ * attributes are only recorded if they are explicitly declared.
+ *
+ * @since 5.2.9
+ */
+class AnnotationMetadataProvider {
+
+	static final String DECLARATION = "declaration";
+
+	static final String SUPERCLASS = "superclass";
+
+	static final String INTERFACES = "interfaces";
+
+	static final String ENCLOSING_CLASS = "enclosingClass";
+
+	static final String MEMBER_CLASSES = "memberClasses";
+
+	static final String ANNOTATIONS = "annotations";
+
+	static final String METHODS = "methods";
+
+
+	private final Elements elements;
+
+	private final Types types;
+
+	private final AnnotationValueRenderer valueRenderer = new AnnotationValueRenderer();
+
+
+	public AnnotationMetadataProvider(ProcessingEnvironment env) {
+		this.elements = env.getElementUtils();
+		this.types = env.getTypeUtils();
+	}
+
+
+	/**
+	 * Return the annotation metadata of the specified type, keyed by attribute.
+	 * @param element the type to describe
+	 * @return the metadata attributes of the type
+	 */
+	public Map<String, String> getMetadata(TypeElement element) {
+		Map<String, String> metadata = new LinkedHashMap<>();
+		metadata.put(DECLARATION, getDeclaration(element));
+		TypeMirror superclass = element.getSuperclass();
+		if (superclass.getKind() == TypeKind.DECLARED) {
+			metadata.put(SUPERCLASS, getTypeName(superclass));
+		}
+		else if (element.getKind() != ElementKind.INTERFACE && element.getKind() != ElementKind.ANNOTATION_TYPE) {
+			metadata.put(SUPERCLASS, Object.class.getName());
+		}
+		List<String> interfaces = new ArrayList<>();
+		for (TypeMirror type : element.getInterfaces()) {
+			interfaces.add(getTypeName(type));
+		}
+		putIfNotEmpty(metadata, INTERFACES, String.join(",", interfaces));
+		if (element.getNestingKind() == NestingKind.MEMBER) {
+			metadata.put(ENCLOSING_CLASS, getTypeName(element.getEnclosingElement().asType()));
+		}
+		List<String> memberClasses = new ArrayList<>();
+		List<String> methods = new ArrayList<>();
+		for (Element enclosed : element.getEnclosedElements()) {
+			if (enclosed instanceof TypeElement) {
+				memberClasses.add(getTypeName(enclosed.asType()));
+			}
+			else if (enclosed instanceof ExecutableElement) {
+				String annotations = getAnnotations(enclosed);
+				if (!annotations.isEmpty()) {
+					methods.add(getMethod((ExecutableElement) enclosed, annotations));
+				}
+			}
+		}
+		putIfNotEmpty(metadata, MEMBER_CLASSES, String.join(",", memberClasses));
+		putIfNotEmpty(metadata, ANNOTATIONS, getAnnotations(element));
+		putIfNotEmpty(metadata, METHODS, String.join(" ", methods));
+		return metadata;
+	}
+
+	private void putIfNotEmpty(Map<String, String> metadata, String attribute, String value) {
+		if (!value.isEmpty()) {
+			metadata.put(attribute, value);
+		}
+	}
+
+	private String getDeclaration(TypeElement element) {
+		Set<Modifier> modifiers = element.getModifiers();
+		StringBuilder declaration = new StringBuilder();
+		appendModifiers(declaration, modifiers, Modifier.PUBLIC, Modifier.PROTECTED, Modifier.PRIVATE);
+		ElementKind kind = element.getKind();
+		boolean isInterface = (kind == ElementKind.INTERFACE || kind == ElementKind.ANNOTATION_TYPE);
+		if (isInterface || modifiers.contains(Modifier.ABSTRACT)) {
+			declaration.append("abstract ");
+		}
+		if (element.getNestingKind() == NestingKind.MEMBER &&
+				(isInterface || kind == ElementKind.ENUM || modifiers.contains(Modifier.STATIC))) {
+			declaration.append("static ");
+		}
+		appendModifiers(declaration, modifiers, Modifier.FINAL);
+		if (kind == ElementKind.ANNOTATION_TYPE) {
+			declaration.append("@interface ");
+		}
+		else if (kind == ElementKind.INTERFACE) {
+			declaration.append("interface ");
+		}
+		else if (kind == ElementKind.ENUM) {
+			declaration.append("enum ");
+		}
+		else {
+			declaration.append("class ");
+		}
+		return declaration.append(getTypeName(element.asType())).toString();
+	}
+
+	private String getMethod(ExecutableElement element, String annotations) {
+		StringBuilder method = new StringBuilder(annotations).append(' ');
+		appendModifiers(method, element.getModifiers(), Modifier.PUBLIC, Modifier.PROTECTED,
+				Modifier.PRIVATE, Modifier.ABSTRACT, Modifier.STATIC, Modifier.FINAL);
+		boolean constructor = (element.getKind() == ElementKind.CONSTRUCTOR);
+		method.append(constructor ? "void" : getTypeName(element.getReturnType())).append(' ');
+		method.append(constructor ? "<init>" : element.getSimpleName().toString()).append('(');
+		List<String> parameterTypes = new ArrayList<>();
+		for (VariableElement parameter : element.getParameters()) {
+			parameterTypes.add(getTypeName(parameter.asType()));
+		}
+		return method.append(String.join(",", parameterTypes)).append(");").toString();
+	}
+
+	private void appendModifiers(StringBuilder builder, Set<Modifier> modifiers, Modifier... candidates) {
+		for (Modifier candidate : candidates) {
+			if (modifiers.contains(candidate)) {
+				builder.append(candidate).append(' ');
+			}
+		}
+	}
+
+	private String getAnnotations(Element element) {
+		List<String> annotations = new ArrayList<>();
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (isRuntimeRetained(annotation)) {
+				annotations.add(getAnnotation(annotation));
+			}
+		}
+		return String.join(" ", annotations);
+	}
+
+	private boolean isRuntimeRetained(AnnotationMirror annotation) {
+		Retention retention = annotation.getAnnotationType().asElement().getAnnotation(Retention.class);
+		return (retention != null && retention.value() == RetentionPolicy.RUNTIME);
+	}
+
+	private String getAnnotation(AnnotationMirror annotation) {
+		StringBuilder builder = new StringBuilder("@").append(getTypeName(annotation.getAnnotationType()));
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotation.getElementValues();
+		if (!values.isEmpty()) {
+			List<String> attributes = new ArrayList<>();
+			values.forEach((name, value) ->
+					attributes.add(name.getSimpleName() + "=" + value.accept(this.valueRenderer, null)));
+			builder.append('(').append(String.join(",", attributes)).append(')');
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Return the binary name of the erasure of the specified type, as
+	 * {@link Class#getName()} would for classes and ASM would for arrays.
+	 */
+	private String getTypeName(TypeMirror type) {
+		TypeMirror erasure = this.types.erasure(type);
+		if (erasure.getKind() == TypeKind.ARRAY) {
+			return getTypeName(((ArrayType) erasure).getComponentType()) + "[]";
+		}
+		if (erasure.getKind() == TypeKind.DECLARED) {
+			TypeElement element = (TypeElement) ((DeclaredType) erasure).asElement();
+			return this.elements.getBinaryName(element).toString();
+		}
+		return erasure.toString();
+	}
+
+	private static String quote(String value) {
+		StringBuilder builder = new StringBuilder("\"");
+		for (char ch : value.toCharArray()) {
+			if (ch == '"' || ch == '\\') {
+				builder.append('\\').append(ch);
+			}
+			else if (ch < ' ') {
+				builder.append(String.format("\\u%04x", (int) ch));
+			}
+			else {
+				builder.append(ch);
+			}
+		}
+		return builder.append('"').toString();
+	}
+
+
+	/**
+	 * Render annotation values using the Java syntax for annotation attributes.
+	 */
+	private class AnnotationValueRenderer extends SimpleAnnotationValueVisitor8<String, Void> {
+
+		@Override
+		protected String defaultAction(Object value, Void param) {
+			return String.valueOf(value);
+		}
+
+		@Override
+		public String visitChar(char value, Void param) {
+			return quote(String.valueOf(value));
+		}
+
+		@Override
+		public String visitString(String value, Void param) {
+			return quote(value);
+		}
+
+		@Override
+		public String visitType(TypeMirror type, Void param) {
+			return getTypeName(type) + ".class";
+		}
+
+		@Override
+		public String visitEnumConstant(VariableElement constant, Void param) {
+			return constant.getSimpleName().toString();
+		}
+
+		@Override
+		public String visitAnnotation(AnnotationMirror annotation, Void param) {
+			return getAnnotation(annotation);
+		}
+
+		@Override
+		public String visitArray(List<? extends AnnotationValue> values, Void param) {
+			List<String> elements = new ArrayList<>();
+			for (AnnotationValue value : values) {
+				elements.add(value.accept(this, null));
+			}
+			return "{" + String.join(",", elements) + "}";
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -55,6 +55,8 @@ public class CandidateComponentsIndexer implements Processor {
 
 	private TypeHelper typeHelper;
 
+	private AnnotationMetadataProvider annotationMetadataProvider;
+
 	private List<StereotypesProvider> stereotypesProviders;
 
 
@@ -77,6 +79,7 @@ public class CandidateComponentsIndexer implements Processor {
 	public synchronized void init(ProcessingEnvironment env) {
 		this.stereotypesProviders = getStereotypesProviders(env);
 		this.typeHelper = new TypeHelper(env);
+		this.annotationMetadataProvider = new AnnotationMetadataProvider(env);
 		this.metadataStore = new MetadataStore(env);
 		this.metadataCollector = new MetadataCollector(env, this.metadataStore.readMetadata());
 	}
@@ -117,7 +120,14 @@ public class CandidateComponentsIndexer implements Processor {
 		Set<String> stereotypes = new LinkedHashSet<>();
 		this.stereotypesProviders.forEach(p -> stereotypes.addAll(p.getStereotypes(element)));
 		if (!stereotypes.isEmpty()) {
-			this.metadataCollector.add(new ItemMetadata(this.typeHelper.getType(element), stereotypes));
+			String type = this.typeHelper.getType(element);
+			if (element instanceof TypeElement) {
+				this.metadataCollector.add(new ItemMetadata(type, stereotypes,
+						this.annotationMetadataProvider.getMetadata((TypeElement) element)));
+			}
+			else {
+				this.metadataCollector.add(new ItemMetadata(type, stereotypes));
+			}
 		}
 	}
 
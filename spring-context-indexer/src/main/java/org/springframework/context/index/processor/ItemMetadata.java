@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,10 @@
 
 package org.springframework.context.index.processor;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -25,6 +28,9 @@ import java.util.Set;
  * be used to retrieve the candidates. A typical use case is the presence of a given
  * annotation on the candidate.
  *
+ * <p>An entry for a type may also hold the annotation metadata of that type, keyed
+ * by attribute, so that it does not need to be read from the class file at runtime.
+ *
  * @author Stephane Nicoll
  * @since 5.0
  */
@@ -34,10 +40,17 @@ class ItemMetadata {
 
 	private final Set<String> stereotypes;
 
+	private final Map<String, String> annotationMetadata;
+
 
 	public ItemMetadata(String type, Set<String> stereotypes) {
+		this(type, stereotypes, Collections.emptyMap());
+	}
+
+	public ItemMetadata(String type, Set<String> stereotypes, Map<String, String> annotationMetadata) {
 		this.type = type;
 		this.stereotypes = new HashSet<>(stereotypes);
+		this.annotationMetadata = new LinkedHashMap<>(annotationMetadata);
 	}
 
 
@@ -49,4 +62,8 @@ class ItemMetadata {
 		return this.stereotypes;
 	}
 
+	public Map<String, String> getAnnotationMetadata() {
+		return this.annotationMetadata;
+	}
+
 }
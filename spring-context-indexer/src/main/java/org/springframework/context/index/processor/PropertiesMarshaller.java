@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,12 +21,17 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
 /**
  * Marshaller to write {@link CandidateComponentsMetadata} as properties.
  *
+ * <p>The stereotypes are keyed by type while the annotation metadata, if any, is
+ * written separately with one {@code type.attribute} key per metadata attribute.
+ *
  * @author Stephane Nicoll
  * @author Vedran Pavic
  * @since 5.0
@@ -39,13 +44,49 @@ abstract class PropertiesMarshaller {
 		props.store(out, null);
 	}
 
+	public static void writeAnnotationMetadata(CandidateComponentsMetadata metadata, OutputStream out)
+			throws IOException {
+
+		Properties props = new SortedProperties(true);
+		metadata.getItems().forEach(m -> m.getAnnotationMetadata().forEach(
+				(attribute, value) -> props.put(m.getType() + "." + attribute, value)));
+		props.store(out, null);
+	}
+
 	public static CandidateComponentsMetadata read(InputStream in) throws IOException {
+		return read(in, null);
+	}
+
+	/**
+	 * Read the {@link CandidateComponentsMetadata} from the specified streams.
+	 * @param in the stream to read the stereotypes from
+	 * @param annotationMetadataIn the stream to read the annotation metadata
+	 * from, or {@code null} if none is available
+	 */
+	public static CandidateComponentsMetadata read(InputStream in, InputStream annotationMetadataIn)
+			throws IOException {
+
+		Map<String, Map<String, String>> annotationMetadata = new LinkedHashMap<>();
+		if (annotationMetadataIn != null) {
+			Properties props = new Properties();
+			props.load(annotationMetadataIn);
+			props.forEach((key, value) -> {
+				String name = (String) key;
+				int separator = name.lastIndexOf('.');
+				if (separator > 0) {
+					annotationMetadata.computeIfAbsent(name.substring(0, separator), type -> new LinkedHashMap<>())
+							.put(name.substring(separator + 1), (String) value);
+				}
+			});
+		}
 		CandidateComponentsMetadata result = new CandidateComponentsMetadata();
 		Properties props = new Properties();
 		props.load(in);
 		props.forEach((type, value) -> {
 			Set<String> candidates = new HashSet<>(Arrays.asList(((String) value).split(",")));
-			result.add(new ItemMetadata((String) type, candidates));
+			Map<String, String> typeMetadata = annotationMetadata.get(type);
+			result.add(typeMetadata != null ? new ItemMetadata((String) type, candidates, typeMetadata) :
+					new ItemMetadata((String) type, candidates));
 		});
 		return result;
 	}
@@ -19,6 +19,7 @@ package org.springframework.context.index.processor;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 
 import javax.annotation.ManagedBean;
@@ -36,6 +37,7 @@ import org.junit.jupiter.api.io.TempDir;
 import org.springframework.context.index.sample.AbstractController;
 import org.springframework.context.index.sample.MetaControllerIndexed;
 import org.springframework.context.index.sample.SampleComponent;
+import org.springframework.context.index.sample.SampleConfiguration;
 import org.springframework.context.index.sample.SampleController;
 import org.springframework.context.index.sample.SampleEmbedded;
 import org.springframework.context.index.sample.SampleMetaController;
@@ -212,6 +214,36 @@ class CandidateComponentsIndexerTests {
 		assertThat(metadata.getItems()).hasSize(2);
 	}
 
+	@Test
+	void annotationMetadataIsRecorded() {
+		CandidateComponentsMetadata metadata = compile(SampleConfiguration.class);
+		assertThat(metadata.getItems()).hasSize(1);
+		assertThat(metadata.getItems().get(0).getAnnotationMetadata())
+				.containsEntry("declaration", "public class " + SampleConfiguration.class.getName())
+				.containsEntry("superclass", "java.lang.Object")
+				.containsEntry("interfaces", "java.lang.Cloneable")
+				.containsEntry("annotations", "@org.springframework.context.annotation.Configuration(proxyBeanMethods=false) " +
+						"@org.springframework.context.annotation.Import(value={" + SampleComponent.class.getName() + ".class})")
+				.containsEntry("methods", "@org.springframework.context.annotation.Bean " +
+						"@org.springframework.context.annotation.Lazy " +
+						"@org.springframework.context.annotation.Scope(scopeName=\"prototype\",proxyMode=TARGET_CLASS) " +
+						"public " + SampleService.class.getName() + " sampleService(" + SampleComponent.class.getName() + ");")
+				.doesNotContainKeys("enclosingClass", "memberClasses");
+	}
+
+	@Test
+	void annotationMetadataOfNestedType() {
+		CandidateComponentsMetadata metadata = compile(SampleEmbedded.class);
+		ItemMetadata item = metadata.getItems().stream()
+				.filter(candidate -> candidate.getType().equals(SampleEmbedded.PublicCandidate.class.getName()))
+				.findFirst().get();
+		assertThat(item.getAnnotationMetadata())
+				.containsEntry("declaration", "public static class " + SampleEmbedded.PublicCandidate.class.getName())
+				.containsEntry("enclosingClass", SampleEmbedded.class.getName())
+				.containsEntry("annotations", "@org.springframework.stereotype.Component")
+				.doesNotContainKeys("methods");
+	}
+
 	@Test
 	void embeddedNonStaticCandidateAreIgnored() {
 		CandidateComponentsMetadata metadata = compile(SampleNonStaticEmbedded.class);
@@ -246,9 +278,12 @@ class CandidateComponentsIndexerTests {
 
 	private CandidateComponentsMetadata readGeneratedMetadata(File outputLocation) {
 		File metadataFile = new File(outputLocation, MetadataStore.METADATA_PATH);
+		File annotationMetadataFile = new File(outputLocation, MetadataStore.ANNOTATION_METADATA_PATH);
 		if (metadataFile.isFile()) {
-			try (FileInputStream fileInputStream = new FileInputStream(metadataFile)) {
-				CandidateComponentsMetadata metadata = PropertiesMarshaller.read(fileInputStream);
+			try (FileInputStream fileInputStream = new FileInputStream(metadataFile);
+					InputStream annotationMetadataStream = (annotationMetadataFile.isFile() ?
+							new FileInputStream(annotationMetadataFile) : null)) {
+				CandidateComponentsMetadata metadata = PropertiesMarshaller.read(fileInputStream, annotationMetadataStream);
 				return metadata;
 			}
 			catch (IOException ex) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,7 +21,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
@@ -63,6 +66,30 @@ public class PropertiesMarshallerTests {
 		assertThat(contents.split(System.lineSeparator())).containsExactly("com.a=type", "com.b=type", "com.c=type");
 	}
 
+	@Test
+	public void readWriteAnnotationMetadata() throws IOException {
+		Map<String, String> annotationMetadata = new LinkedHashMap<>();
+		annotationMetadata.put("declaration", "public class com.foo");
+		annotationMetadata.put("annotations", "@com.Bar(value=\"a,b\")");
+		CandidateComponentsMetadata metadata = new CandidateComponentsMetadata();
+		metadata.add(new ItemMetadata("com.foo", Collections.singleton("first"), annotationMetadata));
+		metadata.add(createItem("com.bar", "first"));
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		PropertiesMarshaller.write(metadata, outputStream);
+		ByteArrayOutputStream annotationMetadataStream = new ByteArrayOutputStream();
+		PropertiesMarshaller.writeAnnotationMetadata(metadata, annotationMetadataStream);
+		CandidateComponentsMetadata readMetadata = PropertiesMarshaller.read(
+				new ByteArrayInputStream(outputStream.toByteArray()),
+				new ByteArrayInputStream(annotationMetadataStream.toByteArray()));
+		assertThat(readMetadata).has(Metadata.of("com.foo", "first"));
+		assertThat(readMetadata.getItems()).hasSize(2);
+		for (ItemMetadata item : readMetadata.getItems()) {
+			assertThat(item.getAnnotationMetadata()).isEqualTo(
+					item.getType().equals("com.foo") ? annotationMetadata : Collections.emptyMap());
+		}
+	}
+
 	private static ItemMetadata createItem(String type, String... stereotypes) {
 		return new ItemMetadata(type, new HashSet<>(Arrays.asList(stereotypes)));
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,6 @@ package org.springframework.cache.interceptor;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.cache.Cache;
@@ -27,7 +25,6 @@ import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.Expression;
 import org.springframework.lang.Nullable;
 
 /**
@@ -61,13 +58,6 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 	public static final String RESULT_VARIABLE = "result";
 
 
-	private final Map<ExpressionKey, Expression> keyCache = new ConcurrentHashMap<>(64);
-
-	private final Map<ExpressionKey, Expression> conditionCache = new ConcurrentHashMap<>(64);
-
-	private final Map<ExpressionKey, Expression> unlessCache = new ConcurrentHashMap<>(64);
-
-
 	/**
 	 * Create an {@link EvaluationContext}.
 	 * @param caches the current caches
@@ -101,16 +91,16 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 
 	@Nullable
 	public Object key(String keyExpression, AnnotatedElementKey methodKey, EvaluationContext evalContext) {
-		return getExpression(this.keyCache, methodKey, keyExpression).getValue(evalContext);
+		return getExpression(methodKey, keyExpression).getValue(evalContext);
 	}
 
 	public boolean condition(String conditionExpression, AnnotatedElementKey methodKey, EvaluationContext evalContext) {
-		return (Boolean.TRUE.equals(getExpression(this.conditionCache, methodKey, conditionExpression).getValue(
+		return (Boolean.TRUE.equals(getExpression(methodKey, conditionExpression).getValue(
 				evalContext, Boolean.class)));
 	}
 
 	public boolean unless(String unlessExpression, AnnotatedElementKey methodKey, EvaluationContext evalContext) {
-		return (Boolean.TRUE.equals(getExpression(this.unlessCache, methodKey, unlessExpression).getValue(
+		return (Boolean.TRUE.equals(getExpression(methodKey, unlessExpression).getValue(
 				evalContext, Boolean.class)));
 	}
 
@@ -118,9 +108,7 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 	 * Clear all caches.
 	 */
 	void clear() {
-		this.keyCache.clear();
-		this.conditionCache.clear();
-		this.unlessCache.clear();
+		getExpressionCache().clear();
 	}
 
 }
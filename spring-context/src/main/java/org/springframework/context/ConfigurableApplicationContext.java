@@ -24,6 +24,7 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.ProtocolResolver;
+import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.lang.Nullable;
 
 /**
@@ -127,6 +128,27 @@ public interface ConfigurableApplicationContext extends ApplicationContext, Life
 	@Override
 	ConfigurableEnvironment getEnvironment();
 
+	/**
+	 * Set the {@link ApplicationStartup} for this application context.
+	 * <p>This allows the application context to record metrics
+	 * during startup.
+	 * @param applicationStartup the application startup to use
+	 * <p>The default implementation is empty, for compatibility with custom
+	 * implementations of this interface which do not record any metrics.
+	 * @since 5.2.9
+	 */
+	default void setApplicationStartup(ApplicationStartup applicationStartup) {
+	}
+
+	/**
+	 * Return the {@link ApplicationStartup} for this application context.
+	 * <p>The default implementation returns {@link ApplicationStartup#DEFAULT}.
+	 * @since 5.2.9
+	 */
+	default ApplicationStartup getApplicationStartup() {
+		return ApplicationStartup.DEFAULT;
+	}
+
 	/**
 	 * Add a new BeanFactoryPostProcessor that will get applied to the internal
 	 * bean factory of this application context on refresh, before any of the
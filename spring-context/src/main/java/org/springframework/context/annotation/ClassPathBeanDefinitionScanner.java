@@ -22,15 +22,19 @@ import java.util.Set;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionDefaults;
 import org.springframework.beans.factory.support.BeanDefinitionReaderUtils;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanNameGenerator;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.PatternMatchUtils;
@@ -277,8 +281,11 @@ public class ClassPathBeanDefinitionScanner extends ClassPathScanningCandidateCo
 		Set<BeanDefinitionHolder> beanDefinitions = new LinkedHashSet<>();
 		// 遍历basePackages
 		for (String basePackage : basePackages) {
+			StartupStep scanStep = getApplicationStartup().start("spring.context.base-packages.scan")
+					.tag("packages", basePackage);
 			// 扫描basePackage,将符合要求的bean定义全部找出来
 			Set<BeanDefinition> candidates = findCandidateComponents(basePackage);
+			scanStep.tag("candidateCount", () -> String.valueOf(candidates.size())).end();
 			// 遍历所有候选的bean定义
 			for (BeanDefinition candidate : candidates) {
 				// 解析@Scope注解，包括scopeName和proxyMode
@@ -310,6 +317,20 @@ public class ClassPathBeanDefinitionScanner extends ClassPathScanningCandidateCo
 		return beanDefinitions;
 	}
 
+	/**
+	 * Determine the {@link ApplicationStartup} to record scan steps with,
+	 * as exposed by the underlying registry if possible.
+	 */
+	private ApplicationStartup getApplicationStartup() {
+		if (this.registry instanceof ConfigurableBeanFactory) {
+			return ((ConfigurableBeanFactory) this.registry).getApplicationStartup();
+		}
+		if (this.registry instanceof ConfigurableApplicationContext) {
+			return ((ConfigurableApplicationContext) this.registry).getApplicationStartup();
+		}
+		return ApplicationStartup.DEFAULT;
+	}
+
 	/**
 	 * Apply further settings to the given bean definition,
 	 * beyond the contents retrieved from scanning the component class.
@@ -397,7 +397,10 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			// 遍历匹配所有的类资源
 			for (String type : types) {
 				// 使用metadataReader读取资源，metadataReader是专门用来访问元数据的类
-				MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(type);
+				MetadataReader metadataReader = index.getMetadataReader(type);
+				if (metadataReader == null) {
+					metadataReader = getMetadataReaderFactory().getMetadataReader(type);
+				}
 				// 使用过滤器检查给定的类是否我候选类（候选类，与excludeFilters的所有Filter不匹配，并且与includeFilters的至少一个Filter匹配）
 				if (isCandidateComponent(metadataReader)) {
 					ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
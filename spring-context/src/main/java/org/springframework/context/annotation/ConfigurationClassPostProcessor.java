@@ -16,6 +16,7 @@
 
 package org.springframework.context.annotation;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -37,6 +38,7 @@ import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
@@ -51,15 +53,21 @@ import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
+import org.springframework.context.index.CandidateComponentsIndex;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.MethodMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -289,6 +297,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		List<BeanDefinitionHolder> configCandidates = new ArrayList<>();
 		// 当前registry就是DefaultListableBeanFactory，获取所有已经注册的BeanDefinition的beanName
 		String[] candidateNames = registry.getBeanDefinitionNames();
+		MetadataReaderFactory metadataReaderFactory = getIndexedMetadataReaderFactory();
 
 		// 遍历所有要处理的beanDefinition的名称,筛选对应的beanDefinition（被注解修饰的）
 		for (String beanName : candidateNames) {
@@ -304,7 +313,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			// 如果Configuration配置proxyBeanMethods代理为true则为full
 			// 如果加了@Bean、@Component、@ComponentScan、@Import、@ImportResource注解，则设置为lite
 			// 如果配置类上被@Order注解标注，则设置BeanDefinition的order属性值
-			else if (ConfigurationClassUtils.checkConfigurationClassCandidate(beanDef, this.metadataReaderFactory)) {
+			else if (ConfigurationClassUtils.checkConfigurationClassCandidate(beanDef, metadataReaderFactory)) {
 				// 添加到对应的集合对象中
 				configCandidates.add(new BeanDefinitionHolder(beanDef, beanName));
 			}
@@ -353,7 +362,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		// Parse each @Configuration class
 		// 实例化ConfigurationClassParser类，并初始化相关的参数，完成配置类的解析工作
 		ConfigurationClassParser parser = new ConfigurationClassParser(
-				this.metadataReaderFactory, this.problemReporter, this.environment,
+				metadataReaderFactory, this.problemReporter, this.environment,
 				this.resourceLoader, this.componentScanBeanNameGenerator, registry);
 
 		// 创建两个集合对象，
@@ -362,6 +371,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		// 存放扫描包下的所有bean
 		Set<ConfigurationClass> alreadyParsed = new HashSet<>(configCandidates.size());
 		do {
+			StartupStep processConfig = getApplicationStartup(registry).start("spring.context.config-classes.parse");
 			// 解析带有@Controller、@Import、@ImportResource、@ComponentScan、@ComponentScans、@Bean的BeanDefinition
 			parser.parse(candidates);
 			// 将解析完的Configuration配置类进行校验，1、配置类不能是final，2、@Bean修饰的方法必须可以重写以支持CGLIB
@@ -383,6 +393,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			this.reader.loadBeanDefinitions(configClasses);
 			// 添加到已经处理的集合中
 			alreadyParsed.addAll(configClasses);
+			processConfig.tag("classCount", () -> String.valueOf(configClasses.size())).end();
 
 			candidates.clear();
 			// 这里判断registry.getBeanDefinitionCount() > candidateNames.length的目的是为了知道reader.loadBeanDefinitions(configClasses)这一步有没有向BeanDefinitionMap中添加新的BeanDefinition
@@ -401,7 +412,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 				for (String candidateName : newCandidateNames) {
 					if (!oldCandidateNames.contains(candidateName)) {
 						BeanDefinition bd = registry.getBeanDefinition(candidateName);
-						if (ConfigurationClassUtils.checkConfigurationClassCandidate(bd, this.metadataReaderFactory) &&
+						if (ConfigurationClassUtils.checkConfigurationClassCandidate(bd, metadataReaderFactory) &&
 								!alreadyParsedClasses.contains(bd.getBeanClassName())) {
 							candidates.add(new BeanDefinitionHolder(bd, candidateName));
 						}
@@ -431,6 +442,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	 * @see ConfigurationClassEnhancer
 	 */
 	public void enhanceConfigurationClasses(ConfigurableListableBeanFactory beanFactory) {
+		StartupStep enhanceConfigClasses = beanFactory.getApplicationStartup().start("spring.context.config-classes.enhance");
 		Map<String, AbstractBeanDefinition> configBeanDefs = new LinkedHashMap<>();
 		for (String beanName : beanFactory.getBeanDefinitionNames()) {
 			BeanDefinition beanDef = beanFactory.getBeanDefinition(beanName);
@@ -469,6 +481,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 		if (configBeanDefs.isEmpty()) {
 			// nothing to enhance -> return immediately
+			enhanceConfigClasses.end();
 			return;
 		}
 
@@ -488,6 +501,26 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 				beanDef.setBeanClass(enhancedClass);
 			}
 		}
+		enhanceConfigClasses.tag("classCount", () -> String.valueOf(configBeanDefs.keySet().size())).end();
+	}
+
+	/**
+	 * Return the MetadataReaderFactory to parse configuration classes with:
+	 * preferring the annotation metadata from the candidate components index
+	 * if available, and reading class files otherwise.
+	 * @see CandidateComponentsIndex#getMetadataReader(String)
+	 */
+	private MetadataReaderFactory getIndexedMetadataReaderFactory() {
+		CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(this.beanClassLoader);
+		if (index != null && index.hasAnnotationMetadata()) {
+			return new IndexedMetadataReaderFactory(index, this.metadataReaderFactory);
+		}
+		return this.metadataReaderFactory;
+	}
+
+	private ApplicationStartup getApplicationStartup(BeanDefinitionRegistry registry) {
+		return (registry instanceof ConfigurableBeanFactory ?
+				((ConfigurableBeanFactory) registry).getApplicationStartup() : ApplicationStartup.DEFAULT);
 	}
 
 
@@ -535,4 +568,32 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 	}
 
+
+	/**
+	 * MetadataReaderFactory that obtains the metadata of indexed types from the
+	 * candidate components index, delegating to the given factory for all others.
+	 */
+	private static class IndexedMetadataReaderFactory implements MetadataReaderFactory {
+
+		private final CandidateComponentsIndex index;
+
+		private final MetadataReaderFactory delegate;
+
+		IndexedMetadataReaderFactory(CandidateComponentsIndex index, MetadataReaderFactory delegate) {
+			this.index = index;
+			this.delegate = delegate;
+		}
+
+		@Override
+		public MetadataReader getMetadataReader(String className) throws IOException {
+			MetadataReader metadataReader = this.index.getMetadataReader(className);
+			return (metadataReader != null ? metadataReader : this.delegate.getMetadataReader(className));
+		}
+
+		@Override
+		public MetadataReader getMetadataReader(Resource resource) throws IOException {
+			return this.delegate.getMetadataReader(resource);
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,8 +17,6 @@
 package org.springframework.context.event;
 
 import java.lang.reflect.Method;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.context.ApplicationEvent;
@@ -26,7 +24,6 @@ import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.context.expression.MethodBasedEvaluationContext;
-import org.springframework.expression.Expression;
 import org.springframework.lang.Nullable;
 
 /**
@@ -39,9 +36,6 @@ import org.springframework.lang.Nullable;
  */
 class EventExpressionEvaluator extends CachedExpressionEvaluator {
 
-	private final Map<ExpressionKey, Expression> conditionCache = new ConcurrentHashMap<>(64);
-
-
 	/**
 	 * Determine if the condition defined by the specified expression evaluates
 	 * to {@code true}.
@@ -56,7 +50,7 @@ class EventExpressionEvaluator extends CachedExpressionEvaluator {
 			evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
 		}
 
-		return (Boolean.TRUE.equals(getExpression(this.conditionCache, methodKey, conditionExpression).getValue(
+		return (Boolean.TRUE.equals(getExpression(methodKey, conditionExpression).getValue(
 				evaluationContext, Boolean.class)));
 	}
 
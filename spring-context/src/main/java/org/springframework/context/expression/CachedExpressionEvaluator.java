@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.util.Map;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.ExpressionCache;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -38,6 +39,8 @@ public abstract class CachedExpressionEvaluator {
 
 	private final SpelExpressionParser parser;
 
+	private final ExpressionCache expressionCache;
+
 	private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
 
@@ -47,6 +50,7 @@ public abstract class CachedExpressionEvaluator {
 	protected CachedExpressionEvaluator(SpelExpressionParser parser) {
 		Assert.notNull(parser, "SpelExpressionParser must not be null");
 		this.parser = parser;
+		this.expressionCache = new ExpressionCache(parser);
 	}
 
 	/**
@@ -64,6 +68,16 @@ public abstract class CachedExpressionEvaluator {
 		return this.parser;
 	}
 
+	/**
+	 * Return the bounded {@link ExpressionCache} that holds the expressions
+	 * parsed by {@link #getExpression(AnnotatedElementKey, String)}, e.g. for
+	 * exposing its statistics.
+	 * @since 5.2.9
+	 */
+	protected ExpressionCache getExpressionCache() {
+		return this.expressionCache;
+	}
+
 	/**
 	 * Return a shared parameter name discoverer which caches data internally.
 	 * @since 4.3
@@ -79,6 +93,7 @@ public abstract class CachedExpressionEvaluator {
 	 * @param cache the cache to use
 	 * @param elementKey the element on which the expression is defined
 	 * @param expression the expression to parse
+	 * @see #getExpression(AnnotatedElementKey, String)
 	 */
 	protected Expression getExpression(Map<ExpressionKey, Expression> cache,
 			AnnotatedElementKey elementKey, String expression) {
@@ -92,6 +107,18 @@ public abstract class CachedExpressionEvaluator {
 		return expr;
 	}
 
+	/**
+	 * Return the {@link Expression} for the specified SpEL value, using the
+	 * bounded {@link #getExpressionCache() expression cache} of this evaluator.
+	 * <p>Parse the expression if it hasn't been already.
+	 * @param elementKey the element on which the expression is defined
+	 * @param expression the expression to parse
+	 * @since 5.2.9
+	 */
+	protected Expression getExpression(AnnotatedElementKey elementKey, String expression) {
+		return this.expressionCache.getExpression(elementKey, expression, null);
+	}
+
 	private ExpressionKey createKey(AnnotatedElementKey elementKey, String expression) {
 		return new ExpressionKey(elementKey, expression);
 	}
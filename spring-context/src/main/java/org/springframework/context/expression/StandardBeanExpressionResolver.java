@@ -28,6 +28,7 @@ import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParserContext;
 import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.ExpressionCache;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.expression.spel.support.StandardTypeConverter;
@@ -71,9 +72,7 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 
 	private String expressionSuffix = DEFAULT_EXPRESSION_SUFFIX;
 
-	private ExpressionParser expressionParser;
-
-	private final Map<String, Expression> expressionCache = new ConcurrentHashMap<>(256);
+	private ExpressionCache expressionCache;
 
 	private final Map<BeanExpressionContext, StandardEvaluationContext> evaluationCache = new ConcurrentHashMap<>(8);
 
@@ -97,7 +96,7 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 	 * Create a new {@code StandardBeanExpressionResolver} with default settings.
 	 */
 	public StandardBeanExpressionResolver() {
-		this.expressionParser = new SpelExpressionParser();
+		this.expressionCache = new ExpressionCache(new SpelExpressionParser());
 	}
 
 	/**
@@ -106,7 +105,8 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 	 * @param beanClassLoader the factory's bean class loader
 	 */
 	public StandardBeanExpressionResolver(@Nullable ClassLoader beanClassLoader) {
-		this.expressionParser = new SpelExpressionParser(new SpelParserConfiguration(null, beanClassLoader));
+		this.expressionCache = new ExpressionCache(
+				new SpelExpressionParser(new SpelParserConfiguration(null, beanClassLoader)));
 	}
 
 
@@ -137,7 +137,16 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 	 */
 	public void setExpressionParser(ExpressionParser expressionParser) {
 		Assert.notNull(expressionParser, "ExpressionParser must not be null");
-		this.expressionParser = expressionParser;
+		this.expressionCache = new ExpressionCache(expressionParser);
+	}
+
+	/**
+	 * Return the bounded cache holding the parsed expressions,
+	 * e.g. for monitoring its hit and miss counts.
+	 * @since 5.2.9
+	 */
+	public ExpressionCache getExpressionCache() {
+		return this.expressionCache;
 	}
 
 
@@ -148,11 +157,7 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 			return value;
 		}
 		try {
-			Expression expr = this.expressionCache.get(value);
-			if (expr == null) {
-				expr = this.expressionParser.parseExpression(value, this.beanExpressionParserContext);
-				this.expressionCache.put(value, expr);
-			}
+			Expression expr = this.expressionCache.getExpression(value, this.beanExpressionParserContext);
 			StandardEvaluationContext sec = this.evaluationCache.get(evalContext);
 			if (sec == null) {
 				sec = new StandardEvaluationContext(evalContext);
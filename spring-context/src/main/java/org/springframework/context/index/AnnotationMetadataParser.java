@@ -0,0 +1,471 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.annotation.AnnotationFilter;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Parser for the annotation metadata of a type as recorded in
+ * {@value CandidateComponentsIndexLoader#ANNOTATION_METADATA_RESOURCE_LOCATION},
+ * creating the same {@link AnnotationMetadata} that would be read from the
+ * class file of the type.
+ *
+ * <p>Each metadata attribute uses the Java syntax for annotations and method
+ * declarations, with binary type names. As for class files, annotation
+ * attribute values are converted according to the declared attribute types,
+ * and annotations whose type cannot be loaded are ignored.
+ *
+ * @since 5.2.9
+ */
+final class AnnotationMetadataParser {
+
+	static final String DECLARATION = "declaration";
+
+	static final String SUPERCLASS = "superclass";
+
+	static final String INTERFACES = "interfaces";
+
+	static final String ENCLOSING_CLASS = "enclosingClass";
+
+	static final String MEMBER_CLASSES = "memberClasses";
+
+	static final String ANNOTATIONS = "annotations";
+
+	static final String METHODS = "methods";
+
+	private static final String CLASS_LITERAL_SUFFIX = ".class";
+
+	private static final Map<String, Integer> modifierKeywords = new HashMap<>(16);
+
+	static {
+		modifierKeywords.put("public", Modifier.PUBLIC);
+		modifierKeywords.put("protected", Modifier.PROTECTED);
+		modifierKeywords.put("private", Modifier.PRIVATE);
+		modifierKeywords.put("abstract", Modifier.ABSTRACT);
+		modifierKeywords.put("static", Modifier.STATIC);
+		modifierKeywords.put("final", Modifier.FINAL);
+		modifierKeywords.put("interface", Modifier.INTERFACE);
+		modifierKeywords.put("@interface", Modifier.INTERFACE);
+		modifierKeywords.put("class", 0);
+		modifierKeywords.put("enum", 0);
+	}
+
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+
+	AnnotationMetadataParser(@Nullable ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+
+	/**
+	 * Parse the given metadata attributes.
+	 * @param attributes the metadata attributes of a type, keyed by attribute name
+	 * @return the corresponding annotation metadata
+	 * @throws IllegalArgumentException if the metadata attributes are invalid
+	 */
+	AnnotationMetadata parse(Map<String, String> attributes) {
+		String declaration = attributes.get(DECLARATION);
+		if (declaration == null) {
+			throw new IllegalArgumentException("No type declaration in metadata attributes " + attributes);
+		}
+		String[] words = StringUtils.tokenizeToStringArray(declaration, " ");
+		if (words.length < 2) {
+			throw new IllegalArgumentException("Invalid type declaration [" + declaration + "]");
+		}
+		String className = words[words.length - 1];
+		int modifiers = parseModifiers(words, words.length - 1);
+		String enclosingClassName = attributes.get(ENCLOSING_CLASS);
+		boolean independent = (enclosingClassName == null || Modifier.isStatic(modifiers));
+		String[] interfaceNames = StringUtils.commaDelimitedListToStringArray(attributes.get(INTERFACES));
+		String[] memberClassNames = StringUtils.commaDelimitedListToStringArray(attributes.get(MEMBER_CLASSES));
+		MergedAnnotations annotations = parseAnnotations(attributes.get(ANNOTATIONS), className);
+		MethodMetadata[] annotatedMethods = parseMethods(attributes.get(METHODS), className);
+		return new IndexedAnnotationMetadata(className, modifiers, words[words.length - 2].equals("@interface"),
+				enclosingClassName, attributes.get(SUPERCLASS), independent, interfaceNames, memberClassNames,
+				annotatedMethods, annotations);
+	}
+
+	private int parseModifiers(String[] words, int count) {
+		int modifiers = 0;
+		for (int i = 0; i < count; i++) {
+			Integer modifier = modifierKeywords.get(words[i]);
+			if (modifier == null) {
+				throw new IllegalArgumentException("Unknown modifier [" + words[i] + "]");
+			}
+			modifiers |= modifier;
+		}
+		return modifiers;
+	}
+
+	private MergedAnnotations parseAnnotations(@Nullable String value, Object source) {
+		List<MergedAnnotation<?>> annotations = new ArrayList<>();
+		if (value != null) {
+			Tokenizer tokenizer = new Tokenizer(value);
+			while (tokenizer.hasMore()) {
+				addAnnotation(annotations, tokenizer, source);
+			}
+		}
+		return MergedAnnotations.of(annotations);
+	}
+
+	private MethodMetadata[] parseMethods(@Nullable String value, String className) {
+		List<MethodMetadata> methods = new ArrayList<>();
+		if (value != null) {
+			Tokenizer tokenizer = new Tokenizer(value);
+			while (tokenizer.hasMore()) {
+				MethodMetadata method = parseMethod(tokenizer, className);
+				if (method != null) {
+					methods.add(method);
+				}
+			}
+		}
+		return methods.toArray(new MethodMetadata[0]);
+	}
+
+	@Nullable
+	private MethodMetadata parseMethod(Tokenizer tokenizer, String className) {
+		// Annotations come first but their source is only known once the signature has been read.
+		MethodSource source = new MethodSource(className);
+		List<MergedAnnotation<?>> annotations = new ArrayList<>();
+		while (tokenizer.peek() == '@') {
+			addAnnotation(annotations, tokenizer, source);
+		}
+		List<String> words = new ArrayList<>();
+		while (tokenizer.peek() != '(') {
+			words.add(tokenizer.nextWord());
+		}
+		tokenizer.expect('(');
+		List<String> parameterTypes = new ArrayList<>();
+		while (tokenizer.peek() != ')') {
+			parameterTypes.add(tokenizer.nextWord());
+			tokenizer.skip(',');
+		}
+		tokenizer.expect(')');
+		tokenizer.expect(';');
+		if (words.size() < 2) {
+			throw new IllegalArgumentException("Invalid method declaration " + words);
+		}
+		String methodName = words.get(words.size() - 1);
+		String returnTypeName = words.get(words.size() - 2);
+		int modifiers = parseModifiers(StringUtils.toStringArray(words), words.size() - 2);
+		source.setSignature(methodName, parameterTypes);
+		if (annotations.isEmpty()) {
+			// Like for class files, only retain methods with resolvable annotations
+			return null;
+		}
+		return new IndexedMethodMetadata(methodName, modifiers, className, returnTypeName,
+				MergedAnnotations.of(annotations));
+	}
+
+	private void addAnnotation(List<MergedAnnotation<?>> annotations, Tokenizer tokenizer, Object source) {
+		MergedAnnotation<?> annotation = parseAnnotation(tokenizer, source);
+		if (annotation != null) {
+			annotations.add(annotation);
+		}
+	}
+
+	@Nullable
+	private MergedAnnotation<?> parseAnnotation(Tokenizer tokenizer, Object source) {
+		tokenizer.expect('@');
+		Class<? extends Annotation> annotationType = resolveAnnotationType(tokenizer.nextWord());
+		Map<String, Object> attributes = new LinkedHashMap<>();
+		if (tokenizer.skip('(')) {
+			while (tokenizer.peek() != ')') {
+				String name = tokenizer.nextWord();
+				tokenizer.expect('=');
+				Method attribute = (annotationType != null ?
+						ReflectionUtils.findMethod(annotationType, name) : null);
+				Object value = parseValue(tokenizer, (attribute != null ? attribute.getReturnType() : null), source);
+				if (value != null) {
+					attributes.put(name, value);
+				}
+				tokenizer.skip(',');
+			}
+			tokenizer.expect(')');
+		}
+		return (annotationType != null ?
+				MergedAnnotation.of(this.classLoader, source, annotationType, attributes) : null);
+	}
+
+	/**
+	 * Parse the next attribute value, converting it to the given attribute type.
+	 * @param type the attribute type, or {@code null} to skip the value
+	 */
+	@Nullable
+	private Object parseValue(Tokenizer tokenizer, @Nullable Class<?> type, Object source) {
+		char next = tokenizer.peek();
+		if (next == '{') {
+			tokenizer.expect('{');
+			Class<?> componentType = (type != null ? getComponentType(type) : null);
+			List<Object> elements = new ArrayList<>();
+			while (tokenizer.peek() != '}') {
+				elements.add(parseValue(tokenizer, componentType, source));
+				tokenizer.skip(',');
+			}
+			tokenizer.expect('}');
+			if (componentType == null) {
+				return null;
+			}
+			Object array = Array.newInstance(getValueType(componentType), elements.size());
+			for (int i = 0; i < elements.size(); i++) {
+				Array.set(array, i, elements.get(i));
+			}
+			return array;
+		}
+		if (next == '@') {
+			MergedAnnotation<?> annotation = parseAnnotation(tokenizer, source);
+			return (type != null ? requireAnnotation(annotation, type) : null);
+		}
+		String value = (next == '"' ? tokenizer.nextString() : tokenizer.nextWord());
+		return (type != null ? convertValue(value, type) : null);
+	}
+
+	private Class<?> getComponentType(Class<?> type) {
+		if (!type.isArray()) {
+			throw new IllegalArgumentException("Array value for attribute of type " + type.getName());
+		}
+		return type.getComponentType();
+	}
+
+	private Class<?> getValueType(Class<?> type) {
+		if (type == Class.class) {
+			return String.class;
+		}
+		if (type.isAnnotation()) {
+			return MergedAnnotation.class;
+		}
+		return type;
+	}
+
+	private Object requireAnnotation(@Nullable MergedAnnotation<?> annotation, Class<?> type) {
+		if (annotation == null || annotation.getType() != type) {
+			throw new IllegalArgumentException("Invalid annotation value for attribute of type " + type.getName());
+		}
+		return annotation;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object convertValue(String value, Class<?> type) {
+		Class<?> targetType = ClassUtils.resolvePrimitiveIfNecessary(type);
+		if (targetType == String.class) {
+			return value;
+		}
+		if (targetType == Class.class) {
+			if (!value.endsWith(CLASS_LITERAL_SUFFIX)) {
+				throw new IllegalArgumentException("Invalid class literal [" + value + "]");
+			}
+			return value.substring(0, value.length() - CLASS_LITERAL_SUFFIX.length());
+		}
+		if (targetType.isEnum()) {
+			return Enum.valueOf((Class<? extends Enum>) targetType, value);
+		}
+		if (targetType == Character.class) {
+			if (value.length() != 1) {
+				throw new IllegalArgumentException("Invalid char value [" + value + "]");
+			}
+			return value.charAt(0);
+		}
+		if (targetType == Boolean.class) {
+			return Boolean.valueOf(value);
+		}
+		if (targetType == Byte.class) {
+			return Byte.valueOf(value);
+		}
+		if (targetType == Short.class) {
+			return Short.valueOf(value);
+		}
+		if (targetType == Integer.class) {
+			return Integer.valueOf(value);
+		}
+		if (targetType == Long.class) {
+			return Long.valueOf(value);
+		}
+		if (targetType == Float.class) {
+			return Float.valueOf(value);
+		}
+		if (targetType == Double.class) {
+			return Double.valueOf(value);
+		}
+		throw new IllegalArgumentException("Unsupported attribute type " + type.getName());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable
+	private Class<? extends Annotation> resolveAnnotationType(String typeName) {
+		if (AnnotationFilter.PLAIN.matches(typeName)) {
+			return null;
+		}
+		try {
+			Class<?> type = ClassUtils.forName(typeName, this.classLoader);
+			return (type.isAnnotation() ? (Class<? extends Annotation>) type : null);
+		}
+		catch (ClassNotFoundException | LinkageError ex) {
+			return null;
+		}
+	}
+
+
+	/**
+	 * Simple tokenizer for the syntax of annotations and method declarations.
+	 */
+	private static class Tokenizer {
+
+		private static final String DELIMITERS = "@(){},=;\"";
+
+		private final String value;
+
+		private int position;
+
+		Tokenizer(String value) {
+			this.value = value;
+		}
+
+		boolean hasMore() {
+			skipWhitespace();
+			return (this.position < this.value.length());
+		}
+
+		char peek() {
+			if (!hasMore()) {
+				throw new IllegalArgumentException("Unexpected end of [" + this.value + "]");
+			}
+			return this.value.charAt(this.position);
+		}
+
+		boolean skip(char ch) {
+			if (hasMore() && this.value.charAt(this.position) == ch) {
+				this.position++;
+				return true;
+			}
+			return false;
+		}
+
+		void expect(char ch) {
+			if (!skip(ch)) {
+				throw new IllegalArgumentException(
+						"Expected '" + ch + "' at position " + this.position + " of [" + this.value + "]");
+			}
+		}
+
+		String nextWord() {
+			peek();
+			int start = this.position;
+			while (this.position < this.value.length()) {
+				char ch = this.value.charAt(this.position);
+				if (Character.isWhitespace(ch) || DELIMITERS.indexOf(ch) != -1) {
+					break;
+				}
+				this.position++;
+			}
+			if (this.position == start) {
+				throw new IllegalArgumentException(
+						"Expected word at position " + start + " of [" + this.value + "]");
+			}
+			return this.value.substring(start, this.position);
+		}
+
+		String nextString() {
+			expect('"');
+			StringBuilder builder = new StringBuilder();
+			while (this.position < this.value.length()) {
+				char ch = this.value.charAt(this.position++);
+				if (ch == '"') {
+					return builder.toString();
+				}
+				if (ch == '\\' && this.position < this.value.length()) {
+					ch = this.value.charAt(this.position++);
+					if (ch == 'u' && this.position + 4 <= this.value.length()) {
+						ch = (char) Integer.parseInt(this.value.substring(this.position, this.position + 4), 16);
+						this.position += 4;
+					}
+				}
+				builder.append(ch);
+			}
+			throw new IllegalArgumentException("Unterminated string in [" + this.value + "]");
+		}
+
+		private void skipWhitespace() {
+			while (this.position < this.value.length() && Character.isWhitespace(this.value.charAt(this.position))) {
+				this.position++;
+			}
+		}
+	}
+
+
+	/**
+	 * {@link MergedAnnotation} source for an indexed method.
+	 */
+	private static final class MethodSource {
+
+		private final String declaringClassName;
+
+		private String signature = "";
+
+		MethodSource(String declaringClassName) {
+			this.declaringClassName = declaringClassName;
+		}
+
+		void setSignature(String methodName, List<String> parameterTypes) {
+			this.signature = methodName + "(" + StringUtils.collectionToCommaDelimitedString(parameterTypes) + ")";
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (other == null || getClass() != other.getClass()) {
+				return false;
+			}
+			MethodSource otherSource = (MethodSource) other;
+			return (this.declaringClassName.equals(otherSource.declaringClassName) &&
+					this.signature.equals(otherSource.signature));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.declaringClassName.hashCode() * 31 + this.signature.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return this.declaringClassName + "." + this.signature;
+		}
+	}
+
+}
@@ -17,11 +17,23 @@
 package org.springframework.context.index;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.lang.Nullable;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
@@ -43,6 +55,10 @@ import org.springframework.util.MultiValueMap;
  * not a rule. Similarly, the {@code stereotype} is usually the fully qualified name of
  * a target type but it can be any marker really.
  *
+ * <p>The index may also provide the annotation metadata of its candidate types, as
+ * recorded in {@code META-INF/spring.components.metadata}, allowing for metadata
+ * access through {@link #getMetadataReader(String)} without reading class files.
+ *
  * @author Stephane Nicoll
  * @since 5.0
  */
@@ -50,11 +66,31 @@ public class CandidateComponentsIndex {
 
 	private static final AntPathMatcher pathMatcher = new AntPathMatcher(".");
 
+	private static final Log logger = LogFactory.getLog(CandidateComponentsIndex.class);
+
 	private final MultiValueMap<String, Entry> index;
 
+	private final Map<String, Map<String, String>> annotationMetadata;
+
+	private final AnnotationMetadataParser annotationMetadataParser;
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private final Map<String, MetadataReader> metadataReaderCache = new ConcurrentHashMap<>(64);
+
 
 	CandidateComponentsIndex(List<Properties> content) {
+		this(content, Collections.emptyList(), null);
+	}
+
+	CandidateComponentsIndex(List<Properties> content, List<Properties> annotationMetadata,
+			@Nullable ClassLoader classLoader) {
+
 		this.index = parseIndex(content);
+		this.annotationMetadata = parseAnnotationMetadata(annotationMetadata);
+		this.annotationMetadataParser = new AnnotationMetadataParser(classLoader);
+		this.classLoader = classLoader;
 	}
 
 	private static MultiValueMap<String, Entry> parseIndex(List<Properties> content) {
@@ -70,6 +106,21 @@ public class CandidateComponentsIndex {
 		return index;
 	}
 
+	private static Map<String, Map<String, String>> parseAnnotationMetadata(List<Properties> content) {
+		Map<String, Map<String, String>> annotationMetadata = new HashMap<>();
+		for (Properties entry : content) {
+			entry.forEach((key, value) -> {
+				String name = (String) key;
+				int separator = name.lastIndexOf('.');
+				if (separator > 0) {
+					annotationMetadata.computeIfAbsent(name.substring(0, separator), type -> new HashMap<>(8))
+							.putIfAbsent(name.substring(separator + 1), (String) value);
+				}
+			});
+		}
+		return annotationMetadata;
+	}
+
 
 	/**
 	 * Return the candidate types that are associated with the specified stereotype.
@@ -89,6 +140,45 @@ public class CandidateComponentsIndex {
 		return Collections.emptySet();
 	}
 
+	/**
+	 * Return whether the index provides the annotation metadata of any type.
+	 * @since 5.2.9
+	 */
+	public boolean hasAnnotationMetadata() {
+		return !this.annotationMetadata.isEmpty();
+	}
+
+	/**
+	 * Return a {@link MetadataReader} for the specified type, based on the
+	 * annotation metadata that has been recorded in the index for it.
+	 * @param type the fully qualified name of the type
+	 * @return the {@code MetadataReader}, or {@code null} if the index does not
+	 * provide the annotation metadata of the specified type
+	 * @since 5.2.9
+	 */
+	@Nullable
+	public MetadataReader getMetadataReader(String type) {
+		MetadataReader metadataReader = this.metadataReaderCache.get(type);
+		if (metadataReader == null) {
+			Map<String, String> attributes = this.annotationMetadata.get(type);
+			if (attributes == null) {
+				return null;
+			}
+			try {
+				metadataReader = new IndexedMetadataReader(
+						this.annotationMetadataParser.parse(attributes), this.classLoader);
+			}
+			catch (IllegalArgumentException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring invalid annotation metadata for type [" + type + "] in index", ex);
+				}
+				return null;
+			}
+			this.metadataReaderCache.put(type, metadataReader);
+		}
+		return metadataReader;
+	}
+
 
 	private static class Entry {
 
@@ -111,4 +201,36 @@ public class CandidateComponentsIndex {
 		}
 	}
 
+
+	/**
+	 * {@link MetadataReader} for annotation metadata from the index.
+	 */
+	private static class IndexedMetadataReader implements MetadataReader {
+
+		private final Resource resource;
+
+		private final AnnotationMetadata annotationMetadata;
+
+		IndexedMetadataReader(AnnotationMetadata annotationMetadata, @Nullable ClassLoader classLoader) {
+			this.resource = new ClassPathResource(ClassUtils.convertClassNameToResourcePath(
+					annotationMetadata.getClassName()) + ClassUtils.CLASS_FILE_SUFFIX, classLoader);
+			this.annotationMetadata = annotationMetadata;
+		}
+
+		@Override
+		public Resource getResource() {
+			return this.resource;
+		}
+
+		@Override
+		public ClassMetadata getClassMetadata() {
+			return this.annotationMetadata;
+		}
+
+		@Override
+		public AnnotationMetadata getAnnotationMetadata() {
+			return this.annotationMetadata;
+		}
+	}
+
 }
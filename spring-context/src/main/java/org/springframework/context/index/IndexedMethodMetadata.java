@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.lang.reflect.Modifier;
+
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.type.MethodMetadata;
+
+/**
+ * {@link MethodMetadata} created from the annotated method declarations
+ * of a type recorded in the candidate components index.
+ *
+ * @since 5.2.9
+ * @see AnnotationMetadataParser
+ */
+final class IndexedMethodMetadata implements MethodMetadata {
+
+	private final String methodName;
+
+	private final int modifiers;
+
+	private final String declaringClassName;
+
+	private final String returnTypeName;
+
+	private final MergedAnnotations annotations;
+
+
+	IndexedMethodMetadata(String methodName, int modifiers, String declaringClassName,
+			String returnTypeName, MergedAnnotations annotations) {
+
+		this.methodName = methodName;
+		this.modifiers = modifiers;
+		this.declaringClassName = declaringClassName;
+		this.returnTypeName = returnTypeName;
+		this.annotations = annotations;
+	}
+
+
+	@Override
+	public String getMethodName() {
+		return this.methodName;
+	}
+
+	@Override
+	public String getDeclaringClassName() {
+		return this.declaringClassName;
+	}
+
+	@Override
+	public String getReturnTypeName() {
+		return this.returnTypeName;
+	}
+
+	@Override
+	public boolean isAbstract() {
+		return Modifier.isAbstract(this.modifiers);
+	}
+
+	@Override
+	public boolean isStatic() {
+		return Modifier.isStatic(this.modifiers);
+	}
+
+	@Override
+	public boolean isFinal() {
+		return Modifier.isFinal(this.modifiers);
+	}
+
+	@Override
+	public boolean isOverridable() {
+		return (!isStatic() && !isFinal() && !Modifier.isPrivate(this.modifiers));
+	}
+
+	@Override
+	public MergedAnnotations getAnnotations() {
+		return this.annotations;
+	}
+
+}
@@ -38,6 +38,8 @@ import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 
 /**
@@ -119,7 +121,7 @@ final class PostProcessorRegistrationDelegate {
             // 添加到registryProcessors中，用于最后执行postProcessBeanFactory方法
             registryProcessors.addAll(currentRegistryProcessors);
             // 遍历currentRegistryProcessors，执行postProcessBeanDefinitionRegistry方法
-            invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+            invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, beanFactory.getApplicationStartup());
             // 执行完毕之后，清空currentRegistryProcessors
             currentRegistryProcessors.clear();
 
@@ -142,7 +144,7 @@ final class PostProcessorRegistrationDelegate {
             // 添加到registryProcessors中，用于最后执行postProcessBeanFactory方法
             registryProcessors.addAll(currentRegistryProcessors);
             // 遍历currentRegistryProcessors，执行postProcessBeanDefinitionRegistry方法
-            invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+            invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, beanFactory.getApplicationStartup());
             // 执行完毕之后，清空currentRegistryProcessors
             currentRegistryProcessors.clear();
 
@@ -169,7 +171,7 @@ final class PostProcessorRegistrationDelegate {
                 // 添加到registryProcessors中，用于最后执行postProcessBeanFactory方法
                 registryProcessors.addAll(currentRegistryProcessors);
                 // 遍历currentRegistryProcessors，执行postProcessBeanDefinitionRegistry方法
-                invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+                invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, beanFactory.getApplicationStartup());
                 // 执行完毕之后，清空currentRegistryProcessors
                 currentRegistryProcessors.clear();
             }
@@ -403,12 +405,16 @@ final class PostProcessorRegistrationDelegate {
      * Invoke the given BeanDefinitionRegistryPostProcessor beans.
      */
     private static void invokeBeanDefinitionRegistryPostProcessors(
-            Collection<? extends BeanDefinitionRegistryPostProcessor> postProcessors, BeanDefinitionRegistry registry) {
+            Collection<? extends BeanDefinitionRegistryPostProcessor> postProcessors, BeanDefinitionRegistry registry,
+            ApplicationStartup applicationStartup) {
 
         //遍历 postProcessors
         for (BeanDefinitionRegistryPostProcessor postProcessor : postProcessors) {
+            StartupStep postProcessBeanDefRegistry = applicationStartup.start("spring.context.beandef-registry.post-process")
+                    .tag("postProcessor", postProcessor::toString);
             //调用 postProcessor 的 postProcessBeanDefinitionRegistry以使得postProcess往registry注册BeanDefinition对象
             postProcessor.postProcessBeanDefinitionRegistry(registry);
+            postProcessBeanDefRegistry.end();
         }
     }
 
@@ -422,9 +428,12 @@ final class PostProcessorRegistrationDelegate {
 
         //遍历postProcessors
         for (BeanFactoryPostProcessor postProcessor : postProcessors) {
+            StartupStep postProcessBeanFactory = beanFactory.getApplicationStartup().start("spring.context.bean-factory.post-process")
+                    .tag("postProcessor", postProcessor::toString);
             //回调 BeanFactoryPostProcessor 的 postProcessBeanFactory 方法，使得每个postProcessor对象都可以对
             // beanFactory进行调整
             postProcessor.postProcessBeanFactory(beanFactory);
+            postProcessBeanFactory.end();
         }
     }
 
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.core.ResolvableType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the by-type lookups of beans defined through {@code @Bean} methods
+ * once the configuration of the bean factory has been frozen.
+ *
+ * @since 5.2.9
+ */
+class BeanMethodTypeIndexTests {
+
+	private static final int BEAN_COUNT = 200;
+
+
+	@Test
+	void autowiringDuringRefreshOnlyChecksCandidates() {
+		TypeCheckCountingBeanFactory beanFactory = new TypeCheckCountingBeanFactory(Collaborator.class);
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(beanFactory);
+		context.registerBeanDefinition("config", new RootBeanDefinition(Config.class));
+		for (int i = 0; i < BEAN_COUNT; i++) {
+			RootBeanDefinition beanDefinition = new RootBeanDefinition();
+			beanDefinition.setFactoryBeanName("config");
+			beanDefinition.setFactoryMethodName("testBean");
+			beanDefinition.setLazyInit(true);
+			context.registerBeanDefinition("testBean" + i, beanDefinition);
+		}
+		context.refresh();
+		int typeChecks = beanFactory.typeChecks.get();
+
+		assertThat(context.getBean(Consumer.class).collaborator).isSameAs(context.getBean(Collaborator.class));
+		assertThat(context.getBeansOfType(TestBean.class)).hasSize(BEAN_COUNT + 1);
+		assertThat(typeChecks).isGreaterThan(0).isLessThan(10);
+		context.close();
+	}
+
+
+	@Configuration
+	static class Config {
+
+		@Bean
+		TestBean testBean() {
+			return new TestBean();
+		}
+
+		@Bean
+		Collaborator collaborator() {
+			return new Collaborator();
+		}
+
+		@Bean
+		Consumer consumer() {
+			return new Consumer();
+		}
+	}
+
+
+	static class Collaborator {
+	}
+
+
+	static class Consumer {
+
+		@Autowired
+		Collaborator collaborator;
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class TypeCheckCountingBeanFactory extends DefaultListableBeanFactory {
+
+		private final Class<?> countedType;
+
+		final AtomicInteger typeChecks = new AtomicInteger();
+
+		TypeCheckCountingBeanFactory(Class<?> countedType) {
+			this.countedType = countedType;
+		}
+
+		@Override
+		protected boolean isTypeMatch(String name, ResolvableType typeToMatch, boolean allowFactoryBeanInit) {
+			if (typeToMatch.toClass() == this.countedType) {
+				this.typeChecks.incrementAndGet();
+			}
+			return super.isTypeMatch(name, typeToMatch, allowFactoryBeanInit);
+		}
+	}
+
+}
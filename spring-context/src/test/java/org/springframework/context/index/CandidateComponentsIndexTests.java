@@ -23,6 +23,17 @@ import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.scheduling.annotation.Scheduled;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -76,6 +87,92 @@ public class CandidateComponentsIndexTests {
 				.contains("com.example.Foo");
 	}
 
+	@Test
+	public void getMetadataReader() {
+		String type = SampleConfiguration.class.getName();
+		Properties annotationMetadata = new Properties();
+		annotationMetadata.put(type + ".declaration", "public static class " + type);
+		annotationMetadata.put(type + ".enclosingClass", CandidateComponentsIndexTests.class.getName());
+		annotationMetadata.put(type + ".superclass", "java.lang.Object");
+		annotationMetadata.put(type + ".interfaces", "java.lang.Cloneable");
+		annotationMetadata.put(type + ".annotations",
+				"@org.springframework.context.annotation.Configuration(proxyBeanMethods=false) " +
+				"@org.springframework.context.annotation.Import(value={java.lang.String.class}) " +
+				"@com.example.Unknown(value=\"x\") @java.lang.Deprecated");
+		annotationMetadata.put(type + ".methods",
+				"@org.springframework.context.annotation.Bean(name={\"one\",\"two\"}) " +
+				"@org.springframework.context.annotation.Scope(scopeName=\"prototype\",proxyMode=TARGET_CLASS) " +
+				"public java.lang.String sample(); " +
+				"@org.springframework.scheduling.annotation.Scheduled(fixedRate=5) " +
+				"protected static final void task(int,java.lang.String[]); " +
+				"@java.lang.Deprecated public void deprecated();");
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonList(createProperties(type, "service")),
+				Collections.singletonList(annotationMetadata), getClass().getClassLoader());
+		assertThat(index.hasAnnotationMetadata()).isTrue();
+
+		MetadataReader metadataReader = index.getMetadataReader(type);
+		assertThat(metadataReader).isNotNull();
+		assertThat(metadataReader.getResource().exists()).isTrue();
+		assertThat(index.getMetadataReader(type)).isSameAs(metadataReader);
+		AnnotationMetadata metadata = metadataReader.getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(type);
+		assertThat(metadata.isIndependent()).isTrue();
+		assertThat(metadata.isConcrete()).isTrue();
+		assertThat(metadata.isFinal()).isFalse();
+		assertThat(metadata.getEnclosingClassName()).isEqualTo(CandidateComponentsIndexTests.class.getName());
+		assertThat(metadata.getSuperClassName()).isEqualTo("java.lang.Object");
+		assertThat(metadata.getInterfaceNames()).containsExactly("java.lang.Cloneable");
+		assertThat(metadata.getMemberClassNames()).isEmpty();
+		assertThat(metadata.getAnnotationTypes()).containsExactly(
+				Configuration.class.getName(), Import.class.getName());
+		assertThat(metadata.getMetaAnnotationTypes(Configuration.class.getName()))
+				.contains("org.springframework.stereotype.Component");
+		AnnotationAttributes configuration = metadata.getAnnotations().get(Configuration.class).asAnnotationAttributes();
+		assertThat(configuration.getBoolean("proxyBeanMethods")).isFalse();
+		assertThat(configuration.getString("value")).isEmpty();
+		assertThat(metadata.getAnnotations().get(Import.class).getClassArray("value")).containsExactly(String.class);
+
+		Set<MethodMetadata> beanMethods = metadata.getAnnotatedMethods(Bean.class.getName());
+		assertThat(beanMethods).hasSize(1);
+		MethodMetadata beanMethod = beanMethods.iterator().next();
+		assertThat(beanMethod.getMethodName()).isEqualTo("sample");
+		assertThat(beanMethod.getDeclaringClassName()).isEqualTo(type);
+		assertThat(beanMethod.getReturnTypeName()).isEqualTo("java.lang.String");
+		assertThat(beanMethod.isOverridable()).isTrue();
+		assertThat(beanMethod.getAnnotations().get(Bean.class).getStringArray("name")).containsExactly("one", "two");
+		assertThat(beanMethod.getAnnotations().get(Scope.class).getString("value")).isEqualTo("prototype");
+		assertThat(beanMethod.getAnnotations().get(Scope.class).getEnum("proxyMode", ScopedProxyMode.class))
+				.isEqualTo(ScopedProxyMode.TARGET_CLASS);
+
+		MethodMetadata scheduledMethod = metadata.getAnnotatedMethods(Scheduled.class.getName()).iterator().next();
+		assertThat(scheduledMethod.isStatic()).isTrue();
+		assertThat(scheduledMethod.isFinal()).isTrue();
+		assertThat(scheduledMethod.isOverridable()).isFalse();
+		assertThat(scheduledMethod.getReturnTypeName()).isEqualTo("void");
+		assertThat(scheduledMethod.getAnnotations().get(Scheduled.class).getLong("fixedRate")).isEqualTo(5L);
+		assertThat(metadata.getAnnotatedMethods(Deprecated.class.getName())).isEmpty();
+	}
+
+	@Test
+	public void getMetadataReaderWithoutAnnotationMetadata() {
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonList(createSampleProperties()));
+		assertThat(index.hasAnnotationMetadata()).isFalse();
+		assertThat(index.getMetadataReader("com.example.service.One")).isNull();
+	}
+
+	@Test
+	public void getMetadataReaderWithInvalidAnnotationMetadata() {
+		Properties annotationMetadata = new Properties();
+		annotationMetadata.put("com.example.Foo.declaration", "public class com.example.Foo");
+		annotationMetadata.put("com.example.Foo.annotations", "@org.springframework.context.annotation.Lazy(value=");
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonList(createProperties("com.example.Foo", "service")),
+				Collections.singletonList(annotationMetadata), getClass().getClassLoader());
+		assertThat(index.getMetadataReader("com.example.Foo")).isNull();
+	}
+
 	private static Properties createProperties(String key, String stereotypes) {
 		Properties properties = new Properties();
 		properties.put(key, String.join(",", stereotypes));
@@ -91,4 +188,9 @@ public class CandidateComponentsIndexTests {
 		return properties;
 	}
 
+
+
+	static class SampleConfiguration implements Cloneable {
+	}
+
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link ResolvableType} factory methods and generics resolution.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ResolvableTypeBenchmark {
+
+	@Benchmark
+	public ResolvableType forClass() {
+		return ResolvableType.forClass(StringListMap.class);
+	}
+
+	@Benchmark
+	public void forClassResolveGenerics(Blackhole bh) {
+		ResolvableType type = ResolvableType.forClass(StringListMap.class).as(Map.class);
+		bh.consume(type.resolveGeneric(0));
+		bh.consume(type.resolveGeneric(1, 0));
+	}
+
+	@Benchmark
+	public ResolvableType forMethodParameter(BenchmarkData data) {
+		return ResolvableType.forMethodParameter(new MethodParameter(data.method, 0));
+	}
+
+	@Benchmark
+	public Class<?> forMethodReturnTypeResolveGeneric(BenchmarkData data) {
+		return ResolvableType.forMethodReturnType(data.method).resolveGeneric(1, 0);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public Method method;
+
+		@Setup
+		public void setup() throws NoSuchMethodException {
+			this.method = Repository.class.getMethod("findAll", List.class);
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	static class StringListMap extends HashMap<String, List<Integer>> {
+	}
+
+
+	interface Repository {
+
+		Map<String, List<Integer>> findAll(List<String> ids);
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+
+/**
+ * Benchmarks for {@link MergedAnnotations} lookups of meta-annotations
+ * on types and methods, as performed for each handler method and bean class.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class MergedAnnotationsBenchmark {
+
+	@Benchmark
+	public boolean isPresentOnType() {
+		return MergedAnnotations.from(AnnotatedService.class, SearchStrategy.TYPE_HIERARCHY)
+				.isPresent(Component.class);
+	}
+
+	@Benchmark
+	public String getAttributeFromComposedAnnotation() {
+		return MergedAnnotations.from(AnnotatedService.class, SearchStrategy.TYPE_HIERARCHY)
+				.get(Component.class).getString("value");
+	}
+
+	@Benchmark
+	public boolean isPresentOnMethod(BenchmarkData data) {
+		return MergedAnnotations.from(data.method, SearchStrategy.TYPE_HIERARCHY)
+				.isPresent(Mapping.class);
+	}
+
+	@Benchmark
+	public Object findMergedAnnotationOnMethod(BenchmarkData data) {
+		return AnnotatedElementUtils.findMergedAnnotation(data.method, Mapping.class);
+	}
+
+	@Benchmark
+	public boolean isPresentOnUnannotatedType() {
+		return MergedAnnotations.from(String.class, SearchStrategy.TYPE_HIERARCHY)
+				.isPresent(Component.class);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public Method method;
+
+		@Setup
+		public void setup() throws NoSuchMethodException {
+			this.method = AnnotatedService.class.getMethod("handle", String.class);
+		}
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE)
+	@interface Component {
+
+		String value() default "";
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE)
+	@Component
+	@interface Service {
+
+		@AliasFor(annotation = Component.class)
+		String value() default "";
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+	@interface Mapping {
+
+		@AliasFor("path")
+		String[] value() default {};
+
+		@AliasFor("value")
+		String[] path() default {};
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.METHOD)
+	@Mapping
+	@interface GetMapping {
+
+		@AliasFor(annotation = Mapping.class)
+		String[] value() default {};
+	}
+
+
+	interface HandlerContract {
+
+		@GetMapping("/handle")
+		String handle(String input);
+	}
+
+
+	@Service("annotatedService")
+	static class AnnotatedService implements HandlerContract {
+
+		@Override
+		public String handle(String input) {
+			return input;
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.convert.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.core.convert.ConversionPlan;
+import org.springframework.core.convert.TypeDescriptor;
+
+/**
+ * Benchmarks for {@link GenericConversionService#convert}, covering simple
+ * conversions as well as element-wise collection conversions.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class GenericConversionServiceBenchmark {
+
+	@Benchmark
+	public Integer convertStringToInteger(BenchmarkData data) {
+		return data.conversionService.convert("12345", Integer.class);
+	}
+
+	@Benchmark
+	public Object convertStringToEnum(BenchmarkData data) {
+		return data.conversionService.convert("SECONDS", TimeUnit.class);
+	}
+
+	@Benchmark
+	public Object convertListOfStringsToSetOfIntegers(BenchmarkData data) {
+		return data.conversionService.convert(data.source, data.sourceType, data.targetType);
+	}
+
+	@Benchmark
+	public Object convertListOfStringsToSetOfIntegersWithPlan(BenchmarkData data) {
+		return data.conversionPlan.convert(data.source);
+	}
+
+	@Benchmark
+	public boolean canConvert(BenchmarkData data) {
+		return data.conversionService.canConvert(data.sourceType, data.targetType);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"10", "100"})
+		public int collectionSize;
+
+		public GenericConversionService conversionService = new DefaultConversionService();
+
+		public List<String> source;
+
+		public TypeDescriptor sourceType = TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(String.class));
+
+		public TypeDescriptor targetType = TypeDescriptor.collection(Set.class, TypeDescriptor.valueOf(Integer.class));
+
+		public ConversionPlan conversionPlan;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.conversionPlan = this.conversionService.getConversionPlan(this.sourceType, this.targetType);
+			this.source = new ArrayList<>(this.collectionSize);
+			for (int i = 0; i < this.collectionSize; i++) {
+				this.source.add(String.valueOf(i));
+			}
+		}
+	}
+
+}
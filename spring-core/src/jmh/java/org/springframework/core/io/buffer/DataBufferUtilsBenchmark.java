@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Flux;
+
+/**
+ * Benchmarks for {@link DataBufferUtils#join}, with heap and pooled Netty buffers.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DataBufferUtilsBenchmark {
+
+	@Benchmark
+	public int join(BenchmarkData data) {
+		List<DataBuffer> buffers = new ArrayList<>(data.bufferCount);
+		for (int i = 0; i < data.bufferCount; i++) {
+			buffers.add(data.bufferFactory.allocateBuffer(data.chunk.length).write(data.chunk));
+		}
+		DataBuffer joined = DataBufferUtils.join(Flux.fromIterable(buffers)).block();
+		int count = joined.readableByteCount();
+		DataBufferUtils.release(joined);
+		return count;
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"default", "netty"})
+		public String bufferFactoryType;
+
+		@Param({"4", "64"})
+		public int bufferCount;
+
+		public DataBufferFactory bufferFactory;
+
+		public byte[] chunk;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.bufferFactory = ("netty".equals(this.bufferFactoryType) ?
+					new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT) : new DefaultDataBufferFactory());
+			StringBuilder builder = new StringBuilder();
+			while (builder.length() < 1024) {
+				builder.append("{\"name\":\"Spring\",\"value\":42},");
+			}
+			this.chunk = builder.toString().getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -139,6 +139,13 @@ public class MethodParameter {
 	@Nullable
 	private volatile MethodParameter nestedMethodParameter;
 
+	/**
+	 * The {@link ResolvableType} for this parameter at its current nesting level,
+	 * cached by {@link ResolvableType#forMethodParameter(MethodParameter)}.
+	 */
+	@Nullable
+	volatile ResolvableType resolvableType;
+
 
 	/**
 	 * 使用嵌套级别1为给定方法创建一个新的{@code MethodParameter}
@@ -350,6 +357,7 @@ public class MethodParameter {
 	@Deprecated
 	public void increaseNestingLevel() {
 		this.nestingLevel++;
+		this.resolvableType = null;
 	}
 
 	/**
@@ -366,6 +374,7 @@ public class MethodParameter {
 		getTypeIndexesPerLevel().remove(this.nestingLevel);
 		// 嵌套等级-1
 		this.nestingLevel--;
+		this.resolvableType = null;
 	}
 
 	/**
@@ -404,6 +413,7 @@ public class MethodParameter {
 	public void setTypeIndexForCurrentLevel(int typeIndex) {
 		// 将嵌套等级和类型索引添加到typeIndexPerLevel中
 		getTypeIndexesPerLevel().put(this.nestingLevel, typeIndex);
+		this.resolvableType = null;
 	}
 
 	/**
@@ -604,6 +614,7 @@ public class MethodParameter {
 		this.containingClass = containingClass;
 		// 将当前参数类型置为null
 		this.parameterType = null;
+		this.resolvableType = null;
 	}
 
 	/**
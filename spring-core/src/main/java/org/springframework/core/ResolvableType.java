@@ -102,6 +102,20 @@ public class ResolvableType implements Serializable {
 	private static final ConcurrentReferenceHashMap<ResolvableType, ResolvableType> cache =
 			new ConcurrentReferenceHashMap<>(256);
 
+	/**
+	 * Interned {@code ResolvableType} instances for plain classes,
+	 * retaining their lazily resolved super types, interfaces and generics.
+	 */
+	private static final ConcurrentReferenceHashMap<Class<?>, ResolvableType> classCache =
+			new ConcurrentReferenceHashMap<>(256);
+
+	/**
+	 * Interned {@code ResolvableType} instances for fields, keyed by
+	 * {@code Field} and valid for the identical {@code Field} instance.
+	 */
+	private static final ConcurrentReferenceHashMap<Field, ResolvableType> fieldCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 
 	/**
 	 * 被管理的底层类型
@@ -1441,7 +1455,18 @@ public class ResolvableType implements Serializable {
 	 */
 	public static ResolvableType forClass(@Nullable Class<?> clazz) {
 		// 在Class的基础上创建新的ResolvableType。避免为了 创建直接的Class包装类而进行所有instanceof检查
-		return new ResolvableType(clazz);
+		if (clazz == null) {
+			clazz = Object.class;
+		}
+		ResolvableType resolvableType = classCache.get(clazz);
+		if (resolvableType == null) {
+			resolvableType = new ResolvableType(clazz);
+			ResolvableType existing = classCache.putIfAbsent(clazz, resolvableType);
+			if (existing != null) {
+				resolvableType = existing;
+			}
+		}
+		return resolvableType;
 	}
 
 	/**
@@ -1597,9 +1622,15 @@ public class ResolvableType implements Serializable {
 	 */
 	public static ResolvableType forField(Field field) {
 		Assert.notNull(field, "Field must not be null");
-		// FieldTypeProvider:从Field中获取的类型的SerializableTypeWrapper.TypeProvider
-		// 返回由默认的VariableResolver支持的FieldTypeProvider的ResolvableType对象
-		return forType(null, new FieldTypeProvider(field), null);
+		ResolvableType resolvableType = fieldCache.get(field);
+		// Identity check: the returned type exposes the given Field as its source
+		if (resolvableType == null || resolvableType.getSource() != field) {
+			// FieldTypeProvider:从Field中获取的类型的SerializableTypeWrapper.TypeProvider
+			// 返回由默认的VariableResolver支持的FieldTypeProvider的ResolvableType对象
+			resolvableType = forType(null, new FieldTypeProvider(field), null);
+			fieldCache.put(field, resolvableType);
+		}
+		return resolvableType;
 	}
 
 	/**
@@ -1859,6 +1890,15 @@ public class ResolvableType implements Serializable {
 	 */
 	public static ResolvableType forMethodParameter(MethodParameter methodParameter, @Nullable Type targetType) {
 		Assert.notNull(methodParameter, "MethodParameter must not be null");
+		if (targetType == null) {
+			// Cached per MethodParameter instance, reset on any change of its nesting state
+			ResolvableType resolvableType = methodParameter.resolvableType;
+			if (resolvableType == null) {
+				resolvableType = forMethodParameter(methodParameter, null, methodParameter.getNestingLevel());
+				methodParameter.resolvableType = resolvableType;
+			}
+			return resolvableType;
+		}
 		// 在methodParameter的嵌套级别为methodParameter返回一个ResolvableType对象,覆盖目标类类型以使用targetType进行解析
 		return forMethodParameter(methodParameter, targetType, methodParameter.getNestingLevel());
 	}
@@ -2042,6 +2082,8 @@ public class ResolvableType implements Serializable {
 	public static void clearCache() {
 		// 清空resolvableType对象映射缓存
 		cache.clear();
+		classCache.clear();
+		fieldCache.clear();
 		// 清空序列化类型包装对象缓存
 		SerializableTypeWrapper.cache.clear();
 	}
@@ -1291,6 +1291,18 @@ public abstract class AnnotationUtils {
 		AnnotationsScanner.clearCache();
 	}
 
+	/**
+	 * Clear the internal annotation metadata cache for all classes loaded by
+	 * the given ClassLoader or by any ClassLoader underneath it, e.g. on
+	 * shutdown of a web application.
+	 * @param classLoader the ClassLoader to clear the cache for
+	 * @since 5.2.9
+	 * @see #clearCache()
+	 */
+	public static void clearClassLoader(@Nullable ClassLoader classLoader) {
+		AnnotationsScanner.clearClassLoader(classLoader);
+	}
+
 
 	/**
 	 * Internal holder used to wrap default values.
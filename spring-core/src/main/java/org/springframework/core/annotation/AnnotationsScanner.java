@@ -74,12 +74,24 @@ abstract class AnnotationsScanner {
 	static <C, R> R scan(C context, AnnotatedElement source, SearchStrategy searchStrategy,
 			AnnotationsProcessor<C, R> processor) {
 
+		if (searchStrategy == SearchStrategy.TYPE_HIERARCHY) {
+			AnnotationsSnapshot.Recording recording = AnnotationsSnapshot.getRecording(source);
+			if (recording != null) {
+				return processor.finish(recording.replay(context, processor));
+			}
+		}
 		R result = process(context, source, searchStrategy, processor);
 		return processor.finish(result);
 	}
 
+	/**
+	 * Walk the hierarchy of the specified element without consulting any
+	 * {@link AnnotationsSnapshot}.
+	 * @return the first non-null result returned by the processor, or
+	 * {@code null} if none
+	 */
 	@Nullable
-	private static <C, R> R process(C context, AnnotatedElement source,
+	static <C, R> R process(C context, AnnotatedElement source,
 			SearchStrategy searchStrategy, AnnotationsProcessor<C, R> processor) {
 
 		if (source instanceof Class) {
@@ -491,6 +503,10 @@ abstract class AnnotationsScanner {
 			}
 			return getDeclaredAnnotations(source, false).length == 0;
 		}
+		if (searchStrategy == SearchStrategy.TYPE_HIERARCHY) {
+			AnnotationsSnapshot.Recording recording = AnnotationsSnapshot.getRecording(source);
+			return (recording != null && recording.isEmpty());
+		}
 		return false;
 	}
 
@@ -529,9 +545,45 @@ abstract class AnnotationsScanner {
 		return true;
 	}
 
+	/**
+	 * Check whether the given ClassLoader is underneath the given parent,
+	 * that is, whether the parent is within the candidate's hierarchy.
+	 * @param candidate the candidate ClassLoader to check
+	 * @param parent the parent ClassLoader to check for
+	 */
+	static boolean isUnderneathClassLoader(@Nullable ClassLoader candidate, @Nullable ClassLoader parent) {
+		if (candidate == parent) {
+			return true;
+		}
+		if (candidate == null) {
+			return false;
+		}
+		ClassLoader classLoaderToCheck = candidate;
+		while (classLoaderToCheck != null) {
+			classLoaderToCheck = classLoaderToCheck.getParent();
+			if (classLoaderToCheck == parent) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static void clearClassLoader(@Nullable ClassLoader classLoader) {
+		declaredAnnotationCache.keySet().removeIf(element ->
+				isUnderneathClassLoader(getDeclaringClass(element).getClassLoader(), classLoader));
+		baseTypeMethodsCache.keySet().removeIf(type ->
+				isUnderneathClassLoader(type.getClassLoader(), classLoader));
+		AnnotationsSnapshot.clearClassLoader(classLoader);
+	}
+
+	private static Class<?> getDeclaringClass(AnnotatedElement element) {
+		return (element instanceof Class ? (Class<?>) element : ((Member) element).getDeclaringClass());
+	}
+
 	static void clearCache() {
 		declaredAnnotationCache.clear();
 		baseTypeMethodsCache.clear();
+		AnnotationsSnapshot.clearCache();
 	}
 
 }
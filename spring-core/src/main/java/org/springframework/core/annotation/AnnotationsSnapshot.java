@@ -0,0 +1,259 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Immutable snapshot of the {@link SearchStrategy#TYPE_HIERARCHY} scan results
+ * for a class and all of its declared methods.
+ *
+ * <p>A snapshot records the exact sequence of {@link AnnotationsProcessor}
+ * callbacks that {@link AnnotationsScanner} performs for each element, so that
+ * subsequent scans can simply replay them without walking the type hierarchy
+ * again. Since the scanner only ever reacts to a processor by stopping early,
+ * replaying the recorded callbacks until the processor returns a result is
+ * equivalent to a live scan.
+ *
+ * @since 5.2.9
+ * @see AnnotationsScanner#scan
+ */
+final class AnnotationsSnapshot {
+
+	private static final Map<Class<?>, AnnotationsSnapshot> snapshotCache =
+			new ConcurrentReferenceHashMap<>(256);
+
+
+	private final Class<?> declaringClass;
+
+	private final Recording classRecording;
+
+	@Nullable
+	private volatile Map<Method, Recording> methodRecordings;
+
+
+	private AnnotationsSnapshot(Class<?> declaringClass) {
+		this.declaringClass = declaringClass;
+		this.classRecording = Recording.of(declaringClass);
+	}
+
+
+	/**
+	 * Return the recording for the class-level annotations.
+	 */
+	Recording getClassRecording() {
+		return this.classRecording;
+	}
+
+	/**
+	 * Return the recording for the given method, resolving the recordings for
+	 * all declared methods of the class in one pass on first access.
+	 * @param method a method declared by the class of this snapshot
+	 * @return the recording, or {@code null} if the method is not known
+	 */
+	@Nullable
+	Recording getMethodRecording(Method method) {
+		Map<Method, Recording> methodRecordings = this.methodRecordings;
+		if (methodRecordings == null) {
+			Method[] methods = ReflectionUtils.getDeclaredMethods(this.declaringClass);
+			methodRecordings = new HashMap<>(methods.length * 4 / 3 + 1);
+			for (Method candidate : methods) {
+				methodRecordings.put(candidate, Recording.of(candidate));
+			}
+			this.methodRecordings = methodRecordings;
+		}
+		return methodRecordings.get(method);
+	}
+
+
+	/**
+	 * Return the recording for the given class or method, if the element is
+	 * eligible for snapshots.
+	 * @param element the source element
+	 * @return the recording, or {@code null} to scan the element directly
+	 */
+	@Nullable
+	static Recording getRecording(AnnotatedElement element) {
+		if (element instanceof Class) {
+			Class<?> clazz = (Class<?>) element;
+			return (isEligible(clazz) ? forClass(clazz).getClassRecording() : null);
+		}
+		if (element instanceof Method) {
+			Method method = (Method) element;
+			Class<?> declaringClass = method.getDeclaringClass();
+			return (isEligible(declaringClass) ? forClass(declaringClass).getMethodRecording(method) : null);
+		}
+		return null;
+	}
+
+	private static boolean isEligible(Class<?> clazz) {
+		return (clazz != Object.class && !AnnotationsScanner.hasPlainJavaAnnotationsOnly(clazz));
+	}
+
+	private static AnnotationsSnapshot forClass(Class<?> clazz) {
+		AnnotationsSnapshot snapshot = snapshotCache.get(clazz);
+		if (snapshot == null) {
+			snapshot = new AnnotationsSnapshot(clazz);
+			snapshotCache.put(clazz, snapshot);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Remove the snapshots for all classes loaded by the given ClassLoader
+	 * or by any ClassLoader underneath it.
+	 * @param classLoader the ClassLoader to clear the snapshots for
+	 */
+	static void clearClassLoader(@Nullable ClassLoader classLoader) {
+		snapshotCache.keySet().removeIf(clazz ->
+				AnnotationsScanner.isUnderneathClassLoader(clazz.getClassLoader(), classLoader));
+	}
+
+	static void clearCache() {
+		snapshotCache.clear();
+	}
+
+
+	/**
+	 * The recorded processor callbacks for a single element, stored as
+	 * parallel arrays with a {@code null} annotations entry marking a
+	 * {@link AnnotationsProcessor#doWithAggregate} callback.
+	 */
+	static final class Recording {
+
+		static final Recording NONE = new Recording(new int[0], new Object[0], new Annotation[0][]);
+
+
+		private final int[] aggregateIndexes;
+
+		private final Object[] sources;
+
+		private final Annotation[][] annotations;
+
+
+		private Recording(int[] aggregateIndexes, Object[] sources, Annotation[][] annotations) {
+			this.aggregateIndexes = aggregateIndexes;
+			this.sources = sources;
+			this.annotations = annotations;
+		}
+
+
+		/**
+		 * Determine whether this recording does not contain any annotations,
+		 * i.e. whether any scan of the element will find nothing.
+		 */
+		boolean isEmpty() {
+			return (this == NONE);
+		}
+
+		/**
+		 * Replay the recorded callbacks against the given processor.
+		 * @return the first non-null result returned by the processor,
+		 * or {@code null} if none
+		 */
+		@Nullable
+		<C, R> R replay(C context, AnnotationsProcessor<C, R> processor) {
+			for (int i = 0; i < this.aggregateIndexes.length; i++) {
+				Annotation[] annotations = this.annotations[i];
+				R result = (annotations != null ?
+						processor.doWithAnnotations(context, this.aggregateIndexes[i], this.sources[i], annotations) :
+						processor.doWithAggregate(context, this.aggregateIndexes[i]));
+				if (result != null) {
+					return result;
+				}
+			}
+			return null;
+		}
+
+		static Recording of(AnnotatedElement element) {
+			Recorder recorder = new Recorder();
+			AnnotationsScanner.process(null, element, SearchStrategy.TYPE_HIERARCHY, recorder);
+			return recorder.toRecording();
+		}
+	}
+
+
+	/**
+	 * {@link AnnotationsProcessor} that records all callbacks and never
+	 * returns a result, so that the complete hierarchy is visited.
+	 */
+	private static final class Recorder implements AnnotationsProcessor<Object, Object> {
+
+		private final List<Integer> aggregateIndexes = new ArrayList<>();
+
+		private final List<Object> sources = new ArrayList<>();
+
+		private final List<Annotation[]> annotations = new ArrayList<>();
+
+		private boolean hasAnnotations;
+
+		@Override
+		@Nullable
+		public Object doWithAggregate(Object context, int aggregateIndex) {
+			record(aggregateIndex, null, null);
+			return null;
+		}
+
+		@Override
+		@Nullable
+		public Object doWithAnnotations(Object context, int aggregateIndex,
+				@Nullable Object source, Annotation[] annotations) {
+
+			record(aggregateIndex, source, annotations);
+			if (!this.hasAnnotations) {
+				for (Annotation annotation : annotations) {
+					if (annotation != null) {
+						this.hasAnnotations = true;
+						break;
+					}
+				}
+			}
+			return null;
+		}
+
+		private void record(int aggregateIndex, @Nullable Object source, @Nullable Annotation[] annotations) {
+			this.aggregateIndexes.add(aggregateIndex);
+			this.sources.add(source);
+			this.annotations.add(annotations);
+		}
+
+		Recording toRecording() {
+			if (!this.hasAnnotations) {
+				return Recording.NONE;
+			}
+			int size = this.aggregateIndexes.size();
+			int[] aggregateIndexes = new int[size];
+			for (int i = 0; i < size; i++) {
+				aggregateIndexes[i] = this.aggregateIndexes.get(i);
+			}
+			return new Recording(aggregateIndexes, this.sources.toArray(),
+					this.annotations.toArray(new Annotation[size][]));
+		}
+	}
+
+}
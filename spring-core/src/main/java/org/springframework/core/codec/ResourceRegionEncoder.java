@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -58,6 +58,8 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 
 	private final int bufferSize;
 
+	private int mappedRegionSize;
+
 
 	public ResourceRegionEncoder() {
 		this(DEFAULT_BUFFER_SIZE);
@@ -69,6 +71,28 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 		this.bufferSize = bufferSize;
 	}
 
+
+	/**
+	 * Set the size of the regions to memory-map files with, if any.
+	 * <p>By default this is 0, and files are read into buffers allocated from
+	 * the {@code DataBufferFactory}. With a positive size, file resources are
+	 * instead read via {@link DataBufferUtils#readMapped(Resource, long, long, DataBufferFactory, int)},
+	 * avoiding heap copies of their content, e.g. for serving large files.
+	 * @since 5.2.9
+	 */
+	public void setMappedRegionSize(int mappedRegionSize) {
+		Assert.isTrue(mappedRegionSize >= 0, "'mappedRegionSize' must not be negative");
+		this.mappedRegionSize = mappedRegionSize;
+	}
+
+	/**
+	 * Return the {@link #setMappedRegionSize configured} size of memory-mapped regions.
+	 * @since 5.2.9
+	 */
+	public int getMappedRegionSize() {
+		return this.mappedRegionSize;
+	}
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		return super.canEncode(elementType, mimeType)
@@ -129,6 +153,9 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 					"Writing region " + position + "-" + (position + count) + " of [" + resource + "]");
 		}
 
+		if (this.mappedRegionSize > 0) {
+			return DataBufferUtils.readMapped(resource, position, count, bufferFactory, this.mappedRegionSize);
+		}
 		Flux<DataBuffer> in = DataBufferUtils.read(resource, position, bufferFactory, this.bufferSize);
 		return DataBufferUtils.takeUntilByteCount(in, count);
 	}
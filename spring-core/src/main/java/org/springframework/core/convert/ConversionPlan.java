@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.convert;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A reusable handle for converting objects from one fixed source type to
+ * one fixed target type, as obtained from
+ * {@link ConversionService#getConversionPlan(TypeDescriptor, TypeDescriptor)}.
+ *
+ * <p>Implementations resolve the converters for the given type pair upfront,
+ * so that repeated conversions between the same types do not need to look
+ * them up again. Plans are thread-safe and intended to be held on to by
+ * callers that convert values for the same source and target location over
+ * and over, e.g. for a specific field or method parameter.
+ *
+ * @since 5.2.9
+ * @see ConversionService#getConversionPlan(TypeDescriptor, TypeDescriptor)
+ */
+public interface ConversionPlan {
+
+	/**
+	 * Return the source type that this plan converts from.
+	 */
+	TypeDescriptor getSourceType();
+
+	/**
+	 * Return the target type that this plan converts to.
+	 */
+	TypeDescriptor getTargetType();
+
+	/**
+	 * Convert the given {@code source} to the target type of this plan,
+	 * with the same semantics as
+	 * {@link ConversionService#convert(Object, TypeDescriptor, TypeDescriptor)}
+	 * for this plan's source and target type.
+	 * @param source the source object to convert (may be {@code null})
+	 * @return the converted object, an instance of the target type
+	 * @throws ConversionException if a conversion exception occurred
+	 * @throws IllegalArgumentException if the source is not an instance
+	 * of this plan's source type
+	 */
+	@Nullable
+	Object convert(@Nullable Object source);
+
+}
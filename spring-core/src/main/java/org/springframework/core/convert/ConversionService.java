@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.core.convert;
 
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 /**
  * 类型转换服务
@@ -97,4 +98,37 @@ public interface ConversionService {
 	@Nullable
 	Object convert(@Nullable Object source, @Nullable TypeDescriptor sourceType, TypeDescriptor targetType);
 
+	/**
+	 * Return a reusable {@link ConversionPlan} for converting objects from the
+	 * given source type to the given target type.
+	 * <p>Callers that repeatedly convert values between the same types may hold
+	 * on to the returned plan in order to avoid resolving the converters on
+	 * every invocation. The default implementation returns a plan that simply
+	 * delegates to {@link #convert(Object, TypeDescriptor, TypeDescriptor)}.
+	 * @param sourceType context about the source type to convert from (required)
+	 * @param targetType context about the target type to convert to (required)
+	 * @return a thread-safe conversion plan for the given types
+	 * @throws IllegalArgumentException if either type is {@code null}
+	 * @since 5.2.9
+	 */
+	default ConversionPlan getConversionPlan(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		Assert.notNull(sourceType, "Source type to convert from cannot be null");
+		Assert.notNull(targetType, "Target type to convert to cannot be null");
+		return new ConversionPlan() {
+			@Override
+			public TypeDescriptor getSourceType() {
+				return sourceType;
+			}
+			@Override
+			public TypeDescriptor getTargetType() {
+				return targetType;
+			}
+			@Override
+			@Nullable
+			public Object convert(@Nullable Object source) {
+				return ConversionService.this.convert(source, sourceType, targetType);
+			}
+		};
+	}
+
 }
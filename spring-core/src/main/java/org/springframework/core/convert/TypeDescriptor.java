@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -76,6 +76,16 @@ public class TypeDescriptor implements Serializable {
 
 	private final AnnotatedElementAdapter annotatedElement;
 
+	// Lazily resolved nested descriptors, with this descriptor itself indicating none
+	@Nullable
+	private transient volatile TypeDescriptor elementTypeDescriptor;
+
+	@Nullable
+	private transient volatile TypeDescriptor mapKeyTypeDescriptor;
+
+	@Nullable
+	private transient volatile TypeDescriptor mapValueTypeDescriptor;
+
 
 	/**
 	 * Create a new type descriptor from a {@link MethodParameter}.
@@ -130,6 +140,15 @@ public class TypeDescriptor implements Serializable {
 		this.annotatedElement = new AnnotatedElementAdapter(annotations);
 	}
 
+	/**
+	 * Create a new type descriptor sharing the annotations of the given descriptor.
+	 */
+	private TypeDescriptor(TypeDescriptor source, ResolvableType resolvableType, @Nullable Class<?> type) {
+		this.resolvableType = resolvableType;
+		this.type = (type != null ? type : resolvableType.toClass());
+		this.annotatedElement = source.annotatedElement;
+	}
+
 
 	/**
 	 * Variation of {@link #getType()} that accounts for a primitive type by
@@ -193,7 +212,7 @@ public class TypeDescriptor implements Serializable {
 			return this;
 		}
 		ResolvableType narrowed = ResolvableType.forType(value.getClass(), getResolvableType());
-		return new TypeDescriptor(narrowed, value.getClass(), getAnnotations());
+		return new TypeDescriptor(this, narrowed, value.getClass());
 	}
 
 	/**
@@ -210,7 +229,7 @@ public class TypeDescriptor implements Serializable {
 			return null;
 		}
 		Assert.isAssignable(superType, getType());
-		return new TypeDescriptor(getResolvableType().as(superType), superType, getAnnotations());
+		return new TypeDescriptor(this, getResolvableType().as(superType), superType);
 	}
 
 	/**
@@ -333,8 +352,18 @@ public class TypeDescriptor implements Serializable {
 	 */
 	@Nullable
 	public TypeDescriptor getElementTypeDescriptor() {
+		TypeDescriptor elementType = this.elementTypeDescriptor;
+		if (elementType == null) {
+			elementType = resolveElementTypeDescriptor();
+			this.elementTypeDescriptor = (elementType != null ? elementType : this);
+		}
+		return (elementType != this ? elementType : null);
+	}
+
+	@Nullable
+	private TypeDescriptor resolveElementTypeDescriptor() {
 		if (getResolvableType().isArray()) {
-			return new TypeDescriptor(getResolvableType().getComponentType(), null, getAnnotations());
+			return new TypeDescriptor(this, getResolvableType().getComponentType(), null);
 		}
 		if (Stream.class.isAssignableFrom(getType())) {
 			return getRelatedIfResolvable(this, getResolvableType().as(Stream.class).getGeneric(0));
@@ -382,7 +411,12 @@ public class TypeDescriptor implements Serializable {
 	@Nullable
 	public TypeDescriptor getMapKeyTypeDescriptor() {
 		Assert.state(isMap(), "Not a [java.util.Map]");
-		return getRelatedIfResolvable(this, getResolvableType().asMap().getGeneric(0));
+		TypeDescriptor keyType = this.mapKeyTypeDescriptor;
+		if (keyType == null) {
+			keyType = getRelatedIfResolvable(this, getResolvableType().asMap().getGeneric(0));
+			this.mapKeyTypeDescriptor = (keyType != null ? keyType : this);
+		}
+		return (keyType != this ? keyType : null);
 	}
 
 	/**
@@ -419,7 +453,12 @@ public class TypeDescriptor implements Serializable {
 	@Nullable
 	public TypeDescriptor getMapValueTypeDescriptor() {
 		Assert.state(isMap(), "Not a [java.util.Map]");
-		return getRelatedIfResolvable(this, getResolvableType().asMap().getGeneric(1));
+		TypeDescriptor valueType = this.mapValueTypeDescriptor;
+		if (valueType == null) {
+			valueType = getRelatedIfResolvable(this, getResolvableType().asMap().getGeneric(1));
+			this.mapValueTypeDescriptor = (valueType != null ? valueType : this);
+		}
+		return (valueType != this ? valueType : null);
 	}
 
 	/**
@@ -483,8 +522,8 @@ public class TypeDescriptor implements Serializable {
 	}
 
 	private boolean annotationsMatch(TypeDescriptor otherDesc) {
-		Annotation[] anns = getAnnotations();
-		Annotation[] otherAnns = otherDesc.getAnnotations();
+		Annotation[] anns = this.annotatedElement.getAnnotationArray();
+		Annotation[] otherAnns = otherDesc.annotatedElement.getAnnotationArray();
 		if (anns == otherAnns) {
 			return true;
 		}
@@ -620,8 +659,8 @@ public class TypeDescriptor implements Serializable {
 		if (elementTypeDescriptor == null) {
 			return null;
 		}
-		return new TypeDescriptor(ResolvableType.forArrayComponent(elementTypeDescriptor.resolvableType),
-				null, elementTypeDescriptor.getAnnotations());
+		return new TypeDescriptor(elementTypeDescriptor,
+				ResolvableType.forArrayComponent(elementTypeDescriptor.resolvableType), null);
 	}
 
 	/**
@@ -730,7 +769,7 @@ public class TypeDescriptor implements Serializable {
 		if (type.resolve() == null) {
 			return null;
 		}
-		return new TypeDescriptor(type, null, source.getAnnotations());
+		return new TypeDescriptor(source, type, null);
 	}
 
 
@@ -751,7 +790,7 @@ public class TypeDescriptor implements Serializable {
 
 		@Override
 		public boolean isAnnotationPresent(Class<? extends Annotation> annotationClass) {
-			for (Annotation annotation : getAnnotations()) {
+			for (Annotation annotation : getAnnotationArray()) {
 				if (annotation.annotationType() == annotationClass) {
 					return true;
 				}
@@ -763,7 +802,7 @@ public class TypeDescriptor implements Serializable {
 		@Nullable
 		@SuppressWarnings("unchecked")
 		public <T extends Annotation> T getAnnotation(Class<T> annotationClass) {
-			for (Annotation annotation : getAnnotations()) {
+			for (Annotation annotation : getAnnotationArray()) {
 				if (annotation.annotationType() == annotationClass) {
 					return (T) annotation;
 				}
@@ -776,6 +815,13 @@ public class TypeDescriptor implements Serializable {
 			return (this.annotations != null ? this.annotations.clone() : EMPTY_ANNOTATION_ARRAY);
 		}
 
+		/**
+		 * Return the annotations without defensive copy, for internal iteration.
+		 */
+		Annotation[] getAnnotationArray() {
+			return (this.annotations != null ? this.annotations : EMPTY_ANNOTATION_ARRAY);
+		}
+
 		@Override
 		public Annotation[] getDeclaredAnnotations() {
 			return getAnnotations();
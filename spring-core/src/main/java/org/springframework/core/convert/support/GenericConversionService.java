@@ -18,6 +18,7 @@ package org.springframework.core.convert.support;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -28,10 +29,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import org.springframework.core.CollectionFactory;
 import org.springframework.core.DecoratingProxy;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.convert.ConversionException;
 import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.ConversionPlan;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.ConverterNotFoundException;
 import org.springframework.core.convert.TypeDescriptor;
@@ -80,6 +83,12 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private final Map<ConverterCacheKey, GenericConverter> converterCache = new ConcurrentReferenceHashMap<>(64);
 
+	/**
+	 * Incremented on every change to the registered converters,
+	 * invalidating previously created conversion plans.
+	 */
+	private volatile int generation;
+
 
 	// ConverterRegistry implementation
 
@@ -211,6 +220,38 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return handleConverterNotFound(source, sourceType, targetType);
 	}
 
+	/**
+	 * Return a {@link ConversionPlan} with the converters for the given source
+	 * and target type resolved upfront.
+	 * <p>For collection-to-collection and map-to-map conversions, the plan also
+	 * resolves the element, key and value conversions once, caching the plan
+	 * for the most recently encountered element class, so that converting the
+	 * individual elements performs no converter lookups and no
+	 * {@link TypeDescriptor} allocation as long as the element classes do not
+	 * vary.
+	 * <p>Plans remain valid across changes to the registered converters but
+	 * fall back to regular {@link #convert(Object, TypeDescriptor, TypeDescriptor)}
+	 * calls after such a change; obtain a new plan in that case.
+	 * @param sourceType context about the source type to convert from (required)
+	 * @param targetType context about the target type to convert to (required)
+	 * @return a thread-safe conversion plan for the given types
+	 * @since 5.2.9
+	 */
+	@Override
+	public ConversionPlan getConversionPlan(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		Assert.notNull(sourceType, "Source type to convert from cannot be null");
+		Assert.notNull(targetType, "Target type to convert to cannot be null");
+		int generation = this.generation;
+		GenericConverter converter = getConverter(sourceType, targetType);
+		if (converter instanceof CollectionToCollectionConverter) {
+			return new CollectionConversionPlan(sourceType, targetType, converter, generation);
+		}
+		if (converter instanceof MapToMapConverter) {
+			return new MapConversionPlan(sourceType, targetType, converter, generation);
+		}
+		return new ConverterConversionPlan(sourceType, targetType, converter, generation);
+	}
+
 	/**
 	 * Convenience operation for converting a source object to the specified targetType,
 	 * where the target type is a descriptor that provides additional conversion context.
@@ -328,6 +369,7 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private void invalidateCache() {
 		this.converterCache.clear();
+		this.generation++;
 	}
 
 	@Nullable
@@ -722,6 +764,260 @@ public class GenericConversionService implements ConfigurableConversionService {
 	}
 
 
+	/**
+	 * {@link ConversionPlan} for a single pre-resolved {@link GenericConverter}.
+	 */
+	private class ConverterConversionPlan implements ConversionPlan {
+
+		protected final TypeDescriptor sourceType;
+
+		protected final TypeDescriptor targetType;
+
+		private final Class<?> sourceObjectType;
+
+		@Nullable
+		private final GenericConverter converter;
+
+		private final int generation;
+
+		public ConverterConversionPlan(TypeDescriptor sourceType, TypeDescriptor targetType,
+				@Nullable GenericConverter converter, int generation) {
+
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+			this.sourceObjectType = sourceType.getObjectType();
+			this.converter = converter;
+			this.generation = generation;
+		}
+
+		@Override
+		public TypeDescriptor getSourceType() {
+			return this.sourceType;
+		}
+
+		@Override
+		public TypeDescriptor getTargetType() {
+			return this.targetType;
+		}
+
+		@Override
+		@Nullable
+		public Object convert(@Nullable Object source) {
+			if (this.generation != GenericConversionService.this.generation) {
+				return GenericConversionService.this.convert(source, this.sourceType, this.targetType);
+			}
+			if (source != null && !this.sourceObjectType.isInstance(source)) {
+				throw new IllegalArgumentException("Source to convert from must be an instance of [" +
+						this.sourceType + "]; instead it was a [" + source.getClass().getName() + "]");
+			}
+			if (this.converter == null) {
+				return handleConverterNotFound(source, this.sourceType, this.targetType);
+			}
+			Object result;
+			try {
+				result = invokeConverter(source);
+			}
+			catch (ConversionFailedException ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new ConversionFailedException(this.sourceType, this.targetType, source, ex);
+			}
+			return handleResult(this.sourceType, this.targetType, result);
+		}
+
+		@Nullable
+		protected Object invokeConverter(@Nullable Object source) {
+			Assert.state(this.converter != null, "No converter");
+			return this.converter.convert(source, this.sourceType, this.targetType);
+		}
+
+		@Override
+		public String toString() {
+			return "ConversionPlan [" + this.sourceType + " -> " + this.targetType + " : " + this.converter + "]";
+		}
+	}
+
+
+	/**
+	 * {@link ConversionPlan} for a {@link CollectionToCollectionConverter},
+	 * following its algorithm with a pre-resolved element conversion.
+	 */
+	private class CollectionConversionPlan extends ConverterConversionPlan {
+
+		private final Class<?> targetCollectionType;
+
+		@Nullable
+		private final Class<?> targetElementType;
+
+		@Nullable
+		private final ElementConversion elementConversion;
+
+		public CollectionConversionPlan(TypeDescriptor sourceType, TypeDescriptor targetType,
+				GenericConverter converter, int generation) {
+
+			super(sourceType, targetType, converter, generation);
+			this.targetCollectionType = targetType.getType();
+			TypeDescriptor elementDesc = targetType.getElementTypeDescriptor();
+			this.targetElementType = (elementDesc != null ? elementDesc.getType() : null);
+			this.elementConversion = (elementDesc != null ?
+					new ElementConversion(sourceType, sourceType.getElementTypeDescriptor(), elementDesc) : null);
+		}
+
+		@Override
+		@Nullable
+		protected Object invokeConverter(@Nullable Object source) {
+			if (source == null) {
+				return null;
+			}
+			Collection<?> sourceCollection = (Collection<?>) source;
+
+			// Shortcut if possible...
+			boolean copyRequired = !this.targetCollectionType.isInstance(source);
+			if (!copyRequired && sourceCollection.isEmpty()) {
+				return source;
+			}
+			if (this.elementConversion == null && !copyRequired) {
+				return source;
+			}
+
+			Collection<Object> target = CollectionFactory.createCollection(
+					this.targetCollectionType, this.targetElementType, sourceCollection.size());
+			if (this.elementConversion == null) {
+				target.addAll(sourceCollection);
+			}
+			else {
+				for (Object sourceElement : sourceCollection) {
+					Object targetElement = this.elementConversion.convert(sourceElement);
+					target.add(targetElement);
+					if (sourceElement != targetElement) {
+						copyRequired = true;
+					}
+				}
+			}
+			return (copyRequired ? target : source);
+		}
+	}
+
+
+	/**
+	 * {@link ConversionPlan} for a {@link MapToMapConverter},
+	 * following its algorithm with pre-resolved key and value conversions.
+	 */
+	private class MapConversionPlan extends ConverterConversionPlan {
+
+		private final Class<?> targetMapType;
+
+		@Nullable
+		private final Class<?> targetKeyType;
+
+		@Nullable
+		private final ElementConversion keyConversion;
+
+		@Nullable
+		private final ElementConversion valueConversion;
+
+		public MapConversionPlan(TypeDescriptor sourceType, TypeDescriptor targetType,
+				GenericConverter converter, int generation) {
+
+			super(sourceType, targetType, converter, generation);
+			this.targetMapType = targetType.getType();
+			TypeDescriptor keyDesc = targetType.getMapKeyTypeDescriptor();
+			TypeDescriptor valueDesc = targetType.getMapValueTypeDescriptor();
+			this.targetKeyType = (keyDesc != null ? keyDesc.getType() : null);
+			this.keyConversion = (keyDesc != null ?
+					new ElementConversion(sourceType, sourceType.getMapKeyTypeDescriptor(), keyDesc) : null);
+			this.valueConversion = (valueDesc != null ?
+					new ElementConversion(sourceType, sourceType.getMapValueTypeDescriptor(), valueDesc) : null);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		@Nullable
+		protected Object invokeConverter(@Nullable Object source) {
+			if (source == null) {
+				return null;
+			}
+			Map<Object, Object> sourceMap = (Map<Object, Object>) source;
+
+			// Shortcut if possible...
+			boolean copyRequired = !this.targetMapType.isInstance(source);
+			if (!copyRequired && sourceMap.isEmpty()) {
+				return sourceMap;
+			}
+
+			int size = sourceMap.size();
+			Object[] targetKeys = new Object[size];
+			Object[] targetValues = new Object[size];
+			int i = 0;
+			for (Map.Entry<Object, Object> entry : sourceMap.entrySet()) {
+				Object sourceKey = entry.getKey();
+				Object sourceValue = entry.getValue();
+				Object targetKey = (this.keyConversion != null ? this.keyConversion.convert(sourceKey) : sourceKey);
+				Object targetValue = (this.valueConversion != null ?
+						this.valueConversion.convert(sourceValue) : sourceValue);
+				targetKeys[i] = targetKey;
+				targetValues[i] = targetValue;
+				i++;
+				if (sourceKey != targetKey || sourceValue != targetValue) {
+					copyRequired = true;
+				}
+			}
+			if (!copyRequired) {
+				return sourceMap;
+			}
+
+			Map<Object, Object> targetMap = CollectionFactory.createMap(this.targetMapType, this.targetKeyType, size);
+			for (int j = 0; j < i; j++) {
+				targetMap.put(targetKeys[j], targetValues[j]);
+			}
+			return targetMap;
+		}
+	}
+
+
+	/**
+	 * Conversion of the elements, keys or values of a container type,
+	 * caching the {@link ConversionPlan} for the most recent element class.
+	 */
+	private class ElementConversion {
+
+		private final TypeDescriptor containerType;
+
+		@Nullable
+		private final TypeDescriptor sourceType;
+
+		private final TypeDescriptor targetType;
+
+		@Nullable
+		private volatile ConversionPlan lastPlan;
+
+		public ElementConversion(TypeDescriptor containerType,
+				@Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
+
+			this.containerType = containerType;
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+		}
+
+		@Nullable
+		public Object convert(@Nullable Object element) {
+			if (element == null) {
+				return GenericConversionService.this.convert(null, this.sourceType, this.targetType);
+			}
+			ConversionPlan plan = this.lastPlan;
+			if (plan == null || plan.getSourceType().getType() != element.getClass()) {
+				// Same source type as TypeDescriptor#elementTypeDescriptor(Object) and co
+				TypeDescriptor elementType = (this.sourceType != null ?
+						this.sourceType.narrow(element) : this.containerType.narrow(element));
+				plan = getConversionPlan(elementType, this.targetType);
+				this.lastPlan = plan;
+			}
+			return plan.convert(element);
+		}
+	}
+
+
 	/**
 	 * Internal converter that performs no operation.
 	 */
@@ -237,11 +237,12 @@ public abstract class AbstractPropertyResolver implements ConfigurablePropertyRe
 
 	/**
 	 * 将配置文件中的占位符进行值的替换处理
+	 * Subclasses may override this to cache resolved placeholders.
 	 * @param text
 	 * @param helper
 	 * @return
 	 */
-	private String doResolvePlaceholders(String text, PropertyPlaceholderHelper helper) {
+	protected String doResolvePlaceholders(String text, PropertyPlaceholderHelper helper) {
 		return helper.replacePlaceholders(text, this::getPropertyAsRawString);
 	}
 
@@ -43,6 +43,8 @@ public class MutablePropertySources implements PropertySources {
 
 	private final List<PropertySource<?>> propertySourceList = new CopyOnWriteArrayList<>();
 
+	private volatile int modificationCount;
+
 
 	/**
 	 * Create a new {@link MutablePropertySources} object.
@@ -106,6 +108,7 @@ public class MutablePropertySources implements PropertySources {
 		synchronized (this.propertySourceList) {
 			removeIfPresent(propertySource);
 			this.propertySourceList.add(0, propertySource);
+			this.modificationCount++;
 		}
 	}
 
@@ -116,6 +119,7 @@ public class MutablePropertySources implements PropertySources {
 		synchronized (this.propertySourceList) {
 			removeIfPresent(propertySource);
 			this.propertySourceList.add(propertySource);
+			this.modificationCount++;
 		}
 	}
 
@@ -129,6 +133,7 @@ public class MutablePropertySources implements PropertySources {
 			removeIfPresent(propertySource);
 			int index = assertPresentAndGetIndex(relativePropertySourceName);
 			addAtIndex(index, propertySource);
+			this.modificationCount++;
 		}
 	}
 
@@ -142,6 +147,7 @@ public class MutablePropertySources implements PropertySources {
 			removeIfPresent(propertySource);
 			int index = assertPresentAndGetIndex(relativePropertySourceName);
 			addAtIndex(index + 1, propertySource);
+			this.modificationCount++;
 		}
 	}
 
@@ -160,7 +166,12 @@ public class MutablePropertySources implements PropertySources {
 	public PropertySource<?> remove(String name) {
 		synchronized (this.propertySourceList) {
 			int index = this.propertySourceList.indexOf(PropertySource.named(name));
-			return (index != -1 ? this.propertySourceList.remove(index) : null);
+			if (index == -1) {
+				return null;
+			}
+			PropertySource<?> removed = this.propertySourceList.remove(index);
+			this.modificationCount++;
+			return removed;
 		}
 	}
 
@@ -175,6 +186,7 @@ public class MutablePropertySources implements PropertySources {
 		synchronized (this.propertySourceList) {
 			int index = assertPresentAndGetIndex(name);
 			this.propertySourceList.set(index, propertySource);
+			this.modificationCount++;
 		}
 	}
 
@@ -185,6 +197,18 @@ public class MutablePropertySources implements PropertySources {
 		return this.propertySourceList.size();
 	}
 
+	/**
+	 * Return the number of structural modifications of this instance so far,
+	 * i.e. of additions, removals and replacements of property sources.
+	 * <p>Changes within the contained property sources themselves are not
+	 * reflected. This count may be used to detect whether information derived
+	 * from this instance, e.g. cached property values, is still current.
+	 * @since 5.2.9
+	 */
+	public int getModificationCount() {
+		return this.modificationCount;
+	}
+
 	@Override
 	public String toString() {
 		return this.propertySourceList.toString();
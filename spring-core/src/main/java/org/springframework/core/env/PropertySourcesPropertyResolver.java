@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,23 @@
 
 package org.springframework.core.env;
 
+import java.util.Map;
+
+import org.springframework.core.SpringProperties;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.PropertyPlaceholderHelper;
+import org.springframework.util.PropertyPlaceholderHelper.PlaceholderTemplate;
 
 /**
  * {@link PropertyResolver} implementation that resolves property values against
  * an underlying set of {@link PropertySources}.
  *
+ * <p>Lookups may optionally be served from a cached, flattened view of the
+ * property sources which remembers the property source that each key has
+ * been found in as well as the resolved placeholder texts, see
+ * {@link #setCacheResolvedProperties}.
+ *
  * @author Chris Beams
  * @author Juergen Hoeller
  * @since 3.1
@@ -31,9 +42,27 @@ import org.springframework.lang.Nullable;
  */
 public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 
+	/**
+	 * System property that instructs Spring to cache resolved properties by
+	 * default: {@value}. See {@link #setCacheResolvedProperties} for details.
+	 * @since 5.2.9
+	 */
+	public static final String CACHE_RESOLVED_PROPERTIES_PROPERTY_NAME = "spring.propertyresolver.cache";
+
+
 	@Nullable
 	private final PropertySources propertySources;
 
+	private volatile boolean cacheResolvedProperties =
+			SpringProperties.getFlag(CACHE_RESOLVED_PROPERTIES_PROPERTY_NAME);
+
+	@Nullable
+	private volatile PropertyView propertyView;
+
+	/** Parsed placeholder templates per helper, independent of the property values. */
+	private final Map<PropertyPlaceholderHelper, Map<String, PlaceholderTemplate>> placeholderTemplates =
+			new ConcurrentReferenceHashMap<>(2);
+
 
 	/**
 	 * 创建一个新的解析器来处理给定的属性资源
@@ -46,6 +75,44 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 	}
 
 
+	/**
+	 * Specify whether to cache the property values found in the property
+	 * sources as well as the texts resolved by {@link #resolvePlaceholders}
+	 * and {@link #resolveRequiredPlaceholders}, along with their parsed
+	 * placeholders.
+	 * <p>The cached values get discarded whenever the underlying
+	 * {@link MutablePropertySources} are modified. Changes within the
+	 * individual property sources are not detected though: call
+	 * {@link #clearCache()} after changing them.
+	 * <p>The default is {@code false}, unless the
+	 * {@value #CACHE_RESOLVED_PROPERTIES_PROPERTY_NAME} Spring property is set.
+	 * @since 5.2.9
+	 * @see MutablePropertySources#getModificationCount()
+	 */
+	public void setCacheResolvedProperties(boolean cacheResolvedProperties) {
+		this.cacheResolvedProperties = cacheResolvedProperties;
+		this.propertyView = null;
+	}
+
+	/**
+	 * Return whether to cache resolved property values.
+	 * @since 5.2.9
+	 */
+	public boolean isCacheResolvedProperties() {
+		return this.cacheResolvedProperties;
+	}
+
+	/**
+	 * Discard all cached property values, e.g. after changing the content of
+	 * one of the property sources.
+	 * @since 5.2.9
+	 * @see #setCacheResolvedProperties
+	 */
+	public void clearCache() {
+		this.propertyView = null;
+	}
+
+
 	@Override
 	public boolean containsProperty(String key) {
 		if (this.propertySources != null) {
@@ -78,7 +145,19 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 
 	@Nullable
 	protected <T> T getProperty(String key, Class<T> targetValueType, boolean resolveNestedPlaceholders) {
-		if (this.propertySources != null) {
+		PropertyView propertyView = getPropertyView();
+		if (propertyView != null) {
+			PropertyEntry entry = propertyView.getEntry(key);
+			if (entry != null) {
+				Object value = entry.value;
+				if (resolveNestedPlaceholders && value instanceof String) {
+					value = resolveNestedPlaceholders((String) value);
+				}
+				logKeyFound(key, entry.propertySource, value);
+				return convertValueIfNecessary(value, targetValueType);
+			}
+		}
+		else if (this.propertySources != null) {
 			for (PropertySource<?> propertySource : this.propertySources) {
 				if (logger.isTraceEnabled()) {
 					logger.trace("Searching for key '" + key + "' in PropertySource '" +
@@ -100,6 +179,44 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		return null;
 	}
 
+	@Override
+	protected String doResolvePlaceholders(String text, PropertyPlaceholderHelper helper) {
+		PropertyView propertyView = getPropertyView();
+		if (propertyView == null) {
+			return super.doResolvePlaceholders(text, helper);
+		}
+		Map<String, String> resolvedTexts = propertyView.resolvedTexts.computeIfAbsent(
+				helper, key -> new ConcurrentReferenceHashMap<>());
+		String resolved = resolvedTexts.get(text);
+		if (resolved == null) {
+			PlaceholderTemplate template = this.placeholderTemplates.computeIfAbsent(
+					helper, key -> new ConcurrentReferenceHashMap<>()).computeIfAbsent(text, helper::parse);
+			resolved = template.replacePlaceholders(this::getPropertyAsRawString);
+			resolvedTexts.put(text, resolved);
+		}
+		return resolved;
+	}
+
+	/**
+	 * Return the current view of the property sources if caching is enabled,
+	 * creating a new one if the property sources have been modified since.
+	 */
+	@Nullable
+	private PropertyView getPropertyView() {
+		PropertySources propertySources = this.propertySources;
+		if (!this.cacheResolvedProperties || propertySources == null) {
+			return null;
+		}
+		int version = (propertySources instanceof MutablePropertySources ?
+				((MutablePropertySources) propertySources).getModificationCount() : 0);
+		PropertyView propertyView = this.propertyView;
+		if (propertyView == null || propertyView.version != version) {
+			propertyView = new PropertyView(propertySources, version);
+			this.propertyView = propertyView;
+		}
+		return propertyView;
+	}
+
 	/**
 	 * Log the given key as found in the given {@link PropertySource}, resulting in
 	 * the given value.
@@ -119,4 +236,68 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		}
 	}
 
+
+	/**
+	 * Flattened view of the property sources for a specific version of them,
+	 * lazily caching the property source that each key is found in.
+	 */
+	private final class PropertyView {
+
+		private final PropertySources propertySources;
+
+		private final int version;
+
+		private final Map<String, PropertyEntry> entries = new ConcurrentReferenceHashMap<>(256);
+
+		private final Map<PropertyPlaceholderHelper, Map<String, String>> resolvedTexts =
+				new ConcurrentReferenceHashMap<>(2);
+
+		PropertyView(PropertySources propertySources, int version) {
+			this.propertySources = propertySources;
+			this.version = version;
+		}
+
+		@Nullable
+		PropertyEntry getEntry(String key) {
+			PropertyEntry entry = this.entries.get(key);
+			if (entry == null) {
+				entry = findEntry(key);
+				this.entries.put(key, entry);
+			}
+			return (entry != PropertyEntry.NONE ? entry : null);
+		}
+
+		private PropertyEntry findEntry(String key) {
+			for (PropertySource<?> propertySource : this.propertySources) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Searching for key '" + key + "' in PropertySource '" +
+							propertySource.getName() + "'");
+				}
+				Object value = propertySource.getProperty(key);
+				if (value != null) {
+					return new PropertyEntry(propertySource, value);
+				}
+			}
+			return PropertyEntry.NONE;
+		}
+	}
+
+
+	/**
+	 * A raw property value along with the property source that it has been found in.
+	 */
+	private static final class PropertyEntry {
+
+		static final PropertyEntry NONE = new PropertyEntry(new PropertySource.StubPropertySource("none"), "");
+
+		final PropertySource<?> propertySource;
+
+		final Object value;
+
+		PropertyEntry(PropertySource<?> propertySource, Object value) {
+			this.propertySource = propertySource;
+			this.value = value;
+		}
+	}
+
 }
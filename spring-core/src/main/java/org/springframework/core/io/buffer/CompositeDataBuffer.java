@@ -0,0 +1,557 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DataBuffer} that presents the readable bytes of several buffers of a
+ * {@link DefaultDataBufferFactory} as a single buffer, without copying them.
+ *
+ * <p>Reading operations, including {@link #asInputStream()} and
+ * {@link #toString(int, int, Charset)}, operate on the component buffers
+ * directly, as do {@link #asByteBuffer(int, int)} and {@link #slice(int, int)}
+ * for a range within a single component. Operations that need contiguous
+ * memory or more capacity, i.e. writing and capacity changes as well as byte
+ * buffers spanning several components, copy the content into a single buffer
+ * allocated from the factory once, and delegate to it from then on.
+ *
+ * <p>The component buffers are released when this buffer is released,
+ * after all of its slices have been released as well.
+ *
+ * @since 5.2.9
+ * @see DataBufferUtils#compose(List)
+ */
+final class CompositeDataBuffer implements PooledDataBuffer {
+
+	private final DefaultDataBufferFactory factory;
+
+	private final Components components;
+
+	/** Byte buffers with a position of 0 for the components, or parts of them. */
+	private final ByteBuffer[] parts;
+
+	/** The index of the first byte of each part, followed by the capacity. */
+	private final int[] offsets;
+
+	private int readPosition;
+
+	private int writePosition;
+
+	@Nullable
+	private DataBuffer delegate;
+
+
+	/**
+	 * Create a composite of the readable bytes of the given buffers,
+	 * taking over their ownership.
+	 */
+	CompositeDataBuffer(DefaultDataBufferFactory factory, List<? extends DataBuffer> dataBuffers) {
+		this(factory, new Components(dataBuffers), toByteBuffers(dataBuffers));
+	}
+
+	private CompositeDataBuffer(DefaultDataBufferFactory factory, Components components, ByteBuffer[] parts) {
+		this.factory = factory;
+		this.components = components;
+		this.parts = parts;
+		this.offsets = new int[parts.length + 1];
+		for (int i = 0; i < parts.length; i++) {
+			this.offsets[i + 1] = this.offsets[i] + parts[i].remaining();
+		}
+		this.writePosition = this.offsets[parts.length];
+	}
+
+	private static ByteBuffer[] toByteBuffers(List<? extends DataBuffer> dataBuffers) {
+		ByteBuffer[] byteBuffers = new ByteBuffer[dataBuffers.size()];
+		for (int i = 0; i < byteBuffers.length; i++) {
+			byteBuffers[i] = dataBuffers.get(i).asByteBuffer().slice();
+		}
+		return byteBuffers;
+	}
+
+
+	@Override
+	public DefaultDataBufferFactory factory() {
+		return this.factory;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		if (this.delegate != null) {
+			return this.delegate.indexOf(predicate, fromIndex);
+		}
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		for (int i = fromIndex; i < this.writePosition; i++) {
+			if (predicate.test(getByte(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		if (this.delegate != null) {
+			return this.delegate.lastIndexOf(predicate, fromIndex);
+		}
+		for (int i = Math.min(fromIndex, this.writePosition - 1); i >= 0; i--) {
+			if (predicate.test(getByte(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return writePosition() - readPosition();
+	}
+
+	@Override
+	public int writableByteCount() {
+		return capacity() - writePosition();
+	}
+
+	@Override
+	public int capacity() {
+		return (this.delegate != null ? this.delegate.capacity() : this.offsets[this.parts.length]);
+	}
+
+	@Override
+	public DataBuffer capacity(int capacity) {
+		consolidate().capacity(capacity);
+		return this;
+	}
+
+	@Override
+	public DataBuffer ensureCapacity(int capacity) {
+		if (capacity > writableByteCount()) {
+			consolidate().ensureCapacity(capacity);
+		}
+		return this;
+	}
+
+	@Override
+	public int readPosition() {
+		return (this.delegate != null ? this.delegate.readPosition() : this.readPosition);
+	}
+
+	@Override
+	public DataBuffer readPosition(int readPosition) {
+		if (this.delegate != null) {
+			this.delegate.readPosition(readPosition);
+			return this;
+		}
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return (this.delegate != null ? this.delegate.writePosition() : this.writePosition);
+	}
+
+	@Override
+	public DataBuffer writePosition(int writePosition) {
+		if (this.delegate != null) {
+			this.delegate.writePosition(writePosition);
+			return this;
+		}
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		assertIndex(writePosition <= capacity(), "'writePosition' %d must be <= %d",
+				writePosition, capacity());
+		this.writePosition = writePosition;
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		if (this.delegate != null) {
+			return this.delegate.getByte(index);
+		}
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d", index, this.writePosition - 1);
+		int part = partIndex(index);
+		return this.parts[part].get(index - this.offsets[part]);
+	}
+
+	@Override
+	public byte read() {
+		if (this.delegate != null) {
+			return this.delegate.read();
+		}
+		byte b = getByte(this.readPosition);
+		this.readPosition++;
+		return b;
+	}
+
+	@Override
+	public DataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "Byte array must not be null");
+		return read(destination, 0, destination.length);
+	}
+
+	@Override
+	public DataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "Byte array must not be null");
+		if (this.delegate != null) {
+			this.delegate.read(destination, offset, length);
+			return this;
+		}
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+		copy(this.readPosition, destination, offset, length);
+		this.readPosition += length;
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(byte b) {
+		consolidate().write(b);
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(byte[] source) {
+		consolidate().write(source);
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(byte[] source, int offset, int length) {
+		consolidate().write(source, offset, length);
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(DataBuffer... buffers) {
+		consolidate().write(buffers);
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(ByteBuffer... buffers) {
+		consolidate().write(buffers);
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(CharSequence charSequence, Charset charset) {
+		consolidate().write(charSequence, charset);
+		return this;
+	}
+
+	@Override
+	public DataBuffer slice(int index, int length) {
+		if (this.delegate != null) {
+			return this.delegate.slice(index, length);
+		}
+		checkIndex(index, length);
+		List<ByteBuffer> slices = new ArrayList<>();
+		int end = index + length;
+		for (int i = partIndex(index); i < this.parts.length && this.offsets[i] < end; i++) {
+			int from = Math.max(index, this.offsets[i]) - this.offsets[i];
+			int to = Math.min(end, this.offsets[i + 1]) - this.offsets[i];
+			slices.add(slice(this.parts[i], from, to - from));
+		}
+		if (slices.isEmpty()) {
+			slices.add(ByteBuffer.allocate(0));
+		}
+		return new CompositeDataBuffer(this.factory, this.components, slices.toArray(new ByteBuffer[0]));
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return asByteBuffer(readPosition(), readableByteCount());
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		if (this.delegate == null) {
+			checkIndex(index, length);
+			int part = partIndex(index);
+			if (index + length <= this.offsets[part + 1]) {
+				return slice(this.parts[part], index - this.offsets[part], length);
+			}
+		}
+		return consolidate().asByteBuffer(index, length);
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new CompositeDataBufferInputStream(false);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		return new CompositeDataBufferInputStream(releaseOnClose);
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return new CompositeDataBufferOutputStream();
+	}
+
+	@Override
+	public String toString(int index, int length, Charset charset) {
+		Assert.notNull(charset, "Charset must not be null");
+		if (this.delegate != null) {
+			return this.delegate.toString(index, length, charset);
+		}
+		checkIndex(index, length);
+		int part = partIndex(index);
+		ByteBuffer byteBuffer = this.parts[part];
+		if (index + length <= this.offsets[part + 1] && byteBuffer.hasArray()) {
+			int offset = byteBuffer.arrayOffset() + index - this.offsets[part];
+			return new String(byteBuffer.array(), offset, length, charset);
+		}
+		byte[] bytes = new byte[length];
+		copy(index, bytes, 0, length);
+		return new String(bytes, charset);
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return this.components.isAllocated();
+	}
+
+	@Override
+	public PooledDataBuffer retain() {
+		this.components.retain();
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		return this.components.release();
+	}
+
+
+	/**
+	 * Copy the content into a single buffer allocated from the factory,
+	 * unless done before.
+	 * @return the buffer to delegate to
+	 */
+	private DataBuffer consolidate() {
+		DataBuffer delegate = this.delegate;
+		if (delegate == null) {
+			int capacity = capacity();
+			delegate = this.factory.allocateBuffer(capacity);
+			for (ByteBuffer part : this.parts) {
+				delegate.write(part.duplicate());
+			}
+			delegate.writePosition(this.writePosition);
+			delegate.readPosition(this.readPosition);
+			this.components.add(delegate);
+			this.delegate = delegate;
+		}
+		return delegate;
+	}
+
+	private int partIndex(int index) {
+		int part = Arrays.binarySearch(this.offsets, 0, this.parts.length, index);
+		if (part < 0) {
+			part = -part - 2;
+		}
+		// Skip empty parts
+		while (part < this.parts.length - 1 && this.offsets[part + 1] == index) {
+			part++;
+		}
+		return part;
+	}
+
+	private void copy(int index, byte[] destination, int offset, int length) {
+		int part = partIndex(index);
+		while (length > 0) {
+			ByteBuffer source = this.parts[part].duplicate();
+			int from = index - this.offsets[part];
+			int count = Math.min(length, source.remaining() - from);
+			source.position(from);
+			source.get(destination, offset, count);
+			index += count;
+			offset += count;
+			length -= count;
+			part++;
+		}
+	}
+
+	private static ByteBuffer slice(ByteBuffer byteBuffer, int index, int length) {
+		ByteBuffer duplicate = byteBuffer.duplicate();
+		duplicate.limit(index + length);
+		duplicate.position(index);
+		return duplicate.slice();
+	}
+
+	private void checkIndex(int index, int length) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index + length <= capacity(), "index %d and length %d must be <= %d",
+				index, length, capacity());
+	}
+
+	private static void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+
+	@Override
+	public String toString() {
+		return String.format("CompositeDataBuffer (r: %d, w: %d, c: %d, components: %d)",
+				readPosition(), writePosition(), capacity(), this.parts.length);
+	}
+
+
+	/**
+	 * The buffers owned by a composite and its slices, with a shared reference count.
+	 */
+	private static final class Components {
+
+		private final List<DataBuffer> dataBuffers;
+
+		private final AtomicInteger refCount = new AtomicInteger(1);
+
+		Components(List<? extends DataBuffer> dataBuffers) {
+			this.dataBuffers = new ArrayList<>(dataBuffers);
+		}
+
+		synchronized void add(DataBuffer dataBuffer) {
+			this.dataBuffers.add(dataBuffer);
+		}
+
+		boolean isAllocated() {
+			return (this.refCount.get() > 0);
+		}
+
+		void retain() {
+			int refCount;
+			do {
+				refCount = this.refCount.get();
+				if (refCount <= 0) {
+					throw new IllegalStateException("Cannot retain a released DataBuffer");
+				}
+			}
+			while (!this.refCount.compareAndSet(refCount, refCount + 1));
+		}
+
+		boolean release() {
+			int refCount;
+			do {
+				refCount = this.refCount.get();
+				if (refCount <= 0) {
+					throw new IllegalStateException("DataBuffer has been released already");
+				}
+			}
+			while (!this.refCount.compareAndSet(refCount, refCount - 1));
+			if (refCount == 1) {
+				synchronized (this) {
+					this.dataBuffers.forEach(DataBufferUtils::release);
+					this.dataBuffers.clear();
+				}
+				return true;
+			}
+			return false;
+		}
+	}
+
+
+	private class CompositeDataBufferInputStream extends InputStream {
+
+		private final boolean releaseOnClose;
+
+		private boolean closed;
+
+		CompositeDataBufferInputStream(boolean releaseOnClose) {
+			this.releaseOnClose = releaseOnClose;
+		}
+
+		@Override
+		public int available() {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return (available() > 0 ? CompositeDataBuffer.this.read() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			int available = available();
+			if (available > 0) {
+				len = Math.min(len, available);
+				CompositeDataBuffer.this.read(bytes, off, len);
+				return len;
+			}
+			else {
+				return (len == 0 ? 0 : -1);
+			}
+		}
+
+		@Override
+		public long skip(long n) {
+			int skipped = (int) Math.max(0, Math.min(n, available()));
+			readPosition(readPosition() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public void close() {
+			if (this.releaseOnClose && !this.closed) {
+				this.closed = true;
+				DataBufferUtils.release(CompositeDataBuffer.this);
+			}
+		}
+	}
+
+
+	private class CompositeDataBufferOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) {
+			CompositeDataBuffer.this.write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) {
+			CompositeDataBuffer.this.write(bytes, off, len);
+		}
+	}
+
+}
@@ -21,10 +21,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.OpenOption;
@@ -32,6 +34,7 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -233,6 +236,72 @@ public abstract class DataBufferUtils {
 		return position == 0 ? result : skipUntilByteCount(result, position);
 	}
 
+	/**
+	 * Read a region of the given file {@code Path} into a {@code Flux} of
+	 * {@code DataBuffer}s by memory-mapping it, one region of the given size
+	 * at a time, and {@linkplain DataBufferFactory#wrap(ByteBuffer) wrapping}
+	 * the mapped regions.
+	 * <p>The content of the file is not copied onto the heap, which makes this
+	 * well suited for serving large files. The mapped memory is released when
+	 * the wrapping buffers are garbage collected, so the region size should be
+	 * chosen large enough to avoid excessive mapping but small enough to not
+	 * hold on to large parts of the address space.
+	 * @param path the path to read bytes from
+	 * @param position the position in the file to start reading from
+	 * @param count the number of bytes to read, or -1 to read until the end
+	 * of the file
+	 * @param bufferFactory the factory to wrap the mapped regions with
+	 * @param regionSize the maximum size of the mapped regions
+	 * @return a Flux of data buffers backed by memory-mapped file regions
+	 * @since 5.2.9
+	 */
+	public static Flux<DataBuffer> readMapped(
+			Path path, long position, long count, DataBufferFactory bufferFactory, int regionSize) {
+
+		Assert.notNull(path, "Path must not be null");
+		Assert.notNull(bufferFactory, "BufferFactory must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(count >= -1, "'count' must be >= -1");
+		Assert.isTrue(regionSize > 0, "'regionSize' must be > 0");
+
+		return Flux.using(() -> FileChannel.open(path, StandardOpenOption.READ),
+				channel -> Flux.generate(new MappedFileRegionGenerator(channel, position, count, bufferFactory, regionSize)),
+				DataBufferUtils::closeChannel);
+
+		// No doOnDiscard as operators used do not cache
+	}
+
+	/**
+	 * Read a region of the given {@code Resource} into a {@code Flux} of
+	 * {@code DataBuffer}s.
+	 * <p>If the resource is a file, it is memory-mapped as described in
+	 * {@link #readMapped(Path, long, long, DataBufferFactory, int)}; or else
+	 * it is read via {@link #read(Resource, long, DataBufferFactory, int)}
+	 * into buffers of the given region size.
+	 * @param resource the resource to read from
+	 * @param position the position to start reading from
+	 * @param count the number of bytes to read, or -1 to read until the end
+	 * @param bufferFactory the factory to create data buffers with
+	 * @param regionSize the maximum size of the mapped regions, or of the
+	 * data buffers for non-file resources
+	 * @return a Flux of data buffers read from the given resource
+	 * @since 5.2.9
+	 */
+	public static Flux<DataBuffer> readMapped(
+			Resource resource, long position, long count, DataBufferFactory bufferFactory, int regionSize) {
+
+		try {
+			if (resource.isFile()) {
+				return readMapped(resource.getFile().toPath(), position, count, bufferFactory, regionSize);
+			}
+		}
+		catch (IOException ignore) {
+			// fallback to regular read, below
+		}
+		Flux<DataBuffer> result = read(resource, position, bufferFactory, regionSize);
+		return (count == -1 ? result : takeUntilByteCount(result, count));
+	}
+
 
 	//---------------------------------------------------------------------
 	// Writing
@@ -562,10 +631,35 @@ public abstract class DataBufferUtils {
 		return Flux.from(buffers)
 				.collect(() -> new LimitedDataBufferList(maxByteCount), LimitedDataBufferList::add)
 				.filter(list -> !list.isEmpty())
-				.map(list -> list.get(0).factory().join(list))
+				.map(DataBufferUtils::compose)
 				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 	}
 
+	/**
+	 * Compose the given data buffers into a single buffer, for consumers that
+	 * only read from the result. For buffers from a {@link DefaultDataBufferFactory},
+	 * this returns a composite view of the given buffers rather than copying their
+	 * content into a newly allocated buffer; otherwise, it delegates to
+	 * {@link DataBufferFactory#join(List)}.
+	 * <p>Note that the given data buffers do <strong>not</strong> have to be
+	 * released, as they are released as part of the returned buffer.
+	 * @param dataBuffers the data buffers to compose
+	 * @return a buffer with the content of the given buffers
+	 * @since 5.2.9
+	 */
+	public static DataBuffer compose(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "DataBuffer List must not be empty");
+		DataBuffer first = dataBuffers.get(0);
+		if (dataBuffers.size() == 1) {
+			return first;
+		}
+		DataBufferFactory bufferFactory = first.factory();
+		if (bufferFactory instanceof DefaultDataBufferFactory) {
+			return new CompositeDataBuffer((DefaultDataBufferFactory) bufferFactory, dataBuffers);
+		}
+		return bufferFactory.join(dataBuffers);
+	}
+
 	/**
 	 * Return a {@link Matcher} for the given delimiter.
 	 * The matcher can be used to find the delimiters in data buffers.
@@ -671,6 +765,49 @@ public abstract class DataBufferUtils {
 	}
 
 
+	private static class MappedFileRegionGenerator implements Consumer<SynchronousSink<DataBuffer>> {
+
+		private final FileChannel channel;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int regionSize;
+
+		private long position;
+
+		private long remaining;
+
+		public MappedFileRegionGenerator(FileChannel channel, long position, long count,
+				DataBufferFactory dataBufferFactory, int regionSize) {
+
+			this.channel = channel;
+			this.dataBufferFactory = dataBufferFactory;
+			this.regionSize = regionSize;
+			this.position = position;
+			this.remaining = (count != -1 ? count : Long.MAX_VALUE);
+		}
+
+		@Override
+		public void accept(SynchronousSink<DataBuffer> sink) {
+			try {
+				long size = Math.min(this.remaining, this.channel.size() - this.position);
+				if (size <= 0) {
+					sink.complete();
+					return;
+				}
+				size = Math.min(size, this.regionSize);
+				MappedByteBuffer byteBuffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, size);
+				this.position += size;
+				this.remaining -= size;
+				sink.next(this.dataBufferFactory.wrap(byteBuffer));
+			}
+			catch (IOException ex) {
+				sink.error(ex);
+			}
+		}
+	}
+
+
 	private static class ReadCompletionHandler implements CompletionHandler<Integer, DataBuffer> {
 
 		private final AsynchronousFileChannel channel;
@@ -0,0 +1,549 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Extension of {@link DefaultDataBufferFactory} that recycles the memory of
+ * its buffers, for use on runtimes without a Netty {@code ByteBufAllocator}
+ * such as Servlet containers, Jetty or Undertow.
+ *
+ * <p>Buffers allocated by this factory implement {@link PooledDataBuffer}:
+ * they are reference counted, and their memory is returned to the pool once
+ * they are {@linkplain DataBufferUtils#release(DataBuffer) released}. Slices
+ * share the reference count of the buffer they were created from, as with
+ * Netty. Buffers must not be used after they have been released, since their
+ * memory may have been handed out to another buffer already.
+ *
+ * <p>Memory is pooled in size classes of powers of two, from 64 bytes up to
+ * the {@linkplain #PooledDataBufferFactory(boolean, int, int) maximum pooled
+ * capacity}; larger buffers are allocated and released without pooling.
+ * Each size class has a bounded arena shared by all threads, fronted by a
+ * small per-thread cache that avoids contention for buffers allocated and
+ * released on the same thread.
+ *
+ * <p>If {@linkplain #setLeakDetection leak detection} is enabled, buffers that
+ * are garbage collected without having been released are logged at error
+ * level, together with the stack trace of their allocation.
+ *
+ * <p>Buffers {@linkplain #wrap(ByteBuffer) wrapping} existing memory are not
+ * pooled.
+ *
+ * @since 5.2.9
+ * @see NettyDataBufferFactory
+ */
+public class PooledDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The default maximum capacity of pooled buffers: 64 KB.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	/**
+	 * The default number of buffers per size class in each per-thread cache.
+	 */
+	public static final int DEFAULT_THREAD_CACHE_SIZE = 16;
+
+	private static final int MIN_POOLED_CAPACITY = 64;
+
+	private static final int ARENA_SIZE_IN_BYTES = 4 * 1024 * 1024;
+
+	private static final Log logger = LogFactory.getLog(PooledDataBufferFactory.class);
+
+
+	private final boolean preferDirect;
+
+	private final int maxPooledCapacity;
+
+	private final Arena[] arenas;
+
+	private final ThreadLocal<ThreadCache> threadCaches;
+
+	private final AtomicLong allocationCount = new AtomicLong();
+
+	private final AtomicLong reuseCount = new AtomicLong();
+
+	private final AtomicInteger activeBufferCount = new AtomicInteger();
+
+	private volatile boolean leakDetection;
+
+	private final ReferenceQueue<PooledDefaultDataBuffer> leakQueue = new ReferenceQueue<>();
+
+	private final Map<LeakTracker, Boolean> leakTrackers = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with default settings.
+	 */
+	public PooledDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}, indicating whether direct
+	 * buffers should be pooled.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_MAX_POOLED_CAPACITY, DEFAULT_THREAD_CACHE_SIZE);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 * @param maxPooledCapacity the capacity up to which buffers are pooled
+	 * (rounded up to a power of two)
+	 * @param threadCacheSize the number of buffers per size class to cache
+	 * for each thread, or 0 to only use the shared arenas
+	 */
+	public PooledDataBufferFactory(boolean preferDirect, int maxPooledCapacity, int threadCacheSize) {
+		super(preferDirect);
+		Assert.isTrue(maxPooledCapacity >= MIN_POOLED_CAPACITY,
+				() -> "'maxPooledCapacity' must be at least " + MIN_POOLED_CAPACITY);
+		Assert.isTrue(maxPooledCapacity <= (1 << 30), "'maxPooledCapacity' must not exceed 1 GB");
+		Assert.isTrue(threadCacheSize >= 0, "'threadCacheSize' must not be negative");
+		this.preferDirect = preferDirect;
+		int sizeClasses = sizeClass(maxPooledCapacity) + 1;
+		this.maxPooledCapacity = MIN_POOLED_CAPACITY << (sizeClasses - 1);
+		this.arenas = new Arena[sizeClasses];
+		for (int i = 0; i < sizeClasses; i++) {
+			int capacity = MIN_POOLED_CAPACITY << i;
+			this.arenas[i] = new Arena(capacity, Math.max(8, ARENA_SIZE_IN_BYTES / capacity));
+		}
+		this.threadCaches = ThreadLocal.withInitial(() -> new ThreadCache(sizeClasses, threadCacheSize));
+	}
+
+
+	/**
+	 * Return the capacity up to which buffers are pooled.
+	 */
+	public int getMaxPooledCapacity() {
+		return this.maxPooledCapacity;
+	}
+
+	/**
+	 * Enable or disable the detection of buffers that are garbage collected
+	 * without having been released. Applies to buffers allocated afterwards.
+	 * <p>Default is "false". Enabling leak detection records a stack trace
+	 * for every allocation, so it is meant for development and testing.
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Return whether leak detection is enabled.
+	 */
+	public boolean isLeakDetection() {
+		return this.leakDetection;
+	}
+
+	/**
+	 * Return the number of buffers allocated so far.
+	 */
+	public long getAllocationCount() {
+		return this.allocationCount.get();
+	}
+
+	/**
+	 * Return the number of buffers allocated so far that reused pooled memory.
+	 */
+	public long getReuseCount() {
+		return this.reuseCount.get();
+	}
+
+	/**
+	 * Return the number of buffers that have been allocated but not released
+	 * yet, not counting buffers that leak detection has reported already.
+	 */
+	public int getActiveBufferCount() {
+		return this.activeBufferCount.get();
+	}
+
+
+	@Override
+	public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must not be negative");
+		if (this.leakDetection) {
+			reportLeaks();
+		}
+		this.allocationCount.incrementAndGet();
+		this.activeBufferCount.incrementAndGet();
+		ByteBuffer memory = allocateMemory(initialCapacity);
+		return new PooledDefaultDataBuffer(this, memory, limit(memory, initialCapacity));
+	}
+
+
+	private ByteBuffer allocateMemory(int capacity) {
+		if (capacity > this.maxPooledCapacity) {
+			return allocateUnpooled(capacity);
+		}
+		int sizeClass = sizeClass(capacity);
+		ByteBuffer memory = this.threadCaches.get().poll(sizeClass);
+		if (memory == null) {
+			memory = this.arenas[sizeClass].poll();
+		}
+		if (memory != null) {
+			this.reuseCount.incrementAndGet();
+			return memory;
+		}
+		return allocateUnpooled(MIN_POOLED_CAPACITY << sizeClass);
+	}
+
+	private ByteBuffer allocateUnpooled(int capacity) {
+		return (this.preferDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+	}
+
+	private void releaseMemory(ByteBuffer memory) {
+		int capacity = memory.capacity();
+		if (capacity > this.maxPooledCapacity || memory.isDirect() != this.preferDirect ||
+				Integer.bitCount(capacity) != 1 || capacity < MIN_POOLED_CAPACITY) {
+			return;
+		}
+		memory.clear();
+		int sizeClass = sizeClass(capacity);
+		if (!this.threadCaches.get().offer(sizeClass, memory)) {
+			this.arenas[sizeClass].offer(memory);
+		}
+	}
+
+	private void reportLeaks() {
+		LeakTracker tracker = (LeakTracker) this.leakQueue.poll();
+		while (tracker != null) {
+			if (this.leakTrackers.remove(tracker) != null) {
+				this.activeBufferCount.decrementAndGet();
+				logger.error("DataBuffer was garbage collected without having been released, " +
+						"see allocation stack trace", tracker.allocationSite);
+			}
+			tracker = (LeakTracker) this.leakQueue.poll();
+		}
+	}
+
+	/**
+	 * Report the given buffer as if it had been garbage collected without
+	 * having been released, for testing the leak detection deterministically.
+	 * @param buffer a buffer allocated with leak detection enabled
+	 */
+	void reportLeak(DataBuffer buffer) {
+		PooledDefaultDataBuffer pooledBuffer = (buffer instanceof PooledSlice ?
+				((PooledSlice) buffer).parent : (PooledDefaultDataBuffer) buffer);
+		LeakTracker tracker = pooledBuffer.leakTracker;
+		Assert.state(tracker != null, "DataBuffer is not tracked for leaks");
+		tracker.enqueue();
+		reportLeaks();
+	}
+
+	@Nullable
+	private LeakTracker track(PooledDefaultDataBuffer buffer) {
+		if (!this.leakDetection) {
+			return null;
+		}
+		LeakTracker tracker = new LeakTracker(buffer, this.leakQueue);
+		this.leakTrackers.put(tracker, Boolean.TRUE);
+		return tracker;
+	}
+
+	private void deallocated(ByteBuffer memory, @Nullable LeakTracker tracker) {
+		if (tracker != null) {
+			tracker.clear();
+			if (this.leakTrackers.remove(tracker) == null) {
+				// Already reported as leaked...
+				return;
+			}
+		}
+		this.activeBufferCount.decrementAndGet();
+		releaseMemory(memory);
+	}
+
+	private static int sizeClass(int capacity) {
+		if (capacity <= MIN_POOLED_CAPACITY) {
+			return 0;
+		}
+		return 32 - Integer.numberOfLeadingZeros(capacity - 1) - Integer.numberOfTrailingZeros(MIN_POOLED_CAPACITY);
+	}
+
+	private static ByteBuffer limit(ByteBuffer memory, int capacity) {
+		ByteBuffer duplicate = memory.duplicate();
+		duplicate.clear().limit(capacity);
+		return duplicate.slice();
+	}
+
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (preferDirect=" + this.preferDirect +
+				", maxPooledCapacity=" + this.maxPooledCapacity + ")";
+	}
+
+
+	/**
+	 * Memory shared by all threads for a single size class.
+	 */
+	private static final class Arena {
+
+		private final int capacity;
+
+		private final int maxSize;
+
+		private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+		private final AtomicInteger size = new AtomicInteger();
+
+		Arena(int capacity, int maxSize) {
+			this.capacity = capacity;
+			this.maxSize = maxSize;
+		}
+
+		@Nullable
+		ByteBuffer poll() {
+			ByteBuffer buffer = this.buffers.poll();
+			if (buffer != null) {
+				this.size.decrementAndGet();
+			}
+			return buffer;
+		}
+
+		void offer(ByteBuffer buffer) {
+			if (this.size.incrementAndGet() <= this.maxSize) {
+				this.buffers.offer(buffer);
+			}
+			else {
+				this.size.decrementAndGet();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Arena (capacity=" + this.capacity + ", size=" + this.size + ")";
+		}
+	}
+
+
+	/**
+	 * Memory cached for a single thread, per size class.
+	 */
+	private static final class ThreadCache {
+
+		private final ByteBuffer[][] buffers;
+
+		private final int[] sizes;
+
+		ThreadCache(int sizeClasses, int size) {
+			this.buffers = new ByteBuffer[sizeClasses][size];
+			this.sizes = new int[sizeClasses];
+		}
+
+		@Nullable
+		ByteBuffer poll(int sizeClass) {
+			int size = this.sizes[sizeClass];
+			if (size == 0) {
+				return null;
+			}
+			size--;
+			ByteBuffer buffer = this.buffers[sizeClass][size];
+			this.buffers[sizeClass][size] = null;
+			this.sizes[sizeClass] = size;
+			return buffer;
+		}
+
+		boolean offer(int sizeClass, ByteBuffer buffer) {
+			int size = this.sizes[sizeClass];
+			if (size == this.buffers[sizeClass].length) {
+				return false;
+			}
+			this.buffers[sizeClass][size] = buffer;
+			this.sizes[sizeClass] = size + 1;
+			return true;
+		}
+	}
+
+
+	/**
+	 * Weak reference to a buffer, enqueued if the buffer is garbage collected.
+	 */
+	private static final class LeakTracker extends WeakReference<PooledDefaultDataBuffer> {
+
+		private final Throwable allocationSite = new Throwable("DataBuffer allocation");
+
+		LeakTracker(PooledDefaultDataBuffer buffer, ReferenceQueue<PooledDefaultDataBuffer> queue) {
+			super(buffer, queue);
+		}
+	}
+
+
+	/**
+	 * Reference-counted {@link DefaultDataBuffer} backed by pooled memory.
+	 */
+	private static final class PooledDefaultDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private static final AtomicIntegerFieldUpdater<PooledDefaultDataBuffer> refCountUpdater =
+				AtomicIntegerFieldUpdater.newUpdater(PooledDefaultDataBuffer.class, "refCount");
+
+		private final PooledDataBufferFactory factory;
+
+		private ByteBuffer memory;
+
+		@Nullable
+		private ByteBuffer newMemory;
+
+		@Nullable
+		private final LeakTracker leakTracker;
+
+		private volatile int refCount = 1;
+
+		PooledDefaultDataBuffer(PooledDataBufferFactory factory, ByteBuffer memory, ByteBuffer byteBuffer) {
+			super(factory, byteBuffer);
+			this.factory = factory;
+			this.memory = memory;
+			this.leakTracker = factory.track(this);
+		}
+
+		@Override
+		ByteBuffer allocate(int capacity, boolean direct) {
+			ByteBuffer memory = this.factory.allocateMemory(capacity);
+			this.newMemory = memory;
+			return limit(memory, capacity);
+		}
+
+		@Override
+		void setNativeBuffer(ByteBuffer byteBuffer) {
+			super.setNativeBuffer(byteBuffer);
+			ByteBuffer newMemory = this.newMemory;
+			if (newMemory != null) {
+				this.factory.releaseMemory(this.memory);
+				this.memory = newMemory;
+				this.newMemory = null;
+			}
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			return new PooledSlice(asByteBuffer(index, length), this, length);
+		}
+
+		@Override
+		public InputStream asInputStream(boolean releaseOnClose) {
+			InputStream inputStream = asInputStream();
+			if (!releaseOnClose) {
+				return inputStream;
+			}
+			return new FilterInputStream(inputStream) {
+				private boolean closed;
+				@Override
+				public void close() throws IOException {
+					if (!this.closed) {
+						this.closed = true;
+						DataBufferUtils.release(PooledDefaultDataBuffer.this);
+					}
+				}
+			};
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return (this.refCount > 0);
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			int refCount;
+			do {
+				refCount = this.refCount;
+				if (refCount <= 0) {
+					throw new IllegalStateException("Cannot retain a released DataBuffer");
+				}
+			}
+			while (!refCountUpdater.compareAndSet(this, refCount, refCount + 1));
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			int refCount;
+			do {
+				refCount = this.refCount;
+				if (refCount <= 0) {
+					throw new IllegalStateException("DataBuffer has been released already");
+				}
+			}
+			while (!refCountUpdater.compareAndSet(this, refCount, refCount - 1));
+			if (refCount == 1) {
+				this.factory.deallocated(this.memory, this.leakTracker);
+				return true;
+			}
+			return false;
+		}
+	}
+
+
+	/**
+	 * Slice of a {@link PooledDefaultDataBuffer}, sharing its reference count.
+	 */
+	private static final class PooledSlice extends DefaultDataBuffer.SlicedDefaultDataBuffer
+			implements PooledDataBuffer {
+
+		private final PooledDefaultDataBuffer parent;
+
+		PooledSlice(ByteBuffer byteBuffer, PooledDefaultDataBuffer parent, int length) {
+			super(byteBuffer, parent.factory, length);
+			this.parent = parent;
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			return new PooledSlice(asByteBuffer(index, length), this.parent, length);
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.parent.isAllocated();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+	}
+
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that keeps ended {@link StartupStep steps}
+ * in memory, up to a given capacity, for later inspection of the startup timeline.
+ *
+ * <p>Steps are nested per thread: the parent of a new step is the step started most
+ * recently on the same thread and not ended yet. Recorded steps can be obtained via
+ * {@link #getRecordedSteps()} or exported as a JSON timeline via {@link #writeTimeline}.
+ *
+ * @since 5.2.9
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+	private final int capacity;
+
+	private final Instant startTime = Instant.now();
+
+	private final long startNanos = System.nanoTime();
+
+	private final AtomicLong idSequence = new AtomicLong();
+
+	private final ThreadLocal<BufferedStartupStep> currentStep = new NamedThreadLocal<>("Current startup step");
+
+	private final Queue<RecordedStep> recordedSteps = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger recordedCount = new AtomicInteger();
+
+
+	/**
+	 * Create a new buffering {@code ApplicationStartup} with the given capacity.
+	 * @param capacity the maximum number of steps to record; any further
+	 * steps will be silently dropped once the buffer is full
+	 */
+	public BufferingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+
+	@Override
+	public StartupStep start(String name) {
+		Assert.hasText(name, "Step name must not be empty");
+		BufferedStartupStep parent = this.currentStep.get();
+		BufferedStartupStep step = new BufferedStartupStep(
+				name, this.idSequence.incrementAndGet(), parent, System.nanoTime());
+		this.currentStep.set(step);
+		return step;
+	}
+
+	private void record(BufferedStartupStep step, long endNanos) {
+		// Also unwinds nested steps that have not been ended properly
+		for (BufferedStartupStep current = this.currentStep.get(); current != null; current = current.parent) {
+			if (current == step) {
+				if (step.parent != null) {
+					this.currentStep.set(step.parent);
+				}
+				else {
+					this.currentStep.remove();
+				}
+				break;
+			}
+		}
+		if (this.recordedCount.incrementAndGet() <= this.capacity) {
+			this.recordedSteps.add(new RecordedStep(step.getId(), step.getParentId(), step.getName(), step.tags,
+					this.startTime.plusNanos(step.startNanos - this.startNanos),
+					Duration.ofNanos(endNanos - step.startNanos)));
+		}
+	}
+
+	/**
+	 * Return the steps recorded so far, ordered by their start.
+	 */
+	public List<RecordedStep> getRecordedSteps() {
+		List<RecordedStep> steps = new ArrayList<>(this.recordedSteps);
+		steps.sort(Comparator.comparingLong(RecordedStep::getId));
+		return steps;
+	}
+
+	/**
+	 * Return whether steps have been dropped since the buffer was full.
+	 */
+	public boolean isCapacityExceeded() {
+		return (this.recordedCount.get() > this.capacity);
+	}
+
+	/**
+	 * Write the recorded steps as a JSON timeline to the given output.
+	 * <p>The timeline is a JSON object with the start time of this
+	 * {@code ApplicationStartup} and an array of steps, each with id,
+	 * parent id, name, start time, duration in nanoseconds and tags.
+	 * @param out the output to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeTimeline(Appendable out) throws IOException {
+		out.append("{\"startTime\":");
+		appendJsonString(out, this.startTime.toString());
+		out.append(",\"steps\":[");
+		boolean first = true;
+		for (RecordedStep step : getRecordedSteps()) {
+			if (!first) {
+				out.append(',');
+			}
+			first = false;
+			out.append("{\"id\":").append(String.valueOf(step.getId()));
+			out.append(",\"parentId\":").append(String.valueOf(step.getParentId()));
+			out.append(",\"name\":");
+			appendJsonString(out, step.getName());
+			out.append(",\"startTime\":");
+			appendJsonString(out, step.getStartTime().toString());
+			out.append(",\"durationNanos\":").append(String.valueOf(step.getDuration().toNanos()));
+			out.append(",\"tags\":{");
+			boolean firstTag = true;
+			for (Map.Entry<String, String> tag : step.getTags().entrySet()) {
+				if (!firstTag) {
+					out.append(',');
+				}
+				firstTag = false;
+				appendJsonString(out, tag.getKey());
+				out.append(':');
+				appendJsonString(out, tag.getValue());
+			}
+			out.append("}}");
+		}
+		out.append("]}");
+	}
+
+	private static void appendJsonString(Appendable out, String value) throws IOException {
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				out.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				out.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				out.append(c);
+			}
+		}
+		out.append('"');
+	}
+
+
+	/**
+	 * A step recorded by a {@link BufferingApplicationStartup}.
+	 */
+	public static final class RecordedStep {
+
+		private final long id;
+
+		@Nullable
+		private final Long parentId;
+
+		private final String name;
+
+		private final Map<String, String> tags;
+
+		private final Instant startTime;
+
+		private final Duration duration;
+
+		RecordedStep(long id, @Nullable Long parentId, String name, Map<String, String> tags,
+				Instant startTime, Duration duration) {
+
+			this.id = id;
+			this.parentId = parentId;
+			this.name = name;
+			this.tags = Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+			this.startTime = startTime;
+			this.duration = duration;
+		}
+
+		/**
+		 * Return the unique id of the step.
+		 */
+		public long getId() {
+			return this.id;
+		}
+
+		/**
+		 * Return the id of the parent step, if any.
+		 */
+		@Nullable
+		public Long getParentId() {
+			return this.parentId;
+		}
+
+		/**
+		 * Return the name of the step.
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return the tags of the step, in the order they were added.
+		 */
+		public Map<String, String> getTags() {
+			return this.tags;
+		}
+
+		/**
+		 * Return the point in time when the step was started.
+		 */
+		public Instant getStartTime() {
+			return this.startTime;
+		}
+
+		/**
+		 * Return the time between the start and the end of the step.
+		 */
+		public Duration getDuration() {
+			return this.duration;
+		}
+
+		@Override
+		public String toString() {
+			return "RecordedStep '" + this.name + "' [id=" + this.id + ", parentId=" + this.parentId +
+					", duration=" + this.duration + ", tags=" + this.tags + "]";
+		}
+	}
+
+
+	private class BufferedStartupStep implements StartupStep {
+
+		private final String name;
+
+		private final long id;
+
+		@Nullable
+		private final BufferedStartupStep parent;
+
+		private final long startNanos;
+
+		private final Map<String, String> tags = new LinkedHashMap<>();
+
+		private boolean ended;
+
+		BufferedStartupStep(String name, long id, @Nullable BufferedStartupStep parent, long startNanos) {
+			this.name = name;
+			this.id = id;
+			this.parent = parent;
+			this.startNanos = startNanos;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return this.id;
+		}
+
+		@Override
+		@Nullable
+		public Long getParentId() {
+			return (this.parent != null ? this.parent.getId() : null);
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			Assert.state(!this.ended, "StartupStep has already ended");
+			this.tags.put(key, value);
+			return this;
+		}
+
+		@Override
+		public StartupStep tag(String key, Supplier<String> value) {
+			return tag(key, value.get());
+		}
+
+		@Override
+		public Tags getTags() {
+			return () -> {
+				Iterator<Map.Entry<String, String>> entries = this.tags.entrySet().iterator();
+				return new Iterator<Tag>() {
+					@Override
+					public boolean hasNext() {
+						return entries.hasNext();
+					}
+					@Override
+					public Tag next() {
+						Map.Entry<String, String> entry = entries.next();
+						return new Tag() {
+							@Override
+							public String getKey() {
+								return entry.getKey();
+							}
+							@Override
+							public String getValue() {
+								return entry.getValue();
+							}
+						};
+					}
+				};
+			};
+		}
+
+		@Override
+		public void end() {
+			Assert.state(!this.ended, "StartupStep has already ended");
+			this.ended = true;
+			record(this, System.nanoTime());
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,12 @@ import org.springframework.lang.Nullable;
  * caching a {@link MetadataReader} instance per Spring {@link Resource} handle
  * (i.e. per ".class" file).
  *
+ * <p>Cache misses may be delegated to a {@link MetadataReaderCache} that is
+ * shared across factories, avoiding to parse the same class file again for
+ * every application context. By default, the shared instance is used if
+ * enabled through the {@value MetadataReaderCache#SHARED_CACHE_PROPERTY_NAME}
+ * property.
+ *
  * @author Juergen Hoeller
  * @author Costin Leau
  * @since 2.5
@@ -44,6 +50,10 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	@Nullable
 	private Map<Resource, MetadataReader> metadataReaderCache;
 
+	/** MetadataReader cache shared with other factories, if any. */
+	@Nullable
+	private MetadataReaderCache sharedMetadataReaderCache = MetadataReaderCache.getSharedInstanceIfEnabled();
+
 
 	/**
 	 * Create a new CachingMetadataReaderFactory for the default class loader,
@@ -113,6 +123,27 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 		}
 	}
 
+	/**
+	 * Specify a {@link MetadataReaderCache} to obtain MetadataReader instances
+	 * from on a miss in this factory's cache, or {@code null} for parsing the
+	 * class files locally.
+	 * <p>Default is the {@linkplain MetadataReaderCache#getSharedInstance()
+	 * shared instance} if enabled, and {@code null} otherwise.
+	 * @since 5.2.9
+	 */
+	public void setMetadataReaderCache(@Nullable MetadataReaderCache metadataReaderCache) {
+		this.sharedMetadataReaderCache = metadataReaderCache;
+	}
+
+	/**
+	 * Return the {@link MetadataReaderCache} shared with other factories, if any.
+	 * @since 5.2.9
+	 */
+	@Nullable
+	public MetadataReaderCache getMetadataReaderCache() {
+		return this.sharedMetadataReaderCache;
+	}
+
 
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
@@ -120,7 +151,7 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 			// No synchronization necessary...
 			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
 			if (metadataReader == null) {
-				metadataReader = super.getMetadataReader(resource);
+				metadataReader = createMetadataReader(resource);
 				this.metadataReaderCache.put(resource, metadataReader);
 			}
 			return metadataReader;
@@ -129,19 +160,28 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 			synchronized (this.metadataReaderCache) {
 				MetadataReader metadataReader = this.metadataReaderCache.get(resource);
 				if (metadataReader == null) {
-					metadataReader = super.getMetadataReader(resource);
+					metadataReader = createMetadataReader(resource);
 					this.metadataReaderCache.put(resource, metadataReader);
 				}
 				return metadataReader;
 			}
 		}
 		else {
-			return super.getMetadataReader(resource);
+			return createMetadataReader(resource);
+		}
+	}
+
+	private MetadataReader createMetadataReader(Resource resource) throws IOException {
+		MetadataReaderCache sharedCache = this.sharedMetadataReaderCache;
+		if (sharedCache != null) {
+			return sharedCache.getMetadataReader(resource, getResourceLoader().getClassLoader());
 		}
+		return super.getMetadataReader(resource);
 	}
 
 	/**
 	 * Clear the local MetadataReader cache, if any, removing all cached class metadata.
+	 * <p>A {@link #setMetadataReaderCache shared MetadataReaderCache} is not affected.
 	 */
 	public void clearCache() {
 		if (this.metadataReaderCache instanceof LocalResourceCache) {
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Cache of ASM-based {@link MetadataReader} instances that can be shared
+ * across {@link CachingMetadataReaderFactory} instances, and therefore
+ * across application contexts within the same JVM.
+ *
+ * <p>Entries are kept per {@link ClassLoader} in a bounded LRU cache, with
+ * the class loaders themselves only being softly referenced. If a cache
+ * directory is set, the class metadata is additionally persisted there so
+ * that a restarted JVM can reuse it without parsing the class file again.
+ * A persisted entry is keyed by the URL of the class file and is only used
+ * as long as the last-modified timestamp and the content length of the class
+ * file remain unchanged.
+ *
+ * <p>The {@linkplain #getSharedInstance() shared instance} is used by default
+ * by every {@code CachingMetadataReaderFactory} if the
+ * {@value #SHARED_CACHE_PROPERTY_NAME} or the {@value #CACHE_DIRECTORY_PROPERTY_NAME}
+ * property is set, e.g. as a JVM system property.
+ *
+ * @since 5.2.9
+ * @see CachingMetadataReaderFactory#setMetadataReaderCache
+ * @see org.springframework.core.SpringProperties
+ */
+public class MetadataReaderCache {
+
+	/**
+	 * System property that instructs Spring to use the shared MetadataReader
+	 * cache for every {@link CachingMetadataReaderFactory}: {@value}.
+	 */
+	public static final String SHARED_CACHE_PROPERTY_NAME = "spring.metadatareader.cache.shared";
+
+	/**
+	 * System property for the maximum number of entries per ClassLoader
+	 * in the shared MetadataReader cache: {@value}.
+	 */
+	public static final String MAX_CACHE_SIZE_PROPERTY_NAME = "spring.metadatareader.cache.maxSize";
+
+	/**
+	 * System property for the directory to persist the entries of the shared
+	 * MetadataReader cache in: {@value}. Implies use of the shared cache.
+	 */
+	public static final String CACHE_DIRECTORY_PROPERTY_NAME = "spring.metadatareader.cache.dir";
+
+	/** Default maximum number of entries per ClassLoader: 4096. */
+	public static final int DEFAULT_CACHE_LIMIT = 4096;
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String FILE_SUFFIX = ".metadata";
+
+	private static final Log logger = LogFactory.getLog(MetadataReaderCache.class);
+
+	@Nullable
+	private static volatile MetadataReaderCache sharedInstance;
+
+
+	private final int cacheLimit;
+
+	private final Map<ClassLoader, LocalResourceCache> cachesByClassLoader = new ConcurrentReferenceHashMap<>();
+
+	@Nullable
+	private volatile File cacheDirectory;
+
+
+	/**
+	 * Create a new MetadataReaderCache with the {@link #DEFAULT_CACHE_LIMIT}.
+	 */
+	public MetadataReaderCache() {
+		this(DEFAULT_CACHE_LIMIT);
+	}
+
+	/**
+	 * Create a new MetadataReaderCache.
+	 * @param cacheLimit the maximum number of entries per ClassLoader
+	 */
+	public MetadataReaderCache(int cacheLimit) {
+		Assert.isTrue(cacheLimit > 0, "Cache limit must be greater than 0");
+		this.cacheLimit = cacheLimit;
+	}
+
+
+	/**
+	 * Return the maximum number of entries per ClassLoader.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Set the directory to persist class metadata in, or {@code null}
+	 * to only cache MetadataReader instances in memory (the default).
+	 * <p>The directory will be created if necessary. It may be shared
+	 * by several processes, as long as they use the same Spring version.
+	 */
+	public void setCacheDirectory(@Nullable File cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * Return the directory to persist class metadata in, if any.
+	 */
+	@Nullable
+	public File getCacheDirectory() {
+		return this.cacheDirectory;
+	}
+
+	/**
+	 * Return a MetadataReader for the given class file resource, reusing
+	 * a cached or persisted one if available and parsing the class file
+	 * otherwise.
+	 * @param resource the resource (pointing to a ".class" file)
+	 * @param classLoader the ClassLoader to resolve annotation types with
+	 * @return a holder for the ClassReader instance (never {@code null})
+	 * @throws IOException in case of I/O failure
+	 */
+	public MetadataReader getMetadataReader(Resource resource, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		LocalResourceCache cache = this.cachesByClassLoader.computeIfAbsent(
+				classLoader, key -> new LocalResourceCache(this.cacheLimit));
+		MetadataReader metadataReader;
+		synchronized (cache) {
+			metadataReader = cache.get(resource);
+		}
+		if (metadataReader == null) {
+			metadataReader = createMetadataReader(resource, classLoader);
+			synchronized (cache) {
+				cache.putIfAbsent(resource, metadataReader);
+			}
+		}
+		return metadataReader;
+	}
+
+	/**
+	 * Remove all MetadataReader instances from the in-memory cache.
+	 * Persisted class metadata is not affected.
+	 */
+	public void clear() {
+		this.cachesByClassLoader.clear();
+	}
+
+	private MetadataReader createMetadataReader(Resource resource, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		File cacheDirectory = this.cacheDirectory;
+		if (cacheDirectory == null) {
+			return new SimpleMetadataReader(resource, classLoader);
+		}
+		CacheFile cacheFile = CacheFile.forResource(cacheDirectory, resource);
+		if (cacheFile == null) {
+			return new SimpleMetadataReader(resource, classLoader);
+		}
+		MetadataReader metadataReader = cacheFile.read(resource, classLoader);
+		if (metadataReader == null) {
+			metadataReader = new SimpleMetadataReader(resource, classLoader);
+			cacheFile.write((SimpleAnnotationMetadata) metadataReader.getAnnotationMetadata());
+		}
+		return metadataReader;
+	}
+
+
+	/**
+	 * Return the shared MetadataReaderCache instance, configured through the
+	 * {@value #MAX_CACHE_SIZE_PROPERTY_NAME} and {@value #CACHE_DIRECTORY_PROPERTY_NAME}
+	 * properties.
+	 */
+	public static MetadataReaderCache getSharedInstance() {
+		MetadataReaderCache cache = sharedInstance;
+		if (cache == null) {
+			synchronized (MetadataReaderCache.class) {
+				cache = sharedInstance;
+				if (cache == null) {
+					String maxSize = SpringProperties.getProperty(MAX_CACHE_SIZE_PROPERTY_NAME);
+					cache = new MetadataReaderCache(StringUtils.hasText(maxSize) ?
+							Integer.parseInt(maxSize.trim()) : DEFAULT_CACHE_LIMIT);
+					String directory = SpringProperties.getProperty(CACHE_DIRECTORY_PROPERTY_NAME);
+					if (StringUtils.hasText(directory)) {
+						cache.setCacheDirectory(new File(directory.trim()));
+					}
+					sharedInstance = cache;
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Return the shared MetadataReaderCache instance if its use has been
+	 * enabled through the {@value #SHARED_CACHE_PROPERTY_NAME} or the
+	 * {@value #CACHE_DIRECTORY_PROPERTY_NAME} property.
+	 * @return the shared instance, or {@code null} if not enabled
+	 */
+	@Nullable
+	static MetadataReaderCache getSharedInstanceIfEnabled() {
+		if (SpringProperties.getFlag(SHARED_CACHE_PROPERTY_NAME) ||
+				StringUtils.hasText(SpringProperties.getProperty(CACHE_DIRECTORY_PROPERTY_NAME))) {
+			return getSharedInstance();
+		}
+		return null;
+	}
+
+
+	/**
+	 * A file holding the persisted class metadata of a single class file.
+	 */
+	private static final class CacheFile {
+
+		private final File file;
+
+		private final String url;
+
+		private final long lastModified;
+
+		private final long contentLength;
+
+		private CacheFile(File file, String url, long lastModified, long contentLength) {
+			this.file = file;
+			this.url = url;
+			this.lastModified = lastModified;
+			this.contentLength = contentLength;
+		}
+
+		@Nullable
+		static CacheFile forResource(File directory, Resource resource) {
+			try {
+				String url = resource.getURL().toExternalForm();
+				String name = DigestUtils.md5DigestAsHex(url.getBytes(StandardCharsets.UTF_8)) + FILE_SUFFIX;
+				return new CacheFile(new File(directory, name), url, resource.lastModified(), resource.contentLength());
+			}
+			catch (IOException ex) {
+				// Resource not backed by a URL or not accessible: don't persist.
+				return null;
+			}
+		}
+
+		@Nullable
+		MetadataReader read(Resource resource, @Nullable ClassLoader classLoader) {
+			if (!this.file.isFile()) {
+				return null;
+			}
+			try (InputStream is = new BufferedInputStream(Files.newInputStream(this.file.toPath()))) {
+				DataInputStream in = new DataInputStream(is);
+				if (in.readInt() != FORMAT_VERSION || !this.url.equals(in.readUTF()) ||
+						in.readLong() != this.lastModified || in.readLong() != this.contentLength) {
+					return null;
+				}
+				return new SimpleMetadataReader(resource, SimpleAnnotationMetadataSerializer.read(in, classLoader));
+			}
+			catch (IOException | RuntimeException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring persisted class metadata for " + this.url + ": " + ex);
+				}
+				return null;
+			}
+		}
+
+		void write(SimpleAnnotationMetadata metadata) {
+			Path tempFile = null;
+			try {
+				File directory = this.file.getParentFile();
+				Files.createDirectories(directory.toPath());
+				tempFile = Files.createTempFile(directory.toPath(), this.file.getName(), ".tmp");
+				try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+					DataOutputStream out = new DataOutputStream(os);
+					out.writeInt(FORMAT_VERSION);
+					out.writeUTF(this.url);
+					out.writeLong(this.lastModified);
+					out.writeLong(this.contentLength);
+					SimpleAnnotationMetadataSerializer.write(metadata, out);
+					out.flush();
+				}
+				Files.move(tempFile, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				tempFile = null;
+			}
+			catch (IOException | RuntimeException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to persist class metadata for " + this.url + ": " + ex);
+				}
+			}
+			finally {
+				if (tempFile != null) {
+					try {
+						Files.deleteIfExists(tempFile);
+					}
+					catch (IOException ex) {
+						// ignore
+					}
+				}
+			}
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class LocalResourceCache extends LinkedHashMap<Resource, MetadataReader> {
+
+		private final int cacheLimit;
+
+		LocalResourceCache(int cacheLimit) {
+			super(16, 0.75f, true);
+			this.cacheLimit = cacheLimit;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Resource, MetadataReader> eldest) {
+			return size() > this.cacheLimit;
+		}
+	}
+
+}
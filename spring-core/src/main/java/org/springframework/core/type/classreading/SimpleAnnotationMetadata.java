@@ -151,6 +151,14 @@ final class SimpleAnnotationMetadata implements AnnotationMetadata {
 		return annotatedMethods != null ? annotatedMethods : Collections.emptySet();
 	}
 
+	/**
+	 * Return the metadata of all annotated methods of the class.
+	 * @since 5.2.9
+	 */
+	MethodMetadata[] getAnnotatedMethodMetadata() {
+		return this.annotatedMethods;
+	}
+
 	@Override
 	public MergedAnnotations getAnnotations() {
 		return this.annotations;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -175,7 +175,7 @@ final class SimpleAnnotationMetadataReadingVisitor extends ClassVisitor {
 	/**
 	 * {@link MergedAnnotation} source.
 	 */
-	private static final class Source {
+	static final class Source {
 
 		private final String className;
 
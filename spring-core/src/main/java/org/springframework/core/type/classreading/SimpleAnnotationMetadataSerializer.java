@@ -0,0 +1,360 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Binary serialization of {@link SimpleAnnotationMetadata}, as used by the
+ * persistent {@link MetadataReaderCache}.
+ *
+ * <p>Annotations are written with the values of all their attributes, using
+ * class names for {@code Class} values just like the ASM-based visitors do.
+ * Annotation types and enums are resolved again when the metadata is read, so
+ * that a change of the classpath is detected as an {@link IOException}.
+ *
+ * @since 5.2.9
+ * @see MetadataReaderCache#setCacheDirectory
+ */
+final class SimpleAnnotationMetadataSerializer {
+
+	private SimpleAnnotationMetadataSerializer() {
+	}
+
+
+	/**
+	 * Write the given metadata to the given output.
+	 * @param metadata the metadata to write
+	 * @param out the output to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	static void write(SimpleAnnotationMetadata metadata, DataOutput out) throws IOException {
+		out.writeUTF(metadata.getClassName());
+		out.writeInt(getAccess(metadata));
+		writeNullable(metadata.getEnclosingClassName(), out);
+		writeNullable(metadata.getSuperClassName(), out);
+		out.writeBoolean(metadata.getEnclosingClassName() != null && metadata.isIndependent());
+		writeStrings(metadata.getInterfaceNames(), out);
+		writeStrings(metadata.getMemberClassNames(), out);
+		writeAnnotations(metadata.getAnnotations(), out);
+		MethodMetadata[] annotatedMethods = metadata.getAnnotatedMethodMetadata();
+		out.writeInt(annotatedMethods.length);
+		for (MethodMetadata annotatedMethod : annotatedMethods) {
+			writeMethod((SimpleMethodMetadata) annotatedMethod, out);
+		}
+	}
+
+	/**
+	 * Read metadata previously written by {@link #write}.
+	 * @param in the input to read from
+	 * @param classLoader the ClassLoader to resolve annotation types with
+	 * @return the metadata
+	 * @throws IOException in case of I/O errors, or if the metadata refers to
+	 * annotation types or enums that are not compatible with the classpath anymore
+	 */
+	static SimpleAnnotationMetadata read(DataInput in, @Nullable ClassLoader classLoader) throws IOException {
+		String className = in.readUTF();
+		int access = in.readInt();
+		String enclosingClassName = readNullable(in);
+		String superClassName = readNullable(in);
+		boolean independentInnerClass = in.readBoolean();
+		String[] interfaceNames = readStrings(in);
+		String[] memberClassNames = readStrings(in);
+		Object source = new SimpleAnnotationMetadataReadingVisitor.Source(className);
+		MergedAnnotations annotations = readAnnotations(in, classLoader, source);
+		MethodMetadata[] annotatedMethods = new MethodMetadata[in.readInt()];
+		for (int i = 0; i < annotatedMethods.length; i++) {
+			annotatedMethods[i] = readMethod(in, classLoader, className);
+		}
+		return new SimpleAnnotationMetadata(className, access, enclosingClassName, superClassName,
+				independentInnerClass, interfaceNames, memberClassNames, annotatedMethods, annotations);
+	}
+
+	private static int getAccess(SimpleAnnotationMetadata metadata) {
+		int access = 0;
+		access |= (metadata.isInterface() ? Opcodes.ACC_INTERFACE : 0);
+		access |= (metadata.isAnnotation() ? Opcodes.ACC_ANNOTATION : 0);
+		access |= (metadata.isAbstract() ? Opcodes.ACC_ABSTRACT : 0);
+		access |= (metadata.isFinal() ? Opcodes.ACC_FINAL : 0);
+		return access;
+	}
+
+	private static void writeMethod(SimpleMethodMetadata metadata, DataOutput out) throws IOException {
+		out.writeUTF(metadata.getMethodName());
+		int access = 0;
+		access |= (metadata.isAbstract() ? Opcodes.ACC_ABSTRACT : 0);
+		access |= (metadata.isStatic() ? Opcodes.ACC_STATIC : 0);
+		access |= (metadata.isFinal() ? Opcodes.ACC_FINAL : 0);
+		access |= (metadata.isPrivate() ? Opcodes.ACC_PRIVATE : 0);
+		out.writeInt(access);
+		out.writeUTF(((SimpleMethodMetadataReadingVisitor.Source) metadata.getSource()).getDescriptor());
+		writeAnnotations(metadata.getAnnotations(), out);
+	}
+
+	private static MethodMetadata readMethod(DataInput in, @Nullable ClassLoader classLoader,
+			String declaringClassName) throws IOException {
+
+		String methodName = in.readUTF();
+		int access = in.readInt();
+		String descriptor = in.readUTF();
+		Object source = new SimpleMethodMetadataReadingVisitor.Source(declaringClassName, methodName, descriptor);
+		MergedAnnotations annotations = readAnnotations(in, classLoader, source);
+		String returnTypeName = Type.getReturnType(descriptor).getClassName();
+		return new SimpleMethodMetadata(methodName, access, declaringClassName, returnTypeName, source, annotations);
+	}
+
+	private static void writeAnnotations(MergedAnnotations annotations, DataOutput out) throws IOException {
+		List<MergedAnnotation<Annotation>> directAnnotations = new ArrayList<>();
+		annotations.stream().filter(MergedAnnotation::isDirectlyPresent).forEach(directAnnotations::add);
+		out.writeInt(directAnnotations.size());
+		for (MergedAnnotation<Annotation> annotation : directAnnotations) {
+			out.writeUTF(annotation.getType().getName());
+			writeAnnotation(annotation, out);
+		}
+	}
+
+	private static MergedAnnotations readAnnotations(DataInput in, @Nullable ClassLoader classLoader,
+			Object source) throws IOException {
+
+		List<MergedAnnotation<?>> annotations = new ArrayList<>();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			Class<? extends Annotation> annotationType = resolveType(in.readUTF(), classLoader);
+			if (!annotationType.isAnnotation()) {
+				throw new IOException("Type " + annotationType.getName() + " is not an annotation anymore");
+			}
+			annotations.add(readAnnotation(in, classLoader, source, annotationType));
+		}
+		return MergedAnnotations.of(annotations);
+	}
+
+	private static void writeAnnotation(MergedAnnotation<?> annotation, DataOutput out) throws IOException {
+		List<Method> attributes = getAttributes(annotation.getType());
+		out.writeInt(attributes.size());
+		for (Method attribute : attributes) {
+			Class<?> valueType = getValueType(attribute.getReturnType());
+			Object value = annotation.getValue(attribute.getName(), valueType).orElseThrow(() ->
+					new IOException("No value for attribute '" + attribute.getName() + "'"));
+			out.writeUTF(attribute.getName());
+			writeValue(attribute.getReturnType(), value, out);
+		}
+	}
+
+	private static <A extends Annotation> MergedAnnotation<A> readAnnotation(DataInput in,
+			@Nullable ClassLoader classLoader, Object source, Class<A> annotationType) throws IOException {
+
+		Map<String, Method> attributeMethods = new LinkedHashMap<>();
+		for (Method attribute : getAttributes(annotationType)) {
+			attributeMethods.put(attribute.getName(), attribute);
+		}
+		Map<String, Object> attributes = new LinkedHashMap<>();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			String name = in.readUTF();
+			Method attribute = attributeMethods.get(name);
+			if (attribute == null) {
+				throw new IOException("No attribute '" + name + "' in annotation " + annotationType.getName());
+			}
+			attributes.put(name, readValue(in, classLoader, source, attribute.getReturnType()));
+		}
+		return MergedAnnotation.of(classLoader, source, annotationType, attributes);
+	}
+
+	private static List<Method> getAttributes(Class<?> annotationType) {
+		List<Method> attributes = new ArrayList<>();
+		for (Method method : ReflectionUtils.getDeclaredMethods(annotationType)) {
+			if (method.getParameterCount() == 0 && method.getReturnType() != void.class) {
+				attributes.add(method);
+			}
+		}
+		return attributes;
+	}
+
+	/**
+	 * Return the type to retrieve values of the given attribute type with,
+	 * keeping class names and nested annotations unresolved.
+	 */
+	private static Class<?> getValueType(Class<?> attributeType) {
+		if (attributeType == Class.class) {
+			return String.class;
+		}
+		if (attributeType == Class[].class) {
+			return String[].class;
+		}
+		if (attributeType.isAnnotation()) {
+			return MergedAnnotation.class;
+		}
+		if (attributeType.isArray() && attributeType.getComponentType().isAnnotation()) {
+			return MergedAnnotation[].class;
+		}
+		return ClassUtils.resolvePrimitiveIfNecessary(attributeType);
+	}
+
+	private static void writeValue(Class<?> type, Object value, DataOutput out) throws IOException {
+		if (type.isArray()) {
+			int length = Array.getLength(value);
+			out.writeInt(length);
+			for (int i = 0; i < length; i++) {
+				writeValue(type.getComponentType(), Array.get(value, i), out);
+			}
+		}
+		else if (type.isAnnotation()) {
+			writeAnnotation((MergedAnnotation<?>) value, out);
+		}
+		else if (type.isEnum()) {
+			out.writeUTF(((Enum<?>) value).name());
+		}
+		else if (type == boolean.class) {
+			out.writeBoolean((Boolean) value);
+		}
+		else if (type == byte.class) {
+			out.writeByte((Byte) value);
+		}
+		else if (type == char.class) {
+			out.writeChar((Character) value);
+		}
+		else if (type == short.class) {
+			out.writeShort((Short) value);
+		}
+		else if (type == int.class) {
+			out.writeInt((Integer) value);
+		}
+		else if (type == long.class) {
+			out.writeLong((Long) value);
+		}
+		else if (type == float.class) {
+			out.writeFloat((Float) value);
+		}
+		else if (type == double.class) {
+			out.writeDouble((Double) value);
+		}
+		else {
+			// String or Class name
+			out.writeUTF((String) value);
+		}
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Object readValue(DataInput in, @Nullable ClassLoader classLoader, Object source,
+			Class<?> type) throws IOException {
+
+		if (type.isArray()) {
+			Class<?> componentType = type.getComponentType();
+			Object array = Array.newInstance((componentType.isPrimitive() ? componentType :
+					getValueType(componentType)), in.readInt());
+			for (int i = 0; i < Array.getLength(array); i++) {
+				Array.set(array, i, readValue(in, classLoader, source, componentType));
+			}
+			return array;
+		}
+		if (type.isAnnotation()) {
+			return readAnnotation(in, classLoader, source, (Class<? extends Annotation>) type);
+		}
+		if (type.isEnum()) {
+			String name = in.readUTF();
+			try {
+				return Enum.valueOf((Class<Enum>) type, name);
+			}
+			catch (IllegalArgumentException ex) {
+				throw new IOException("No enum constant " + type.getName() + "." + name, ex);
+			}
+		}
+		if (type == boolean.class) {
+			return in.readBoolean();
+		}
+		if (type == byte.class) {
+			return in.readByte();
+		}
+		if (type == char.class) {
+			return in.readChar();
+		}
+		if (type == short.class) {
+			return in.readShort();
+		}
+		if (type == int.class) {
+			return in.readInt();
+		}
+		if (type == long.class) {
+			return in.readLong();
+		}
+		if (type == float.class) {
+			return in.readFloat();
+		}
+		if (type == double.class) {
+			return in.readDouble();
+		}
+		return in.readUTF();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Class<T> resolveType(String className, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		try {
+			return (Class<T>) ClassUtils.forName(className, classLoader);
+		}
+		catch (ClassNotFoundException | LinkageError ex) {
+			throw new IOException("Failed to resolve type " + className, ex);
+		}
+	}
+
+	private static void writeNullable(@Nullable String value, DataOutput out) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	@Nullable
+	private static String readNullable(DataInput in) throws IOException {
+		return (in.readBoolean() ? in.readUTF() : null);
+	}
+
+	private static void writeStrings(String[] values, DataOutput out) throws IOException {
+		out.writeInt(values.length);
+		for (String value : values) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String[] readStrings(DataInput in) throws IOException {
+		String[] values = new String[in.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readUTF();
+		}
+		return values;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,16 +37,19 @@ final class SimpleMethodMetadata implements MethodMetadata {
 
 	private final String returnTypeName;
 
+	private final Object source;
+
 	private final MergedAnnotations annotations;
 
 
 	public SimpleMethodMetadata(String methodName, int access, String declaringClassName,
-			String returnTypeName, MergedAnnotations annotations) {
+			String returnTypeName, Object source, MergedAnnotations annotations) {
 
 		this.methodName = methodName;
 		this.access = access;
 		this.declaringClassName = declaringClassName;
 		this.returnTypeName = returnTypeName;
+		this.source = source;
 		this.annotations = annotations;
 	}
 
@@ -90,6 +93,14 @@ final class SimpleMethodMetadata implements MethodMetadata {
 		return (this.access & Opcodes.ACC_PRIVATE) != 0;
 	}
 
+	/**
+	 * Return the source of the method annotations.
+	 * @since 5.2.9
+	 */
+	Object getSource() {
+		return this.source;
+	}
+
 	@Override
 	public MergedAnnotations getAnnotations() {
 		return this.annotations;
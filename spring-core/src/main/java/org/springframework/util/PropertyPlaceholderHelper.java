@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,10 @@
 
 package org.springframework.util;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -124,6 +126,33 @@ public class PropertyPlaceholderHelper {
 		return parseStringValue(value, placeholderResolver, null);
 	}
 
+	/**
+	 * Parse the given value into a {@link PlaceholderTemplate} which allows for
+	 * replacing its placeholders repeatedly without parsing the value again.
+	 * <p>The template is bound to the settings of this helper.
+	 * @param value the value containing the placeholders to be replaced
+	 * @return the template for the given value
+	 * @since 5.2.9
+	 */
+	public PlaceholderTemplate parse(String value) {
+		Assert.notNull(value, "'value' must not be null");
+		List<String> parts = new ArrayList<>();
+		int literalStart = 0;
+		int startIndex = value.indexOf(this.placeholderPrefix);
+		while (startIndex != -1) {
+			int endIndex = findPlaceholderEndIndex(value, startIndex);
+			if (endIndex == -1) {
+				break;
+			}
+			parts.add(value.substring(literalStart, startIndex));
+			parts.add(value.substring(startIndex + this.placeholderPrefix.length(), endIndex));
+			literalStart = endIndex + this.placeholderSuffix.length();
+			startIndex = value.indexOf(this.placeholderPrefix, literalStart);
+		}
+		parts.add(value.substring(literalStart));
+		return new PlaceholderTemplate(value, StringUtils.toStringArray(parts));
+	}
+
 	protected String parseStringValue(
 			String value, PlaceholderResolver placeholderResolver, @Nullable Set<String> visitedPlaceholders) {
 
@@ -137,48 +166,18 @@ public class PropertyPlaceholderHelper {
 			int endIndex = findPlaceholderEndIndex(result, startIndex);
 			if (endIndex != -1) {
 				String placeholder = result.substring(startIndex + this.placeholderPrefix.length(), endIndex);
-				String originalPlaceholder = placeholder;
 				if (visitedPlaceholders == null) {
 					visitedPlaceholders = new HashSet<>(4);
 				}
-				if (!visitedPlaceholders.add(originalPlaceholder)) {
-					throw new IllegalArgumentException(
-							"Circular placeholder reference '" + originalPlaceholder + "' in property definitions");
-				}
-				// Recursive invocation, parsing placeholders contained in the placeholder key.
-				placeholder = parseStringValue(placeholder, placeholderResolver, visitedPlaceholders);
-				// Now obtain the value for the fully resolved key...
-				String propVal = placeholderResolver.resolvePlaceholder(placeholder);
-				if (propVal == null && this.valueSeparator != null) {
-					int separatorIndex = placeholder.indexOf(this.valueSeparator);
-					if (separatorIndex != -1) {
-						String actualPlaceholder = placeholder.substring(0, separatorIndex);
-						String defaultValue = placeholder.substring(separatorIndex + this.valueSeparator.length());
-						propVal = placeholderResolver.resolvePlaceholder(actualPlaceholder);
-						if (propVal == null) {
-							propVal = defaultValue;
-						}
-					}
-				}
+				String propVal = resolvePlaceholder(placeholder, value, placeholderResolver, visitedPlaceholders);
 				if (propVal != null) {
-					// Recursive invocation, parsing placeholders contained in the
-					// previously resolved placeholder value.
-					propVal = parseStringValue(propVal, placeholderResolver, visitedPlaceholders);
 					result.replace(startIndex, endIndex + this.placeholderSuffix.length(), propVal);
-					if (logger.isTraceEnabled()) {
-						logger.trace("Resolved placeholder '" + placeholder + "'");
-					}
 					startIndex = result.indexOf(this.placeholderPrefix, startIndex + propVal.length());
 				}
-				else if (this.ignoreUnresolvablePlaceholders) {
+				else {
 					// Proceed with unprocessed value.
 					startIndex = result.indexOf(this.placeholderPrefix, endIndex + this.placeholderSuffix.length());
 				}
-				else {
-					throw new IllegalArgumentException("Could not resolve placeholder '" +
-							placeholder + "'" + " in value \"" + value + "\"");
-				}
-				visitedPlaceholders.remove(originalPlaceholder);
 			}
 			else {
 				startIndex = -1;
@@ -187,6 +186,56 @@ public class PropertyPlaceholderHelper {
 		return result.toString();
 	}
 
+	/**
+	 * Resolve a single placeholder, including placeholders nested in its key
+	 * and in its resolved value.
+	 * @param placeholder the placeholder without prefix and suffix
+	 * @param value the value that the placeholder is contained in
+	 * @param placeholderResolver the {@code PlaceholderResolver} to use
+	 * @param visitedPlaceholders the placeholders currently being resolved
+	 * @return the resolved value, or {@code null} if the placeholder is
+	 * unresolvable and unresolvable placeholders are to be ignored
+	 */
+	@Nullable
+	private String resolvePlaceholder(String placeholder, String value,
+			PlaceholderResolver placeholderResolver, Set<String> visitedPlaceholders) {
+
+		String originalPlaceholder = placeholder;
+		if (!visitedPlaceholders.add(originalPlaceholder)) {
+			throw new IllegalArgumentException(
+					"Circular placeholder reference '" + originalPlaceholder + "' in property definitions");
+		}
+		// Recursive invocation, parsing placeholders contained in the placeholder key.
+		placeholder = parseStringValue(placeholder, placeholderResolver, visitedPlaceholders);
+		// Now obtain the value for the fully resolved key...
+		String propVal = placeholderResolver.resolvePlaceholder(placeholder);
+		if (propVal == null && this.valueSeparator != null) {
+			int separatorIndex = placeholder.indexOf(this.valueSeparator);
+			if (separatorIndex != -1) {
+				String actualPlaceholder = placeholder.substring(0, separatorIndex);
+				String defaultValue = placeholder.substring(separatorIndex + this.valueSeparator.length());
+				propVal = placeholderResolver.resolvePlaceholder(actualPlaceholder);
+				if (propVal == null) {
+					propVal = defaultValue;
+				}
+			}
+		}
+		if (propVal != null) {
+			// Recursive invocation, parsing placeholders contained in the
+			// previously resolved placeholder value.
+			propVal = parseStringValue(propVal, placeholderResolver, visitedPlaceholders);
+			if (logger.isTraceEnabled()) {
+				logger.trace("Resolved placeholder '" + placeholder + "'");
+			}
+		}
+		else if (!this.ignoreUnresolvablePlaceholders) {
+			throw new IllegalArgumentException("Could not resolve placeholder '" +
+					placeholder + "'" + " in value \"" + value + "\"");
+		}
+		visitedPlaceholders.remove(originalPlaceholder);
+		return propVal;
+	}
+
 	private int findPlaceholderEndIndex(CharSequence buf, int startIndex) {
 		int index = startIndex + this.placeholderPrefix.length();
 		int withinNestedPlaceholder = 0;
@@ -212,6 +261,63 @@ public class PropertyPlaceholderHelper {
 	}
 
 
+	/**
+	 * A value that has been parsed into literal parts and placeholders once,
+	 * as returned by {@link #parse(String)}.
+	 * @since 5.2.9
+	 */
+	public final class PlaceholderTemplate {
+
+		private final String value;
+
+		/** Literal parts at even indexes, placeholders (without prefix and suffix) at odd indexes. */
+		private final String[] parts;
+
+		private PlaceholderTemplate(String value, String[] parts) {
+			this.value = value;
+			this.parts = parts;
+		}
+
+		/**
+		 * Return the value that this template has been parsed from.
+		 */
+		public String getValue() {
+			return this.value;
+		}
+
+		/**
+		 * Replace all placeholders in this template with the value returned
+		 * from the supplied {@link PlaceholderResolver}, with the same semantics
+		 * as {@link PropertyPlaceholderHelper#replacePlaceholders(String, PlaceholderResolver)}.
+		 * @param placeholderResolver the {@code PlaceholderResolver} to use for replacement
+		 * @return the value with placeholders replaced inline
+		 */
+		public String replacePlaceholders(PlaceholderResolver placeholderResolver) {
+			if (this.parts.length == 1) {
+				return this.value;
+			}
+			StringBuilder result = new StringBuilder(this.value.length());
+			Set<String> visitedPlaceholders = new HashSet<>(4);
+			for (int i = 0; i < this.parts.length; i++) {
+				if (i % 2 == 0) {
+					result.append(this.parts[i]);
+				}
+				else {
+					String propVal = resolvePlaceholder(
+							this.parts[i], this.value, placeholderResolver, visitedPlaceholders);
+					if (propVal != null) {
+						result.append(propVal);
+					}
+					else {
+						result.append(placeholderPrefix).append(this.parts[i]).append(placeholderSuffix);
+					}
+				}
+			}
+			return result.toString();
+		}
+	}
+
+
 	/**
 	 * Strategy interface used to resolve replacement values for placeholders contained in Strings.
 	 */
@@ -199,6 +199,16 @@ class ResolvableTypeTests {
 		assertThat(type2.hashCode()).isEqualTo(type.hashCode());
 	}
 
+	@Test
+	void forFieldIsCachedPerFieldInstance() throws Exception {
+		Field field = Fields.class.getField("parameterizedType");
+		ResolvableType type = ResolvableType.forField(field);
+		assertThat(ResolvableType.forField(field)).isSameAs(type);
+
+		Field copy = Fields.class.getField("parameterizedType");
+		assertThat(ResolvableType.forField(copy).getSource()).isSameAs(copy);
+	}
+
 	@Test
 	void forFieldMustNotBeNull() throws Exception {
 		assertThatIllegalArgumentException().isThrownBy(() ->
@@ -242,6 +252,28 @@ class ResolvableTypeTests {
 		assertThat(type.getType()).isEqualTo(method.getGenericParameterTypes()[0]);
 	}
 
+	@Test
+	@SuppressWarnings("deprecation")
+	void forMethodParameterIsCachedPerInstance() throws Exception {
+		Method method = Methods.class.getMethod("nested", Map.class);
+		MethodParameter methodParameter = MethodParameter.forExecutable(method, 0);
+		ResolvableType type = ResolvableType.forMethodParameter(methodParameter);
+		assertThat(ResolvableType.forMethodParameter(methodParameter)).isSameAs(type);
+		assertThat(ResolvableType.forMethodParameter(methodParameter.nested()).resolve()).isEqualTo(Map.class);
+
+		methodParameter.increaseNestingLevel();
+		assertThat(ResolvableType.forMethodParameter(methodParameter).resolve()).isEqualTo(Map.class);
+		methodParameter.decreaseNestingLevel();
+		assertThat(ResolvableType.forMethodParameter(methodParameter).getType()).isEqualTo(type.getType());
+	}
+
+	@Test
+	void forClassIsInterned() {
+		ResolvableType type = ResolvableType.forClass(ExtendsList.class);
+		assertThat(ResolvableType.forClass(ExtendsList.class)).isSameAs(type);
+		assertThat(ResolvableType.forClass(null)).isEqualTo(ResolvableType.forClass(Object.class));
+	}
+
 	@Test
 	@SuppressWarnings("deprecation")
 	void forMethodParameterWithNesting() throws Exception {
@@ -500,11 +500,46 @@ class AnnotationsScannerTests {
 		assertThat(result).isEqualTo("OK");
 	}
 
+	@Test
+	void typeHierarchyStrategyReplaysSameCallbacksAsDirectProcessing() {
+		for (AnnotatedElement element : Arrays.asList(WithHierarchy.class, methodFrom(WithHierarchy.class),
+				methodFrom(WithSingleSuperclass.class), WithSingleSuperclassAndDoubleInherited.class)) {
+			List<String> processed = new ArrayList<>();
+			AnnotationsScanner.process(this, element, SearchStrategy.TYPE_HIERARCHY, new TrackingProcessor(processed));
+			assertThat(track(element)).isEqualTo(processed);
+			assertThat(track(element)).isEqualTo(processed);
+		}
+	}
+
+	@Test
+	void typeHierarchyStrategyOnMethodWhenNotAnnotatedInHierarchyIsKnownEmpty() {
+		Method source = methodFrom(WithNoAnnotationsAndSuperclass.class);
+		assertThat(AnnotationsScanner.isKnownEmpty(source, SearchStrategy.TYPE_HIERARCHY)).isTrue();
+		assertThat(AnnotationsScanner.isKnownEmpty(methodFrom(WithHierarchy.class),
+				SearchStrategy.TYPE_HIERARCHY)).isFalse();
+	}
+
+	@Test
+	void clearClassLoaderRemovesSnapshotsForClassLoader() {
+		AnnotationsSnapshot.Recording recording = AnnotationsSnapshot.getRecording(WithHierarchy.class);
+		assertThat(AnnotationsSnapshot.getRecording(WithHierarchy.class)).isSameAs(recording);
+		AnnotationsScanner.clearClassLoader(new ClassLoader(null) {});
+		assertThat(AnnotationsSnapshot.getRecording(WithHierarchy.class)).isSameAs(recording);
+		AnnotationsScanner.clearClassLoader(WithHierarchy.class.getClassLoader());
+		assertThat(AnnotationsSnapshot.getRecording(WithHierarchy.class)).isNotSameAs(recording);
+	}
+
 
 	private Method methodFrom(Class<?> type) {
 		return ReflectionUtils.findMethod(type, "method");
 	}
 
+	private List<String> track(AnnotatedElement element) {
+		List<String> results = new ArrayList<>();
+		AnnotationsScanner.scan(this, element, SearchStrategy.TYPE_HIERARCHY, new TrackingProcessor(results));
+		return results;
+	}
+
 	private Stream<String> scan(AnnotatedElement element, SearchStrategy searchStrategy) {
 		List<String> results = new ArrayList<>();
 		AnnotationsScanner.scan(this, element, searchStrategy,
@@ -527,6 +562,33 @@ class AnnotationsScannerTests {
 	}
 
 
+	private class TrackingProcessor implements AnnotationsProcessor<Object, Object> {
+
+		private final List<String> results;
+
+		TrackingProcessor(List<String> results) {
+			this.results = results;
+		}
+
+		@Override
+		@Nullable
+		public Object doWithAggregate(Object context, int aggregateIndex) {
+			this.results.add("aggregate:" + aggregateIndex);
+			return null;
+		}
+
+		@Override
+		@Nullable
+		public Object doWithAnnotations(Object context, int aggregateIndex,
+				@Nullable Object source, Annotation[] annotations) {
+
+			this.results.add("source:" + source);
+			trackIndexedAnnotations(aggregateIndex, annotations, this.results);
+			return null;
+		}
+	}
+
+
 	@Retention(RetentionPolicy.RUNTIME)
 	@interface TestAnnotation1 {
 	}
@@ -590,6 +652,13 @@ class AnnotationsScannerTests {
 		}
 	}
 
+	static class WithNoAnnotationsAndSuperclass extends WithNoAnnotations {
+
+		@Override
+		public void method() {
+		}
+	}
+
 	@TestAnnotation1
 	static class WithSingleAnnotation {
 
@@ -25,6 +25,7 @@ import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -74,6 +75,22 @@ class ResourceEncoderTests extends AbstractEncoderTests<ResourceEncoder> {
 				.verifyComplete());
 	}
 
+	@Test
+	public void encodeMappedFileResource() {
+		ResourceEncoder encoder = new ResourceEncoder();
+		encoder.setMappedRegionSize(16);
+		Resource resource = new ClassPathResource("ResourceRegionEncoderTests.txt", getClass());
+
+		Flux<DataBuffer> result = encoder.encode(Flux.just(resource), this.bufferFactory,
+				ResolvableType.forClass(Resource.class), null, null);
+
+		StepVerifier.create(result)
+				.consumeNextWith(expectString("Spring Framework"))
+				.consumeNextWith(expectString(" test resource c"))
+				.consumeNextWith(expectString("ontent."))
+				.verifyComplete();
+	}
+
 	@Override
 	protected void testEncodeError(Publisher<?> input, ResolvableType outputType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
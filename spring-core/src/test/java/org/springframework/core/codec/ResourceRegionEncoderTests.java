@@ -77,6 +77,25 @@ class ResourceRegionEncoderTests extends AbstractLeakCheckingTests {
 				.verify();
 	}
 
+	@Test
+	void shouldEncodeMappedResourceRegionFileResource() {
+		ResourceRegionEncoder encoder = new ResourceRegionEncoder();
+		encoder.setMappedRegionSize(4);
+		ResourceRegion region = new ResourceRegion(
+				new ClassPathResource("ResourceRegionEncoderTests.txt", getClass()), 7, 9);
+		Flux<DataBuffer> result = encoder.encode(Mono.just(region), this.bufferFactory,
+				ResolvableType.forClass(ResourceRegion.class),
+				MimeTypeUtils.APPLICATION_OCTET_STREAM,
+				Collections.emptyMap());
+
+		StepVerifier.create(result)
+				.consumeNextWith(stringConsumer("Fram"))
+				.consumeNextWith(stringConsumer("ewor"))
+				.consumeNextWith(stringConsumer("k"))
+				.expectComplete()
+				.verify();
+	}
+
 	@Test
 	void shouldEncodeMultipleResourceRegionsFileResource() {
 		Resource resource = new ClassPathResource("ResourceRegionEncoderTests.txt", getClass());
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -583,6 +583,22 @@ class TypeDescriptorTests {
 		assertThat(desc.getAnnotation(FieldAnnotation.class)).isNotNull();
 	}
 
+	@Test
+	void nestedTypeDescriptorsAreCached() throws Exception {
+		TypeDescriptor desc = new TypeDescriptor(getClass().getField("listOfString"));
+		assertThat(desc.getElementTypeDescriptor()).isSameAs(desc.getElementTypeDescriptor());
+		assertThat(desc.getElementTypeDescriptor().getAnnotations()).isEqualTo(desc.getAnnotations());
+
+		desc = new TypeDescriptor(getClass().getField("mapPreserveContext"));
+		assertThat(desc.getMapKeyTypeDescriptor()).isSameAs(desc.getMapKeyTypeDescriptor());
+		assertThat(desc.getMapValueTypeDescriptor()).isSameAs(desc.getMapValueTypeDescriptor());
+		assertThat(desc.getMapValueTypeDescriptor().getAnnotation(FieldAnnotation.class)).isNotNull();
+
+		desc = new TypeDescriptor(getClass().getField("notGenericList"));
+		assertThat(desc.getElementTypeDescriptor()).isNull();
+		assertThat(desc.getElementTypeDescriptor()).isNull();
+	}
+
 	@Test
 	void equality() throws Exception {
 		TypeDescriptor t1 = TypeDescriptor.valueOf(String.class);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,7 @@ import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.ConversionPlan;
 import org.springframework.core.convert.ConverterNotFoundException;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.convert.converter.ConditionalConverter;
@@ -628,6 +630,68 @@ class GenericConversionServiceTests {
 		assertThat(conversionService.convert("test", TypeDescriptor.valueOf(String.class), new TypeDescriptor(getClass().getField("integerCollection")))).isEqualTo(Collections.singleton("testX"));
 	}
 
+	@Test
+	void conversionPlan() {
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		ConversionPlan plan = conversionService.getConversionPlan(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class));
+		assertThat(plan.convert("3")).isEqualTo(3);
+		assertThat(plan.convert(null)).isNull();
+		assertThatIllegalArgumentException().isThrownBy(() -> plan.convert(3));
+		assertThatExceptionOfType(ConversionFailedException.class).isThrownBy(() -> plan.convert("three"));
+	}
+
+	@Test
+	void conversionPlanWithoutConverter() {
+		ConversionPlan plan = conversionService.getConversionPlan(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class));
+		assertThat(plan.convert(null)).isNull();
+		assertThatExceptionOfType(ConverterNotFoundException.class).isThrownBy(() -> plan.convert("3"));
+	}
+
+	@Test
+	void conversionPlanForCollection() throws Exception {
+		conversionService.addConverter(new CollectionToCollectionConverter(conversionService));
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		conversionService.addConverterFactory(new NumberToNumberConverterFactory());
+		ConversionPlan plan = conversionService.getConversionPlan(
+				TypeDescriptor.valueOf(Collection.class), new TypeDescriptor(getClass().getField("integerCollection")));
+
+		assertThat((Collection<?>) plan.convert(Arrays.asList("1", 2L, "3", null))).containsExactly(1, 2, 3, null);
+		assertThat((Collection<?>) plan.convert(Arrays.asList("4", "5"))).containsExactly(4, 5);
+		Set<Integer> integers = new LinkedHashSet<>(Arrays.asList(6, 7));
+		assertThat(plan.convert(integers)).isSameAs(integers);
+		assertThatExceptionOfType(ConversionFailedException.class).isThrownBy(() ->
+				plan.convert(Collections.singletonList("eight")));
+	}
+
+	@Test
+	void conversionPlanForMap() throws Exception {
+		conversionService.addConverter(new MapToMapConverter(conversionService));
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		ConversionPlan plan = conversionService.getConversionPlan(
+				TypeDescriptor.map(Map.class, TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(String.class)),
+				new TypeDescriptor(getClass().getField("map")));
+
+		Map<String, String> source = new LinkedHashMap<>();
+		source.put("one", "1");
+		source.put("two", "2");
+		Map<String, Integer> expected = new LinkedHashMap<>();
+		expected.put("one", 1);
+		expected.put("two", 2);
+		assertThat(plan.convert(source)).isEqualTo(expected);
+		assertThat(plan.convert(Collections.emptyMap())).isEqualTo(Collections.emptyMap());
+	}
+
+	@Test
+	void conversionPlanAfterConverterRegistration() {
+		ConversionPlan plan = conversionService.getConversionPlan(
+				TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class));
+		assertThatExceptionOfType(ConverterNotFoundException.class).isThrownBy(() -> plan.convert("3"));
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		assertThat(plan.convert("3")).isEqualTo(3);
+	}
+
 
 	@ExampleAnnotation(active = true)
 	public String annotatedString;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -332,4 +332,44 @@ class PropertySourcesPropertyResolverTests {
 			.withMessageContaining("Could not resolve placeholder 'bogus' in value \"${p1}:${p2}:${bogus}\"");
 	}
 
+	@Test
+	void cacheResolvedProperties() {
+		PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(propertySources);
+		resolver.setCacheResolvedProperties(true);
+		testProperties.put("foo", "bar");
+		testProperties.put("nested", "${foo}-baz");
+		assertThat(resolver.getProperty("foo")).isEqualTo("bar");
+		assertThat(resolver.getProperty("nested")).isEqualTo("bar-baz");
+		assertThat(resolver.getProperty("missing")).isNull();
+		assertThat(resolver.resolvePlaceholders("${foo}:${missing:def}")).isEqualTo("bar:def");
+
+		// changes within a property source are only picked up after clearing the cache
+		testProperties.put("foo", "qux");
+		testProperties.put("missing", "found");
+		assertThat(resolver.getProperty("foo")).isEqualTo("bar");
+		assertThat(resolver.getProperty("missing")).isNull();
+		resolver.clearCache();
+		assertThat(resolver.getProperty("foo")).isEqualTo("qux");
+		assertThat(resolver.getProperty("nested")).isEqualTo("qux-baz");
+		assertThat(resolver.resolvePlaceholders("${foo}:${missing:def}")).isEqualTo("qux:found");
+	}
+
+	@Test
+	void cacheResolvedPropertiesIsInvalidatedByPropertySourcesModification() {
+		PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(propertySources);
+		resolver.setCacheResolvedProperties(true);
+		testProperties.put("foo", "bar");
+		assertThat(resolver.getProperty("foo")).isEqualTo("bar");
+		assertThat(resolver.resolveRequiredPlaceholders("foo=${foo}")).isEqualTo("foo=bar");
+
+		propertySources.addFirst(new MockPropertySource().withProperty("foo", "baz"));
+		assertThat(resolver.getProperty("foo")).isEqualTo("baz");
+		assertThat(resolver.resolveRequiredPlaceholders("foo=${foo}")).isEqualTo("foo=baz");
+
+		propertySources.remove(MockPropertySource.MOCK_PROPERTIES_PROPERTY_SOURCE_NAME);
+		assertThat(resolver.getProperty("foo")).isEqualTo("bar");
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				resolver.resolveRequiredPlaceholders("${bogus}"));
+	}
+
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.StreamUtils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CompositeDataBuffer}.
+ */
+class CompositeDataBufferTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+
+
+	@Test
+	void readAcrossComponents() {
+		DataBuffer composite = compose("foo", "", "bar", "baz");
+		assertThat(composite.readableByteCount()).isEqualTo(9);
+		assertThat(composite.getByte(3)).isEqualTo((byte) 'b');
+
+		byte[] bytes = new byte[5];
+		composite.read(bytes);
+		assertThat(new String(bytes, UTF_8)).isEqualTo("fooba");
+		assertThat(composite.read()).isEqualTo((byte) 'r');
+		assertThat(composite.toString(UTF_8)).isEqualTo("baz");
+		assertThat(composite.indexOf(b -> b == 'z', 0)).isEqualTo(8);
+		assertThat(composite.lastIndexOf(b -> b == 'o', 8)).isEqualTo(2);
+		release(composite);
+	}
+
+	@Test
+	void readPositionOfComponentsIsRespected() {
+		DataBuffer first = stringBuffer("foo");
+		first.read();
+		DataBuffer composite = new CompositeDataBuffer(this.bufferFactory, Arrays.asList(first, stringBuffer("bar")));
+		assertThat(composite.toString(UTF_8)).isEqualTo("oobar");
+		release(composite);
+	}
+
+	@Test
+	void asInputStream() throws Exception {
+		DataBuffer composite = compose("foo", "bar");
+		try (InputStream inputStream = composite.asInputStream(true)) {
+			assertThat(StreamUtils.copyToString(inputStream, UTF_8)).isEqualTo("foobar");
+		}
+		assertThat(((PooledDataBuffer) composite).isAllocated()).isFalse();
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void asByteBuffer() {
+		DataBuffer composite = compose("foo", "bar");
+		ByteBuffer withinComponent = composite.asByteBuffer(3, 2);
+		assertThat(UTF_8.decode(withinComponent).toString()).isEqualTo("ba");
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(2);
+
+		ByteBuffer spanningComponents = composite.asByteBuffer();
+		assertThat(UTF_8.decode(spanningComponents).toString()).isEqualTo("foobar");
+		release(composite);
+	}
+
+	@Test
+	void slice() {
+		DataBuffer composite = compose("foo", "bar", "baz");
+		DataBuffer slice = composite.slice(2, 5);
+		assertThat(slice.toString(UTF_8)).isEqualTo("obarb");
+		assertThat(slice.slice(1, 3).toString(UTF_8)).isEqualTo("bar");
+
+		DataBufferUtils.retain(slice);
+		assertThat(DataBufferUtils.release(composite)).isFalse();
+		assertThat(DataBufferUtils.release(slice)).isTrue();
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void writeConsolidates() {
+		DataBuffer composite = compose("foo", "bar");
+		composite.read();
+		composite.write("baz".getBytes(UTF_8));
+		assertThat(composite.toString(UTF_8)).isEqualTo("oobarbaz");
+		assertThat(composite.capacity()).isGreaterThanOrEqualTo(9);
+		release(composite);
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void truncateWithWritePosition() {
+		DataBuffer composite = compose("foo", "bar\n");
+		composite.writePosition(composite.writePosition() - 1);
+		assertThat(composite.toString(UTF_8)).isEqualTo("foobar");
+		release(composite);
+	}
+
+	@Test
+	void releaseReleasesComponents() {
+		DataBuffer composite = compose("foo", "bar");
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(2);
+		assertThat(DataBufferUtils.release(composite)).isTrue();
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+	}
+
+
+	private DataBuffer compose(String... values) {
+		DataBuffer[] dataBuffers = Arrays.stream(values).map(this::stringBuffer).toArray(DataBuffer[]::new);
+		return new CompositeDataBuffer(this.bufferFactory, Arrays.asList(dataBuffers));
+	}
+
+	private DataBuffer stringBuffer(String value) {
+		byte[] bytes = value.getBytes(UTF_8);
+		return this.bufferFactory.allocateBuffer(bytes.length).write(bytes);
+	}
+
+	private static void release(DataBuffer buffer) {
+		DataBufferUtils.release(buffer);
+	}
+
+}
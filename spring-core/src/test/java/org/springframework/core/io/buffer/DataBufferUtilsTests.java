@@ -276,6 +276,42 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 				.verify(Duration.ofSeconds(5));
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedPath(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource.getFile().toPath(), 0, -1, super.bufferFactory, 3);
+
+		verifyReadData(flux);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedResourcePositionAndCount(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource, 3, 5, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("ba"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedByteArrayResourcePositionAndCount(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Resource resource = new ByteArrayResource("foobarbazqux".getBytes());
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(resource, 3, 5, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("ba"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
 	@ParameterizedDataBufferAllocatingTest
 	void readByteArrayResourcePositionAndTakeUntil(String displayName, DataBufferFactory bufferFactory) throws Exception {
 		super.bufferFactory = bufferFactory;
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link PooledDataBufferFactory}.
+ */
+class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+
+
+	@Test
+	void allocatedBuffersArePooled() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		assertThat(buffer).isInstanceOf(PooledDataBuffer.class);
+		assertThat(buffer.capacity()).isEqualTo(100);
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(1);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void releasedMemoryIsReused() {
+		DataBufferUtils.release(this.bufferFactory.allocateBuffer(100));
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(128);
+		assertThat(this.bufferFactory.getAllocationCount()).isEqualTo(2);
+		assertThat(this.bufferFactory.getReuseCount()).isEqualTo(1);
+		assertThat(buffer.writableByteCount()).isEqualTo(128);
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	void largeBuffersAreNotPooled() {
+		int capacity = PooledDataBufferFactory.DEFAULT_MAX_POOLED_CAPACITY + 1;
+		DataBufferUtils.release(this.bufferFactory.allocateBuffer(capacity));
+		DataBufferUtils.release(this.bufferFactory.allocateBuffer(capacity));
+		assertThat(this.bufferFactory.getReuseCount()).isEqualTo(0);
+	}
+
+	@Test
+	void growingBufferKeepsContent() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(4);
+		buffer.write("abcd".getBytes(UTF_8));
+		buffer.write("efgh".getBytes(UTF_8));
+		assertThat(buffer.toString(UTF_8)).isEqualTo("abcdefgh");
+		DataBufferUtils.release(buffer);
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void sliceSharesReferenceCount() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(8);
+		buffer.write("abcdefgh".getBytes(UTF_8));
+		DataBuffer slice = buffer.slice(2, 3);
+		assertThat(slice).isInstanceOf(PooledDataBuffer.class);
+		assertThat(slice.toString(UTF_8)).isEqualTo("cde");
+
+		DataBufferUtils.retain(slice);
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(DataBufferUtils.release(slice)).isTrue();
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isFalse();
+	}
+
+	@Test
+	void inputStreamReleasesOnClose() throws Exception {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(3);
+		buffer.write("abc".getBytes(UTF_8));
+		try (InputStream inputStream = buffer.asInputStream(true)) {
+			assertThat(inputStream.read()).isEqualTo('a');
+		}
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isFalse();
+	}
+
+	@Test
+	void joinReleasesSources() {
+		DataBuffer first = this.bufferFactory.allocateBuffer(3).write("foo".getBytes(UTF_8));
+		DataBuffer second = this.bufferFactory.allocateBuffer(3).write("bar".getBytes(UTF_8));
+		DataBuffer result = this.bufferFactory.join(Arrays.asList(first, second));
+		assertThat(result.toString(UTF_8)).isEqualTo("foobar");
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(1);
+		DataBufferUtils.release(result);
+	}
+
+	@Test
+	void wrappedBuffersAreNotPooled() {
+		DataBuffer buffer = this.bufferFactory.wrap(ByteBuffer.wrap("foo".getBytes(UTF_8)));
+		assertThat(buffer).isNotInstanceOf(PooledDataBuffer.class);
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void retainAfterRelease() {
+		PooledDataBuffer buffer = (PooledDataBuffer) this.bufferFactory.allocateBuffer(1);
+		buffer.release();
+		assertThatIllegalStateException().isThrownBy(buffer::retain);
+	}
+
+	@Test
+	void leakDetection() {
+		this.bufferFactory.setLeakDetection(true);
+		DataBuffer leaked = this.bufferFactory.allocateBuffer(16);
+		DataBuffer released = this.bufferFactory.allocateBuffer(16);
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(2);
+
+		this.bufferFactory.reportLeak(leaked.slice(0, 8));
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(1);
+
+		// A buffer that has been reported already is not counted twice
+		DataBufferUtils.release(leaked);
+		DataBufferUtils.release(released);
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void buffersNotTrackedWithoutLeakDetection() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(16);
+		assertThatIllegalStateException().isThrownBy(() -> this.bufferFactory.reportLeak(buffer));
+		DataBufferUtils.release(buffer);
+	}
+
+}
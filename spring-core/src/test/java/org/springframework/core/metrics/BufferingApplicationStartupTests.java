@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.metrics.BufferingApplicationStartup.RecordedStep;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link BufferingApplicationStartup}.
+ */
+class BufferingApplicationStartupTests {
+
+	@Test
+	void recordsNestedStepsWithTags() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep outer = startup.start("outer").tag("key", "value");
+		StartupStep inner = startup.start("inner").tag("lazy", () -> "computed");
+		assertThat(inner.getParentId()).isEqualTo(outer.getId());
+		inner.end();
+		startup.start("sibling").end();
+		outer.end();
+
+		List<RecordedStep> steps = startup.getRecordedSteps();
+		assertThat(steps).extracting(RecordedStep::getName).containsExactly("outer", "inner", "sibling");
+		assertThat(steps.get(0).getParentId()).isNull();
+		assertThat(steps.get(0).getTags()).containsEntry("key", "value");
+		assertThat(steps.get(1).getTags()).containsEntry("lazy", "computed");
+		assertThat(steps.get(2).getParentId()).isEqualTo(outer.getId());
+		assertThat(startup.start("next").getParentId()).isNull();
+	}
+
+	@Test
+	void endingParentUnwindsUnendedChildren() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep outer = startup.start("outer");
+		startup.start("leaked");
+		outer.end();
+		assertThat(startup.start("next").getParentId()).isNull();
+	}
+
+	@Test
+	void rejectsTagsAfterEnd() {
+		StartupStep step = new BufferingApplicationStartup(10).start("step");
+		step.end();
+		assertThatIllegalStateException().isThrownBy(() -> step.tag("key", "value"));
+		assertThatIllegalStateException().isThrownBy(step::end);
+	}
+
+	@Test
+	void dropsStepsBeyondCapacity() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(2);
+		for (int i = 0; i < 3; i++) {
+			startup.start("step" + i).end();
+		}
+		assertThat(startup.getRecordedSteps()).hasSize(2);
+		assertThat(startup.isCapacityExceeded()).isTrue();
+	}
+
+	@Test
+	void writesJsonTimeline() throws Exception {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		startup.start("step").tag("name", "a \"quoted\" value").end();
+		StringBuilder out = new StringBuilder();
+		startup.writeTimeline(out);
+		assertThat(out.toString())
+				.startsWith("{\"startTime\":")
+				.contains("\"id\":1,\"parentId\":null,\"name\":\"step\"")
+				.contains("\"tags\":{\"name\":\"a \\\"quoted\\\" value\"}")
+				.endsWith("}]}");
+	}
+
+}
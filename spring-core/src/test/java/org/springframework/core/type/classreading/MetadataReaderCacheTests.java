@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MetadataReaderCache}.
+ */
+class MetadataReaderCacheTests {
+
+	private final ClassLoader classLoader = getClass().getClassLoader();
+
+	private final Resource resource = new ClassPathResource(
+			AnnotatedClass.class.getName().replace('.', '/') + ".class", this.classLoader);
+
+
+	@Test
+	void getMetadataReaderIsCached() throws IOException {
+		MetadataReaderCache cache = new MetadataReaderCache();
+		MetadataReader metadataReader = cache.getMetadataReader(this.resource, this.classLoader);
+		assertThat(metadataReader.getClassMetadata().getClassName()).isEqualTo(AnnotatedClass.class.getName());
+		assertThat(cache.getMetadataReader(this.resource, this.classLoader)).isSameAs(metadataReader);
+		assertThat(cache.getMetadataReader(this.resource, new ClassLoader(this.classLoader) {})).isNotSameAs(metadataReader);
+		cache.clear();
+		assertThat(cache.getMetadataReader(this.resource, this.classLoader)).isNotSameAs(metadataReader);
+	}
+
+	@Test
+	void getMetadataReaderEvictsLeastRecentlyUsed() throws IOException {
+		MetadataReaderCache cache = new MetadataReaderCache(1);
+		Resource other = new ClassPathResource(
+				MetadataReaderCacheTests.class.getName().replace('.', '/') + ".class", this.classLoader);
+		MetadataReader metadataReader = cache.getMetadataReader(this.resource, this.classLoader);
+		cache.getMetadataReader(other, this.classLoader);
+		assertThat(cache.getMetadataReader(this.resource, this.classLoader)).isNotSameAs(metadataReader);
+	}
+
+	@Test
+	void getMetadataReaderFromCacheDirectory(@TempDir Path cacheDirectory) throws IOException {
+		MetadataReaderCache cache = new MetadataReaderCache();
+		cache.setCacheDirectory(cacheDirectory.toFile());
+		AnnotationMetadata metadata = cache.getMetadataReader(this.resource, this.classLoader).getAnnotationMetadata();
+		assertThat(cacheDirectory.toFile().list()).hasSize(1);
+
+		MetadataReaderCache restored = new MetadataReaderCache();
+		restored.setCacheDirectory(cacheDirectory.toFile());
+		MetadataReader metadataReader = restored.getMetadataReader(this.resource, this.classLoader);
+		assertThat(metadataReader.getResource()).isSameAs(this.resource);
+		assertPersistedMetadata(metadata, metadataReader.getAnnotationMetadata());
+	}
+
+	@Test
+	void getMetadataReaderWithModifiedClassFile(@TempDir Path tempDirectory) throws IOException {
+		File classFile = tempDirectory.resolve("AnnotatedClass.class").toFile();
+		Files.copy(this.resource.getInputStream(), classFile.toPath());
+		File cacheDirectory = tempDirectory.resolve("cache").toFile();
+		MetadataReaderCache cache = new MetadataReaderCache();
+		cache.setCacheDirectory(cacheDirectory);
+		cache.getMetadataReader(new FileSystemResource(classFile), this.classLoader);
+		File[] cacheFiles = cacheDirectory.listFiles();
+		assertThat(cacheFiles).hasSize(1);
+
+		byte[] persisted = Files.readAllBytes(cacheFiles[0].toPath());
+		assertThat(classFile.setLastModified(classFile.lastModified() - 10000)).isTrue();
+		MetadataReaderCache restored = new MetadataReaderCache();
+		restored.setCacheDirectory(cacheDirectory);
+		restored.getMetadataReader(new FileSystemResource(classFile), this.classLoader);
+		assertThat(Files.readAllBytes(cacheFiles[0].toPath())).isNotEqualTo(persisted);
+
+		Files.write(cacheFiles[0].toPath(), new byte[] {0, 0, 0, 1, 0, 0});
+		restored.clear();
+		MetadataReader metadataReader = restored.getMetadataReader(new FileSystemResource(classFile), this.classLoader);
+		assertThat(metadataReader.getAnnotationMetadata().hasAnnotation(Marker.class.getName())).isTrue();
+		assertThat(cacheFiles[0].length()).isGreaterThan(6);
+		assertThat(cacheDirectory.list()).hasSize(1);
+	}
+
+	@Test
+	void cachingMetadataReaderFactoryUsesMetadataReaderCache() throws IOException {
+		MetadataReaderCache cache = new MetadataReaderCache();
+		CachingMetadataReaderFactory factory1 = new CachingMetadataReaderFactory(this.classLoader);
+		factory1.setMetadataReaderCache(cache);
+		CachingMetadataReaderFactory factory2 = new CachingMetadataReaderFactory(this.classLoader);
+		factory2.setMetadataReaderCache(cache);
+		MetadataReader metadataReader = factory1.getMetadataReader(AnnotatedClass.class.getName());
+		assertThat(factory2.getMetadataReader(AnnotatedClass.class.getName())).isSameAs(metadataReader);
+		factory1.clearCache();
+		assertThat(factory1.getMetadataReader(AnnotatedClass.class.getName())).isSameAs(metadataReader);
+	}
+
+	private void assertPersistedMetadata(AnnotationMetadata expected, AnnotationMetadata actual) {
+		assertThat(actual.getClassName()).isEqualTo(expected.getClassName());
+		assertThat(actual.isAbstract()).isTrue();
+		assertThat(actual.getInterfaceNames()).containsExactly(Runnable.class.getName());
+		assertThat(actual.getAnnotationTypes()).containsExactly(Marker.class.getName());
+		AnnotationAttributes attributes = actual.getAnnotations().get(Marker.class).asAnnotationAttributes();
+		assertThat(attributes.keySet()).isEqualTo(expected.getAnnotations().get(Marker.class).asAnnotationAttributes().keySet());
+		assertThat(attributes.getString("value")).isEqualTo("class");
+		assertThat(attributes.getStringArray("names")).containsExactly("a", "b");
+		assertThat(attributes.<TimeUnit>getEnum("unit")).isEqualTo(TimeUnit.SECONDS);
+		assertThat(attributes.getClass("type")).isEqualTo(String.class);
+		assertThat((int[]) attributes.get("numbers")).containsExactly(1, 2);
+		MergedAnnotation<Nested>[] nested =
+				actual.getAnnotations().get(Marker.class).getAnnotationArray("nested", Nested.class);
+		assertThat(nested).hasSize(2);
+		assertThat(nested[1].getString("value")).isEqualTo("second");
+		MethodMetadata method = actual.getAnnotatedMethods(Marker.class.getName()).iterator().next();
+		assertThat(method.getMethodName()).isEqualTo("run");
+		assertThat(method.getReturnTypeName()).isEqualTo("void");
+		assertThat(method.isFinal()).isTrue();
+		assertThat(method.getAnnotations().get(Marker.class).getString("value")).isEqualTo("method");
+		assertThat(method.getAnnotations().get(Marker.class).getSource())
+				.isEqualTo(expected.getAnnotatedMethods(Marker.class.getName()).iterator().next()
+						.getAnnotations().get(Marker.class).getSource());
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.TYPE, ElementType.METHOD})
+	@interface Marker {
+
+		String value() default "";
+
+		String[] names() default {};
+
+		TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+		Class<?> type() default Object.class;
+
+		int[] numbers() default {};
+
+		Nested[] nested() default {};
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Nested {
+
+		String value();
+	}
+
+
+	@Marker(value = "class", names = {"a", "b"}, unit = TimeUnit.SECONDS, type = String.class,
+			numbers = {1, 2}, nested = {@Nested("first"), @Nested("second")})
+	abstract static class AnnotatedClass implements Runnable {
+
+		@Override
+		@Marker("method")
+		public final void run() {
+		}
+	}
+
+}
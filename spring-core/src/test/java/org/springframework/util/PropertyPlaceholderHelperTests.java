@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.util.Properties;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.util.PropertyPlaceholderHelper.PlaceholderResolver;
+import org.springframework.util.PropertyPlaceholderHelper.PlaceholderTemplate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
@@ -108,4 +109,36 @@ class PropertyPlaceholderHelperTests {
 				helper.replacePlaceholders(text, props));
 	}
 
+	@Test
+	void parsedTemplate() {
+		Properties props = new Properties();
+		props.setProperty("foo", "bar");
+		props.setProperty("inner", "ar");
+		props.setProperty("nested", "${foo}");
+
+		assertThat(this.helper.parse("plain text").replacePlaceholders(props::getProperty)).isEqualTo("plain text");
+		PlaceholderTemplate template = this.helper.parse(
+				"a=${foo},b=${b${inner}},c=${nested},d=${bogus},e=${unclosed");
+		assertThat(template.replacePlaceholders(props::getProperty))
+				.isEqualTo("a=bar,b=${b${inner}},c=bar,d=${bogus},e=${unclosed");
+		props.setProperty("bar", "baz");
+		assertThat(template.replacePlaceholders(props::getProperty))
+				.isEqualTo("a=bar,b=baz,c=bar,d=${bogus},e=${unclosed");
+		assertThat(template.replacePlaceholders(props::getProperty))
+				.isEqualTo(this.helper.replacePlaceholders(template.getValue(), props));
+	}
+
+	@Test
+	void parsedTemplateWithUnresolvedPlaceholderAsError() {
+		Properties props = new Properties();
+		props.setProperty("foo", "${foo}");
+
+		PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper("${", "}", null, false);
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				helper.parse("foo=${bar}").replacePlaceholders(props::getProperty));
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				helper.parse("foo=${foo}").replacePlaceholders(props::getProperty))
+			.withMessageContaining("Circular placeholder reference");
+	}
+
 }
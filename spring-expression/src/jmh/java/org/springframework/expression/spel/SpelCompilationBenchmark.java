@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Benchmarks comparing interpreted and compiled evaluation of SpEL expressions.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SpelCompilationBenchmark {
+
+	@Benchmark
+	public Object propertyAccess(BenchmarkData data) {
+		return data.propertyAccess.getValue(data.context);
+	}
+
+	@Benchmark
+	public Object methodInvocation(BenchmarkData data) {
+		return data.methodInvocation.getValue(data.context);
+	}
+
+	@Benchmark
+	public Object arithmeticAndComparison(BenchmarkData data) {
+		return data.arithmeticAndComparison.getValue(data.context);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"OFF", "IMMEDIATE"})
+		public SpelCompilerMode compilerMode;
+
+		public StandardEvaluationContext context;
+
+		public Expression propertyAccess;
+
+		public Expression methodInvocation;
+
+		public Expression arithmeticAndComparison;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			SpelExpressionParser parser = new SpelExpressionParser(
+					new SpelParserConfiguration(this.compilerMode, getClass().getClassLoader()));
+			this.context = new StandardEvaluationContext(new Order("spring", 42, 3));
+			this.propertyAccess = parser.parseExpression("customer");
+			this.methodInvocation = parser.parseExpression("customer.toUpperCase().substring(1)");
+			this.arithmeticAndComparison = parser.parseExpression("amount * quantity > 100 and customer != null");
+			// Warm up the expressions so that compiled variants are actually compiled
+			for (int i = 0; i < 3; i++) {
+				this.propertyAccess.getValue(this.context);
+				this.methodInvocation.getValue(this.context);
+				this.arithmeticAndComparison.getValue(this.context);
+			}
+		}
+	}
+
+
+	public static class Order {
+
+		private final String customer;
+
+		private final int amount;
+
+		private final int quantity;
+
+		public Order(String customer, int amount, int quantity) {
+			this.customer = customer;
+			this.amount = amount;
+			this.quantity = quantity;
+		}
+
+		public String getCustomer() {
+			return this.customer;
+		}
+
+		public int getAmount() {
+			return this.amount;
+		}
+
+		public int getQuantity() {
+			return this.quantity;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -85,9 +85,16 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * When code generation requires an intermediate variable within a method,
-	 * this method records the next available variable (variable 0 is 'this').
+	 * this method records the next available variable (variable 0 is 'this',
+	 * variables 1 and 2 are the target and the EvaluationContext).
 	 */
-	private int nextFreeVariableId = 1;
+	private int nextFreeVariableId = 3;
+
+	/**
+	 * Local variables holding the target for nested scopes, e.g. the current
+	 * element while generating the code for a selection or projection.
+	 */
+	private final Deque<Integer> targetVariables = new ArrayDeque<>();
 
 
 	/**
@@ -105,11 +112,32 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * Push the byte code to load the target (i.e. what was passed as the first argument
-	 * to CompiledExpression.getValue(target, context))
+	 * to CompiledExpression.getValue(target, context), or the element currently being
+	 * processed within a {@link #enterTargetScope target scope})
 	 * @param mv the visitor into which the load instruction should be inserted
 	 */
 	public void loadTarget(MethodVisitor mv) {
-		mv.visitVarInsn(ALOAD, 1);
+		Integer targetVariable = this.targetVariables.peek();
+		mv.visitVarInsn(ALOAD, (targetVariable != null ? targetVariable : 1));
+	}
+
+	/**
+	 * Enter a scope in which the given local variable rather than the original
+	 * target acts as the target, e.g. for the current element of a selection.
+	 * @param variableId the local variable holding the target for the scope
+	 * @since 5.2.9
+	 * @see #loadTarget(MethodVisitor)
+	 */
+	public void enterTargetScope(int variableId) {
+		this.targetVariables.push(variableId);
+	}
+
+	/**
+	 * Exit the target scope entered last.
+	 * @since 5.2.9
+	 */
+	public void exitTargetScope() {
+		this.targetVariables.pop();
 	}
 
 	/**
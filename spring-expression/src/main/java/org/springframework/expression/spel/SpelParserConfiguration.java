@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.expression.spel;
 
 import org.springframework.core.SpringProperties;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 /**
  * spring表达式解析器的配置对象
@@ -32,12 +33,24 @@ import org.springframework.lang.Nullable;
  */
 public class SpelParserConfiguration {
 
+	/**
+	 * The default number of interpreted evaluations after which an expression
+	 * is compiled in {@link SpelCompilerMode#MIXED} mode: {@value}.
+	 * @since 5.2.9
+	 */
+	public static final int DEFAULT_COMPILE_THRESHOLD = 100;
+
 	private static final SpelCompilerMode defaultCompilerMode;
 
+	private static final int defaultCompileThreshold;
+
 	static {
 		String compilerMode = SpringProperties.getProperty("spring.expression.compiler.mode");
 		defaultCompilerMode = (compilerMode != null ?
 				SpelCompilerMode.valueOf(compilerMode.toUpperCase()) : SpelCompilerMode.OFF);
+		String compileThreshold = SpringProperties.getProperty("spring.expression.compiler.threshold");
+		defaultCompileThreshold = (compileThreshold != null ?
+				Integer.parseInt(compileThreshold.trim()) : DEFAULT_COMPILE_THRESHOLD);
 	}
 
 
@@ -52,6 +65,8 @@ public class SpelParserConfiguration {
 
 	private final int maximumAutoGrowSize;
 
+	private final int compileThreshold;
+
 
 	/**
 	 * Create a new {@code SpelParserConfiguration} instance with default settings.
@@ -100,11 +115,32 @@ public class SpelParserConfiguration {
 	public SpelParserConfiguration(@Nullable SpelCompilerMode compilerMode, @Nullable ClassLoader compilerClassLoader,
 			boolean autoGrowNullReferences, boolean autoGrowCollections, int maximumAutoGrowSize) {
 
+		this(compilerMode, compilerClassLoader, autoGrowNullReferences, autoGrowCollections,
+				maximumAutoGrowSize, defaultCompileThreshold);
+	}
+
+	/**
+	 * Create a new {@code SpelParserConfiguration} instance.
+	 * @param compilerMode the compiler mode that parsers using this configuration object should use
+	 * @param compilerClassLoader the ClassLoader to use as the basis for expression compilation
+	 * @param autoGrowNullReferences if null references should automatically grow
+	 * @param autoGrowCollections if collections should automatically grow
+	 * @param maximumAutoGrowSize the maximum size that the collection can auto grow
+	 * @param compileThreshold the number of interpreted evaluations after which
+	 * an expression gets compiled in {@link SpelCompilerMode#MIXED} mode
+	 * @since 5.2.9
+	 */
+	public SpelParserConfiguration(@Nullable SpelCompilerMode compilerMode, @Nullable ClassLoader compilerClassLoader,
+			boolean autoGrowNullReferences, boolean autoGrowCollections, int maximumAutoGrowSize,
+			int compileThreshold) {
+
+		Assert.isTrue(compileThreshold >= 0, "Compile threshold must not be negative");
 		this.compilerMode = (compilerMode != null ? compilerMode : defaultCompilerMode);
 		this.compilerClassLoader = compilerClassLoader;
 		this.autoGrowNullReferences = autoGrowNullReferences;
 		this.autoGrowCollections = autoGrowCollections;
 		this.maximumAutoGrowSize = maximumAutoGrowSize;
+		this.compileThreshold = compileThreshold;
 	}
 
 
@@ -144,4 +180,14 @@ public class SpelParserConfiguration {
 		return this.maximumAutoGrowSize;
 	}
 
+	/**
+	 * Return the number of interpreted evaluations after which an expression
+	 * gets compiled in {@link SpelCompilerMode#MIXED} mode.
+	 * @since 5.2.9
+	 * @see #DEFAULT_COMPILE_THRESHOLD
+	 */
+	public int getCompileThreshold() {
+		return this.compileThreshold;
+	}
+
 }
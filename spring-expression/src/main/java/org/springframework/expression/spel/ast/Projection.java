@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,8 +22,11 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -63,6 +66,9 @@ public class Projection extends SpelNodeImpl {
 
 		Object operand = op.getValue();
 		boolean operandIsArray = ObjectUtils.isArray(operand);
+		// Only projections over a (non-Map) Iterable are compilable
+		this.exitTypeDescriptor = (operand instanceof Iterable && !(operand instanceof Map) ?
+				"Ljava/util/List" : null);
 		// TypeDescriptor operandTypeDescriptor = op.getTypeDescriptor();
 
 		// When the input is a map, we push a special context object on the stack
@@ -137,6 +143,63 @@ public class Projection extends SpelNodeImpl {
 		return "![" + getChild(0).toStringAST() + "]";
 	}
 
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl projection = this.children[0];
+		return (this.exitTypeDescriptor != null && projection.isCompilable() &&
+				projection.exitTypeDescriptor != null);
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		if (cf.lastDescriptor() == null) {
+			cf.loadTarget(mv);
+		}
+		Label endOfProjection = new Label();
+		if (this.nullSafe) {
+			Label notNull = new Label();
+			mv.visitInsn(DUP);
+			mv.visitJumpInsn(IFNONNULL, notNull);
+			mv.visitJumpInsn(GOTO, endOfProjection);
+			mv.visitLabel(notNull);
+		}
+		int iteratorVariable = cf.nextFreeVariableId();
+		int resultVariable = cf.nextFreeVariableId();
+		int elementVariable = cf.nextFreeVariableId();
+		mv.visitTypeInsn(CHECKCAST, "java/lang/Iterable");
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/lang/Iterable", "iterator", "()Ljava/util/Iterator;", true);
+		mv.visitVarInsn(ASTORE, iteratorVariable);
+		mv.visitTypeInsn(NEW, "java/util/ArrayList");
+		mv.visitInsn(DUP);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/util/ArrayList", "<init>", "()V", false);
+		mv.visitVarInsn(ASTORE, resultVariable);
+
+		Label loop = new Label();
+		Label endOfLoop = new Label();
+		mv.visitLabel(loop);
+		mv.visitVarInsn(ALOAD, iteratorVariable);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "hasNext", "()Z", true);
+		mv.visitJumpInsn(IFEQ, endOfLoop);
+		mv.visitVarInsn(ALOAD, iteratorVariable);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "next", "()Ljava/lang/Object;", true);
+		mv.visitVarInsn(ASTORE, elementVariable);
+		mv.visitVarInsn(ALOAD, resultVariable);
+		cf.enterCompilationScope();
+		cf.enterTargetScope(elementVariable);
+		this.children[0].generateCode(mv, cf);
+		CodeFlow.insertBoxIfNecessary(mv, cf.lastDescriptor());
+		cf.exitTargetScope();
+		cf.exitCompilationScope();
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "add", "(Ljava/lang/Object;)Z", true);
+		mv.visitInsn(POP);
+		mv.visitJumpInsn(GOTO, loop);
+		mv.visitLabel(endOfLoop);
+		mv.visitVarInsn(ALOAD, resultVariable);
+
+		mv.visitLabel(endOfProjection);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 	private Class<?> determineCommonType(@Nullable Class<?> oldType, Class<?> newType) {
 		if (oldType == null) {
 			return newType;
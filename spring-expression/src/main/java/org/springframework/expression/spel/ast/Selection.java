@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,9 +23,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -86,6 +89,9 @@ public class Selection extends SpelNodeImpl {
 		TypedValue op = state.getActiveContextObject();
 		Object operand = op.getValue();
 		SpelNodeImpl selectionCriteria = this.children[0];
+		// Only selections over a (non-Map) Iterable are compilable
+		this.exitTypeDescriptor = (!(operand instanceof Iterable) || operand instanceof Map ? null :
+				(this.variant == ALL ? "Ljava/util/List" : "Ljava/lang/Object"));
 
 		if (operand instanceof Map) {
 			Map<?, ?> mapdata = (Map<?, ?>) operand;
@@ -208,6 +214,81 @@ public class Selection extends SpelNodeImpl {
 		return prefix() + getChild(0).toStringAST() + "]";
 	}
 
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl selectionCriteria = this.children[0];
+		return (this.exitTypeDescriptor != null && selectionCriteria.isCompilable() &&
+				CodeFlow.isBooleanCompatible(selectionCriteria.exitTypeDescriptor));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		if (cf.lastDescriptor() == null) {
+			cf.loadTarget(mv);
+		}
+		Label endOfSelection = new Label();
+		if (this.nullSafe) {
+			Label notNull = new Label();
+			mv.visitInsn(DUP);
+			mv.visitJumpInsn(IFNONNULL, notNull);
+			mv.visitJumpInsn(GOTO, endOfSelection);
+			mv.visitLabel(notNull);
+		}
+		int iteratorVariable = cf.nextFreeVariableId();
+		int resultVariable = cf.nextFreeVariableId();
+		int elementVariable = cf.nextFreeVariableId();
+		mv.visitTypeInsn(CHECKCAST, "java/lang/Iterable");
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/lang/Iterable", "iterator", "()Ljava/util/Iterator;", true);
+		mv.visitVarInsn(ASTORE, iteratorVariable);
+		if (this.variant == ALL) {
+			mv.visitTypeInsn(NEW, "java/util/ArrayList");
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/util/ArrayList", "<init>", "()V", false);
+		}
+		else {
+			mv.visitInsn(ACONST_NULL);
+		}
+		mv.visitVarInsn(ASTORE, resultVariable);
+
+		Label loop = new Label();
+		Label endOfLoop = new Label();
+		Label notSelected = new Label();
+		mv.visitLabel(loop);
+		mv.visitVarInsn(ALOAD, iteratorVariable);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "hasNext", "()Z", true);
+		mv.visitJumpInsn(IFEQ, endOfLoop);
+		mv.visitVarInsn(ALOAD, iteratorVariable);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "next", "()Ljava/lang/Object;", true);
+		mv.visitVarInsn(ASTORE, elementVariable);
+		cf.enterCompilationScope();
+		cf.enterTargetScope(elementVariable);
+		this.children[0].generateCode(mv, cf);
+		cf.unboxBooleanIfNecessary(mv);
+		cf.exitTargetScope();
+		cf.exitCompilationScope();
+		mv.visitJumpInsn(IFEQ, notSelected);
+		if (this.variant == ALL) {
+			mv.visitVarInsn(ALOAD, resultVariable);
+			mv.visitVarInsn(ALOAD, elementVariable);
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "add", "(Ljava/lang/Object;)Z", true);
+			mv.visitInsn(POP);
+		}
+		else {
+			mv.visitVarInsn(ALOAD, elementVariable);
+			mv.visitVarInsn(ASTORE, resultVariable);
+			if (this.variant == FIRST) {
+				mv.visitJumpInsn(GOTO, endOfLoop);
+			}
+		}
+		mv.visitLabel(notSelected);
+		mv.visitJumpInsn(GOTO, loop);
+		mv.visitLabel(endOfLoop);
+		mv.visitVarInsn(ALOAD, resultVariable);
+
+		mv.visitLabel(endOfSelection);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 	private String prefix() {
 		switch (this.variant) {
 			case ALL:   return "?[";
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -66,7 +66,11 @@ public class VariableReference extends SpelNodeImpl {
 	@Override
 	public TypedValue getValueInternal(ExpressionState state) throws SpelEvaluationException {
 		if (this.name.equals(THIS)) {
-			return state.getActiveContextObject();
+			TypedValue result = state.getActiveContextObject();
+			Object value = result.getValue();
+			this.exitTypeDescriptor = (value != null && Modifier.isPublic(value.getClass().getModifiers()) ?
+					CodeFlow.toDescriptorFromObject(value) : "Ljava/lang/Object");
+			return result;
 		}
 		if (this.name.equals(ROOT)) {
 			TypedValue result = state.getRootContextObject();
@@ -111,7 +115,18 @@ public class VariableReference extends SpelNodeImpl {
 
 	@Override
 	public void generateCode(MethodVisitor mv, CodeFlow cf) {
-		if (this.name.equals(ROOT)) {
+		if (this.name.equals(THIS)) {
+			// The active context object is either the result of the preceding
+			// element in a compound expression or the (scope) target
+			String lastDesc = cf.lastDescriptor();
+			if (lastDesc == null) {
+				cf.loadTarget(mv);
+			}
+			else {
+				CodeFlow.insertBoxIfNecessary(mv, lastDesc);
+			}
+		}
+		else if (this.name.equals(ROOT)) {
 			mv.visitVarInsn(ALOAD,1);
 		}
 		else {
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Thread-safe cache of parsed {@link Expression Expressions}, bounded by a
+ * maximum number of entries and keeping track of its hits, misses and
+ * evictions.
+ *
+ * <p>Expressions are parsed with the given {@link ExpressionParser} on first
+ * access. Cached expressions are served without locking; once the cache limit
+ * is exceeded, expressions that have not been used since the previous eviction
+ * sweep are evicted ("second chance" approximation of least recently used).
+ * Memory therefore stays flat for dynamically built expression strings, while
+ * frequently used expressions are only parsed once and keep their compiled state.
+ *
+ * <p>Expressions may be cached per scope, e.g. per annotated method, in
+ * order to keep the state that a {@link SpelExpression} accumulates for
+ * compilation specific to the types that it is evaluated against.
+ *
+ * @since 5.2.9
+ * @see SpelExpression#isCompiled()
+ */
+public class ExpressionCache {
+
+	/** Default maximum number of entries for the cache: 1024. */
+	public static final int DEFAULT_CACHE_LIMIT = 1024;
+
+
+	private final ExpressionParser parser;
+
+	private final int cacheLimit;
+
+	/** Map from cache key to Expression instance. */
+	private final ConcurrentMap<CacheKey, CachedExpression> cache;
+
+	/** Position of the eviction sweep, guarded by the eviction monitor. */
+	@Nullable
+	private Iterator<Map.Entry<CacheKey, CachedExpression>> evictionCursor;
+
+	private final Object evictionMonitor = new Object();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+
+	/**
+	 * Create a new {@code ExpressionCache} for the given parser,
+	 * using the {@link #DEFAULT_CACHE_LIMIT default cache limit}.
+	 * @param parser the parser to use for expressions that are not cached yet
+	 */
+	public ExpressionCache(ExpressionParser parser) {
+		this(parser, DEFAULT_CACHE_LIMIT);
+	}
+
+	/**
+	 * Create a new {@code ExpressionCache} for the given parser.
+	 * @param parser the parser to use for expressions that are not cached yet
+	 * @param cacheLimit the maximum number of expressions to cache
+	 */
+	public ExpressionCache(ExpressionParser parser, int cacheLimit) {
+		Assert.notNull(parser, "ExpressionParser must not be null");
+		Assert.isTrue(cacheLimit > 0, "Cache limit must be positive");
+		this.parser = parser;
+		this.cacheLimit = cacheLimit;
+		this.cache = new ConcurrentHashMap<>(Math.min(cacheLimit, 256));
+	}
+
+
+	/**
+	 * Return the parser that this cache uses.
+	 */
+	public ExpressionParser getParser() {
+		return this.parser;
+	}
+
+	/**
+	 * Return the maximum number of expressions that this cache holds.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Return the cached {@link Expression} for the given expression string,
+	 * parsing it if necessary.
+	 * @param expressionString the raw expression string to parse
+	 * @return the (possibly shared) expression instance
+	 * @throws ParseException if the expression cannot be parsed
+	 */
+	public Expression getExpression(String expressionString) throws ParseException {
+		return getExpression(null, expressionString, null);
+	}
+
+	/**
+	 * Return the cached {@link Expression} for the given expression string
+	 * and parser context, parsing it if necessary.
+	 * @param expressionString the raw expression string to parse
+	 * @param context a context for influencing the parsing routine (optional)
+	 * @return the (possibly shared) expression instance
+	 * @throws ParseException if the expression cannot be parsed
+	 */
+	public Expression getExpression(String expressionString, @Nullable ParserContext context)
+			throws ParseException {
+
+		return getExpression(null, expressionString, context);
+	}
+
+	/**
+	 * Return the cached {@link Expression} for the given expression string
+	 * within the given scope, parsing it if necessary.
+	 * @param scope the scope that the expression is used in, e.g. an
+	 * annotated element (may be {@code null} to share the expression
+	 * across all usages of the same expression string)
+	 * @param expressionString the raw expression string to parse
+	 * @param context a context for influencing the parsing routine (optional)
+	 * @return the (possibly shared) expression instance
+	 * @throws ParseException if the expression cannot be parsed
+	 */
+	public Expression getExpression(@Nullable Object scope, String expressionString,
+			@Nullable ParserContext context) throws ParseException {
+
+		Assert.notNull(expressionString, "Expression string must not be null");
+		CacheKey cacheKey = new CacheKey(scope, expressionString, context);
+		CachedExpression cached = this.cache.get(cacheKey);
+		if (cached != null) {
+			this.hitCount.incrementAndGet();
+			cached.markUsed();
+			return cached.expression;
+		}
+		// Only blocks concurrent lookups of the same key (or the same hash bin) while parsing
+		cached = this.cache.computeIfAbsent(cacheKey, key -> {
+			this.missCount.incrementAndGet();
+			return new CachedExpression(context != null ?
+					this.parser.parseExpression(expressionString, context) :
+					this.parser.parseExpression(expressionString));
+		});
+		if (this.cache.size() > this.cacheLimit) {
+			evict(cacheKey);
+		}
+		return cached.expression;
+	}
+
+	/**
+	 * Evict expressions until the cache limit is met again, sweeping over the
+	 * cached expressions and giving each one that has been used since the
+	 * previous sweep a second chance.
+	 * @param retainedKey the key of the expression that has just been added
+	 */
+	private void evict(CacheKey retainedKey) {
+		synchronized (this.evictionMonitor) {
+			// After two full sweeps, evict regardless of concurrent use
+			int secondChances = 2 * this.cache.size();
+			while (this.cache.size() > this.cacheLimit) {
+				Iterator<Map.Entry<CacheKey, CachedExpression>> cursor = this.evictionCursor;
+				if (cursor == null || !cursor.hasNext()) {
+					cursor = this.cache.entrySet().iterator();
+					this.evictionCursor = cursor;
+					if (!cursor.hasNext()) {
+						return;
+					}
+				}
+				Map.Entry<CacheKey, CachedExpression> entry = cursor.next();
+				if (entry.getKey().equals(retainedKey)) {
+					continue;
+				}
+				if (secondChances > 0 && entry.getValue().clearUsed()) {
+					secondChances--;
+				}
+				else if (this.cache.remove(entry.getKey(), entry.getValue())) {
+					this.evictionCount.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all expressions from this cache.
+	 * <p>The hit, miss and eviction counts are not reset.
+	 */
+	public void clear() {
+		this.cache.clear();
+	}
+
+	/**
+	 * Return the number of expressions currently held in this cache.
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Return the number of lookups that returned an already parsed expression.
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Return the number of lookups that had to parse the expression,
+	 * including the ones that failed with a {@link ParseException}.
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Return the number of expressions that were evicted since the
+	 * cache limit had been exceeded.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	/**
+	 * Return the number of cached expressions that are currently evaluated
+	 * in compiled form. Template expressions count as compiled once all of
+	 * their SpEL parts have been compiled.
+	 * @see SpelExpression#isCompiled()
+	 */
+	public int getCompiledCount() {
+		int compiledCount = 0;
+		for (CachedExpression cached : this.cache.values()) {
+			if (isCompiled(cached.expression)) {
+				compiledCount++;
+			}
+		}
+		return compiledCount;
+	}
+
+	private static boolean isCompiled(Expression expression) {
+		if (expression instanceof SpelExpression) {
+			return ((SpelExpression) expression).isCompiled();
+		}
+		if (expression instanceof CompositeStringExpression) {
+			boolean compiled = false;
+			for (Expression part : ((CompositeStringExpression) expression).getExpressions()) {
+				if (part instanceof SpelExpression) {
+					if (!((SpelExpression) part).isCompiled()) {
+						return false;
+					}
+					compiled = true;
+				}
+			}
+			return compiled;
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [size = " + size() + ", hits = " + getHitCount() +
+				", misses = " + getMissCount() + ", evictions = " + getEvictionCount() + "]";
+	}
+
+
+	/**
+	 * Cached expression with a flag for recent use.
+	 */
+	private static final class CachedExpression {
+
+		final Expression expression;
+
+		private volatile boolean used;
+
+		CachedExpression(Expression expression) {
+			this.expression = expression;
+		}
+
+		void markUsed() {
+			if (!this.used) {
+				this.used = true;
+			}
+		}
+
+		boolean clearUsed() {
+			if (this.used) {
+				this.used = false;
+				return true;
+			}
+			return false;
+		}
+	}
+
+
+	/**
+	 * Key for a cached expression.
+	 */
+	private static final class CacheKey {
+
+		@Nullable
+		private final Object scope;
+
+		private final String expressionString;
+
+		@Nullable
+		private final ParserContext context;
+
+		CacheKey(@Nullable Object scope, String expressionString, @Nullable ParserContext context) {
+			this.scope = scope;
+			this.expressionString = expressionString;
+			this.context = context;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof CacheKey)) {
+				return false;
+			}
+			CacheKey otherKey = (CacheKey) other;
+			return (this.expressionString.equals(otherKey.expressionString) &&
+					ObjectUtils.nullSafeEquals(this.scope, otherKey.scope) &&
+					ObjectUtils.nullSafeEquals(this.context, otherKey.context));
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.expressionString.hashCode() * 29 + ObjectUtils.nullSafeHashCode(this.scope)) * 29 +
+					ObjectUtils.nullSafeHashCode(this.context);
+		}
+	}
+
+}
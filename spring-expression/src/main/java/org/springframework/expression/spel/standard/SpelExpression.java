@@ -48,9 +48,6 @@ import org.springframework.util.Assert;
  */
 public class SpelExpression implements Expression {
 
-	// Number of times to interpret an expression before compiling it
-	private static final int INTERPRETED_COUNT_THRESHOLD = 100;
-
 	// Number of times to try compiling an expression before giving up
 	private static final int FAILED_ATTEMPTS_THRESHOLD = 100;
 
@@ -493,7 +490,7 @@ public class SpelExpression implements Expression {
 			}
 			else {
 				// compilerMode = SpelCompilerMode.MIXED
-				if (this.interpretedCount.get() > INTERPRETED_COUNT_THRESHOLD) {
+				if (this.interpretedCount.get() > expressionState.getConfiguration().getCompileThreshold()) {
 					compileExpression();
 				}
 			}
@@ -537,6 +534,15 @@ public class SpelExpression implements Expression {
 		}
 	}
 
+	/**
+	 * Determine whether this expression is currently evaluated in compiled form.
+	 * @since 5.2.9
+	 * @see #compileExpression()
+	 */
+	public boolean isCompiled() {
+		return (this.compiledAst != null);
+	}
+
 	/**
 	 * Cause an expression to revert to being interpreted if it has been using a compiled
 	 * form. It also resets the compilation attempt failure count (an expression is normally no
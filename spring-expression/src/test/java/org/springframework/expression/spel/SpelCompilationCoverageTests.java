@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -106,6 +107,8 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 	 * FunctionReference
 	 * InlineList
 	 * OpModulus
+	 * Projection (on collections)
+	 * Selection (on collections)
 	 *
 	 * Not yet compiled (some may never need to be):
 	 * Assign
@@ -116,9 +119,7 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 	 * OpMatches
 	 * OpPower
 	 * OpInc
-	 * Projection
 	 * QualifiedId
-	 * Selection
 	 */
 
 
@@ -1032,6 +1033,99 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		assertThat(((SpelNodeImpl)((SpelExpression) expression).getAST()).isCompilable()).isFalse();
 	}
 
+	@Test
+	public void projection() throws Exception {
+		List<String> list = new ArrayList<>(Arrays.asList("a", "bb", "ccc"));
+		expression = parser.parseExpression("![length()]");
+		assertThat(expression.getValue(list)).isEqualTo(Arrays.asList(1, 2, 3));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(list)).isEqualTo(Arrays.asList(1, 2, 3));
+		assertThat(expression.getValue(new ArrayList<>())).isEqualTo(Collections.emptyList());
+
+		expression = parser.parseExpression("![#this.toUpperCase()].size()");
+		assertThat(expression.getValue(list)).isEqualTo(3);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(list)).isEqualTo(3);
+
+		// Nested projection, each referring to its own element
+		List<List<String>> nested = Arrays.asList(Arrays.asList("a", "bb"), Arrays.asList("ccc"));
+		expression = parser.parseExpression("![![#this.length()]]");
+		assertThat(expression.getValue(nested)).isEqualTo(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3)));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(nested)).isEqualTo(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3)));
+
+		// Map projections are not compiled
+		expression = parser.parseExpression("![key]");
+		expression.getValue(Collections.singletonMap("a", "b"));
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void projectionNullSafe() throws Exception {
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.setVariable("list", Arrays.asList("a", "bb"));
+		expression = parser.parseExpression("#list?.![length()]");
+		assertThat(expression.getValue(context)).isEqualTo(Arrays.asList(1, 2));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context)).isEqualTo(Arrays.asList(1, 2));
+		context.setVariable("list", null);
+		assertThat(expression.getValue(context)).isNull();
+	}
+
+	@Test
+	public void selection() throws Exception {
+		List<String> list = new ArrayList<>(Arrays.asList("a", "bb", "ccc", "dd"));
+		expression = parser.parseExpression("?[length() == 2]");
+		assertThat(expression.getValue(list)).isEqualTo(Arrays.asList("bb", "dd"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(list)).isEqualTo(Arrays.asList("bb", "dd"));
+		assertThat(expression.getValue(Arrays.asList("a"))).isEqualTo(Collections.emptyList());
+
+		expression = parser.parseExpression("^[length() == 2]");
+		assertThat(expression.getValue(list)).isEqualTo("bb");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(list)).isEqualTo("bb");
+		assertThat(expression.getValue(Arrays.asList("a"))).isNull();
+
+		expression = parser.parseExpression("$[#this.length() == 2]");
+		assertThat(expression.getValue(list)).isEqualTo("dd");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(list)).isEqualTo("dd");
+		assertThat(expression.getValue(Arrays.asList("a"))).isNull();
+
+		// Selection combined with projection
+		expression = parser.parseExpression("?[length() > 1].![length()]");
+		assertThat(expression.getValue(list)).isEqualTo(Arrays.asList(2, 3, 2));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(list)).isEqualTo(Arrays.asList(2, 3, 2));
+
+		// Non-boolean criteria are not compiled
+		expression = parser.parseExpression("?[length()]");
+		assertThatExceptionOfType(SpelEvaluationException.class).isThrownBy(() -> expression.getValue(list));
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void mixedModeCompileThreshold() throws Exception {
+		SpelParserConfiguration configuration = new SpelParserConfiguration(SpelCompilerMode.MIXED,
+				ClassLoader.getSystemClassLoader(), false, false, Integer.MAX_VALUE, 2);
+		assertThat(configuration.getCompileThreshold()).isEqualTo(2);
+		assertThat(new SpelParserConfiguration().getCompileThreshold())
+				.isEqualTo(SpelParserConfiguration.DEFAULT_COMPILE_THRESHOLD);
+
+		Field f = SpelExpression.class.getDeclaredField("compiledAst");
+		f.setAccessible(true);
+		expression = new SpelExpressionParser(configuration).parseExpression("?[length() == 2].size()");
+		List<String> list = Arrays.asList("a", "bb", "cc");
+		for (int i = 0; i < 2; i++) {
+			assertThat(expression.getValue(list)).isEqualTo(2);
+			assertThat(f.get(expression)).isNull();
+		}
+		assertThat(expression.getValue(list)).isEqualTo(2);
+		assertIsCompiled(expression);
+		assertThat(expression.getValue(list)).isEqualTo(2);
+	}
+
 	@Test
 	public void functionReferenceVarargs_SPR12359() throws Exception {
 		StandardEvaluationContext context = new StandardEvaluationContext();
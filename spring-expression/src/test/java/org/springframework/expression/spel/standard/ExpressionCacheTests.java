@@ -0,0 +1,153 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link ExpressionCache}.
+ */
+class ExpressionCacheTests {
+
+	private final ExpressionCache cache = new ExpressionCache(new SpelExpressionParser(), 2);
+
+
+	@Test
+	void repeatedLookupReturnsCachedExpression() {
+		Expression expression = this.cache.getExpression("1 + 2");
+		assertThat(this.cache.getExpression("1 + 2")).isSameAs(expression);
+		assertThat(this.cache.getHitCount()).isEqualTo(1);
+		assertThat(this.cache.getMissCount()).isEqualTo(1);
+		assertThat(this.cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	void expressionsAreCachedPerScopeAndContext() {
+		Expression expression = this.cache.getExpression("'a'");
+		assertThat(this.cache.getExpression("scope", "'a'", null)).isNotSameAs(expression);
+		assertThat(this.cache.getExpression("'a'", new TemplateParserContext())).isNotSameAs(expression);
+		assertThat(this.cache.getMissCount()).isEqualTo(3);
+	}
+
+	@Test
+	void cacheIsBounded() {
+		this.cache.getExpression("1");
+		this.cache.getExpression("2");
+		Expression third = this.cache.getExpression("3");
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.getEvictionCount()).isEqualTo(1);
+		assertThat(this.cache.getExpression("3")).isSameAs(third);
+		assertThat(this.cache.getMissCount()).isEqualTo(3);
+	}
+
+	@Test
+	void recentlyUsedExpressionIsNotEvicted() {
+		Expression first = this.cache.getExpression("1");
+		Expression second = this.cache.getExpression("2");
+		assertThat(this.cache.getExpression("1")).isSameAs(first);
+		this.cache.getExpression("3");
+		assertThat(this.cache.getEvictionCount()).isEqualTo(1);
+		assertThat(this.cache.getExpression("1")).isSameAs(first);
+		assertThat(this.cache.getExpression("2")).isNotSameAs(second);
+	}
+
+	@Test
+	void hitsDoNotWaitForParsing() throws Exception {
+		CountDownLatch parsing = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		SpelExpressionParser parser = new SpelExpressionParser() {
+			@Override
+			protected SpelExpression doParseExpression(String expressionString, @Nullable ParserContext context) {
+				if (expressionString.equals("'slow'")) {
+					parsing.countDown();
+					try {
+						proceed.await(5, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.doParseExpression(expressionString, context);
+			}
+		};
+		ExpressionCache cache = new ExpressionCache(parser);
+		Expression fast = cache.getExpression("'fast'");
+
+		CompletableFuture<Expression> slow = CompletableFuture.supplyAsync(() -> cache.getExpression("'slow'"));
+		assertThat(parsing.await(5, TimeUnit.SECONDS)).isTrue();
+		try {
+			assertThat(CompletableFuture.supplyAsync(() -> cache.getExpression("'fast'"))
+					.get(5, TimeUnit.SECONDS)).isSameAs(fast);
+			assertThat(slow).isNotDone();
+		}
+		finally {
+			proceed.countDown();
+		}
+		assertThat(slow.get(5, TimeUnit.SECONDS).getValue()).isEqualTo("slow");
+		assertThat(cache.getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void parseFailureIsNotCached() {
+		assertThatExceptionOfType(ParseException.class).isThrownBy(() -> this.cache.getExpression("1 +"));
+		assertThat(this.cache.size()).isEqualTo(0);
+		assertThat(this.cache.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	void compiledCount() {
+		SpelExpression expression = (SpelExpression) this.cache.getExpression("'abc'.length()");
+		Expression template = this.cache.getExpression("#{'a'}-#{'b'}", new TemplateParserContext());
+		assertThat(this.cache.getCompiledCount()).isEqualTo(0);
+
+		expression.getValue();
+		assertThat(expression.compileExpression()).isTrue();
+		assertThat(this.cache.getCompiledCount()).isEqualTo(1);
+
+		template.getValue();
+		assertThat(template).isInstanceOf(CompositeStringExpression.class);
+		for (Expression part : ((CompositeStringExpression) template).getExpressions()) {
+			if (part instanceof SpelExpression) {
+				((SpelExpression) part).compileExpression();
+			}
+		}
+		assertThat(this.cache.getCompiledCount()).isEqualTo(2);
+	}
+
+	@Test
+	void clear() {
+		this.cache.getExpression("1");
+		this.cache.clear();
+		assertThat(this.cache.size()).isEqualTo(0);
+		assertThat(this.cache.getMissCount()).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+/**
+ * Benchmarks for {@link Jackson2JsonEncoder} and {@link Jackson2JsonDecoder},
+ * for single values as well as for streams of values.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonCodecBenchmark {
+
+	@Benchmark
+	public void encodeValue(BenchmarkData data) {
+		DataBuffer buffer = data.encoder.encodeValue(data.values, data.bufferFactory,
+				data.listType, MediaType.APPLICATION_JSON, Collections.emptyMap());
+		DataBufferUtils.release(buffer);
+	}
+
+	@Benchmark
+	public void encodeStream(BenchmarkData data) {
+		data.encoder.encode(Flux.fromIterable(data.values), data.bufferFactory,
+				data.elementType, MediaType.APPLICATION_STREAM_JSON, Collections.emptyMap())
+				.doOnNext(DataBufferUtils::release)
+				.blockLast();
+	}
+
+	@Benchmark
+	public Object decodeValue(BenchmarkData data) {
+		DataBuffer buffer = data.bufferFactory.wrap(data.json);
+		return data.decoder.decode(buffer, data.listType, MediaType.APPLICATION_JSON, Collections.emptyMap());
+	}
+
+	@Benchmark
+	public void decodeStream(BenchmarkData data, Blackhole bh) {
+		int chunkSize = 512;
+		List<DataBuffer> chunks = new ArrayList<>();
+		for (int offset = 0; offset < data.json.length; offset += chunkSize) {
+			int length = Math.min(chunkSize, data.json.length - offset);
+			chunks.add(data.bufferFactory.allocateBuffer(length).write(data.json, offset, length));
+		}
+		data.decoder.decode(Flux.fromIterable(chunks), data.elementType, MediaType.APPLICATION_JSON,
+				Collections.emptyMap())
+				.doOnNext(bh::consume)
+				.blockLast();
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"10", "1000"})
+		public int valueCount;
+
+		public Jackson2JsonEncoder encoder = new Jackson2JsonEncoder();
+
+		public Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+
+		public DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		public ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+
+		public ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, Pojo.class);
+
+		public List<Pojo> values;
+
+		public byte[] json;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.values = new ArrayList<>(this.valueCount);
+			for (int i = 0; i < this.valueCount; i++) {
+				this.values.add(new Pojo("foo" + i, "bar" + i, i));
+			}
+			DataBuffer buffer = this.encoder.encodeValue(this.values, this.bufferFactory,
+					this.listType, MediaType.APPLICATION_JSON, Collections.emptyMap());
+			this.json = new byte[buffer.readableByteCount()];
+			buffer.read(this.json);
+			DataBufferUtils.release(buffer);
+			this.decoder.setMaxInMemorySize(-1);
+		}
+	}
+
+
+	public static class Pojo {
+
+		private String foo;
+
+		private String bar;
+
+		private int count;
+
+		public Pojo() {
+		}
+
+		public Pojo(String foo, String bar, int count) {
+			this.foo = foo;
+			this.bar = bar;
+			this.count = count;
+		}
+
+		public String getFoo() {
+			return this.foo;
+		}
+
+		public void setFoo(String foo) {
+			this.foo = foo;
+		}
+
+		public String getBar() {
+			return this.bar;
+		}
+
+		public void setBar(String bar) {
+			this.bar = bar;
+		}
+
+		public int getCount() {
+			return this.count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonCodecBenchmark.Pojo;
+
+/**
+ * Benchmarks for decoding streams of small and of large elements with
+ * {@link Jackson2JsonDecoder}, with and without
+ * {@link AbstractJackson2Decoder#setDirectDecoding direct decoding}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonDecoderBenchmark {
+
+	@Benchmark
+	public void decodeStream(BenchmarkData data, Blackhole bh) {
+		List<DataBuffer> chunks = new ArrayList<>(data.json.length / data.chunkSize + 1);
+		for (int offset = 0; offset < data.json.length; offset += data.chunkSize) {
+			int length = Math.min(data.chunkSize, data.json.length - offset);
+			chunks.add(data.bufferFactory.allocateBuffer(length).write(data.json, offset, length));
+		}
+		data.decoder.decode(Flux.fromIterable(chunks), data.elementType, MediaType.APPLICATION_JSON,
+				Collections.emptyMap())
+				.doOnNext(bh::consume)
+				.blockLast();
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"false", "true"})
+		public boolean directDecoding;
+
+		/**
+		 * Number of {@link Pojo Pojos} per element: 1 for small elements,
+		 * and more for large elements that span multiple chunks.
+		 */
+		@Param({"1", "500"})
+		public int pojosPerElement;
+
+		@Param({"1000"})
+		public int valueCount;
+
+		@Param({"8192"})
+		public int chunkSize;
+
+		public Jackson2JsonEncoder encoder = new Jackson2JsonEncoder();
+
+		public Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+
+		public DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		public ResolvableType elementType;
+
+		public byte[] json;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			List<Object> values = new ArrayList<>(this.valueCount);
+			for (int i = 0; i < this.valueCount; i++) {
+				if (this.pojosPerElement == 1) {
+					values.add(new Pojo("foo" + i, "bar" + i, i));
+				}
+				else {
+					List<Pojo> element = new ArrayList<>(this.pojosPerElement);
+					for (int j = 0; j < this.pojosPerElement; j++) {
+						element.add(new Pojo("foo" + j, "bar" + j, j));
+					}
+					values.add(new Element(element));
+				}
+			}
+			this.elementType = ResolvableType.forClass(this.pojosPerElement == 1 ? Pojo.class : Element.class);
+			DataBuffer buffer = this.encoder.encodeValue(values, this.bufferFactory,
+					ResolvableType.forClassWithGenerics(List.class, this.elementType),
+					MediaType.APPLICATION_JSON, Collections.emptyMap());
+			this.json = new byte[buffer.readableByteCount()];
+			buffer.read(this.json);
+			DataBufferUtils.release(buffer);
+			this.decoder.setMaxInMemorySize(-1);
+			this.decoder.setDirectDecoding(this.directDecoding);
+		}
+	}
+
+
+	public static class Element {
+
+		private List<Pojo> pojos;
+
+		public Element() {
+		}
+
+		public Element(List<Pojo> pojos) {
+			this.pojos = pojos;
+		}
+
+		public List<Pojo> getPojos() {
+			return this.pojos;
+		}
+
+		public void setPojos(List<Pojo> pojos) {
+			this.pojos = pojos;
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonCodecBenchmark.Pojo;
+
+/**
+ * Benchmarks for encoding a stream of small elements as
+ * {@code application/stream+json} with {@link Jackson2JsonEncoder}, with and
+ * without {@link AbstractJackson2Encoder#setStreamingBatchLatency batching}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonEncoderBenchmark {
+
+	@Benchmark
+	public void encodeStream(BenchmarkData data, Blackhole bh) {
+		data.encoder.encode(Flux.fromIterable(data.values), data.bufferFactory, data.elementType,
+				MediaType.APPLICATION_STREAM_JSON, Collections.emptyMap())
+				.doOnNext(buffer -> {
+					bh.consume(buffer.readableByteCount());
+					DataBufferUtils.release(buffer);
+				})
+				.blockLast();
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		/**
+		 * Batch latency in milliseconds, 0 for one buffer per element.
+		 */
+		@Param({"0", "100"})
+		public long batchLatency;
+
+		@Param({"1000"})
+		public int valueCount;
+
+		public Jackson2JsonEncoder encoder = new Jackson2JsonEncoder();
+
+		public DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		public ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+
+		public List<Pojo> values;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.values = new ArrayList<>(this.valueCount);
+			for (int i = 0; i < this.valueCount; i++) {
+				this.values.add(new Pojo("foo" + i, "bar" + i, i));
+			}
+			this.encoder.setStreamingBatchLatency(Duration.ofMillis(this.batchLatency));
+		}
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Benchmarks for {@link DefaultPartHttpMessageReader} compared to
+ * {@link SynchronossPartHttpMessageReader}, reading a multipart request with
+ * a few form fields and a large file part, and consuming all part content.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class MultipartReaderBenchmark {
+
+	@Benchmark
+	public void readParts(BenchmarkData data, Blackhole bh) {
+		data.reader.read(data.partType, data.request(), Collections.emptyMap())
+				.concatMap(Part::content)
+				.doOnNext(buffer -> {
+					bh.consume(buffer.readableByteCount());
+					DataBufferUtils.release(buffer);
+				})
+				.blockLast();
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		private static final String BOUNDARY = "benchmarkBoundary";
+
+		@Param({"default", "synchronoss"})
+		public String readerType;
+
+		@Param({"1048576", "16777216"})
+		public int fileSize;
+
+		@Param({"8192"})
+		public int chunkSize;
+
+		public DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		public ResolvableType partType = ResolvableType.forClass(Part.class);
+
+		public HttpMessageReader<Part> reader;
+
+		public Path fileStorageDirectory;
+
+		public byte[] body;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			this.fileStorageDirectory = Files.createTempDirectory("MultipartReaderBenchmark");
+			if ("default".equals(this.readerType)) {
+				DefaultPartHttpMessageReader defaultReader = new DefaultPartHttpMessageReader();
+				defaultReader.setFileStorageDirectory(this.fileStorageDirectory);
+				this.reader = defaultReader;
+			}
+			else {
+				this.reader = new SynchronossPartHttpMessageReader();
+			}
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream(this.fileSize + 1024);
+			for (int i = 0; i < 3; i++) {
+				writeString(out, "--" + BOUNDARY + "\r\n" +
+						"Content-Disposition: form-data; name=\"field" + i + "\"\r\n\r\nvalue" + i + "\r\n");
+			}
+			writeString(out, "--" + BOUNDARY + "\r\n" +
+					"Content-Disposition: form-data; name=\"file\"; filename=\"file.bin\"\r\n" +
+					"Content-Type: application/octet-stream\r\n\r\n");
+			byte[] content = new byte[this.fileSize];
+			new Random(42).nextBytes(content);
+			out.write(content);
+			writeString(out, "\r\n--" + BOUNDARY + "--\r\n");
+			this.body = out.toByteArray();
+		}
+
+		@TearDown(Level.Iteration)
+		public void cleanFiles() throws IOException {
+			FileSystemUtils.deleteRecursively(this.fileStorageDirectory);
+			Files.createDirectories(this.fileStorageDirectory);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			FileSystemUtils.deleteRecursively(this.fileStorageDirectory);
+		}
+
+		/**
+		 * Create a request with the multipart body split into chunks, as
+		 * they would be received from the network.
+		 */
+		public ReactiveHttpInputMessage request() {
+			List<DataBuffer> chunks = new ArrayList<>(this.body.length / this.chunkSize + 1);
+			for (int offset = 0; offset < this.body.length; offset += this.chunkSize) {
+				int length = Math.min(this.chunkSize, this.body.length - offset);
+				chunks.add(this.bufferFactory.allocateBuffer(length).write(this.body, offset, length));
+			}
+			HttpHeaders headers = new HttpHeaders();
+			headers.setContentType(new MediaType(MediaType.MULTIPART_FORM_DATA,
+					Collections.singletonMap("boundary", BOUNDARY)));
+			return new ReactiveHttpInputMessage() {
+				@Override
+				public Flux<DataBuffer> getBody() {
+					return Flux.fromIterable(chunks);
+				}
+				@Override
+				public HttpHeaders getHeaders() {
+					return headers;
+				}
+			};
+		}
+
+		private static void writeString(ByteArrayOutputStream out, String string) throws IOException {
+			out.write(string.getBytes(StandardCharsets.US_ASCII));
+		}
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Benchmarks comparing {@link AntPathMatcher} and {@link PathPattern} when
+ * matching request paths against a set of typical mapping patterns.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class PathMatchingBenchmark {
+
+	@Benchmark
+	public void antPathMatcher(BenchmarkData data, Blackhole bh) {
+		for (String path : data.requestPaths) {
+			for (String pattern : data.patterns) {
+				bh.consume(data.antPathMatcher.match(pattern, path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void antPathMatcherExtractVariables(BenchmarkData data, Blackhole bh) {
+		for (String path : data.requestPaths) {
+			for (String pattern : data.patterns) {
+				if (data.antPathMatcher.match(pattern, path)) {
+					bh.consume(data.antPathMatcher.extractUriTemplateVariables(pattern, path));
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void pathPattern(BenchmarkData data, Blackhole bh) {
+		for (String path : data.requestPaths) {
+			PathContainer pathContainer = PathContainer.parsePath(path);
+			for (PathPattern pattern : data.pathPatterns) {
+				bh.consume(pattern.matches(pathContainer));
+			}
+		}
+	}
+
+	@Benchmark
+	public void pathPatternExtractVariables(BenchmarkData data, Blackhole bh) {
+		for (String path : data.requestPaths) {
+			PathContainer pathContainer = PathContainer.parsePath(path);
+			for (PathPattern pattern : data.pathPatterns) {
+				bh.consume(pattern.matchAndExtract(pathContainer));
+			}
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public final String[] patterns = {
+				"/", "/resources/**", "/api/users", "/api/users/{id}", "/api/users/{id}/orders",
+				"/api/users/{id}/orders/{orderId}", "/api/products/*.json", "/api/search/{term:[a-z]+}",
+				"/static/**", "/admin/{section}/settings"};
+
+		public final String[] requestPaths = {
+				"/", "/resources/js/app.js", "/api/users/42", "/api/users/42/orders/7",
+				"/api/products/catalog.json", "/api/search/spring", "/static/css/theme/main.css",
+				"/admin/security/settings", "/not/mapped/at/all"};
+
+		public AntPathMatcher antPathMatcher;
+
+		public List<PathPattern> pathPatterns;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.antPathMatcher = new AntPathMatcher();
+			PathPatternParser parser = new PathPatternParser();
+			this.pathPatterns = new ArrayList<>(this.patterns.length);
+			for (String pattern : this.patterns) {
+				this.pathPatterns.add(parser.parse(pattern));
+			}
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -92,6 +92,30 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 	}
 
 
+	/**
+	 * Set the size of the regions to memory-map file resources with when they
+	 * cannot be transferred with {@link ZeroCopyHttpOutputMessage zero-copy},
+	 * e.g. on Servlet containers or for multiple byte ranges in one response.
+	 * <p>By default this is 0, and files are read into buffers allocated from
+	 * the response's {@code DataBufferFactory}.
+	 * @since 5.2.9
+	 * @see ResourceEncoder#setMappedRegionSize
+	 * @see ResourceRegionEncoder#setMappedRegionSize
+	 */
+	public void setMappedRegionSize(int mappedRegionSize) {
+		this.encoder.setMappedRegionSize(mappedRegionSize);
+		this.regionEncoder.setMappedRegionSize(mappedRegionSize);
+	}
+
+	/**
+	 * Return the {@link #setMappedRegionSize configured} size of memory-mapped regions.
+	 * @since 5.2.9
+	 */
+	public int getMappedRegionSize() {
+		return this.encoder.getMappedRegionSize();
+	}
+
+
 	@Override
 	public boolean canWrite(ResolvableType elementType, @Nullable MediaType mediaType) {
 		return this.encoder.canEncode(elementType, mediaType);
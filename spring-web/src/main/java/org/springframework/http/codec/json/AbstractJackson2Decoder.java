@@ -22,6 +22,7 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
@@ -64,6 +65,8 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 
 	private int maxInMemorySize = 256 * 1024;
 
+	private boolean directDecoding;
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -94,6 +97,35 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		return this.maxInMemorySize;
 	}
 
+	/**
+	 * Whether to deserialize the elements of a JSON stream directly from the
+	 * input bytes of each element, rather than from an intermediate
+	 * {@link TokenBuffer} holding a copy of all of its tokens as produced by
+	 * the non-blocking parser. This avoids per-token allocations as well as
+	 * parsing each element twice.
+	 * <p>Only applies to {@link #decode(Publisher, ResolvableType, MimeType, Map)}
+	 * with textual JSON, falling back on token buffers for other formats such
+	 * as Smile. Note that with this mode, all elements of a stream share the
+	 * same Jackson deserialization context, as with
+	 * {@link ObjectReader#readValues(com.fasterxml.jackson.core.JsonParser)},
+	 * and the elements of a top-level array that are arrays themselves are
+	 * decoded individually, too.
+	 * <p>By default this is set to {@code false}.
+	 * @param directDecoding whether to decode directly from the input bytes
+	 * @since 5.2.9
+	 */
+	public void setDirectDecoding(boolean directDecoding) {
+		this.directDecoding = directDecoding;
+	}
+
+	/**
+	 * Return whether {@link #setDirectDecoding direct decoding} is enabled.
+	 * @since 5.2.9
+	 */
+	public boolean isDirectDecoding() {
+		return this.directDecoding;
+	}
+
 
 	@Override
 	public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
@@ -108,18 +140,22 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
 		ObjectMapper mapper = getObjectMapper();
+		Flux<DataBuffer> processed = processInput(input, elementType, mimeType, hints);
+		ObjectReader reader = getObjectReader(elementType, hints);
+
+		if (this.directDecoding && JsonFactory.FORMAT_NAME_JSON.equals(mapper.getFactory().getFormatName())) {
+			return Jackson2Tokenizer.readValues(processed, mapper.getFactory(), reader, true, getMaxInMemorySize())
+					.doOnNext(value -> logValue(value, hints));
+		}
 
 		boolean forceUseOfBigDecimal = mapper.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
 		if (BigDecimal.class.equals(elementType.getType())) {
 			forceUseOfBigDecimal = true;
 		}
 
-		Flux<DataBuffer> processed = processInput(input, elementType, mimeType, hints);
 		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(processed, mapper.getFactory(), mapper,
 				true, forceUseOfBigDecimal, getMaxInMemorySize());
 
-		ObjectReader reader = getObjectReader(elementType, hints);
-
 		return tokens.handle((tokenBuffer, sink) -> {
 			try {
 				Object value = reader.readValue(tokenBuffer.asParser(getObjectMapper()));
@@ -19,6 +19,7 @@ package org.springframework.http.codec.json;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.nio.charset.Charset;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,11 +29,9 @@ import java.util.Map;
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
@@ -45,6 +44,7 @@ import org.springframework.core.codec.EncodingException;
 import org.springframework.core.codec.Hints;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.HttpMessageEncoder;
@@ -52,7 +52,9 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.MimeType;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Base class providing support methods for Jackson 2.9 encoding. For non-streaming use
@@ -86,6 +88,12 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 
 	private final List<MediaType> streamingMediaTypes = new ArrayList<>(1);
 
+	private final Map<ObjectWriterKey, ObjectWriter> objectWriterCache = new ConcurrentReferenceHashMap<>(64);
+
+	private int streamingBatchSize = 8 * 1024;
+
+	private Duration streamingBatchLatency = Duration.ZERO;
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -107,6 +115,53 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		this.streamingMediaTypes.addAll(mediaTypes);
 	}
 
+	/**
+	 * Configure the number of bytes at which a batch of streamed elements is
+	 * emitted, when {@link #setStreamingBatchLatency batching} is enabled.
+	 * <p>By default this is set to 8K.
+	 * @param byteCount the batch size in bytes
+	 * @since 5.2.9
+	 */
+	public void setStreamingBatchSize(int byteCount) {
+		Assert.isTrue(byteCount > 0, "Batch size must be greater than 0");
+		this.streamingBatchSize = byteCount;
+	}
+
+	/**
+	 * Return the {@link #setStreamingBatchSize configured} batch size.
+	 * @since 5.2.9
+	 */
+	public int getStreamingBatchSize() {
+		return this.streamingBatchSize;
+	}
+
+	/**
+	 * Configure the maximum time that an element of a stream with one of the
+	 * {@link #setStreamingMediaTypes streaming media types} may be held back
+	 * in order to batch it with subsequent elements. Batched elements are
+	 * written into the same buffer, which is emitted (and therefore flushed)
+	 * once it reaches the {@link #setStreamingBatchSize batch size}, or once
+	 * this time has passed since its first element was written. This reduces
+	 * the number of buffers and flushes for high-rate streams, at the expense
+	 * of the given latency.
+	 * <p>By default this is set to {@link Duration#ZERO}, in which case each
+	 * element is emitted in a buffer of its own.
+	 * @param latency the maximum latency of batched elements
+	 * @since 5.2.9
+	 */
+	public void setStreamingBatchLatency(Duration latency) {
+		Assert.notNull(latency, "Latency must not be null");
+		this.streamingBatchLatency = latency;
+	}
+
+	/**
+	 * Return the {@link #setStreamingBatchLatency configured} batch latency.
+	 * @since 5.2.9
+	 */
+	public Duration getStreamingBatchLatency() {
+		return this.streamingBatchLatency;
+	}
+
 
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
@@ -140,20 +195,11 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		else {
 			byte[] separator = streamSeparator(mimeType);
 			if (separator != null) { // streaming
-				try {
-					ObjectWriter writer = createObjectWriter(elementType, mimeType, hints);
-					ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
-					JsonEncoding encoding = getJsonEncoding(mimeType);
-					JsonGenerator generator = getObjectMapper().getFactory().createGenerator(byteBuilder, encoding);
-					SequenceWriter sequenceWriter = writer.writeValues(generator);
-
-					return Flux.from(inputStream)
-							.map(value -> encodeStreamingValue(value, bufferFactory, hints, sequenceWriter, byteBuilder,
-									separator));
-				}
-				catch (IOException ex) {
-					return Flux.error(ex);
-				}
+				ObjectWriter writer = createObjectWriter(elementType, mimeType, hints);
+				JsonEncoding encoding = getJsonEncoding(mimeType);
+				Flux<?> values = Flux.from(inputStream).doOnNext(value -> logValue(hints, value));
+				return Jackson2StreamWriter.write(values, writer, encoding, separator, bufferFactory,
+						this.streamingBatchSize, this.streamingBatchLatency);
 			}
 			else { // non-streaming
 				ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
@@ -171,15 +217,18 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			ResolvableType valueType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
 		ObjectWriter writer = createObjectWriter(valueType, mimeType, hints);
-		ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
 		JsonEncoding encoding = getJsonEncoding(mimeType);
 
 		logValue(hints, value);
 
+		// Serialize straight into the buffer rather than into an intermediate byte array
+		DataBuffer buffer = bufferFactory.allocateBuffer();
+		boolean release = true;
 		try {
-			JsonGenerator generator = getObjectMapper().getFactory().createGenerator(byteBuilder, encoding);
+			JsonGenerator generator = getObjectMapper().getFactory().createGenerator(buffer.asOutputStream(), encoding);
 			writer.writeValue(generator, value);
 			generator.flush();
+			release = false;
 		}
 		catch (InvalidDefinitionException ex) {
 			throw new CodecException("Type definition error: " + ex.getType(), ex);
@@ -188,52 +237,13 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
 		}
 		catch (IOException ex) {
-			throw new IllegalStateException("Unexpected I/O error while writing to byte array builder", ex);
-		}
-
-		byte[] bytes = byteBuilder.toByteArray();
-		DataBuffer buffer = bufferFactory.allocateBuffer(bytes.length);
-		buffer.write(bytes);
-
-		return buffer;
-	}
-
-	private DataBuffer encodeStreamingValue(Object value, DataBufferFactory bufferFactory, @Nullable Map<String, Object> hints,
-			SequenceWriter sequenceWriter, ByteArrayBuilder byteArrayBuilder, byte[] separator) {
-
-		logValue(hints, value);
-
-		try {
-			sequenceWriter.write(value);
-			sequenceWriter.flush();
-		}
-		catch (InvalidDefinitionException ex) {
-			throw new CodecException("Type definition error: " + ex.getType(), ex);
-		}
-		catch (JsonProcessingException ex) {
-			throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
-		}
-		catch (IOException ex) {
-			throw new IllegalStateException("Unexpected I/O error while writing to byte array builder", ex);
+			throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
 		}
-
-		byte[] bytes = byteArrayBuilder.toByteArray();
-		byteArrayBuilder.reset();
-
-		int offset;
-		int length;
-		if (bytes.length > 0 && bytes[0] == ' ') {
-			// SequenceWriter writes an unnecessary space in between values
-			offset = 1;
-			length = bytes.length - 1;
-		}
-		else {
-			offset = 0;
-			length = bytes.length;
+		finally {
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
 		}
-		DataBuffer buffer = bufferFactory.allocateBuffer(length + separator.length);
-		buffer.write(bytes, offset, length);
-		buffer.write(separator);
 
 		return buffer;
 	}
@@ -252,12 +262,11 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 
 		JavaType javaType = getJavaType(valueType.getType(), null);
 		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT) : null);
-		ObjectWriter writer = (jsonView != null ?
-				getObjectMapper().writerWithView(jsonView) : getObjectMapper().writer());
-
-		if (javaType.isContainerType()) {
-			writer = writer.forType(javaType);
-		}
+		ObjectWriter writer = this.objectWriterCache.computeIfAbsent(new ObjectWriterKey(javaType, jsonView), key -> {
+			ObjectWriter objectWriter = (jsonView != null ?
+					getObjectMapper().writerWithView(jsonView) : getObjectMapper().writer());
+			return (javaType.isContainerType() ? objectWriter.forType(javaType) : objectWriter);
+		});
 
 		return customizeWriter(writer, mimeType, valueType, hints);
 	}
@@ -323,4 +332,40 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		return parameter.getMethodAnnotation(annotType);
 	}
 
+
+	/**
+	 * Key for cached {@link ObjectWriter ObjectWriters}: the value type plus
+	 * the JSON view, if any.
+	 */
+	private static final class ObjectWriterKey {
+
+		private final JavaType javaType;
+
+		@Nullable
+		private final Class<?> jsonView;
+
+		ObjectWriterKey(JavaType javaType, @Nullable Class<?> jsonView) {
+			this.javaType = javaType;
+			this.jsonView = jsonView;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ObjectWriterKey)) {
+				return false;
+			}
+			ObjectWriterKey otherKey = (ObjectWriterKey) other;
+			return (this.javaType.equals(otherKey.javaType) &&
+					ObjectUtils.nullSafeEquals(this.jsonView, otherKey.jsonView));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.javaType.hashCode() * 31 + ObjectUtils.nullSafeHashCode(this.jsonView);
+		}
+	}
+
 }
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+
+/**
+ * Writes a stream of values with a single Jackson {@link SequenceWriter},
+ * serializing straight into {@link DataBuffer DataBuffers} allocated from the
+ * given factory rather than into an intermediate byte array. Each value is
+ * followed by a separator, and either emitted in a buffer of its own, or
+ * batched with subsequent values into the same buffer, up to a size and a
+ * latency budget.
+ *
+ * @since 5.2.9
+ */
+final class Jackson2StreamWriter {
+
+	private final DataBufferFactory bufferFactory;
+
+	private final byte[] separator;
+
+	private final SequenceWriter sequenceWriter;
+
+	@Nullable
+	private DataBuffer buffer;
+
+
+	private Jackson2StreamWriter(ObjectWriter objectWriter, JsonEncoding encoding, byte[] separator,
+			DataBufferFactory bufferFactory) throws IOException {
+
+		this.bufferFactory = bufferFactory;
+		this.separator = separator;
+		JsonFactory factory = objectWriter.getFactory();
+		JsonGenerator generator = factory.createGenerator(new BufferOutputStream(), encoding);
+		if (!factory.canHandleBinaryNatively()) {
+			// Values are delimited by the separator, not by the default space between root values
+			generator.setRootValueSeparator(null);
+		}
+		this.sequenceWriter = objectWriter.writeValues(generator);
+	}
+
+
+	/**
+	 * Write the given value, followed by the separator, to the current buffer.
+	 * The current buffer is released if writing fails.
+	 */
+	private void writeValue(Object value) {
+		boolean success = false;
+		try {
+			this.sequenceWriter.write(value);
+			this.sequenceWriter.flush();
+			getBuffer().write(this.separator);
+			success = true;
+		}
+		catch (InvalidDefinitionException ex) {
+			throw new CodecException("Type definition error: " + ex.getType(), ex);
+		}
+		catch (JsonProcessingException ex) {
+			throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
+		}
+		finally {
+			if (!success) {
+				releaseBuffer();
+			}
+		}
+	}
+
+	private DataBuffer getBuffer() {
+		DataBuffer buffer = this.buffer;
+		if (buffer == null) {
+			buffer = this.bufferFactory.allocateBuffer();
+			this.buffer = buffer;
+		}
+		return buffer;
+	}
+
+	private int getBufferedByteCount() {
+		DataBuffer buffer = this.buffer;
+		return (buffer != null ? buffer.readableByteCount() : 0);
+	}
+
+	@Nullable
+	private DataBuffer takeBuffer() {
+		DataBuffer buffer = this.buffer;
+		this.buffer = null;
+		return buffer;
+	}
+
+	private void releaseBuffer() {
+		DataBuffer buffer = takeBuffer();
+		if (buffer != null) {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+
+	/**
+	 * Write the given values to data buffers.
+	 * @param values the values to write
+	 * @param objectWriter the writer to use
+	 * @param encoding the JSON encoding to use
+	 * @param separator the bytes to write after each value
+	 * @param bufferFactory the factory to allocate buffers from
+	 * @param batchSize the number of bytes at which a batch is emitted
+	 * @param batchLatency the maximum time a value can be held back waiting
+	 * for more values to batch with, or {@link Duration#ZERO} to emit a
+	 * buffer for each value
+	 * @return the written data buffers
+	 */
+	static Flux<DataBuffer> write(Publisher<?> values, ObjectWriter objectWriter, JsonEncoding encoding,
+			byte[] separator, DataBufferFactory bufferFactory, int batchSize, Duration batchLatency) {
+
+		return Flux.defer(() -> {
+			Jackson2StreamWriter writer;
+			try {
+				writer = new Jackson2StreamWriter(objectWriter, encoding, separator, bufferFactory);
+			}
+			catch (IOException ex) {
+				return Flux.error(ex);
+			}
+			if (batchLatency.isZero() || batchLatency.isNegative()) {
+				return Flux.from(values).map(value -> {
+					writer.writeValue(value);
+					DataBuffer buffer = writer.takeBuffer();
+					return (buffer != null ? buffer : bufferFactory.allocateBuffer(0));
+				});
+			}
+			return Flux.create(sink -> {
+				BatchingSubscriber subscriber = new BatchingSubscriber(writer, sink, batchSize, batchLatency);
+				sink.onRequest(n -> subscriber.requestValue());
+				sink.onDispose(subscriber::cancelBatch);
+				values.subscribe(subscriber);
+			});
+		});
+	}
+
+
+	/**
+	 * {@link OutputStream} adapter that writes to the current buffer,
+	 * allocating a new one when necessary.
+	 */
+	private final class BufferOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) {
+			getBuffer().write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			if (len > 0) {
+				getBuffer().write(b, off, len);
+			}
+		}
+	}
+
+
+	/**
+	 * Subscriber that writes values into the current buffer, and emits that
+	 * buffer once it reaches the batch size, or once the batch latency has
+	 * passed since its first value was written. Values are requested one at
+	 * a time, and only while there is demand for buffers.
+	 */
+	private static final class BatchingSubscriber extends BaseSubscriber<Object> {
+
+		private final Jackson2StreamWriter writer;
+
+		private final FluxSink<DataBuffer> sink;
+
+		private final int batchSize;
+
+		private final long batchLatencyNanos;
+
+		private final AtomicBoolean requestOutstanding = new AtomicBoolean();
+
+		// Guarded by this
+		@Nullable
+		private Disposable flushTask;
+
+		BatchingSubscriber(Jackson2StreamWriter writer, FluxSink<DataBuffer> sink,
+				int batchSize, Duration batchLatency) {
+
+			this.writer = writer;
+			this.sink = sink;
+			this.batchSize = batchSize;
+			this.batchLatencyNanos = batchLatency.toNanos();
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			requestValue();
+		}
+
+		@Override
+		protected void hookOnNext(Object value) {
+			this.requestOutstanding.set(false);
+			synchronized (this) {
+				if (isDisposed()) {
+					return;
+				}
+				this.writer.writeValue(value);
+				if (this.writer.getBufferedByteCount() >= this.batchSize) {
+					emitBatch();
+				}
+				else if (this.flushTask == null) {
+					this.flushTask = Schedulers.parallel().schedule(
+							this::flushBatch, this.batchLatencyNanos, TimeUnit.NANOSECONDS);
+				}
+			}
+			requestValue();
+		}
+
+		@Override
+		protected void hookOnComplete() {
+			synchronized (this) {
+				emitBatch();
+			}
+			this.sink.complete();
+		}
+
+		@Override
+		protected void hookOnError(Throwable throwable) {
+			cancelBatch();
+			this.sink.error(throwable);
+		}
+
+		void requestValue() {
+			if (upstream() != null && this.sink.requestedFromDownstream() > 0 && !isDisposed() &&
+					this.requestOutstanding.compareAndSet(false, true)) {
+				request(1);
+			}
+		}
+
+		private void flushBatch() {
+			synchronized (this) {
+				this.flushTask = null;
+				emitBatch();
+			}
+		}
+
+		private void emitBatch() {
+			disposeFlushTask();
+			DataBuffer buffer = this.writer.takeBuffer();
+			if (buffer != null) {
+				if (this.sink.isCancelled()) {
+					DataBufferUtils.release(buffer);
+				}
+				else {
+					this.sink.next(buffer);
+				}
+			}
+		}
+
+		void cancelBatch() {
+			dispose();
+			synchronized (this) {
+				disposeFlushTask();
+				this.writer.releaseBuffer();
+			}
+		}
+
+		private void disposeFlushTask() {
+			Disposable flushTask = this.flushTask;
+			if (flushTask != null) {
+				flushTask.dispose();
+				this.flushTask = null;
+			}
+		}
+	}
+
+}
@@ -17,7 +17,10 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
@@ -27,22 +30,32 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.async.ByteArrayFeeder;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
 import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 
+import org.springframework.core.codec.CodecException;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
 
 /**
  * {@link Function} to transform a JSON stream of arbitrary size, byte array
  * chunks into a {@code Flux<TokenBuffer>} where each token buffer is a
  * well-formed JSON object.
  *
+ * <p>For textual JSON, {@link #readValues} offers an alternative mode that
+ * deserializes each top-level value (or array element) directly from the
+ * input bytes, without buffering its tokens in a {@code TokenBuffer} first.
+ *
  * @author Arjen Poutsma
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
@@ -50,6 +63,8 @@ import org.springframework.core.io.buffer.DataBufferUtils;
  */
 final class Jackson2Tokenizer {
 
+	private static final byte[] EMPTY_BYTES = new byte[0];
+
 	private final JsonParser parser;
 
 	private final DeserializationContext deserializationContext;
@@ -68,6 +83,8 @@ final class Jackson2Tokenizer {
 
 	private TokenBuffer tokenBuffer;
 
+	private byte[] inputBuffer = EMPTY_BYTES;
+
 
 	// TODO: change to ByteBufferFeeder when supported by Jackson
 	// See https://github.com/FasterXML/jackson-core/issues/478
@@ -90,12 +107,15 @@ final class Jackson2Tokenizer {
 
 	private List<TokenBuffer> tokenize(DataBuffer dataBuffer) {
 		int bufferSize = dataBuffer.readableByteCount();
-		byte[] bytes = new byte[bufferSize];
-		dataBuffer.read(bytes);
+		// The parser has consumed all previous input at this point, so we can reuse its array
+		if (bufferSize > this.inputBuffer.length) {
+			this.inputBuffer = new byte[bufferSize];
+		}
+		dataBuffer.read(this.inputBuffer, 0, bufferSize);
 		DataBufferUtils.release(dataBuffer);
 
 		try {
-			this.inputFeeder.feedInput(bytes, 0, bytes.length);
+			this.inputFeeder.feedInput(this.inputBuffer, 0, bufferSize);
 			List<TokenBuffer> result = parseTokenBufferFlux();
 			assertInMemorySize(bufferSize, result);
 			return result;
@@ -255,4 +275,360 @@ final class Jackson2Tokenizer {
 		}
 	}
 
+	/**
+	 * Split the given {@code Flux<DataBuffer>} into top-level JSON values, or
+	 * into the elements of a top-level array, and deserialize each of them with
+	 * the given reader straight from the input bytes. Compared to
+	 * {@link #tokenize}, this avoids copying every token into a
+	 * {@link TokenBuffer}, as well as parsing every token twice: value
+	 * boundaries are found with a lightweight scan of the JSON structure, while
+	 * the contents of each value are parsed and validated by the reader only.
+	 * <p>Only suitable for UTF-8 encoded, textual JSON.
+	 * @param dataBuffers the source data buffers
+	 * @param jsonFactory the factory to use
+	 * @param objectReader the reader to deserialize each value with
+	 * @param tokenizeArrays if {@code true} and the "top level" JSON object is
+	 * an array, each element is returned individually immediately after it is received
+	 * @param maxInMemorySize maximum memory size
+	 * @return the deserialized values, excluding {@code null} values
+	 * @since 5.2.9
+	 */
+	public static Flux<Object> readValues(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
+			ObjectReader objectReader, boolean tokenizeArrays, int maxInMemorySize) {
+
+		ValueReader valueReader = new ValueReader(jsonFactory, objectReader, tokenizeArrays, maxInMemorySize);
+		return dataBuffers.concatMapIterable(valueReader::read).concatWith(valueReader.endOfInput());
+	}
+
+
+	/**
+	 * Scans the input for the boundaries of top-level values or array elements,
+	 * and reads each complete value with a regular, blocking parser through an
+	 * {@link InputStream} that only ever exposes complete values, so that one
+	 * parser and one deserialization context can be used for the entire stream.
+	 * Input is accumulated in a single growable array, from which the bytes of
+	 * scanned values are discarded when the next buffer arrives.
+	 */
+	private static final class ValueReader {
+
+		private static final byte[] NULL_BYTES = {'n', 'u', 'l', 'l'};
+
+		private final JsonFactory jsonFactory;
+
+		private final ObjectReader objectReader;
+
+		private final boolean tokenizeArrayElements;
+
+		private final int maxInMemorySize;
+
+		private final ValueInputStream valueInputStream = new ValueInputStream();
+
+		@Nullable
+		private MappingIterator<Object> values;
+
+		private byte[] buffer = EMPTY_BYTES;
+
+		// Position of buffer[0] within the overall input
+		private long bufferOffset;
+
+		private int bufferLength;
+
+		// Position of the next byte to scan
+		private long position;
+
+		// Start position of the current value, or -1 in between values
+		private long valueStart = -1;
+
+		private int depth;
+
+		private boolean inString;
+
+		private boolean escaped;
+
+		private boolean inScalar;
+
+		private boolean inTopLevelArray;
+
+		// Whether a comma or the end of the top-level array is expected next
+		private boolean afterArrayElement;
+
+		// Whether another element is expected in the top-level array
+		private boolean afterComma;
+
+		ValueReader(JsonFactory jsonFactory, ObjectReader objectReader, boolean tokenizeArrayElements,
+				int maxInMemorySize) {
+
+			this.jsonFactory = jsonFactory;
+			this.objectReader = objectReader;
+			this.tokenizeArrayElements = tokenizeArrayElements;
+			this.maxInMemorySize = maxInMemorySize;
+		}
+
+		List<Object> read(DataBuffer dataBuffer) {
+			try {
+				int byteCount = dataBuffer.readableByteCount();
+				if (byteCount == 0) {
+					return Collections.emptyList();
+				}
+				ensureCapacity(byteCount);
+				dataBuffer.read(this.buffer, this.bufferLength, byteCount);
+				this.bufferLength += byteCount;
+			}
+			finally {
+				DataBufferUtils.release(dataBuffer);
+			}
+
+			try {
+				List<Object> result = scan();
+				assertInMemorySize();
+				return result;
+			}
+			catch (IOException ex) {
+				throw processException(ex);
+			}
+		}
+
+		Flux<Object> endOfInput() {
+			return Flux.defer(() -> {
+				try {
+					List<Object> result = new ArrayList<>(1);
+					if (this.inScalar) {
+						this.inScalar = false;
+						readValue(this.position, result);
+					}
+					if (this.valueStart != -1 || this.inTopLevelArray) {
+						throw new DecodingException("JSON decoding error: Unexpected end-of-input");
+					}
+					if (this.values != null) {
+						this.values.close();
+					}
+					return Flux.fromIterable(result);
+				}
+				catch (IOException ex) {
+					throw processException(ex);
+				}
+			});
+		}
+
+		/**
+		 * Make room for the given number of bytes, first dropping the bytes
+		 * before the current value, which are not needed anymore.
+		 */
+		private void ensureCapacity(int byteCount) {
+			long retainFrom = (this.valueStart != -1 ? this.valueStart : this.position);
+			int discarded = (int) (retainFrom - this.bufferOffset);
+			if (discarded > 0) {
+				int retained = this.bufferLength - discarded;
+				System.arraycopy(this.buffer, discarded, this.buffer, 0, retained);
+				this.bufferLength = retained;
+				this.bufferOffset = retainFrom;
+			}
+			int required = this.bufferLength + byteCount;
+			if (required > this.buffer.length) {
+				this.buffer = Arrays.copyOf(this.buffer, Math.max(required, this.buffer.length * 2));
+			}
+		}
+
+		private List<Object> scan() throws IOException {
+			List<Object> result = new ArrayList<>();
+			byte[] buffer = this.buffer;
+			int end = this.bufferLength;
+			for (int i = (int) (this.position - this.bufferOffset); i < end; i++) {
+				byte b = buffer[i];
+				if (this.inString) {
+					if (this.escaped) {
+						this.escaped = false;
+					}
+					else if (b == '\\') {
+						this.escaped = true;
+					}
+					else if (b == '"') {
+						this.inString = false;
+						if (this.depth == valueDepth()) {
+							readValue(this.bufferOffset + i + 1, result);
+						}
+					}
+					continue;
+				}
+				if (this.inScalar) {
+					if (!isDelimiter(b)) {
+						continue;
+					}
+					this.inScalar = false;
+					readValue(this.bufferOffset + i, result);
+				}
+				if (this.depth > valueDepth()) {
+					if (b == '"') {
+						this.inString = true;
+					}
+					else if (b == '{' || b == '[') {
+						this.depth++;
+					}
+					else if (b == '}' || b == ']') {
+						this.depth--;
+						if (this.depth == valueDepth()) {
+							readValue(this.bufferOffset + i + 1, result);
+						}
+					}
+					continue;
+				}
+				if (isWhitespace(b) || isByteOrderMark(b, this.bufferOffset + i)) {
+					continue;
+				}
+				if (this.inTopLevelArray) {
+					if (b == ']' && !this.afterComma) {
+						this.inTopLevelArray = false;
+						this.afterArrayElement = false;
+						this.depth = 0;
+						continue;
+					}
+					else if (b == ',' && this.afterArrayElement) {
+						this.afterArrayElement = false;
+						this.afterComma = true;
+						continue;
+					}
+					else if (this.afterArrayElement) {
+						throw unexpectedCharacter(b, "expecting comma to separate Array entries");
+					}
+				}
+				else if (b == '[' && this.tokenizeArrayElements) {
+					this.inTopLevelArray = true;
+					this.depth = 1;
+					continue;
+				}
+				if (b == ',' || b == ']' || b == '}') {
+					throw unexpectedCharacter(b, "expecting a value");
+				}
+				this.valueStart = this.bufferOffset + i;
+				this.afterComma = false;
+				if (b == '{' || b == '[') {
+					this.depth++;
+				}
+				else if (b == '"') {
+					this.inString = true;
+				}
+				else {
+					this.inScalar = true;
+				}
+			}
+			this.position = this.bufferOffset + end;
+			return result;
+		}
+
+		private int valueDepth() {
+			return (this.inTopLevelArray ? 1 : 0);
+		}
+
+		private void readValue(long valueEnd, List<Object> result) throws IOException {
+			long start = this.valueStart;
+			this.valueStart = -1;
+			this.afterArrayElement = this.inTopLevelArray;
+			if (isNull(start, valueEnd)) {
+				return;
+			}
+			this.valueInputStream.setValue(start, valueEnd);
+			if (this.values == null) {
+				this.values = this.objectReader.readValues(this.jsonFactory.createParser(this.valueInputStream));
+			}
+			Object value = this.values.nextValue();
+			if (value != null) {
+				result.add(value);
+			}
+		}
+
+		private boolean isNull(long start, long end) {
+			if (end - start != NULL_BYTES.length) {
+				return false;
+			}
+			int offset = (int) (start - this.bufferOffset);
+			for (int i = 0; i < NULL_BYTES.length; i++) {
+				if (this.buffer[offset + i] != NULL_BYTES[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static boolean isWhitespace(byte b) {
+			return (b == ' ' || b == '\n' || b == '\r' || b == '\t');
+		}
+
+		private static boolean isDelimiter(byte b) {
+			return (isWhitespace(b) || b == ',' || b == ']' || b == '}');
+		}
+
+		private static boolean isByteOrderMark(byte b, long position) {
+			return (position < 3 && (b == (byte) 0xEF || b == (byte) 0xBB || b == (byte) 0xBF));
+		}
+
+		private DecodingException unexpectedCharacter(byte b, String expected) {
+			return new DecodingException("JSON decoding error: Unexpected character ('" + (char) b +
+					"' (code " + b + ")): was " + expected);
+		}
+
+		private void assertInMemorySize() {
+			if (this.maxInMemorySize >= 0 && this.valueStart != -1 &&
+					this.bufferOffset + this.bufferLength - this.valueStart > this.maxInMemorySize) {
+				throw new DataBufferLimitException(
+						"Exceeded limit on max bytes per JSON object: " + this.maxInMemorySize);
+			}
+		}
+
+		private static CodecException processException(IOException ex) {
+			if (ex instanceof InvalidDefinitionException) {
+				JavaType type = ((InvalidDefinitionException) ex).getType();
+				return new CodecException("Type definition error: " + type, ex);
+			}
+			if (ex instanceof JsonProcessingException) {
+				String originalMessage = ((JsonProcessingException) ex).getOriginalMessage();
+				return new DecodingException("JSON decoding error: " + originalMessage, ex);
+			}
+			return new DecodingException("I/O error while parsing input stream", ex);
+		}
+
+
+		/**
+		 * Exposes the bytes of the current value, followed by a space to
+		 * terminate top-level numbers and literals.
+		 */
+		private final class ValueInputStream extends InputStream {
+
+			private long position;
+
+			private long end;
+
+			private boolean separator;
+
+			void setValue(long start, long end) {
+				this.position = start;
+				this.end = end;
+				this.separator = true;
+			}
+
+			@Override
+			public int read() {
+				byte[] b = new byte[1];
+				return (read(b, 0, 1) != -1 ? b[0] & 0xFF : -1);
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				if (len == 0) {
+					return 0;
+				}
+				int count = (int) Math.min(len, this.end - this.position);
+				if (count > 0) {
+					int offset = (int) (this.position - ValueReader.this.bufferOffset);
+					System.arraycopy(ValueReader.this.buffer, offset, b, off, count);
+					this.position += count;
+				}
+				if (count < len && this.separator) {
+					b[off + count++] = ' ';
+					this.separator = false;
+				}
+				return (count > 0 ? count : -1);
+			}
+		}
+	}
+
 }
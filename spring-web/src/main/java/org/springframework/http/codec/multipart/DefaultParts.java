@@ -0,0 +1,369 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+
+/**
+ * Default implementations of {@link Part} and subtypes, as created by the
+ * {@link DefaultPartHttpMessageReader}.
+ *
+ * @since 5.2.9
+ */
+abstract class DefaultParts {
+
+	// Static DataBufferFactory to read from files or wrap bytes[].
+	private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private static final int FILE_BUFFER_SIZE = 8 * 1024;
+
+
+	/**
+	 * Create a new {@link FormFieldPart} with the given parameters.
+	 * @param headers the part headers
+	 * @param value the form field value
+	 * @return the created part
+	 */
+	static FormFieldPart formFieldPart(HttpHeaders headers, String value) {
+		return new DefaultFormFieldPart(headers, value);
+	}
+
+	/**
+	 * Create a new {@link Part} or {@link FilePart} that holds its content
+	 * in memory, depending on whether the headers specify a filename.
+	 * @param headers the part headers
+	 * @param content the part content
+	 * @param blockingOperationScheduler the scheduler for writing the content
+	 * to a file on {@link FilePart#transferTo}
+	 * @return the created part
+	 */
+	static Part inMemoryPart(HttpHeaders headers, byte[] content, Scheduler blockingOperationScheduler) {
+		Content partContent = new InMemoryContent(content, blockingOperationScheduler);
+		return createPart(headers, partContent);
+	}
+
+	/**
+	 * Create a new {@link Part} or {@link FilePart} that holds its content
+	 * in the given file, depending on whether the headers specify a filename.
+	 * @param headers the part headers
+	 * @param file the file that holds the part content
+	 * @param blockingOperationScheduler the scheduler for reading and
+	 * copying the file
+	 * @return the created part
+	 */
+	static Part filePart(HttpHeaders headers, Path file, Scheduler blockingOperationScheduler) {
+		return createPart(headers, new FileContent(file, blockingOperationScheduler));
+	}
+
+	/**
+	 * Create a new {@link Part} or {@link FilePart} that streams the given
+	 * content, depending on whether the headers specify a filename.
+	 * @param headers the part headers
+	 * @param content the part content, which can be consumed only once
+	 * @return the created part
+	 */
+	static Part streamingPart(HttpHeaders headers, Flux<DataBuffer> content) {
+		return createPart(headers, new StreamingContent(content));
+	}
+
+	private static Part createPart(HttpHeaders headers, Content content) {
+		String filename = headers.getContentDisposition().getFilename();
+		if (filename != null) {
+			return new DefaultFilePart(headers, filename, content);
+		}
+		else {
+			return new DefaultPart(headers, content);
+		}
+	}
+
+	/**
+	 * Whether the part with the given headers is a form field, i.e. it has
+	 * no filename, and either no content type or a plain text content type.
+	 */
+	static boolean isFormField(HttpHeaders headers) {
+		MediaType contentType = headers.getContentType();
+		return ((contentType == null || MediaType.TEXT_PLAIN.equalsTypeAndSubtype(contentType)) &&
+				headers.getContentDisposition().getFilename() == null);
+	}
+
+	/**
+	 * Return the charset of the part with the given headers, falling back on
+	 * UTF-8 if the content type does not specify one.
+	 */
+	static Charset getCharset(HttpHeaders headers) {
+		MediaType contentType = headers.getContentType();
+		Charset charset = (contentType != null ? contentType.getCharset() : null);
+		return (charset != null ? charset : StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * Abstract base class for parts.
+	 */
+	private abstract static class AbstractPart implements Part {
+
+		private final HttpHeaders headers;
+
+		AbstractPart(HttpHeaders headers) {
+			Assert.notNull(headers, "HttpHeaders is required");
+			this.headers = headers;
+		}
+
+		@Override
+		public String name() {
+			String name = headers().getContentDisposition().getName();
+			Assert.state(name != null, "No part name available");
+			return name;
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return this.headers;
+		}
+	}
+
+
+	/**
+	 * Default implementation of {@link FormFieldPart}.
+	 */
+	private static class DefaultFormFieldPart extends AbstractPart implements FormFieldPart {
+
+		private final String value;
+
+		DefaultFormFieldPart(HttpHeaders headers, String value) {
+			super(headers);
+			this.value = value;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> Flux.just(bufferFactory.wrap(this.value.getBytes(getCharset(headers())))));
+		}
+
+		@Override
+		public String value() {
+			return this.value;
+		}
+
+		@Override
+		public String toString() {
+			String name = headers().getContentDisposition().getName();
+			return (name != null ? "DefaultFormFieldPart{" + name + "}" : "DefaultFormFieldPart");
+		}
+	}
+
+
+	/**
+	 * Default implementation of {@link Part}.
+	 */
+	private static class DefaultPart extends AbstractPart {
+
+		private final Content content;
+
+		DefaultPart(HttpHeaders headers, Content content) {
+			super(headers);
+			this.content = content;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return this.content.content();
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			return this.content.delete();
+		}
+
+		protected Content getContent() {
+			return this.content;
+		}
+
+		@Override
+		public String toString() {
+			String name = headers().getContentDisposition().getName();
+			return (name != null ? "DefaultPart{" + name + "}" : "DefaultPart");
+		}
+	}
+
+
+	/**
+	 * Default implementation of {@link FilePart}.
+	 */
+	private static final class DefaultFilePart extends DefaultPart implements FilePart {
+
+		private final String filename;
+
+		DefaultFilePart(HttpHeaders headers, String filename, Content content) {
+			super(headers, content);
+			this.filename = filename;
+		}
+
+		@Override
+		public String filename() {
+			return this.filename;
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return getContent().transferTo(dest);
+		}
+
+		@Override
+		public String toString() {
+			ContentDisposition contentDisposition = headers().getContentDisposition();
+			String name = contentDisposition.getName();
+			return (name != null ? "DefaultFilePart{" + name + " (" + this.filename + ")}" :
+					"DefaultFilePart{(" + this.filename + ")}");
+		}
+	}
+
+
+	/**
+	 * Part content abstraction.
+	 */
+	private interface Content {
+
+		Flux<DataBuffer> content();
+
+		Mono<Void> transferTo(Path dest);
+
+		Mono<Void> delete();
+	}
+
+
+	/**
+	 * {@code Content} implementation based on a byte array.
+	 */
+	private static final class InMemoryContent implements Content {
+
+		private final byte[] content;
+
+		private final Scheduler blockingOperationScheduler;
+
+		InMemoryContent(byte[] content, Scheduler blockingOperationScheduler) {
+			this.content = content;
+			this.blockingOperationScheduler = blockingOperationScheduler;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> Flux.just(bufferFactory.wrap(this.content)));
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return Mono.fromCallable(() -> Files.write(dest, this.content))
+					.subscribeOn(this.blockingOperationScheduler)
+					.then();
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			return Mono.empty();
+		}
+	}
+
+
+	/**
+	 * {@code Content} implementation based on a file.
+	 */
+	private static final class FileContent implements Content {
+
+		private final Path file;
+
+		private final Scheduler blockingOperationScheduler;
+
+		FileContent(Path file, Scheduler blockingOperationScheduler) {
+			this.file = file;
+			this.blockingOperationScheduler = blockingOperationScheduler;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return DataBufferUtils.readByteChannel(
+					() -> Files.newByteChannel(this.file, StandardOpenOption.READ), bufferFactory, FILE_BUFFER_SIZE)
+					.subscribeOn(this.blockingOperationScheduler);
+		}
+
+		/**
+		 * Move the file to the given destination, so that the temporary file
+		 * does not outlive the transfer.
+		 */
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return Mono.fromCallable(() -> Files.move(this.file, dest, StandardCopyOption.REPLACE_EXISTING))
+					.subscribeOn(this.blockingOperationScheduler)
+					.then();
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			return Mono.fromCallable(() -> Files.deleteIfExists(this.file))
+					.subscribeOn(this.blockingOperationScheduler)
+					.then();
+		}
+	}
+
+
+	/**
+	 * {@code Content} implementation that streams the part content as it is
+	 * parsed, and can therefore only be consumed once.
+	 */
+	private static final class StreamingContent implements Content {
+
+		private final Flux<DataBuffer> content;
+
+		StreamingContent(Flux<DataBuffer> content) {
+			this.content = content;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return this.content;
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return DataBufferUtils.write(this.content, dest);
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			return Mono.empty();
+		}
+	}
+
+}
@@ -0,0 +1,601 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.util.context.Context;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+
+/**
+ * Subscribes to a buffer stream containing multipart data, and produces a
+ * stream of {@link Token} instances: a {@link HeadersToken} at the start of
+ * each part, followed by {@link BodyToken BodyTokens} for the part content.
+ *
+ * <p>Buffers are requested from the input one at a time, and only when the
+ * returned token stream has outstanding demand, so that body content flows
+ * through with backpressure and without being aggregated.
+ *
+ * @since 5.2.9
+ */
+final class MultipartParser extends BaseSubscriber<DataBuffer> {
+
+	private static final byte CR = '\r';
+
+	private static final byte LF = '\n';
+
+	private static final byte HYPHEN = '-';
+
+	private static final byte[] CR_LF = {CR, LF};
+
+	private static final byte[] TWO_HYPHENS = {HYPHEN, HYPHEN};
+
+	private static final String HEADER_ENTRY_SEPARATOR = "\\r\\n";
+
+
+	private final AtomicReference<State> state;
+
+	private final AtomicBoolean requestOutstanding = new AtomicBoolean();
+
+	private final FluxSink<Token> sink;
+
+	private final byte[] boundary;
+
+	private final int maxHeadersSize;
+
+	private final Charset headersCharset;
+
+
+	private MultipartParser(FluxSink<Token> sink, byte[] boundary, int maxHeadersSize, Charset headersCharset) {
+		this.sink = sink;
+		this.boundary = boundary;
+		this.maxHeadersSize = maxHeadersSize;
+		this.headersCharset = headersCharset;
+		this.state = new AtomicReference<>(new PreambleState());
+	}
+
+
+	/**
+	 * Parse the given stream of data buffers into a stream of tokens.
+	 * @param buffers the input buffers
+	 * @param boundary the multipart boundary, as found in the {@code Content-Type} header
+	 * @param maxHeadersSize the maximum buffered header size for each part
+	 * @param headersCharset the charset to use for decoding part headers
+	 * @return a stream of parsed tokens
+	 */
+	static Flux<Token> parse(Flux<DataBuffer> buffers, byte[] boundary, int maxHeadersSize, Charset headersCharset) {
+		return Flux.create(sink -> {
+			MultipartParser parser = new MultipartParser(sink, boundary, maxHeadersSize, headersCharset);
+			sink.onCancel(parser::onSinkCancel);
+			sink.onRequest(n -> parser.requestBuffer());
+			buffers.subscribe(parser);
+		});
+	}
+
+
+	@Override
+	public Context currentContext() {
+		return this.sink.currentContext();
+	}
+
+	@Override
+	protected void hookOnSubscribe(Subscription subscription) {
+		requestBuffer();
+	}
+
+	@Override
+	protected void hookOnNext(DataBuffer buffer) {
+		this.requestOutstanding.set(false);
+		this.state.get().onNext(buffer);
+	}
+
+	@Override
+	protected void hookOnComplete() {
+		this.state.get().onComplete();
+	}
+
+	@Override
+	protected void hookOnError(Throwable throwable) {
+		State oldState = this.state.getAndSet(DisposedState.INSTANCE);
+		oldState.dispose();
+		this.sink.error(throwable);
+	}
+
+	private void onSinkCancel() {
+		State oldState = this.state.getAndSet(DisposedState.INSTANCE);
+		oldState.dispose();
+		cancel();
+	}
+
+	/**
+	 * Switch from the given old state to the new state, and continue parsing
+	 * the given remainder, if any, in the new state.
+	 * @return {@code true} if the state was changed; {@code false} if the
+	 * parser had moved on in the meantime, e.g. due to a cancel signal
+	 */
+	private boolean changeState(State oldState, State newState, @Nullable DataBuffer remainder) {
+		if (this.state.compareAndSet(oldState, newState)) {
+			oldState.dispose();
+			if (remainder != null) {
+				if (remainder.readableByteCount() > 0) {
+					newState.onNext(remainder);
+				}
+				else {
+					DataBufferUtils.release(remainder);
+					requestBuffer();
+				}
+			}
+			return true;
+		}
+		else {
+			if (remainder != null) {
+				DataBufferUtils.release(remainder);
+			}
+			return false;
+		}
+	}
+
+	private void emitHeaders(HttpHeaders headers) {
+		this.sink.next(new HeadersToken(headers));
+	}
+
+	private void emitBody(DataBuffer buffer) {
+		this.sink.next(new BodyToken(buffer));
+	}
+
+	private void emitError(Throwable throwable) {
+		cancel();
+		this.sink.error(throwable);
+	}
+
+	private void emitComplete() {
+		cancel();
+		this.sink.complete();
+	}
+
+	private void requestBuffer() {
+		if (upstream() != null && !this.sink.isCancelled() && this.sink.requestedFromDownstream() > 0 &&
+				this.requestOutstanding.compareAndSet(false, true)) {
+			request(1);
+		}
+	}
+
+
+	private static DataBuffer sliceTo(DataBuffer buffer, int index) {
+		int length = index - buffer.readPosition() + 1;
+		return buffer.retainedSlice(buffer.readPosition(), length);
+	}
+
+	private static DataBuffer sliceFrom(DataBuffer buffer, int index) {
+		int position = index + 1;
+		return buffer.retainedSlice(position, buffer.writePosition() - position);
+	}
+
+	private static byte[] concat(byte[]... byteArrays) {
+		int length = 0;
+		for (byte[] byteArray : byteArrays) {
+			length += byteArray.length;
+		}
+		byte[] result = new byte[length];
+		int offset = 0;
+		for (byte[] byteArray : byteArrays) {
+			System.arraycopy(byteArray, 0, result, offset, byteArray.length);
+			offset += byteArray.length;
+		}
+		return result;
+	}
+
+
+	/**
+	 * Represents the output of {@link #parse(Flux, byte[], int, Charset)}.
+	 */
+	abstract static class Token {
+
+		abstract HttpHeaders headers();
+
+		abstract DataBuffer buffer();
+	}
+
+
+	/**
+	 * Represents a token that contains the headers of a part.
+	 */
+	static final class HeadersToken extends Token {
+
+		private final HttpHeaders headers;
+
+		HeadersToken(HttpHeaders headers) {
+			this.headers = headers;
+		}
+
+		@Override
+		HttpHeaders headers() {
+			return this.headers;
+		}
+
+		@Override
+		DataBuffer buffer() {
+			throw new IllegalStateException("Headers token does not contain a buffer");
+		}
+	}
+
+
+	/**
+	 * Represents a token that contains a chunk of the body of a part.
+	 */
+	static final class BodyToken extends Token {
+
+		private final DataBuffer buffer;
+
+		BodyToken(DataBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		HttpHeaders headers() {
+			throw new IllegalStateException("Body token does not contain headers");
+		}
+
+		@Override
+		DataBuffer buffer() {
+			return this.buffer;
+		}
+	}
+
+
+	/**
+	 * Represents the internal state of the {@link MultipartParser}.
+	 * The flow for well-formed multipart messages is shown below:
+	 * <p><pre>
+	 *     PREAMBLE
+	 *         |
+	 *         v
+	 *  +-->HEADERS--->DISPOSED
+	 *  |      |
+	 *  |      v
+	 *  +----BODY
+	 *  </pre>
+	 * For malformed messages the flow ends in DISPOSED with an error signal.
+	 */
+	private interface State {
+
+		void onNext(DataBuffer buffer);
+
+		void onComplete();
+
+		default void dispose() {
+		}
+	}
+
+
+	/**
+	 * The initial state of the parser. Looks for the first boundary of the
+	 * multipart message, discarding anything that comes before it.
+	 */
+	private final class PreambleState implements State {
+
+		private final DataBufferUtils.Matcher firstBoundary;
+
+		PreambleState() {
+			this.firstBoundary = DataBufferUtils.matcher(concat(TWO_HYPHENS, MultipartParser.this.boundary));
+		}
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			int endIdx = this.firstBoundary.match(buffer);
+			if (endIdx != -1) {
+				DataBuffer headersBuffer = sliceFrom(buffer, endIdx);
+				DataBufferUtils.release(buffer);
+				changeState(this, new HeadersState(), headersBuffer);
+			}
+			else {
+				DataBufferUtils.release(buffer);
+				requestBuffer();
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			if (changeState(this, DisposedState.INSTANCE, null)) {
+				emitError(new DecodingException("Could not find first boundary"));
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "PREAMBLE";
+		}
+	}
+
+
+	/**
+	 * The state of the parser after a boundary has been found. Buffers the
+	 * part headers up to the empty line that separates them from the body,
+	 * or detects the end of the multipart message if the boundary is
+	 * followed by two hyphens.
+	 */
+	private final class HeadersState implements State {
+
+		private final DataBufferUtils.Matcher endHeaders = DataBufferUtils.matcher(concat(CR_LF, CR_LF));
+
+		private final List<DataBuffer> buffers = new ArrayList<>();
+
+		private long byteCount;
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			if (isLastBoundary(buffer)) {
+				DataBufferUtils.release(buffer);
+				if (changeState(this, DisposedState.INSTANCE, null)) {
+					emitComplete();
+				}
+				return;
+			}
+			int endIdx = this.endHeaders.match(buffer);
+			if (endIdx != -1) {
+				this.byteCount += endIdx - buffer.readPosition() + 1;
+				if (belowMaxHeaderSize(buffer)) {
+					this.buffers.add(sliceTo(buffer, endIdx));
+					DataBuffer bodyBuffer = sliceFrom(buffer, endIdx);
+					DataBufferUtils.release(buffer);
+					emitHeaders(parseHeaders());
+					changeState(this, new BodyState(), bodyBuffer);
+				}
+			}
+			else {
+				this.byteCount += buffer.readableByteCount();
+				if (belowMaxHeaderSize(buffer)) {
+					this.buffers.add(buffer);
+					requestBuffer();
+				}
+			}
+		}
+
+		/**
+		 * Check whether the given buffer, together with the buffers received
+		 * before it, starts with the two hyphens that end the last boundary.
+		 */
+		private boolean isLastBoundary(DataBuffer buffer) {
+			int readPosition = buffer.readPosition();
+			if (this.buffers.isEmpty()) {
+				return (buffer.readableByteCount() >= 2 &&
+						buffer.getByte(readPosition) == HYPHEN && buffer.getByte(readPosition + 1) == HYPHEN);
+			}
+			if (this.buffers.size() == 1) {
+				DataBuffer previous = this.buffers.get(0);
+				return (previous.readableByteCount() == 1 && previous.getByte(previous.readPosition()) == HYPHEN &&
+						buffer.readableByteCount() >= 1 && buffer.getByte(readPosition) == HYPHEN);
+			}
+			return false;
+		}
+
+		private boolean belowMaxHeaderSize(DataBuffer buffer) {
+			if (this.byteCount <= MultipartParser.this.maxHeadersSize) {
+				return true;
+			}
+			DataBufferUtils.release(buffer);
+			if (changeState(this, DisposedState.INSTANCE, null)) {
+				emitError(new DataBufferLimitException("Part headers exceeded the memory usage limit of " +
+						MultipartParser.this.maxHeadersSize + " bytes"));
+			}
+			return false;
+		}
+
+		/**
+		 * Decode the buffered header lines of the form {@code name: value}.
+		 * The first line, i.e. the remainder of the boundary line, and the
+		 * empty line that terminates the headers do not contain a separator
+		 * and are therefore ignored.
+		 */
+		private HttpHeaders parseHeaders() {
+			int length = 0;
+			for (DataBuffer buffer : this.buffers) {
+				length += buffer.readableByteCount();
+			}
+			byte[] bytes = new byte[length];
+			int offset = 0;
+			for (DataBuffer buffer : this.buffers) {
+				int count = buffer.readableByteCount();
+				buffer.read(bytes, offset, count);
+				offset += count;
+				DataBufferUtils.release(buffer);
+			}
+			this.buffers.clear();
+
+			HttpHeaders result = new HttpHeaders();
+			String[] lines = new String(bytes, MultipartParser.this.headersCharset).split(HEADER_ENTRY_SEPARATOR);
+			for (String line : lines) {
+				int idx = line.indexOf(':');
+				if (idx != -1) {
+					String name = line.substring(0, idx).trim();
+					String value = line.substring(idx + 1).trim();
+					result.add(name, value);
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public void onComplete() {
+			if (changeState(this, DisposedState.INSTANCE, null)) {
+				emitError(new DecodingException("Could not find end of headers"));
+			}
+		}
+
+		@Override
+		public void dispose() {
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+		}
+
+		@Override
+		public String toString() {
+			return "HEADERS";
+		}
+	}
+
+
+	/**
+	 * The state of the parser while reading the body of a part. Emits the
+	 * body content as it arrives, except for the trailing bytes that could be
+	 * the start of the next boundary: those are held back until it is known
+	 * whether they belong to the content or to the delimiter.
+	 */
+	private final class BodyState implements State {
+
+		private final DataBufferUtils.Matcher boundary;
+
+		private final int boundaryLength;
+
+		private final Deque<DataBuffer> queue = new ConcurrentLinkedDeque<>();
+
+		BodyState() {
+			byte[] delimiter = concat(CR_LF, TWO_HYPHENS, MultipartParser.this.boundary);
+			this.boundary = DataBufferUtils.matcher(delimiter);
+			this.boundaryLength = delimiter.length;
+		}
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			int endIdx = this.boundary.match(buffer);
+			if (endIdx != -1) {
+				int length = endIdx - buffer.readPosition() - this.boundaryLength + 1;
+				if (length > 0) {
+					// the delimiter is fully contained in this buffer
+					this.queue.add(buffer.retainedSlice(buffer.readPosition(), length));
+				}
+				else if (length < 0) {
+					// the delimiter started in one of the held back buffers
+					trimQueue(-length);
+				}
+				flush();
+				DataBuffer remainder = sliceFrom(buffer, endIdx);
+				DataBufferUtils.release(buffer);
+				changeState(this, new HeadersState(), remainder);
+			}
+			else {
+				enqueue(buffer);
+				requestBuffer();
+			}
+		}
+
+		/**
+		 * Add the given buffer to the queue, and emit all queued buffers that
+		 * are followed by enough bytes to rule out a partial delimiter.
+		 */
+		private void enqueue(DataBuffer buffer) {
+			this.queue.add(buffer);
+			List<DataBuffer> emit = new ArrayList<>();
+			int length = 0;
+			for (Iterator<DataBuffer> iterator = this.queue.descendingIterator(); iterator.hasNext(); ) {
+				DataBuffer previous = iterator.next();
+				if (length >= this.boundaryLength) {
+					emit.add(0, previous);
+					iterator.remove();
+				}
+				else {
+					length += previous.readableByteCount();
+				}
+			}
+			emit.forEach(MultipartParser.this::emitBody);
+		}
+
+		/**
+		 * Remove the given number of bytes from the end of the queue.
+		 */
+		private void trimQueue(int byteCount) {
+			DataBuffer previous;
+			while (byteCount > 0 && (previous = this.queue.pollLast()) != null) {
+				int length = previous.readableByteCount() - byteCount;
+				if (length > 0) {
+					this.queue.add(previous.retainedSlice(previous.readPosition(), length));
+				}
+				byteCount -= previous.readableByteCount();
+				DataBufferUtils.release(previous);
+			}
+		}
+
+		private void flush() {
+			DataBuffer buffer;
+			while ((buffer = this.queue.poll()) != null) {
+				emitBody(buffer);
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			if (changeState(this, DisposedState.INSTANCE, null)) {
+				emitError(new DecodingException("Could not find end of body"));
+			}
+		}
+
+		@Override
+		public void dispose() {
+			DataBuffer buffer;
+			while ((buffer = this.queue.poll()) != null) {
+				DataBufferUtils.release(buffer);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "BODY";
+		}
+	}
+
+
+	/**
+	 * The state of the parser when finished, either due to seeing the final
+	 * boundary or due to a malformed message. Releases all incoming buffers.
+	 */
+	private static final class DisposedState implements State {
+
+		static final DisposedState INSTANCE = new DisposedState();
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			DataBufferUtils.release(buffer);
+		}
+
+		@Override
+		public void onComplete() {
+		}
+
+		@Override
+		public String toString() {
+			return "DISPOSED";
+		}
+	}
+
+}
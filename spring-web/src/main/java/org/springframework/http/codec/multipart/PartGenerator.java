@@ -0,0 +1,739 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+
+/**
+ * Subscribes to a token stream (i.e. the result of
+ * {@link MultipartParser#parse(Flux, byte[], int, java.nio.charset.Charset)}),
+ * and produces a flux of {@link Part} objects.
+ *
+ * <p>In the default mode, a part is emitted once all of its content has been
+ * received: content up to the in-memory limit is kept in memory, and larger
+ * content is written to a temporary file, using the given scheduler for all
+ * blocking file operations. In streaming mode, a part is emitted as soon as
+ * its headers have been received, and its content is relayed as it arrives.
+ *
+ * @since 5.2.9
+ */
+final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
+
+	private final AtomicReference<State> state = new AtomicReference<>(new InitialState());
+
+	private final AtomicInteger partCount = new AtomicInteger();
+
+	private final AtomicBoolean requestOutstanding = new AtomicBoolean();
+
+	private final FluxSink<Part> sink;
+
+	private final int maxParts;
+
+	private final boolean streaming;
+
+	private final int maxInMemorySize;
+
+	private final long maxDiskUsagePerPart;
+
+	private final Mono<Path> fileStorageDirectory;
+
+	private final Scheduler blockingOperationScheduler;
+
+
+	private PartGenerator(FluxSink<Part> sink, int maxParts, int maxInMemorySize, long maxDiskUsagePerPart,
+			boolean streaming, Mono<Path> fileStorageDirectory, Scheduler blockingOperationScheduler) {
+
+		this.sink = sink;
+		this.maxParts = maxParts;
+		this.maxInMemorySize = maxInMemorySize;
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+		this.streaming = streaming;
+		this.fileStorageDirectory = fileStorageDirectory;
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+
+	/**
+	 * Create parts from the given token stream.
+	 * @param tokens the tokens produced by the {@link MultipartParser}
+	 * @param maxParts the maximum number of parts, or -1 for unlimited
+	 * @param maxInMemorySize the maximum in-memory size per part, or -1 for unlimited
+	 * @param maxDiskUsagePerPart the maximum file size per part, or -1 for unlimited
+	 * @param streaming whether to emit parts as soon as their headers are parsed
+	 * @param fileStorageDirectory the directory for storing parts that exceed
+	 * the in-memory limit
+	 * @param blockingOperationScheduler the scheduler for file operations
+	 * @return a stream of parts
+	 */
+	static Flux<Part> createParts(Flux<MultipartParser.Token> tokens, int maxParts, int maxInMemorySize,
+			long maxDiskUsagePerPart, boolean streaming, Mono<Path> fileStorageDirectory,
+			Scheduler blockingOperationScheduler) {
+
+		return Flux.create(sink -> {
+			PartGenerator generator = new PartGenerator(sink, maxParts, maxInMemorySize, maxDiskUsagePerPart,
+					streaming, fileStorageDirectory, blockingOperationScheduler);
+			sink.onCancel(generator::onSinkCancel);
+			sink.onRequest(n -> generator.requestToken());
+			tokens.subscribe(generator);
+		});
+	}
+
+
+	@Override
+	public Context currentContext() {
+		return this.sink.currentContext();
+	}
+
+	@Override
+	protected void hookOnSubscribe(Subscription subscription) {
+		requestToken();
+	}
+
+	@Override
+	protected void hookOnNext(MultipartParser.Token token) {
+		if (token instanceof MultipartParser.HeadersToken) {
+			State currentState = this.state.get();
+			// finish the previous part, if any
+			if (!currentState.partComplete(false)) {
+				return;
+			}
+			if (tooManyParts()) {
+				return;
+			}
+			newPart(currentState, token.headers());
+		}
+		else {
+			this.state.get().body(token.buffer());
+		}
+	}
+
+	private void newPart(State currentState, HttpHeaders headers) {
+		State newState;
+		if (this.streaming) {
+			newState = new StreamingState(headers);
+		}
+		else if (DefaultParts.isFormField(headers)) {
+			newState = new InMemoryState(headers, true);
+		}
+		else {
+			newState = new InMemoryState(headers, false);
+		}
+		if (changeState(currentState, newState)) {
+			newState.start();
+		}
+	}
+
+	@Override
+	protected void hookOnComplete() {
+		this.state.get().partComplete(true);
+	}
+
+	@Override
+	protected void hookOnError(Throwable throwable) {
+		State oldState = this.state.getAndSet(DisposedState.INSTANCE);
+		oldState.dispose();
+		this.sink.error(throwable);
+	}
+
+	private void onSinkCancel() {
+		State oldState = this.state.getAndSet(DisposedState.INSTANCE);
+		oldState.dispose();
+		cancel();
+	}
+
+	private boolean changeState(State oldState, State newState) {
+		if (this.state.compareAndSet(oldState, newState)) {
+			oldState.dispose();
+			return true;
+		}
+		else {
+			newState.dispose();
+			return false;
+		}
+	}
+
+	private void emitPart(Part part) {
+		this.sink.next(part);
+	}
+
+	private void emitComplete() {
+		this.sink.complete();
+	}
+
+	private void emitError(Throwable throwable) {
+		State oldState = this.state.getAndSet(DisposedState.INSTANCE);
+		oldState.dispose();
+		cancel();
+		this.sink.error(throwable);
+	}
+
+	/**
+	 * Signal that the current token has been fully processed, so that the
+	 * next one can be requested.
+	 */
+	private void tokenProcessed() {
+		this.requestOutstanding.set(false);
+		requestToken();
+	}
+
+	/**
+	 * Request the next token, if the current state has demand for it. At most
+	 * one token is requested or processed at any time.
+	 */
+	private void requestToken() {
+		if (upstream() != null && !this.sink.isCancelled() && this.state.get().hasDemand() &&
+				this.requestOutstanding.compareAndSet(false, true)) {
+			request(1);
+		}
+	}
+
+	private boolean tooManyParts() {
+		int count = this.partCount.incrementAndGet();
+		if (this.maxParts > 0 && count > this.maxParts) {
+			emitError(new DecodingException("Too many parts (" + count + "/" + this.maxParts + " allowed)"));
+			return true;
+		}
+		return false;
+	}
+
+
+	/**
+	 * Represents the internal state of the {@link PartGenerator}. A state is
+	 * responsible for calling {@link #tokenProcessed()} once it is ready for
+	 * the next token.
+	 */
+	private interface State {
+
+		/**
+		 * Invoked when this state becomes the current state for a new part.
+		 */
+		default void start() {
+		}
+
+		/**
+		 * Invoked when a body token has been received.
+		 */
+		void body(DataBuffer buffer);
+
+		/**
+		 * Invoked when all body tokens of the current part have been received,
+		 * i.e. when the next headers token or the completion signal arrives.
+		 * @param finalPart whether there are no more parts to come
+		 * @return {@code true} to continue with the next part; {@code false}
+		 * if the state has terminated the generator
+		 */
+		boolean partComplete(boolean finalPart);
+
+		/**
+		 * Whether this state has demand for more tokens.
+		 */
+		boolean hasDemand();
+
+		default void dispose() {
+		}
+	}
+
+
+	/**
+	 * The initial state of the generator: no headers have been received yet.
+	 */
+	private final class InitialState implements State {
+
+		@Override
+		public void body(DataBuffer buffer) {
+			DataBufferUtils.release(buffer);
+			emitError(new IllegalStateException("Body token not expected"));
+		}
+
+		@Override
+		public boolean partComplete(boolean finalPart) {
+			if (finalPart) {
+				emitComplete();
+			}
+			return true;
+		}
+
+		@Override
+		public boolean hasDemand() {
+			return (sink.requestedFromDownstream() > 0);
+		}
+
+		@Override
+		public String toString() {
+			return "INITIAL";
+		}
+	}
+
+
+	/**
+	 * The state of the generator while it keeps the body of a part in memory.
+	 * Switches to a {@link WritingFileState} once the in-memory limit is
+	 * exceeded, unless the part is a form field, in which case exceeding the
+	 * limit is an error.
+	 */
+	private final class InMemoryState implements State {
+
+		private final HttpHeaders headers;
+
+		private final boolean formField;
+
+		private final List<DataBuffer> content = new ArrayList<>();
+
+		private long byteCount;
+
+		private volatile boolean releaseOnDispose = true;
+
+		InMemoryState(HttpHeaders headers, boolean formField) {
+			this.headers = headers;
+			this.formField = formField;
+		}
+
+		@Override
+		public void start() {
+			tokenProcessed();
+		}
+
+		@Override
+		public void body(DataBuffer buffer) {
+			this.byteCount += buffer.readableByteCount();
+			if (maxInMemorySize == -1 || this.byteCount <= maxInMemorySize) {
+				this.content.add(buffer);
+				tokenProcessed();
+			}
+			else if (this.formField) {
+				DataBufferUtils.release(buffer);
+				emitError(new DataBufferLimitException("Part[" + partCount.get() + "] " +
+						"exceeded the in-memory limit of " + maxInMemorySize + " bytes"));
+			}
+			else {
+				this.content.add(buffer);
+				switchToFile();
+			}
+		}
+
+		private void switchToFile() {
+			WritingFileState newState = new WritingFileState(this.headers, this.byteCount);
+			List<DataBuffer> buffers = new ArrayList<>(this.content);
+			this.content.clear();
+			if (changeState(this, newState)) {
+				newState.start(buffers);
+			}
+			else {
+				buffers.forEach(DataBufferUtils::release);
+			}
+		}
+
+		@Override
+		public boolean partComplete(boolean finalPart) {
+			byte[] bytes = collectContent();
+			if (this.formField) {
+				emitPart(DefaultParts.formFieldPart(this.headers, new String(bytes, DefaultParts.getCharset(this.headers))));
+			}
+			else {
+				emitPart(DefaultParts.inMemoryPart(this.headers, bytes, blockingOperationScheduler));
+			}
+			if (finalPart) {
+				emitComplete();
+			}
+			return true;
+		}
+
+		private byte[] collectContent() {
+			int length = 0;
+			for (DataBuffer buffer : this.content) {
+				length += buffer.readableByteCount();
+			}
+			byte[] bytes = new byte[length];
+			int offset = 0;
+			for (DataBuffer buffer : this.content) {
+				int count = buffer.readableByteCount();
+				buffer.read(bytes, offset, count);
+				offset += count;
+				DataBufferUtils.release(buffer);
+			}
+			this.content.clear();
+			return bytes;
+		}
+
+		@Override
+		public boolean hasDemand() {
+			return (sink.requestedFromDownstream() > 0);
+		}
+
+		@Override
+		public void dispose() {
+			this.content.forEach(DataBufferUtils::release);
+			this.content.clear();
+		}
+
+		@Override
+		public String toString() {
+			return "IN-MEMORY";
+		}
+	}
+
+
+	/**
+	 * The state of the generator while it writes the body of a part to a
+	 * temporary file. Each write is performed on the blocking operation
+	 * scheduler, and the next token is only requested once it has completed.
+	 * The completion signal of the token stream is not subject to demand,
+	 * however: if it arrives during a write, the part is completed as soon
+	 * as the write has finished.
+	 */
+	private final class WritingFileState implements State {
+
+		private final HttpHeaders headers;
+
+		private long byteCount;
+
+		@Nullable
+		private volatile Path file;
+
+		@Nullable
+		private volatile FileChannel channel;
+
+		private volatile boolean writing;
+
+		private volatile boolean finalPart;
+
+		private final AtomicBoolean completed = new AtomicBoolean();
+
+		private volatile boolean disposed;
+
+		WritingFileState(HttpHeaders headers, long byteCount) {
+			this.headers = headers;
+			this.byteCount = byteCount;
+		}
+
+		/**
+		 * Create the temporary file, and write the given buffers to it.
+		 */
+		void start(List<DataBuffer> buffers) {
+			if (exceedsDiskUsage()) {
+				buffers.forEach(DataBufferUtils::release);
+				return;
+			}
+			this.writing = true;
+			fileStorageDirectory
+					.publishOn(blockingOperationScheduler)
+					.map(this::createFile)
+					.subscribe(tempFile -> writeBuffers(buffers), ex -> {
+						buffers.forEach(DataBufferUtils::release);
+						onWriteError(ex);
+					});
+		}
+
+		private Path createFile(Path directory) {
+			try {
+				Path tempFile = Files.createTempFile(directory, null, ".multipart");
+				this.file = tempFile;
+				this.channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+				if (this.disposed) {
+					deleteFile();
+				}
+				return tempFile;
+			}
+			catch (IOException ex) {
+				throw new DecodingException("Could not create temporary file: " + ex.getMessage(), ex);
+			}
+		}
+
+		@Override
+		public void body(DataBuffer buffer) {
+			this.byteCount += buffer.readableByteCount();
+			if (exceedsDiskUsage()) {
+				DataBufferUtils.release(buffer);
+				return;
+			}
+			List<DataBuffer> buffers = new ArrayList<>(1);
+			buffers.add(buffer);
+			this.writing = true;
+			blockingOperationScheduler.schedule(() -> writeBuffers(buffers));
+		}
+
+		private boolean exceedsDiskUsage() {
+			if (maxDiskUsagePerPart > 0 && this.byteCount > maxDiskUsagePerPart) {
+				emitError(new DecodingException("Part[" + partCount.get() + "] " +
+						"exceeded the disk usage limit of " + maxDiskUsagePerPart + " bytes"));
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Write the given buffers to the file. Invoked on the blocking
+		 * operation scheduler.
+		 */
+		private void writeBuffers(List<DataBuffer> buffers) {
+			try {
+				FileChannel channel = this.channel;
+				if (channel == null || this.disposed) {
+					return;
+				}
+				for (DataBuffer buffer : buffers) {
+					ByteBuffer byteBuffer = buffer.asByteBuffer();
+					while (byteBuffer.hasRemaining()) {
+						channel.write(byteBuffer);
+					}
+				}
+			}
+			catch (IOException ex) {
+				onWriteError(new DecodingException("Could not write to temporary file: " + ex.getMessage(), ex));
+				return;
+			}
+			finally {
+				buffers.forEach(DataBufferUtils::release);
+			}
+			this.writing = false;
+			if (this.finalPart) {
+				completePart(true);
+			}
+			else {
+				tokenProcessed();
+			}
+		}
+
+		private void onWriteError(Throwable throwable) {
+			if (!this.disposed) {
+				emitError(throwable);
+			}
+		}
+
+		@Override
+		public boolean partComplete(boolean finalPart) {
+			if (finalPart) {
+				this.finalPart = true;
+				if (this.writing) {
+					return true;
+				}
+			}
+			return completePart(finalPart);
+		}
+
+		private boolean completePart(boolean finalPart) {
+			if (!this.completed.compareAndSet(false, true)) {
+				return true;
+			}
+			Path file = this.file;
+			if (!closeChannel() || file == null) {
+				emitError(new DecodingException("Could not close temporary file"));
+				return false;
+			}
+			emitPart(DefaultParts.filePart(this.headers, file, blockingOperationScheduler));
+			if (finalPart) {
+				emitComplete();
+			}
+			return true;
+		}
+
+		private boolean closeChannel() {
+			FileChannel channel = this.channel;
+			if (channel != null) {
+				this.channel = null;
+				try {
+					channel.close();
+				}
+				catch (IOException ex) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public boolean hasDemand() {
+			return (sink.requestedFromDownstream() > 0);
+		}
+
+		/**
+		 * Invoked when the generator moves on to the next part (in which case
+		 * the file has been closed already) or terminates. In the latter case
+		 * the incomplete file is deleted.
+		 */
+		@Override
+		public void dispose() {
+			this.disposed = true;
+			if (this.channel != null) {
+				deleteFile();
+			}
+		}
+
+		private void deleteFile() {
+			closeChannel();
+			Path file = this.file;
+			if (file != null) {
+				try {
+					Files.deleteIfExists(file);
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "WRITE-FILE";
+		}
+	}
+
+
+	/**
+	 * The state of the generator in streaming mode. The part is emitted on
+	 * {@link #start()}, and its body tokens are relayed to the subscriber of
+	 * its content. Tokens are requested based on the demand for the content,
+	 * or based on the demand for parts if the content was canceled.
+	 */
+	private final class StreamingState implements State {
+
+		private final HttpHeaders headers;
+
+		@Nullable
+		private volatile FluxSink<DataBuffer> bodySink;
+
+		private volatile boolean bodyCanceled;
+
+		private volatile boolean bodyComplete;
+
+		StreamingState(HttpHeaders headers) {
+			this.headers = headers;
+		}
+
+		@Override
+		public void start() {
+			Flux<DataBuffer> content = Flux.create(bodySink -> {
+				if (this.bodySink != null || this.bodyCanceled) {
+					bodySink.error(new IllegalStateException(
+							"The content of a streamed part can only be consumed once"));
+					return;
+				}
+				this.bodySink = bodySink;
+				bodySink.onRequest(n -> requestToken());
+				bodySink.onCancel(() -> {
+					this.bodyCanceled = true;
+					requestToken();
+				});
+			});
+			emitPart(DefaultParts.streamingPart(this.headers, content));
+			tokenProcessed();
+		}
+
+		@Override
+		public void body(DataBuffer buffer) {
+			FluxSink<DataBuffer> bodySink = this.bodySink;
+			if (bodySink != null && !this.bodyCanceled) {
+				bodySink.next(buffer);
+			}
+			else {
+				DataBufferUtils.release(buffer);
+			}
+			tokenProcessed();
+		}
+
+		@Override
+		public boolean partComplete(boolean finalPart) {
+			FluxSink<DataBuffer> bodySink = this.bodySink;
+			this.bodyComplete = true;
+			if (bodySink != null) {
+				bodySink.complete();
+			}
+			if (finalPart) {
+				emitComplete();
+			}
+			return true;
+		}
+
+		@Override
+		public boolean hasDemand() {
+			FluxSink<DataBuffer> bodySink = this.bodySink;
+			if (this.bodyCanceled) {
+				return (sink.requestedFromDownstream() > 0);
+			}
+			return (bodySink != null && bodySink.requestedFromDownstream() > 0);
+		}
+
+		@Override
+		public void dispose() {
+			FluxSink<DataBuffer> bodySink = this.bodySink;
+			if (bodySink != null && !this.bodyCanceled && !this.bodyComplete) {
+				bodySink.error(new DecodingException("Part content was not fully received"));
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "STREAMING";
+		}
+	}
+
+
+	/**
+	 * The state of the generator when finished, either because all parts
+	 * have been emitted, or due to an error or a cancel signal.
+	 */
+	private static final class DisposedState implements State {
+
+		static final DisposedState INSTANCE = new DisposedState();
+
+		@Override
+		public void body(DataBuffer buffer) {
+			DataBufferUtils.release(buffer);
+		}
+
+		@Override
+		public boolean partComplete(boolean finalPart) {
+			return false;
+		}
+
+		@Override
+		public boolean hasDemand() {
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return "DISPOSED";
+		}
+	}
+
+}
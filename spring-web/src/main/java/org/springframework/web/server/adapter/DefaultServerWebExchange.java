@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -96,6 +96,8 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 
 	private volatile boolean notModified;
 
+	private volatile boolean multipartRead;
+
 	private Function<String, String> urlTransformer = url -> url;
 
 	@Nullable
@@ -218,9 +220,29 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 
 	@Override
 	public Mono<MultiValueMap<String, Part>> getMultipartData() {
+		this.multipartRead = true;
 		return this.multipartDataMono;
 	}
 
+	/**
+	 * Delete the storage of all parts, if the {@link #getMultipartData()
+	 * multipart data} has been requested, e.g. temporary files of large parts.
+	 * Invoked once the exchange has been handled.
+	 * @since 5.2.9
+	 * @see Part#delete()
+	 */
+	public Mono<Void> cleanupMultipart() {
+		if (!this.multipartRead) {
+			return Mono.empty();
+		}
+		return getMultipartData()
+				.onErrorResume(ex -> Mono.empty())  // errors are reported to the handler already
+				.flatMapIterable(Map::values)
+				.flatMapIterable(Function.identity())
+				.flatMap(part -> part.delete().onErrorResume(ex -> Mono.empty()))
+				.then();
+	}
+
 	@Override
 	public LocaleContext getLocaleContext() {
 		return this.localeContextResolver.resolveLocaleContext(this);
@@ -235,6 +235,7 @@ public class HttpWebHandlerAdapter extends WebHandlerDecorator implements HttpHa
 		return getDelegate().handle(exchange)
 				.doOnSuccess(aVoid -> logResponse(exchange))
 				.onErrorResume(ex -> handleUnresolvedError(exchange, ex))
+				.then(cleanupMultipart(exchange))
 				.then(Mono.defer(response::setComplete));
 	}
 
@@ -298,6 +299,11 @@ public class HttpWebHandlerAdapter extends WebHandlerDecorator implements HttpHa
 		}
 	}
 
+	private Mono<Void> cleanupMultipart(ServerWebExchange exchange) {
+		return Mono.defer(() -> (exchange instanceof DefaultServerWebExchange ?
+				((DefaultServerWebExchange) exchange).cleanupMultipart() : Mono.empty()));
+	}
+
 	private boolean isDisconnectedClientError(Throwable ex) {
 		String message = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
 		if (message != null) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 
 import org.springframework.beans.CachedIntrospectionResults;
+import org.springframework.core.annotation.AnnotationUtils;
 
 /**
  * Listener that flushes the JDK's {@link java.beans.Introspector JavaBeans Introspector}
@@ -78,7 +79,9 @@ public class IntrospectorCleanupListener implements ServletContextListener {
 
 	@Override
 	public void contextDestroyed(ServletContextEvent event) {
-		CachedIntrospectionResults.clearClassLoader(Thread.currentThread().getContextClassLoader());
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		CachedIntrospectionResults.clearClassLoader(classLoader);
+		AnnotationUtils.clearClassLoader(classLoader);
 		Introspector.flushCaches();
 	}
 
@@ -26,6 +26,7 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRange;
@@ -129,6 +130,49 @@ public class ResourceHttpMessageWriterTests {
 				.verify();
 	}
 
+	@Test
+	public void writeMappedResource() throws Exception {
+		this.writer.setMappedRegionSize(16);
+		assertThat(this.writer.getMappedRegionSize()).isEqualTo(16);
+
+		testWrite(Mono.just(new ClassPathResource("ResourceHttpMessageWriterTests.txt", getClass())),
+				get("/").build());
+
+		assertThat(this.response.getHeaders().getContentLength()).isEqualTo(39L);
+		StepVerifier.create(this.response.getBodyAsString())
+				.expectNext("Spring Framework test resource content.")
+				.expectComplete()
+				.verify();
+	}
+
+	@Test
+	public void writeMappedMultipleRegions() throws Exception {
+		this.writer.setMappedRegionSize(4);
+
+		testWrite(Mono.just(new ClassPathResource("ResourceHttpMessageWriterTests.txt", getClass())),
+				get("/").range(of(7, 15), of(22, 38)).build());
+
+		String boundary = this.response.getHeaders().getContentType().toString().substring(30);
+		StepVerifier.create(this.response.getBodyAsString())
+				.consumeNextWith(content -> {
+					String[] actualRanges = StringUtils.tokenizeToStringArray(content, "\r\n", false, true);
+					String[] expected = new String[] {
+							"--" + boundary,
+							"Content-Type: text/plain",
+							"Content-Range: bytes 7-15/39",
+							"Framework",
+							"--" + boundary,
+							"Content-Type: text/plain",
+							"Content-Range: bytes 22-38/39",
+							"resource content.",
+							"--" + boundary + "--"
+					};
+					assertThat(actualRanges).isEqualTo(expected);
+				})
+				.expectComplete()
+				.verify();
+	}
+
 	@Test
 	public void invalidRange() throws Exception {
 
@@ -140,7 +184,11 @@ public class ResourceHttpMessageWriterTests {
 
 
 	private void testWrite(MockServerHttpRequest request) {
-		Mono<Void> mono = this.writer.write(this.input, null, null, TEXT_PLAIN, request, this.response, HINTS);
+		testWrite(this.input, request);
+	}
+
+	private void testWrite(Mono<Resource> input, MockServerHttpRequest request) {
+		Mono<Void> mono = this.writer.write(input, null, null, TEXT_PLAIN, request, this.response, HINTS);
 		StepVerifier.create(mono).expectComplete().verify();
 	}
 
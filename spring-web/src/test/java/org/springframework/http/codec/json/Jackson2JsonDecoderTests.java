@@ -139,6 +139,56 @@ public class Jackson2JsonDecoderTests extends AbstractDecoderTests<Jackson2JsonD
 	}
 
 
+	@Test
+	public void decodeDirect() {
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+		decoder.setDirectDecoding(true);
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("[{\"bar\":\"b1\",\"fo"),
+				stringBuffer("o\":\"f1\"}, {\"bar\":\"b2\","),
+				stringBuffer("\"foo\":\"f2\"}, null]"));
+
+		StepVerifier.create(decoder.decode(input, forClass(Pojo.class), null, emptyMap()))
+				.expectNext(pojo1)
+				.expectNext(pojo2)
+				.verifyComplete();
+	}
+
+	@Test
+	public void decodeDirectWithJsonView() {
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+		decoder.setDirectDecoding(true);
+		Flux<DataBuffer> input = Flux.from(
+				stringBuffer("{\"withView1\" : \"with\", \"withView2\" : \"with\", \"withoutView\" : \"without\"}"));
+		Map<String, Object> hints = singletonMap(JSON_VIEW_HINT, MyJacksonView1.class);
+
+		StepVerifier.create(decoder.decode(input, forClass(JacksonViewBean.class), null, hints))
+				.consumeNextWith(o -> {
+					JacksonViewBean b = (JacksonViewBean) o;
+					assertThat(b.getWithView1()).isEqualTo("with");
+					assertThat(b.getWithView2()).isNull();
+					assertThat(b.getWithoutView()).isNull();
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	public void decodeDirectInvalidData() {
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+		decoder.setDirectDecoding(true);
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("[{\"bar\":\"b1\",\"foo\":\"f1\"},"),
+				stringBuffer("{\"foo\": 1 2}]"));
+
+		StepVerifier.create(decoder.decode(input, forClass(Pojo.class), null, emptyMap()))
+				.expectNext(pojo1)
+				.verifyError(DecodingException.class);
+
+		input = Flux.from(stringBuffer("{\"property1\":\"foo\",\"property2\":\"bar\"}"));
+		StepVerifier.create(decoder.decode(input, forClass(BeanWithNoDefaultConstructor.class), null, emptyMap()))
+				.verifyError(CodecException.class);
+	}
+
 	@Test
 	public void decodeEmptyArrayToFlux() {
 		Flux<DataBuffer> input = Flux.from(stringBuffer("[]"));
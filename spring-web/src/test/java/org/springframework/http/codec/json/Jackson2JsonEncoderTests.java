@@ -176,6 +176,65 @@ public class Jackson2JsonEncoderTests extends AbstractEncoderTests<Jackson2JsonE
 				barMediaType, null);
 	}
 
+	@Test
+	public void encodeAsStreamWithBatching() {
+		this.encoder.setStreamingBatchLatency(Duration.ofSeconds(5));
+		Flux<Pojo> input = Flux.just(
+				new Pojo("foo", "bar"),
+				new Pojo("foofoo", "barbar"),
+				new Pojo("foofoofoo", "barbarbar")
+		);
+
+		testEncode(input, ResolvableType.forClass(Pojo.class), step -> step
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"bar\"}\n" +
+						"{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n" +
+						"{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}\n")
+						.andThen(DataBufferUtils::release))
+				.verifyComplete(),
+				APPLICATION_STREAM_JSON, null);
+
+		this.encoder.setStreamingBatchSize(40);
+
+		testEncode(input, ResolvableType.forClass(Pojo.class), step -> step
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"bar\"}\n" +
+						"{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n")
+						.andThen(DataBufferUtils::release))
+				.consumeNextWith(expectString("{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}\n")
+						.andThen(DataBufferUtils::release))
+				.verifyComplete(),
+				APPLICATION_STREAM_JSON, null);
+	}
+
+	@Test
+	public void encodeAsStreamWithBatchingFlushesAfterLatency() {
+		this.encoder.setStreamingBatchLatency(Duration.ofMillis(50));
+		Flux<Pojo> input = Flux.just(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar"))
+				.concatWith(Flux.never());
+
+		Flux<DataBuffer> result = this.encoder.encode(input, this.bufferFactory,
+				ResolvableType.forClass(Pojo.class), APPLICATION_STREAM_JSON, Collections.emptyMap());
+
+		StepVerifier.create(result)
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"bar\"}\n" +
+						"{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n")
+						.andThen(DataBufferUtils::release))
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void encodeAsStreamWithBatchingAndError() {
+		this.encoder.setStreamingBatchLatency(Duration.ofSeconds(5));
+		Flux<Pojo> input = Flux.just(new Pojo("foo", "bar"))
+				.concatWith(Flux.error(new IllegalStateException()));
+
+		Flux<DataBuffer> result = this.encoder.encode(input, this.bufferFactory,
+				ResolvableType.forClass(Pojo.class), APPLICATION_STREAM_JSON, Collections.emptyMap());
+
+		StepVerifier.create(result)
+				.verifyError(IllegalStateException.class);
+	}
+
 	@Test
 	public void fieldLevelJsonView() {
 		JacksonViewBean bean = new JacksonViewBean();
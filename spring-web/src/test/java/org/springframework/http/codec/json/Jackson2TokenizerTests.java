@@ -25,6 +25,7 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.json.JSONException;
@@ -187,6 +188,35 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 		testTokenize(asList("[1", ",2,", "3]"), asList("1", "2", "3"), true);
 	}
 
+	@Test
+	public void readValuesOfNestedArrays() {
+		testReadValues(singletonList("[[1,2],[],[3]]"), asList("[1,2]", "[]", "[3]"), true);
+		testReadValues(asList("[[1,", "2]", ",[3]]"), asList("[1,2]", "[3]"), true);
+		testReadValues(singletonList("[[1,2],[3]]"), singletonList("[[1,2],[3]]"), false);
+	}
+
+	@Test
+	public void readValuesOfStrings() {
+		testReadValues(asList("[\"a\\\"", "]\",\"{b}\", \"\\\\\"", ",\"\"]"),
+				asList("\"a\\\"]\"", "\"{b}\"", "\"\\\\\"", "\"\""), true);
+	}
+
+	@Test
+	public void readValuesOfInvalidArray() {
+		StepVerifier.create(readValues(singletonList("[1 2]"), true, -1)).verifyError(DecodingException.class);
+		StepVerifier.create(readValues(singletonList("[1,]"), true, -1)).verifyError(DecodingException.class);
+		StepVerifier.create(readValues(singletonList("[,1]"), true, -1)).verifyError(DecodingException.class);
+		StepVerifier.create(readValues(singletonList("[{\"a\":1}"), true, -1))
+				.expectNext("{\"a\":1}")
+				.verifyError(DecodingException.class);
+	}
+
+	@Test
+	public void readValuesOfValueStream() {
+		testReadValues(asList("{\"id\":1}\n{\"id\"", ":2}\n", " 3 ", "4"),
+				asList("{\"id\":1}", "{\"id\":2}", "3", "4"), true);
+	}
+
 	private void testTokenize(List<String> input, List<String> output, boolean tokenize) {
 		StepVerifier.FirstStep<String> builder = StepVerifier.create(decode(input, tokenize, -1));
 		output.forEach(expected -> builder.assertNext(actual -> {
@@ -200,6 +230,21 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 		builder.verifyComplete();
 	}
 
+	private void testReadValues(List<String> input, List<String> output, boolean tokenize) {
+		StepVerifier.FirstStep<String> builder = StepVerifier.create(readValues(input, tokenize, -1));
+		output.forEach(expected -> builder.assertNext(actual -> assertJsonEquals(expected, actual)));
+		builder.verifyComplete();
+	}
+
+	private static void assertJsonEquals(String expected, String actual) {
+		try {
+			JSONAssert.assertEquals(expected, actual, true);
+		}
+		catch (JSONException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
 	@Test
 	public void testLimit() {
 
@@ -244,6 +289,29 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 				.verifyError(DataBufferLimitException.class);
 	}
 
+	@Test
+	public void testLimitReadValues() {
+
+		List<String> source = asList("[",
+				"{", "\"id\":1,\"name\":\"Dan\"", "},",
+				"{", "\"id\":2,\"name\":\"Ron\"", "},",
+				"{", "\"id\":3,\"name\":\"Bartholomew\"", "}",
+				"]");
+
+		int maxInMemorySize = "{\"id\":3,\"name\":\"Bartholomew\"".length();
+
+		StepVerifier.create(readValues(source, true, maxInMemorySize))
+				.expectNext("{\"id\":1,\"name\":\"Dan\"}")
+				.expectNext("{\"id\":2,\"name\":\"Ron\"}")
+				.expectNext("{\"id\":3,\"name\":\"Bartholomew\"}")
+				.verifyComplete();
+
+		StepVerifier.create(readValues(source, true, maxInMemorySize - 1))
+				.expectNext("{\"id\":1,\"name\":\"Dan\"}")
+				.expectNext("{\"id\":2,\"name\":\"Ron\"}")
+				.verifyError(DataBufferLimitException.class);
+	}
+
 	@Test
 	public void errorInStream() {
 		DataBuffer buffer = stringBuffer("{\"id\":1,\"name\":");
@@ -267,6 +335,17 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 				.verify();
 	}
 
+	@Test
+	public void jsonEOFExceptionIsWrappedAsDecodingErrorWhenReadingValues() {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"status\": \"noClosingQuote}"));
+		Flux<Object> values = Jackson2Tokenizer.readValues(source, this.jsonFactory,
+				this.objectMapper.readerFor(JsonNode.class), false, -1);
+
+		StepVerifier.create(values)
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
 	@ParameterizedTest
 	@ValueSource(booleans = {false, true})
 	public void useBigDecimalForFloats(boolean useBigDecimalForFloats) {
@@ -312,6 +391,23 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 				});
 	}
 
+	private Flux<String> readValues(List<String> source, boolean tokenize, int maxInMemorySize) {
+
+		Flux<Object> values = Jackson2Tokenizer.readValues(
+				Flux.fromIterable(source).map(this::stringBuffer),
+				this.jsonFactory, this.objectMapper.readerFor(JsonNode.class), tokenize, maxInMemorySize);
+
+		return values
+				.map(value -> {
+					try {
+						return this.objectMapper.writeValueAsString(value);
+					}
+					catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				});
+	}
+
 	private DataBuffer stringBuffer(String value) {
 		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
 		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.testfixture.io.buffer.AbstractLeakCheckingTests;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.testfixture.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.core.ResolvableType.forClassWithGenerics;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
+
+/**
+ * Unit tests for {@link DefaultPartHttpMessageReader}.
+ */
+class DefaultPartHttpMessageReaderTests extends AbstractLeakCheckingTests {
+
+	private static final ResolvableType PARTS_ELEMENT_TYPE =
+			forClassWithGenerics(MultiValueMap.class, String.class, Part.class);
+
+	private static final String BOUNDARY = "fooBarBaz";
+
+	private static final String LOREM_IPSUM =
+			"Lorem ipsum dolor sit amet, consectetur adipiscing elit. Integer iaculis metus id vestibulum nullam.";
+
+	private static final String BODY = "--" + BOUNDARY + "\r\n" +
+			"Content-Disposition: form-data; name=\"text\"\r\n" +
+			"\r\n" +
+			"sample-text\r\n" +
+			"--" + BOUNDARY + "\r\n" +
+			"Content-Disposition: form-data; name=\"file\"; filename=\"lorem.txt\"\r\n" +
+			"Content-Type: application/octet-stream\r\n" +
+			"\r\n" +
+			LOREM_IPSUM + "\r\n" +
+			"--" + BOUNDARY + "--\r\n";
+
+
+	private final DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+
+
+	@Test
+	void canRead() {
+		ResolvableType partType = ResolvableType.forClass(Part.class);
+		assertThat(this.partReader.canRead(partType, MediaType.MULTIPART_FORM_DATA)).isTrue();
+		assertThat(this.partReader.canRead(partType, MediaType.MULTIPART_MIXED)).isTrue();
+		assertThat(this.partReader.canRead(partType, null)).isTrue();
+		assertThat(this.partReader.canRead(partType, MediaType.APPLICATION_FORM_URLENCODED)).isFalse();
+		assertThat(this.partReader.canRead(ResolvableType.forClass(Object.class), MULTIPART_FORM_DATA)).isFalse();
+	}
+
+	@Test
+	void resolveParts() {
+		MultiValueMap<String, Part> parts = readParts(request(BODY, 1024));
+		assertParts(parts);
+	}
+
+	@Test
+	void resolvePartsFromSingleByteBuffers() {
+		MultiValueMap<String, Part> parts = readParts(request(BODY, 1));
+		assertParts(parts);
+	}
+
+	@Test
+	void resolvePartsWrittenByMultipartHttpMessageWriter() {
+		MultipartBodyBuilder partsBuilder = new MultipartBodyBuilder();
+		partsBuilder.part("filePart", new ClassPathResource("org/springframework/http/codec/multipart/foo.txt"));
+		partsBuilder.part("textPart", "sample-text");
+
+		MockClientHttpRequest outputMessage = new MockClientHttpRequest(HttpMethod.POST, "/");
+		new MultipartHttpMessageWriter()
+				.write(Mono.just(partsBuilder.build()), null, MediaType.MULTIPART_FORM_DATA, outputMessage, null)
+				.block(Duration.ofSeconds(5));
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.contentType(outputMessage.getHeaders().getContentType())
+				.body(outputMessage.getBody().map(buffer -> this.bufferFactory.wrap(buffer.asByteBuffer())));
+
+		MultiValueMap<String, Part> parts = readParts(request);
+		assertThat(parts).containsOnlyKeys("filePart", "textPart");
+		assertThat(((FilePart) parts.getFirst("filePart")).filename()).isEqualTo("foo.txt");
+		assertThat(content(parts.getFirst("filePart"))).isEqualTo("Lorem Ipsum.");
+		assertThat(((FormFieldPart) parts.getFirst("textPart")).value()).isEqualTo("sample-text");
+	}
+
+	@Test
+	void transferTo() throws IOException {
+		MultiValueMap<String, Part> parts = readParts(request(BODY, 16));
+		FilePart part = (FilePart) parts.getFirst("file");
+		assertThat(part).isNotNull();
+
+		Path dest = Files.createTempFile("DefaultPartHttpMessageReaderTests", ".txt");
+		part.transferTo(dest).block(Duration.ofSeconds(5));
+		assertThat(new String(Files.readAllBytes(dest), UTF_8)).isEqualTo(LOREM_IPSUM);
+		Files.delete(dest);
+	}
+
+	@Test
+	void largeFilePartWrittenToFile() throws IOException {
+		this.partReader.setMaxInMemorySize(20);
+		Path directory = Files.createTempDirectory("DefaultPartHttpMessageReaderTests");
+		this.partReader.setFileStorageDirectory(directory);
+
+		MultiValueMap<String, Part> parts = readParts(request(BODY, 8));
+		assertThat(parts.getFirst("file")).isInstanceOf(FilePart.class);
+		assertThat(content(parts.getFirst("file"))).isEqualTo(LOREM_IPSUM);
+		assertThat(content(parts.getFirst("file"))).isEqualTo(LOREM_IPSUM);
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files.count()).isEqualTo(1);
+		}
+		FileSystemUtils.deleteRecursively(directory);
+	}
+
+	@Test
+	void temporaryFileMovedOnTransfer() throws IOException {
+		this.partReader.setMaxInMemorySize(20);
+		Path directory = Files.createTempDirectory("DefaultPartHttpMessageReaderTests");
+		this.partReader.setFileStorageDirectory(directory);
+		Path dest = Files.createTempFile("DefaultPartHttpMessageReaderTests", ".txt");
+
+		MultiValueMap<String, Part> parts = readParts(request(BODY, 8));
+		((FilePart) parts.getFirst("file")).transferTo(dest).block(Duration.ofSeconds(5));
+		assertThat(new String(Files.readAllBytes(dest), UTF_8)).isEqualTo(LOREM_IPSUM);
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files).isEmpty();
+		}
+		Files.delete(dest);
+		FileSystemUtils.deleteRecursively(directory);
+	}
+
+	@Test
+	void temporaryFileDeleted() throws IOException {
+		this.partReader.setMaxInMemorySize(20);
+		Path directory = Files.createTempDirectory("DefaultPartHttpMessageReaderTests");
+		this.partReader.setFileStorageDirectory(directory);
+
+		MultiValueMap<String, Part> parts = readParts(request(BODY, 8));
+		for (Part part : parts.toSingleValueMap().values()) {
+			part.delete().block(Duration.ofSeconds(5));
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files).isEmpty();
+		}
+		FileSystemUtils.deleteRecursively(directory);
+	}
+
+	@Test
+	void streaming() {
+		this.partReader.setStreaming(true);
+		Flux<String> result = this.partReader.read(ResolvableType.forClass(Part.class), request(BODY, 5), emptyMap())
+				.concatMap(part -> DataBufferUtils.join(part.content())
+						.map(buffer -> {
+							String content = buffer.toString(UTF_8);
+							DataBufferUtils.release(buffer);
+							return part.name() + "=" + content;
+						}));
+
+		StepVerifier.create(result)
+				.expectNext("text=sample-text")
+				.expectNext("file=" + LOREM_IPSUM)
+				.verifyComplete();
+	}
+
+	@Test
+	void partWithoutHeaders() {
+		String body = "--" + BOUNDARY + "\r\n\r\na\r\n--" + BOUNDARY + "--";
+		List<Part> parts = this.partReader.read(ResolvableType.forClass(Part.class), request(body, 3), emptyMap())
+				.collectList()
+				.block(Duration.ofSeconds(5));
+
+		assertThat(parts).hasSize(1);
+		assertThat(parts.get(0).headers().isEmpty()).isTrue();
+		assertThat(content(parts.get(0))).isEqualTo("a");
+	}
+
+	@Test
+	void preambleAndEpilogueIgnored() {
+		String body = "preamble\r\n" + BODY + "epilogue";
+		assertParts(readParts(request(body, 4)));
+	}
+
+	@Test
+	void noBoundary() {
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.header(CONTENT_TYPE, MULTIPART_FORM_DATA.toString())
+				.body(Flux.just(this.bufferFactory.wrap("invalid content".getBytes())));
+
+		StepVerifier.create(this.partReader.read(ResolvableType.forClass(Part.class), request, emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	void noEndBoundary() {
+		String body = "--" + BOUNDARY + "\r\nHeader: Value\r\n\r\na\r\n--" + BOUNDARY;
+		testException(body, reader -> {}, ex -> assertThat(ex)
+				.isInstanceOf(DecodingException.class)
+				.hasMessage("Could not find end of headers"));
+	}
+
+	@Test
+	void tooManyParts() {
+		testException(BODY, reader -> reader.setMaxParts(1), ex -> assertThat(ex)
+				.isInstanceOf(DecodingException.class)
+				.hasMessage("Too many parts (2/1 allowed)"));
+	}
+
+	@Test
+	void formFieldTooBig() {
+		testException(BODY, reader -> reader.setMaxInMemorySize(5), ex -> assertThat(ex)
+				.isInstanceOf(DataBufferLimitException.class)
+				.hasMessage("Part[1] exceeded the in-memory limit of 5 bytes"));
+	}
+
+	@Test
+	void filePartTooBig() {
+		testException(BODY, reader -> {
+			reader.setMaxInMemorySize(20);
+			reader.setMaxDiskUsagePerPart(30);
+		}, ex -> assertThat(ex)
+				.isInstanceOf(DecodingException.class)
+				.hasMessage("Part[2] exceeded the disk usage limit of 30 bytes"));
+	}
+
+	@Test
+	void headersTooBig() {
+		testException(BODY, reader -> reader.setMaxHeadersSize(20), ex -> assertThat(ex)
+				.isInstanceOf(DataBufferLimitException.class)
+				.hasMessage("Part headers exceeded the memory usage limit of 20 bytes"));
+	}
+
+
+	private MultiValueMap<String, Part> readParts(ServerHttpRequest request) {
+		MultipartHttpMessageReader reader = new MultipartHttpMessageReader(this.partReader);
+		MultiValueMap<String, Part> parts =
+				reader.readMono(PARTS_ELEMENT_TYPE, request, emptyMap()).block(Duration.ofSeconds(5));
+		assertThat(parts).isNotNull();
+		return parts;
+	}
+
+	private void assertParts(MultiValueMap<String, Part> parts) {
+		assertThat(parts).containsOnlyKeys("text", "file");
+
+		Part part = parts.getFirst("text");
+		assertThat(part).isInstanceOf(FormFieldPart.class);
+		assertThat(((FormFieldPart) part).value()).isEqualTo("sample-text");
+
+		part = parts.getFirst("file");
+		assertThat(part).isInstanceOf(FilePart.class);
+		assertThat(((FilePart) part).filename()).isEqualTo("lorem.txt");
+		assertThat(part.headers().getContentType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+		assertThat(content(part)).isEqualTo(LOREM_IPSUM);
+	}
+
+	private void testException(String body, Consumer<DefaultPartHttpMessageReader> configurer,
+			Consumer<Throwable> assertions) {
+
+		configurer.accept(this.partReader);
+		StepVerifier.create(this.partReader.read(ResolvableType.forClass(Part.class), request(body, 6), emptyMap()))
+				.thenConsumeWhile(part -> true)
+				.consumeErrorWith(assertions)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	/**
+	 * Create a request for the given multipart body, split into buffers of
+	 * the given size in order to exercise boundaries spanning buffers.
+	 */
+	private ServerHttpRequest request(String body, int bufferSize) {
+		byte[] bytes = body.getBytes(UTF_8);
+		List<byte[]> chunks = new ArrayList<>();
+		for (int offset = 0; offset < bytes.length; offset += bufferSize) {
+			byte[] chunk = new byte[Math.min(bufferSize, bytes.length - offset)];
+			System.arraycopy(bytes, offset, chunk, 0, chunk.length);
+			chunks.add(chunk);
+		}
+		MediaType contentType = new MediaType(MULTIPART_FORM_DATA, singletonMap("boundary", BOUNDARY));
+		return MockServerHttpRequest.post("/")
+				.contentType(contentType)
+				.body(Flux.fromIterable(chunks).map(this.bufferFactory::wrap));
+	}
+
+	private static String content(Part part) {
+		DataBuffer buffer = DataBufferUtils.join(part.content()).block(Duration.ofSeconds(5));
+		assertThat(buffer).isNotNull();
+		String content = buffer.toString(UTF_8);
+		DataBufferUtils.release(buffer);
+		return content;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,25 @@
 
 package org.springframework.web.server.adapter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
 
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
+import org.springframework.http.codec.multipart.MultipartHttpMessageReader;
+import org.springframework.util.FileSystemUtils;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
 import org.springframework.web.server.session.DefaultWebSessionManager;
@@ -57,6 +73,47 @@ public class DefaultServerWebExchangeTests {
 	}
 
 
+	@Test
+	public void multipartStorageDeletedAfterHandling() throws Exception {
+		Path directory = Files.createTempDirectory("DefaultServerWebExchangeTests");
+		DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+		partReader.setMaxInMemorySize(4);
+		partReader.setFileStorageDirectory(directory);
+		ServerCodecConfigurer codecConfigurer = ServerCodecConfigurer.create();
+		codecConfigurer.registerDefaults(false);
+		codecConfigurer.customCodecs().register(new MultipartHttpMessageReader(partReader));
+
+		String body = "--boundary\r\n" +
+				"Content-Disposition: form-data; name=\"file\"; filename=\"file.txt\"\r\n" +
+				"\r\n" +
+				"Lorem ipsum dolor sit amet\r\n" +
+				"--boundary--\r\n";
+		MockServerHttpRequest request = MockServerHttpRequest.post("https://example.com")
+				.contentType(new MediaType(MediaType.MULTIPART_FORM_DATA, Collections.singletonMap("boundary", "boundary")))
+				.body(Mono.just(new DefaultDataBufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+
+		AtomicLong filesDuringHandling = new AtomicLong();
+		HttpWebHandlerAdapter handlerAdapter = new HttpWebHandlerAdapter(exchange -> exchange.getMultipartData()
+				.doOnNext(parts -> {
+					try (Stream<Path> files = Files.list(directory)) {
+						filesDuringHandling.set(files.count());
+					}
+					catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				})
+				.then());
+		handlerAdapter.setCodecConfigurer(codecConfigurer);
+		handlerAdapter.handle(request, new MockServerHttpResponse()).block(Duration.ofSeconds(5));
+
+		assertThat(filesDuringHandling.get()).isEqualTo(1);
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files).isEmpty();
+		}
+		FileSystemUtils.deleteRecursively(directory);
+	}
+
+
 	private DefaultServerWebExchange createExchange() {
 		MockServerHttpRequest request = MockServerHttpRequest.get("https://example.com").build();
 		return createExchange(request);
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.publisher.Mono;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.testfixture.server.MockServerWebExchange;
+
+/**
+ * End-to-end benchmarks for {@link DispatcherHandler} request processing
+ * against annotated controllers, using mock server exchanges.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DispatcherHandlerBenchmark {
+
+	@Benchmark
+	public MockServerWebExchange getWithPathVariable(BenchmarkData data) {
+		return data.dispatch(MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/42")));
+	}
+
+	@Benchmark
+	public MockServerWebExchange getWithRequestParameter(BenchmarkData data) {
+		return data.dispatch(MockServerWebExchange.from(MockServerHttpRequest.get("/api/users?name=spring")));
+	}
+
+	@Benchmark
+	public MockServerWebExchange postJsonBody(BenchmarkData data) {
+		return data.dispatch(MockServerWebExchange.from(MockServerHttpRequest.post("/api/users")
+				.contentType(MediaType.APPLICATION_JSON)
+				.body("{\"name\":\"spring\",\"age\":42}")));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public AnnotationConfigApplicationContext context;
+
+		public DispatcherHandler dispatcherHandler;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.context = new AnnotationConfigApplicationContext(WebConfig.class, UserController.class);
+			this.dispatcherHandler = new DispatcherHandler(this.context);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.context.close();
+		}
+
+		public MockServerWebExchange dispatch(MockServerWebExchange exchange) {
+			this.dispatcherHandler.handle(exchange).block();
+			return exchange;
+		}
+	}
+
+
+	@Configuration
+	@EnableWebFlux
+	static class WebConfig {
+	}
+
+
+	@RestController
+	@RequestMapping("/api/users")
+	static class UserController {
+
+		@GetMapping("/{id}")
+		public Mono<User> getUser(@PathVariable long id) {
+			return Mono.just(new User("user" + id, (int) id));
+		}
+
+		@GetMapping
+		public String findUsers(@RequestParam String name) {
+			return name;
+		}
+
+		@PostMapping
+		public Mono<User> createUser(@RequestBody Mono<User> user) {
+			return user;
+		}
+	}
+
+
+	public static class User {
+
+		private String name;
+
+		private int age;
+
+		public User() {
+		}
+
+		public User(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+	}
+
+}
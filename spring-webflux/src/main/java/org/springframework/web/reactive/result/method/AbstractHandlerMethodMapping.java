@@ -24,11 +24,12 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -37,6 +38,7 @@ import reactor.core.publisher.Mono;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.RequestPath;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -47,6 +49,7 @@ import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.reactive.handler.AbstractHandlerMapping;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
 
 /**
  * Abstract base class for {@link HandlerMapping} implementations that define
@@ -103,13 +106,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 * Return a (read-only) map with all mappings and HandlerMethod's.
 	 */
 	public Map<T, HandlerMethod> getHandlerMethods() {
-		this.mappingRegistry.acquireReadLock();
-		try {
-			return Collections.unmodifiableMap(this.mappingRegistry.getMappings());
-		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
-		}
+		return this.mappingRegistry.getMappings();
 	}
 
 	/**
@@ -281,23 +278,17 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Override
 	public Mono<HandlerMethod> getHandlerInternal(ServerWebExchange exchange) {
-		this.mappingRegistry.acquireReadLock();
+		HandlerMethod handlerMethod;
 		try {
-			HandlerMethod handlerMethod;
-			try {
-				handlerMethod = lookupHandlerMethod(exchange);
-			}
-			catch (Exception ex) {
-				return Mono.error(ex);
-			}
-			if (handlerMethod != null) {
-				handlerMethod = handlerMethod.createWithResolvedBean();
-			}
-			return Mono.justOrEmpty(handlerMethod);
+			handlerMethod = lookupHandlerMethod(exchange);
 		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
+		catch (Exception ex) {
+			return Mono.error(ex);
 		}
+		if (handlerMethod != null) {
+			handlerMethod = handlerMethod.createWithResolvedBean();
+		}
+		return Mono.justOrEmpty(handlerMethod);
 	}
 
 	/**
@@ -311,7 +302,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(ServerWebExchange exchange) throws Exception {
 		List<Match> matches = new ArrayList<>();
-		addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, exchange);
+		MappingSnapshot<T> snapshot = this.mappingRegistry.getSnapshot();
+		RequestPath path = exchange.getRequest().getPath();
+		addMatchingMappings(snapshot.getMappingsByPath(path.pathWithinApplication()), matches, snapshot, exchange);
 
 		if (!matches.isEmpty()) {
 			Comparator<Match> comparator = new MatchComparator(getMappingComparator(exchange));
@@ -328,7 +321,6 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				if (comparator.compare(bestMatch, secondBestMatch) == 0) {
 					Method m1 = bestMatch.handlerMethod.getMethod();
 					Method m2 = secondBestMatch.handlerMethod.getMethod();
-					RequestPath path = exchange.getRequest().getPath();
 					throw new IllegalStateException(
 							"Ambiguous handler methods mapped for '" + path + "': {" + m1 + ", " + m2 + "}");
 				}
@@ -337,15 +329,17 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return bestMatch.handlerMethod;
 		}
 		else {
-			return handleNoMatch(this.mappingRegistry.getMappings().keySet(), exchange);
+			return handleNoMatch(snapshot.getMappings().keySet(), exchange);
 		}
 	}
 
-	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, ServerWebExchange exchange) {
+	private void addMatchingMappings(Collection<T> mappings, List<Match> matches,
+			MappingSnapshot<T> snapshot, ServerWebExchange exchange) {
+
 		for (T mapping : mappings) {
 			T match = getMatchingMapping(mapping, exchange);
 			if (match != null) {
-				matches.add(new Match(match, this.mappingRegistry.getMappings().get(mapping)));
+				matches.add(new Match(match, snapshot.getMappings().get(mapping)));
 			}
 		}
 	}
@@ -412,6 +406,20 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Nullable
 	protected abstract T getMappingForMethod(Method method, Class<?> handlerType);
 
+	/**
+	 * Extract and return the URL path patterns contained in the supplied mapping,
+	 * used to narrow down the mappings to check for a request.
+	 * <p>The default implementation returns an empty set, in which case the
+	 * mapping is checked for any request path.
+	 * @param mapping the mapping to get the patterns for
+	 * @return the path patterns, or an empty set if the mapping does not
+	 * restrict the request path
+	 * @since 5.2.9
+	 */
+	protected Set<PathPattern> getMappingPathPatterns(T mapping) {
+		return Collections.emptySet();
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -445,55 +453,79 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
-		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+		private final ReentrantLock writeLock = new ReentrantLock();
+
+		@Nullable
+		private volatile MappingSnapshot<T> snapshot;
 
 		/**
-		 * Return all mappings and handler methods. Not thread-safe.
-		 * @see #acquireReadLock()
+		 * Return an immutable snapshot of all mappings for lookups, building
+		 * it first if the registrations changed since the last snapshot.
+		 * Thread-safe for concurrent use, without locking once built.
+		 * @since 5.2.9
 		 */
-		public Map<T, HandlerMethod> getMappings() {
-			return this.mappingLookup;
+		MappingSnapshot<T> getSnapshot() {
+			MappingSnapshot<T> snapshot = this.snapshot;
+			if (snapshot == null) {
+				this.writeLock.lock();
+				try {
+					snapshot = this.snapshot;
+					if (snapshot == null) {
+						snapshot = new MappingSnapshot<>(this.mappingLookup, this.registry);
+						this.snapshot = snapshot;
+					}
+				}
+				finally {
+					this.writeLock.unlock();
+				}
+			}
+			return snapshot;
 		}
 
 		/**
-		 * Return CORS configuration. Thread-safe for concurrent use.
+		 * Return all mappings and handler methods. Thread-safe for concurrent use.
 		 */
-		@Nullable
-		public CorsConfiguration getCorsConfiguration(HandlerMethod handlerMethod) {
-			HandlerMethod original = handlerMethod.getResolvedFromHandlerMethod();
-			return this.corsLookup.get(original != null ? original : handlerMethod);
+		public Map<T, HandlerMethod> getMappings() {
+			return getSnapshot().getMappings();
 		}
 
 		/**
-		 * Acquire the read lock when using getMappings and getMappingsByUrl.
+		 * Return the mappings that may match the given lookup path, based on
+		 * the leading segments of their path patterns. Thread-safe for concurrent use.
+		 * @since 5.2.9
 		 */
-		public void acquireReadLock() {
-			this.readWriteLock.readLock().lock();
+		public Collection<T> getMappingsByPath(PathContainer lookupPath) {
+			return getSnapshot().getMappingsByPath(lookupPath);
 		}
 
 		/**
-		 * Release the read lock after using getMappings and getMappingsByUrl.
+		 * Return CORS configuration. Thread-safe for concurrent use.
 		 */
-		public void releaseReadLock() {
-			this.readWriteLock.readLock().unlock();
+		@Nullable
+		public CorsConfiguration getCorsConfiguration(HandlerMethod handlerMethod) {
+			HandlerMethod original = handlerMethod.getResolvedFromHandlerMethod();
+			return this.corsLookup.get(original != null ? original : handlerMethod);
 		}
 
 		public void register(T mapping, Object handler, Method method) {
-			this.readWriteLock.writeLock().lock();
+			this.writeLock.lock();
 			try {
 				HandlerMethod handlerMethod = createHandlerMethod(handler, method);
 				validateMethodMapping(handlerMethod, mapping);
 				this.mappingLookup.put(mapping, handlerMethod);
 
+				Set<List<String>> pathPrefixes = getPathPrefixes(mapping);
+
 				CorsConfiguration corsConfig = initCorsConfiguration(handler, method, mapping);
 				if (corsConfig != null) {
 					this.corsLookup.put(handlerMethod, corsConfig);
 				}
 
-				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod));
+				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod, pathPrefixes));
 			}
 			finally {
-				this.readWriteLock.writeLock().unlock();
+				this.snapshot = null;
+				this.writeLock.unlock();
 			}
 		}
 
@@ -508,8 +540,20 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			}
 		}
 
+		private Set<List<String>> getPathPrefixes(T mapping) {
+			Set<PathPattern> patterns = getMappingPathPatterns(mapping);
+			if (patterns.isEmpty() || getPathPatternParser().getPathOptions().separator() != '/') {
+				return Collections.singleton(Collections.emptyList());
+			}
+			Set<List<String>> prefixes = new LinkedHashSet<>(patterns.size());
+			for (PathPattern pattern : patterns) {
+				prefixes.add(PathSegmentTrie.getPrefix(pattern.getPatternString()));
+			}
+			return prefixes;
+		}
+
 		public void unregister(T mapping) {
-			this.readWriteLock.writeLock().lock();
+			this.writeLock.lock();
 			try {
 				MappingRegistration<T> definition = this.registry.remove(mapping);
 				if (definition == null) {
@@ -520,9 +564,44 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				this.corsLookup.remove(definition.getHandlerMethod());
 			}
 			finally {
-				this.readWriteLock.writeLock().unlock();
+				this.snapshot = null;
+				this.writeLock.unlock();
+			}
+		}
+	}
+
+
+	/**
+	 * Immutable snapshot of the registered mappings, used for lookups without
+	 * locking. A new snapshot is built after mappings are registered or removed.
+	 */
+	private static final class MappingSnapshot<T> {
+
+		private final Map<T, HandlerMethod> mappings;
+
+		private final PathSegmentTrie<T> pathLookup = new PathSegmentTrie<>();
+
+		MappingSnapshot(Map<T, HandlerMethod> mappingLookup, Map<T, MappingRegistration<T>> registry) {
+			this.mappings = Collections.unmodifiableMap(new LinkedHashMap<>(mappingLookup));
+			for (T mapping : this.mappings.keySet()) {
+				MappingRegistration<T> registration = registry.get(mapping);
+				if (registration == null) {
+					this.pathLookup.add(Collections.emptyList(), mapping);
+					continue;
+				}
+				for (List<String> pathPrefix : registration.getPathPrefixes()) {
+					this.pathLookup.add(pathPrefix, mapping);
+				}
 			}
 		}
+
+		public Map<T, HandlerMethod> getMappings() {
+			return this.mappings;
+		}
+
+		public Collection<T> getMappingsByPath(PathContainer lookupPath) {
+			return this.pathLookup.getCandidates(PathSegmentTrie.getPathSegments(lookupPath));
+		}
 	}
 
 
@@ -532,11 +611,14 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final HandlerMethod handlerMethod;
 
-		public MappingRegistration(T mapping, HandlerMethod handlerMethod) {
+		private final Set<List<String>> pathPrefixes;
+
+		public MappingRegistration(T mapping, HandlerMethod handlerMethod, Set<List<String>> pathPrefixes) {
 			Assert.notNull(mapping, "Mapping must not be null");
 			Assert.notNull(handlerMethod, "HandlerMethod must not be null");
 			this.mapping = mapping;
 			this.handlerMethod = handlerMethod;
+			this.pathPrefixes = pathPrefixes;
 		}
 
 		public T getMapping() {
@@ -547,6 +629,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.handlerMethod;
 		}
 
+		public Set<List<String>> getPathPrefixes() {
+			return this.pathPrefixes;
+		}
 	}
 
 
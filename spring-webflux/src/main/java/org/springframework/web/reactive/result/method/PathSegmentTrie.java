@@ -0,0 +1,253 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.result.method;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.PathContainer.PathSegment;
+import org.springframework.lang.Nullable;
+
+/**
+ * Index of mappings by the leading segments of their URL path patterns,
+ * organized as a trie of path segments. Used to narrow down the mappings
+ * to check for a lookup path, without having to go through all of them.
+ *
+ * <p>Each mapping is stored at the node for the leading segments of each of
+ * its patterns, where a literal segment is indexed by its value and a segment
+ * that matches exactly one path segment, such as {@code {id}} or {@code *.json},
+ * is indexed as a wildcard. Indexing stops at the first segment that may match
+ * any number of path segments, such as {@code {*path}}, and never includes the
+ * last segment of a pattern since that may also match with a trailing slash.
+ * Segment keys are case-insensitive, and empty segments are ignored.
+ *
+ * <p>A lookup returns the mappings stored at all nodes along the segments of
+ * the lookup path, i.e. a superset of the mappings that can match it. It is up
+ * to the caller to check the candidates against the actual request.
+ *
+ * <p>This class is not thread-safe for modifications: a trie is meant to be
+ * fully built before it is used for lookups, which may then run concurrently.
+ *
+ * @since 5.2.9
+ * @param <T> the mapping type
+ */
+final class PathSegmentTrie<T> {
+
+	/** Key for segments that match exactly one arbitrary path segment. */
+	static final String WILDCARD = "*";
+
+	private static final char SEPARATOR = '/';
+
+
+	private final Node<T> root = new Node<>();
+
+
+	/**
+	 * Add a mapping for the given leading pattern segments.
+	 * @param prefix the segment keys as returned by {@link #getPrefix(String)}
+	 * @param mapping the mapping to add
+	 */
+	void add(List<String> prefix, T mapping) {
+		Node<T> node = this.root;
+		for (String key : prefix) {
+			node = node.getOrCreateChild(key);
+		}
+		node.mappings.add(mapping);
+	}
+
+	/**
+	 * Return the mappings that may match a lookup path with the given segments.
+	 * @param pathSegments the segment keys as returned by {@link #getPathSegments(PathContainer)}
+	 * @return the candidate mappings, each contained once
+	 */
+	Collection<T> getCandidates(List<String> pathSegments) {
+		List<List<T>> found = new ArrayList<>(pathSegments.size() + 1);
+		collect(this.root, pathSegments, 0, found);
+		if (found.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (found.size() == 1) {
+			return found.get(0);
+		}
+		Set<T> candidates = new LinkedHashSet<>();
+		for (List<T> mappings : found) {
+			candidates.addAll(mappings);
+		}
+		return candidates;
+	}
+
+	private void collect(Node<T> node, List<String> pathSegments, int index, List<List<T>> found) {
+		if (!node.mappings.isEmpty()) {
+			found.add(node.mappings);
+		}
+		if (index < pathSegments.size()) {
+			Node<T> child = (node.literalChildren != null ? node.literalChildren.get(pathSegments.get(index)) : null);
+			if (child != null) {
+				collect(child, pathSegments, index + 1, found);
+			}
+			if (node.wildcardChild != null) {
+				collect(node.wildcardChild, pathSegments, index + 1, found);
+			}
+		}
+	}
+
+
+	/**
+	 * Return the segment keys under which a mapping with the given pattern
+	 * needs to be indexed, see the {@link PathSegmentTrie class description}.
+	 * @param pattern the URL path pattern
+	 * @return the segment keys, possibly empty for the root of the trie
+	 */
+	static List<String> getPrefix(String pattern) {
+		List<String> segments = tokenize(pattern);
+		List<String> prefix = new ArrayList<>(segments.size());
+		for (int i = 0; i < segments.size() - 1; i++) {
+			String segment = segments.get(i);
+			if (segment.contains("**") || segment.startsWith("{*")) {
+				break;
+			}
+			if (isWildcard(segment)) {
+				if (!hasBalancedBraces(segment)) {
+					break;
+				}
+				prefix.add(WILDCARD);
+			}
+			else {
+				prefix.add(toKey(segment));
+			}
+		}
+		return prefix;
+	}
+
+	/**
+	 * Return the segment keys of the given lookup path, based on the
+	 * {@link PathSegment#valueToMatch() values to match} of its segments.
+	 * @param path the lookup path
+	 * @return the segment keys, ignoring empty segments
+	 */
+	static List<String> getPathSegments(PathContainer path) {
+		List<PathContainer.Element> elements = path.elements();
+		List<String> segments = new ArrayList<>(elements.size() / 2 + 1);
+		for (PathContainer.Element element : elements) {
+			if (element instanceof PathSegment) {
+				String value = ((PathSegment) element).valueToMatch();
+				if (!value.isEmpty()) {
+					segments.add(toKey(value));
+				}
+			}
+		}
+		return segments;
+	}
+
+	private static List<String> tokenize(String path) {
+		List<String> segments = new ArrayList<>();
+		int begin = 0;
+		while (begin < path.length()) {
+			int end = path.indexOf(SEPARATOR, begin);
+			if (end == -1) {
+				end = path.length();
+			}
+			if (end > begin) {
+				segments.add(path.substring(begin, end));
+			}
+			begin = end + 1;
+		}
+		return segments;
+	}
+
+	private static boolean isWildcard(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (c == '*' || c == '?' || c == '{' || c == '}') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasBalancedBraces(String segment) {
+		int depth = 0;
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (c == '{') {
+				depth++;
+			}
+			else if (c == '}' && --depth < 0) {
+				return false;
+			}
+		}
+		return (depth == 0);
+	}
+
+	/**
+	 * Return the case-insensitive key for the given segment, with the same
+	 * character equivalence as {@link String#equalsIgnoreCase}.
+	 */
+	static String toKey(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (toKey(c) != c) {
+				char[] chars = segment.toCharArray();
+				for (int j = i; j < chars.length; j++) {
+					chars[j] = toKey(chars[j]);
+				}
+				return new String(chars);
+			}
+		}
+		return segment;
+	}
+
+	private static char toKey(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+
+	/**
+	 * A node of the trie, holding the mappings indexed for its segment path.
+	 */
+	private static final class Node<T> {
+
+		private final List<T> mappings = new ArrayList<>(1);
+
+		@Nullable
+		private Map<String, Node<T>> literalChildren;
+
+		@Nullable
+		private Node<T> wildcardChild;
+
+		Node<T> getOrCreateChild(String key) {
+			if (WILDCARD.equals(key)) {
+				if (this.wildcardChild == null) {
+					this.wildcardChild = new Node<>();
+				}
+				return this.wildcardChild;
+			}
+			if (this.literalChildren == null) {
+				this.literalChildren = new HashMap<>(4);
+			}
+			return this.literalChildren.computeIfAbsent(key, k -> new Node<>());
+		}
+	}
+
+}
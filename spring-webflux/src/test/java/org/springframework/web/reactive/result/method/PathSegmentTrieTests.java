@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.result.method;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.server.PathContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PathSegmentTrie}.
+ */
+class PathSegmentTrieTests {
+
+	private final PathSegmentTrie<String> trie = new PathSegmentTrie<>();
+
+
+	@Test
+	void pathSegments() {
+		assertThat(PathSegmentTrie.getPathSegments(PathContainer.parsePath("/Users//42;v=1/orders")))
+				.containsExactly("users", "42", "orders");
+		assertThat(PathSegmentTrie.getPathSegments(PathContainer.parsePath("/a%2Fb/;v=1"))).containsExactly("a/b");
+	}
+
+	@Test
+	void candidates() {
+		add("/users/{id}", "user");
+		add("/users/{id}/orders/{orderId}", "order");
+		add("/accounts/{id}", "account");
+		add("/{*path}", "fallback");
+
+		assertThat(candidates("/users/42")).containsExactlyInAnyOrder("user", "fallback");
+		assertThat(candidates("/users/42;v=1/orders/7")).containsExactlyInAnyOrder("user", "order", "fallback");
+		assertThat(candidates("/other")).containsExactly("fallback");
+	}
+
+
+	private void add(String pattern, String mapping) {
+		this.trie.add(PathSegmentTrie.getPrefix(pattern), mapping);
+	}
+
+	private Collection<String> candidates(String path) {
+		return this.trie.getCandidates(PathSegmentTrie.getPathSegments(PathContainer.parsePath(path)));
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+import org.springframework.web.testfixture.servlet.MockHttpServletResponse;
+import org.springframework.web.testfixture.servlet.MockServletConfig;
+import org.springframework.web.testfixture.servlet.MockServletContext;
+
+/**
+ * End-to-end benchmarks for {@link DispatcherServlet} request processing
+ * against annotated controllers, using mock Servlet requests.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DispatcherServletBenchmark {
+
+	@Benchmark
+	public MockHttpServletResponse getWithPathVariable(BenchmarkData data) throws Exception {
+		return data.dispatch(new MockHttpServletRequest("GET", "/api/users/42"));
+	}
+
+	@Benchmark
+	public MockHttpServletResponse getWithRequestParameter(BenchmarkData data) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+		request.setParameter("name", "spring");
+		return data.dispatch(request);
+	}
+
+	@Benchmark
+	public MockHttpServletResponse postJsonBody(BenchmarkData data) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users");
+		request.setContentType("application/json");
+		request.setContent(data.jsonBody);
+		return data.dispatch(request);
+	}
+
+	@Benchmark
+	public MockHttpServletResponse notFound(BenchmarkData data) throws Exception {
+		return data.dispatch(new MockHttpServletRequest("GET", "/not/mapped"));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public final byte[] jsonBody = "{\"name\":\"spring\",\"age\":42}".getBytes(StandardCharsets.UTF_8);
+
+		public AnnotationConfigWebApplicationContext context;
+
+		public DispatcherServlet dispatcherServlet;
+
+		@Setup(Level.Trial)
+		public void setup() throws ServletException {
+			this.context = new AnnotationConfigWebApplicationContext();
+			this.context.register(WebConfig.class, UserController.class);
+			this.dispatcherServlet = new DispatcherServlet(this.context);
+			this.dispatcherServlet.init(new MockServletConfig(new MockServletContext(), "dispatcher"));
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.dispatcherServlet.destroy();
+			this.context.close();
+		}
+
+		public MockHttpServletResponse dispatch(MockHttpServletRequest request) throws Exception {
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			this.dispatcherServlet.service(request, response);
+			return response;
+		}
+	}
+
+
+	@Configuration
+	@EnableWebMvc
+	static class WebConfig {
+	}
+
+
+	@RestController
+	@RequestMapping("/api/users")
+	static class UserController {
+
+		@GetMapping("/{id}")
+		public User getUser(@PathVariable long id) {
+			return new User("user" + id, (int) id);
+		}
+
+		@GetMapping
+		public String findUsers(@RequestParam String name) {
+			return name;
+		}
+
+		@PostMapping
+		public User createUser(@RequestBody User user) {
+			return user;
+		}
+	}
+
+
+	public static class User {
+
+		private String name;
+
+		private int age;
+
+		public User() {
+		}
+
+		public User(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+	}
+
+}
@@ -24,11 +24,12 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -44,10 +45,12 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.KotlinDetector;
 import org.springframework.core.MethodIntrospector;
 import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
@@ -150,13 +153,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 * Return a (read-only) map with all mappings and HandlerMethod's.
 	 */
 	public Map<T, HandlerMethod> getHandlerMethods() {
-		this.mappingRegistry.acquireReadLock();
-		try {
-			return Collections.unmodifiableMap(this.mappingRegistry.getMappings());
-		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
-		}
+		return this.mappingRegistry.getMappings();
 	}
 
 	/**
@@ -391,19 +388,11 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		// 获取访问的路径，一般类似于request.getServletPath()，返回不含contextPath的访问路径
 		String lookupPath = getUrlPathHelper().getLookupPathForRequest(request);
 		request.setAttribute(LOOKUP_PATH, lookupPath);
-		// 获得读锁
-		this.mappingRegistry.acquireReadLock();
-		try {
-			// 获取HandlerMethod作为handler对象，这里涉及到路径匹配的优先级
-			// 优先级: 精确匹配>最长路径匹配>扩展名匹配
-			HandlerMethod handlerMethod = lookupHandlerMethod(lookupPath, request);
-			// handlerMethod内部包含有bean对象，其实指的是对应的controller
-			return (handlerMethod != null ? handlerMethod.createWithResolvedBean() : null);
-		}
-		finally {
-			//  释放读锁
-			this.mappingRegistry.releaseReadLock();
-		}
+		// 获取HandlerMethod作为handler对象，这里涉及到路径匹配的优先级
+		// 优先级: 精确匹配>最长路径匹配>扩展名匹配
+		HandlerMethod handlerMethod = lookupHandlerMethod(lookupPath, request);
+		// handlerMethod内部包含有bean对象，其实指的是对应的controller
+		return (handlerMethod != null ? handlerMethod.createWithResolvedBean() : null);
 	}
 
 	/**
@@ -419,16 +408,18 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	protected HandlerMethod lookupHandlerMethod(String lookupPath, HttpServletRequest request) throws Exception {
 		//  Match数组，存储匹配上当前请求的结果（Mapping + HandlerMethod）
 		List<Match> matches = new ArrayList<>();
+		// 获取当前注册信息的快照，整个查找过程都基于同一个快照
+		MappingSnapshot<T> snapshot = this.mappingRegistry.getSnapshot();
 		// 首先根据lookupPath获取到匹配条件
-  		List<T> directPathMatches = this.mappingRegistry.getMappingsByUrl(lookupPath);
+		List<T> directPathMatches = snapshot.getMappingsByUrl(lookupPath);
 		if (directPathMatches != null) {
 			// 将找到的匹配条件添加到matches
-			addMatchingMappings(directPathMatches, matches, request);
+			addMatchingMappings(directPathMatches, matches, snapshot, request);
 		}
-		// 如果不能直接使用lookupPath得到匹配条件，则将所有匹配条件加入matches
+		// 如果不能直接使用lookupPath得到匹配条件，则将路径前缀可能匹配的条件加入matches
 		if (matches.isEmpty()) {
-			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			// Go through the mappings whose patterns may match the lookup path...
+			addMatchingMappings(snapshot.getMappingsByPath(lookupPath), matches, snapshot, request);
 		}
 
 		// 将包含匹配条件和handler的matches排序，并取第一个作为bestMatch，如果前面两个排序相同则抛出异常
@@ -465,18 +456,20 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		}
 		// 如果匹配不到，则处理不匹配的情况
 		else {
-			return handleNoMatch(this.mappingRegistry.getMappings().keySet(), lookupPath, request);
+			return handleNoMatch(snapshot.getMappings().keySet(), lookupPath, request);
 		}
 	}
 
-	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, HttpServletRequest request) {
+	private void addMatchingMappings(Collection<T> mappings, List<Match> matches,
+			MappingSnapshot<T> snapshot, HttpServletRequest request) {
+
 		// 遍历 Mapping 数组
 		for (T mapping : mappings) {
 			// 执行匹配
 			T match = getMatchingMapping(mapping, request);
 			if (match != null) {
 				// 如果匹配，则创建 Match 对象，添加到 matches 中
-				matches.add(new Match(match, this.mappingRegistry.getMappings().get(mapping)));
+				matches.add(new Match(match, snapshot.getMappings().get(mapping)));
 			}
 		}
 	}
@@ -595,14 +588,6 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		 */
 		private final Map<T, HandlerMethod> mappingLookup = new LinkedHashMap<>();
 
-		/**
-		 * 保存url与RequestCondition的对应关系
-		 *
-		 * Key：直接 URL（就是固定死的路径，而非多个）
-		 * Value：Mapping 数组
-		 */
-		private final MultiValueMap<String, T> urlLookup = new LinkedMultiValueMap<>();
-
 		/**
 		 * Mapping 的名字与 HandlerMethod 的映射
 		 *
@@ -614,25 +599,62 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
 		/**
-		 * 读写锁
+		 * 写锁，用于注册、注销以及构建快照
 		 */
-		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+		private final ReentrantLock writeLock = new ReentrantLock();
 
 		/**
-		 * Return all mappings and handler methods. Not thread-safe.
-		 * @see #acquireReadLock()
+		 * 供查找使用的不可变快照，注册信息变化后置为 null，下次查找时重新构建
+		 */
+		@Nullable
+		private volatile MappingSnapshot<T> snapshot;
+
+		/**
+		 * Return an immutable snapshot of all mappings for lookups, building
+		 * it first if the registrations changed since the last snapshot.
+		 * Thread-safe for concurrent use, without locking once built.
+		 * @since 5.2.9
+		 */
+		MappingSnapshot<T> getSnapshot() {
+			MappingSnapshot<T> snapshot = this.snapshot;
+			if (snapshot == null) {
+				this.writeLock.lock();
+				try {
+					snapshot = this.snapshot;
+					if (snapshot == null) {
+						snapshot = new MappingSnapshot<>(this.mappingLookup, this.registry);
+						this.snapshot = snapshot;
+					}
+				}
+				finally {
+					this.writeLock.unlock();
+				}
+			}
+			return snapshot;
+		}
+
+		/**
+		 * Return all mappings and handler methods. Thread-safe for concurrent use.
 		 */
 		public Map<T, HandlerMethod> getMappings() {
-			return this.mappingLookup;
+			return getSnapshot().getMappings();
 		}
 
 		/**
-		 * Return matches for the given URL path. Not thread-safe.
-		 * @see #acquireReadLock()
+		 * Return matches for the given URL path. Thread-safe for concurrent use.
 		 */
 		@Nullable
 		public List<T> getMappingsByUrl(String urlPath) {
-			return this.urlLookup.get(urlPath);
+			return getSnapshot().getMappingsByUrl(urlPath);
+		}
+
+		/**
+		 * Return the mappings that may match the given lookup path, based on
+		 * the leading segments of their path patterns. Thread-safe for concurrent use.
+		 * @since 5.2.9
+		 */
+		public Collection<T> getMappingsByPath(String lookupPath) {
+			return getSnapshot().getMappingsByPath(lookupPath);
 		}
 
 		/**
@@ -651,24 +673,6 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.corsLookup.get(original != null ? original : handlerMethod);
 		}
 
-		/**
-		 * 获得读锁
-		 *
-		 * Acquire the read lock when using getMappings and getMappingsByUrl.
-		 */
-		public void acquireReadLock() {
-			this.readWriteLock.readLock().lock();
-		}
-
-		/**
-		 * 释放读锁
-		 *
-		 * Release the read lock after using getMappings and getMappingsByUrl.
-		 */
-		public void releaseReadLock() {
-			this.readWriteLock.readLock().unlock();
-		}
-
 		public void register(T mapping, Object handler, Method method) {
 			// Assert that the handler method is not a suspending one.
 			if (KotlinDetector.isKotlinType(method.getDeclaringClass())) {
@@ -678,7 +682,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				}
 			}
 			// 获得写锁
-			this.readWriteLock.writeLock().lock();
+			this.writeLock.lock();
 			try {
 				// 创建HandlerMethod对象
 				HandlerMethod handlerMethod = createHandlerMethod(handler, method);
@@ -687,12 +691,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				// 将mapping与handlerMethod的映射关系保存至this.mappingLookup
 				this.mappingLookup.put(mapping, handlerMethod);
 
-				// 获得mapping对应的普通URL数组
+				// 获得mapping对应的普通URL数组，以及路径模式的前缀段
 				List<String> directUrls = getDirectUrls(mapping);
-				// 将url和mapping的映射关系保存至this.urlLookup
-				for (String url : directUrls) {
-					this.urlLookup.add(url, mapping);
-				}
+				Set<List<String>> pathPrefixes = getPathPrefixes(mapping);
 
 				// 初始化nameLookup
 				String name = null;
@@ -711,11 +712,12 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 				// 创建MappingRegistration对象
 				// 并与mapping映射添加到registry注册表中
-				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod, directUrls, name));
+				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod, directUrls, pathPrefixes, name));
 			}
 			finally {
-				// 释放写锁
-				this.readWriteLock.writeLock().unlock();
+				// 快照失效，并释放写锁
+				this.snapshot = null;
+				this.writeLock.unlock();
 			}
 		}
 
@@ -742,6 +744,28 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return urls;
 		}
 
+		private Set<List<String>> getPathPrefixes(T mapping) {
+			Set<String> patterns = getMappingPathPatterns(mapping);
+			if (patterns.isEmpty() || !isPathIndexable(getPathMatcher())) {
+				return Collections.singleton(Collections.emptyList());
+			}
+			Set<List<String>> prefixes = new LinkedHashSet<>(patterns.size());
+			for (String pattern : patterns) {
+				prefixes.add(PathSegmentTrie.getPrefix(pattern));
+			}
+			return prefixes;
+		}
+
+		/**
+		 * Whether the given PathMatcher matches path segments separated by "/"
+		 * exactly like the default {@link AntPathMatcher}, apart from case, so
+		 * that mappings can be indexed by the leading segments of their patterns.
+		 */
+		private boolean isPathIndexable(PathMatcher pathMatcher) {
+			return (pathMatcher instanceof AntPathMatcher && pathMatcher.match("/a/*", "/a/b") &&
+					!pathMatcher.match("/a/*", "/a/b/c") && !pathMatcher.match("/a", "/ a"));
+		}
+
 		private void addMappingName(String name, HandlerMethod handlerMethod) {
 			// 获得 Mapping 的名字，对应的 HandlerMethod 数组
 			List<HandlerMethod> oldList = this.nameLookup.get(name);
@@ -765,7 +789,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		public void unregister(T mapping) {
 			// 获得写锁
-			this.readWriteLock.writeLock().lock();
+			this.writeLock.lock();
 			try {
 				// 从 registry 中移除
 				MappingRegistration<T> definition = this.registry.remove(mapping);
@@ -776,17 +800,6 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				// 从 mappingLookup 中移除
 				this.mappingLookup.remove(definition.getMapping());
 
-				// 从 urlLookup 移除
-				for (String url : definition.getDirectUrls()) {
-					List<T> list = this.urlLookup.get(url);
-					if (list != null) {
-						list.remove(definition.getMapping());
-						if (list.isEmpty()) {
-							this.urlLookup.remove(url);
-						}
-					}
-				}
-
 				// 从 nameLookup 移除
 				removeMappingName(definition);
 
@@ -794,7 +807,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				this.corsLookup.remove(definition.getHandlerMethod());
 			}
 			finally {
-				this.readWriteLock.writeLock().unlock();
+				this.snapshot = null;
+				this.writeLock.unlock();
 			}
 		}
 
@@ -823,6 +837,59 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	}
 
 
+	/**
+	 * Immutable snapshot of the registered mappings, used for lookups without
+	 * locking. A new snapshot is built after mappings are registered or removed.
+	 */
+	private static final class MappingSnapshot<T> {
+
+		/**
+		 * Mapping 与 HandlerMethod 的映射（只读）
+		 */
+		private final Map<T, HandlerMethod> mappings;
+
+		/**
+		 * 直接 URL 与 Mapping 数组的映射
+		 */
+		private final MultiValueMap<String, T> urlLookup = new LinkedMultiValueMap<>();
+
+		/**
+		 * 按路径模式的前缀段组织的前缀树，用于缩小需要匹配的 Mapping 范围
+		 */
+		private final PathSegmentTrie<T> pathLookup = new PathSegmentTrie<>();
+
+		MappingSnapshot(Map<T, HandlerMethod> mappingLookup, Map<T, MappingRegistration<T>> registry) {
+			this.mappings = Collections.unmodifiableMap(new LinkedHashMap<>(mappingLookup));
+			for (T mapping : this.mappings.keySet()) {
+				MappingRegistration<T> registration = registry.get(mapping);
+				if (registration == null) {
+					this.pathLookup.add(Collections.emptyList(), mapping);
+					continue;
+				}
+				for (String url : registration.getDirectUrls()) {
+					this.urlLookup.add(url, mapping);
+				}
+				for (List<String> pathPrefix : registration.getPathPrefixes()) {
+					this.pathLookup.add(pathPrefix, mapping);
+				}
+			}
+		}
+
+		public Map<T, HandlerMethod> getMappings() {
+			return this.mappings;
+		}
+
+		@Nullable
+		public List<T> getMappingsByUrl(String urlPath) {
+			return this.urlLookup.get(urlPath);
+		}
+
+		public Collection<T> getMappingsByPath(String lookupPath) {
+			return this.pathLookup.getCandidates(PathSegmentTrie.getPathSegments(lookupPath));
+		}
+	}
+
+
 	private static class MappingRegistration<T> {
 
 		/**
@@ -840,20 +907,26 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		 */
 		private final List<String> directUrls;
 
+		/**
+		 * 路径模式的前缀段
+		 */
+		private final Set<List<String>> pathPrefixes;
+
 		/**
 		 * #mapping 的名字
 		 */
 		@Nullable
 		private final String mappingName;
 
-		public MappingRegistration(T mapping, HandlerMethod handlerMethod,
-				@Nullable List<String> directUrls, @Nullable String mappingName) {
+		public MappingRegistration(T mapping, HandlerMethod handlerMethod, @Nullable List<String> directUrls,
+				@Nullable Set<List<String>> pathPrefixes, @Nullable String mappingName) {
 
 			Assert.notNull(mapping, "Mapping must not be null");
 			Assert.notNull(handlerMethod, "HandlerMethod must not be null");
 			this.mapping = mapping;
 			this.handlerMethod = handlerMethod;
 			this.directUrls = (directUrls != null ? directUrls : Collections.emptyList());
+			this.pathPrefixes = (pathPrefixes != null ? pathPrefixes : Collections.emptySet());
 			this.mappingName = mappingName;
 		}
 
@@ -869,6 +942,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.directUrls;
 		}
 
+		public Set<List<String>> getPathPrefixes() {
+			return this.pathPrefixes;
+		}
+
 		@Nullable
 		public String getMappingName() {
 			return this.mappingName;
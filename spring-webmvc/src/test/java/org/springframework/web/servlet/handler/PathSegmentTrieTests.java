@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.handler;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PathSegmentTrie}.
+ */
+class PathSegmentTrieTests {
+
+	private final PathSegmentTrie<String> trie = new PathSegmentTrie<>();
+
+
+	@Test
+	void prefix() {
+		assertThat(PathSegmentTrie.getPrefix("/users/{id}/orders/{orderId}"))
+				.containsExactly("users", "*", "orders");
+		assertThat(PathSegmentTrie.getPrefix("/Users//*.json/orders")).containsExactly("users", "*");
+		assertThat(PathSegmentTrie.getPrefix("/users/**/orders/{id}")).containsExactly("users");
+		assertThat(PathSegmentTrie.getPrefix("/users/{*path}")).containsExactly("users");
+		assertThat(PathSegmentTrie.getPrefix("/users/{id:[0-9]{2}}/orders")).containsExactly("users", "*");
+		assertThat(PathSegmentTrie.getPrefix("/users/{id:a/b}/orders")).containsExactly("users");
+		assertThat(PathSegmentTrie.getPrefix("/users")).isEmpty();
+	}
+
+	@Test
+	void candidates() {
+		add("/users/{id}", "user");
+		add("/users/{id}/orders/{orderId}", "order");
+		add("/users/{id}/profile/{section}", "profile");
+		add("/accounts/{id}", "account");
+		add("/**", "fallback");
+
+		assertThat(candidates("/users/42")).containsExactlyInAnyOrder("user", "fallback");
+		assertThat(candidates("/users/42/orders/7")).containsExactlyInAnyOrder("user", "order", "fallback");
+		assertThat(candidates("/USERS//42/Orders/7")).containsExactlyInAnyOrder("user", "order", "fallback");
+		assertThat(candidates("/accounts")).containsExactlyInAnyOrder("account", "fallback");
+		assertThat(candidates("/other")).containsExactly("fallback");
+	}
+
+	@Test
+	void candidatesForMultiplePatterns() {
+		add("/a/{id}", "mapping");
+		add("/a/b/{id}", "mapping");
+		assertThat(candidates("/a/b/c")).containsExactly("mapping");
+	}
+
+
+	private void add(String pattern, String mapping) {
+		this.trie.add(PathSegmentTrie.getPrefix(pattern), mapping);
+	}
+
+	private Collection<String> candidates(String path) {
+		return this.trie.getCandidates(PathSegmentTrie.getPathSegments(path));
+	}
+
+}